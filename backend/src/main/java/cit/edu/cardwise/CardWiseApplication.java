@@ -2,13 +2,20 @@ package cit.edu.cardwise;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class CardWiseApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(CardWiseApplication.class, args);
+		SpringApplication application = new SpringApplication(CardWiseApplication.class);
+		// Record startup steps for StartupTimingReporter
+		application.setApplicationStartup(new BufferingApplicationStartup(8192));
+		application.run(args);
 	}
 
 }
-
@@ -0,0 +1,61 @@
+package cit.edu.cardwise.config;
+
+import cit.edu.cardwise.service.ProgressService;
+import javax.cache.Caching;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The @Cacheable caches, held in Ehcache like the Hibernate second-level cache (see JpaConfig)
+ * but in a cache manager of their own.
+ */
+@Configuration
+public class CacheConfig {
+
+    private record Region(String name, long entries, Duration timeToLive) {}
+
+    /**
+     * Caches and their defaults, each overridable with cardwise.cache.[name].entries and .ttl.
+     * Entries are evicted when what they were computed from changes; the time to live bounds
+     * how long one can outlive a change made through another instance.
+     */
+    private static final List<Region> REGIONS = List.of(
+            new Region(ProgressService.DASHBOARD_CACHE, 10_000, Duration.ofMinutes(10)));
+
+    @Bean
+    public CacheManager cacheManager(javax.cache.CacheManager cacheStore) {
+        return new JCacheCacheManager(cacheStore);
+    }
+
+    // A bean of its own so the context closes it on shutdown
+    @Bean
+    public javax.cache.CacheManager cacheStore(Environment environment) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // Its own URI, apart from the second-level cache's regions
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(URI.create("urn:cardwise:cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(CacheConfig.class.getClassLoader()));
+        for (Region region : REGIONS) {
+            String prefix = "cardwise.cache." + region.name() + ".";
+            long entries = environment.getProperty(prefix + "entries", Long.class, region.entries());
+            Duration timeToLive = environment.getProperty(prefix + "ttl", Duration.class, region.timeToLive());
+            cacheManager.createCache(region.name(), Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries))
+                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))));
+        }
+        return cacheManager;
+    }
+}
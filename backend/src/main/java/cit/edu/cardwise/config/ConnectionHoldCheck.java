@@ -0,0 +1,51 @@
+package cit.edu.cardwise.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Guards the transaction model: with open-in-view disabled and transactions confined to
+ * the service layer, nothing database-related should still be bound to the thread by the
+ * time a response body is serialized. If something is (a transactional controller, a
+ * re-enabled open-in-view, a leaked session), the request is reported, or rejected when
+ * {@code cardwise.jdbc.connection-hold-check=fail}, which is what tests run with.
+ */
+@ControllerAdvice
+public class ConnectionHoldCheck implements ResponseBodyAdvice<Object> {
+
+    @Value("${cardwise.jdbc.connection-hold-check:log}")
+    private String mode;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return !"off".equals(mode);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        boolean held = TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.getResourceMap().values().stream()
+                        .anyMatch(resource -> resource instanceof EntityManagerHolder || resource instanceof ConnectionHolder);
+
+        if (held) {
+            String message = "Database connection still held while serializing the response for "
+                    + request.getMethod() + " " + request.getURI().getPath();
+            if ("fail".equals(mode)) {
+                throw new IllegalStateException(message);
+            }
+            System.out.println("WARNING: " + message);
+        }
+        return body;
+    }
+}
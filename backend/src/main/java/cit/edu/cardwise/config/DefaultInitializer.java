@@ -3,17 +3,30 @@ package cit.edu.cardwise.config;
 import cit.edu.cardwise.entity.AdminEntity;
 import cit.edu.cardwise.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executor;
+
 @Component
-public class DefaultInitializer implements CommandLineRunner {
+public class DefaultInitializer {
 
     @Autowired
     private AdminService adminService;
 
-    @Override
-    public void run(String... args) {
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    // Off the startup path: the lookup waits for JPA and creating the admin hashes a password
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.execute(this::createDefaultAdmin);
+    }
+
+    private void createDefaultAdmin() {
         String defaultEmail = "admin@cardwise.com";
 
         // Check if admin already exists
@@ -1,26 +1,137 @@
 package cit.edu.cardwise.config;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 import javax.sql.DataSource;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class JpaConfig {
 
+    private record Region(String name, long entries, Duration timeToLive) {}
+
+    /**
+     * Second-level cache regions and their defaults, each overridable with
+     * cardwise.second-level-cache.[name].entries and .ttl. The cache is local to each
+     * instance, so the time to live bounds how long another instance's write can go unseen.
+     * Only quizzes are cached: their ETag is their @Version, so a stale entry is never sent
+     * under a newer ETag. Decks (ETags from version counters in another table) and users and
+     * admins (checked on every authenticated request) are always read from the database.
+     */
+    private static final List<Region> REGIONS = List.of(
+            new Region("quizzes", 10_000, Duration.ofMinutes(5)),
+            new Region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 10_000, Duration.ofMinutes(1)));
+
+    // One entry per table. An evicted entry reads as "never written", so this region is
+    // sized to never evict and entries never expire
+    private static final long UPDATE_TIMESTAMPS_ENTRIES = 1_000;
+
+    /**
+     * The entity classes, found by a classpath scan. As a bean, an AOT build
+     * (the fast-startup Maven profile) replaces the scan with the precomputed list.
+     */
+    @Bean
+    public PersistenceManagedTypes persistenceManagedTypes(ResourceLoader resourceLoader) {
+        return new PersistenceManagedTypesScanner(resourceLoader).scan("cit.edu.cardwise.entity");
+    }
+
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(EntityManagerFactoryBuilder builder, DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(EntityManagerFactoryBuilder builder, DataSource dataSource,
+                                                                       PersistenceManagedTypes persistenceManagedTypes,
+                                                                       Environment environment) {
         LocalContainerEntityManagerFactoryBean factory = builder
                 .dataSource(dataSource)
-                .packages("cit.edu.cardwise.entity")
+                .managedTypes(persistenceManagedTypes)
                 .build();
 
         // Ensure the proxy implements the standard Jakarta EntityManagerFactory
         factory.setEntityManagerFactoryInterface(EntityManagerFactory.class);
 
+        if (environment.getProperty("cardwise.second-level-cache.enabled", Boolean.class, true)) {
+            Map<String, Object> properties = factory.getJpaPropertyMap();
+            boolean replica = environment.containsProperty("cardwise.datasource.replica.url");
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            // A query cache miss stores its result even under CacheMode.GET, so with a replica
+            // there would be no keeping lagging results out of it
+            properties.put(AvailableSettings.USE_QUERY_CACHE, !replica);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            // Hibernate closes the manager when the factory shuts down
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager(environment));
+            // A region missing from REGIONS is a mistake, not something to create unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Feeds the hit ratios on /admin/stats/second-level-cache
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            if (replica) {
+                factory.setJpaDialect(new PrimaryFilledCacheDialect());
+            }
+        }
         return factory;
     }
 
+    /**
+     * Read-only transactions may be served by the replica (see ReadWriteRoutingDataSource).
+     * They still read the entity cache but never put into it, so a row that has not
+     * replicated yet cannot be cached for a whole time to live.
+     */
+    private static class PrimaryFilledCacheDialect extends HibernateJpaDialect {
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws PersistenceException, SQLException, TransactionException {
+            Object transactionData = super.beginTransaction(entityManager, definition);
+            if (definition.isReadOnly()) {
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+            return transactionData;
+        }
+    }
+
+    private static CacheManager secondLevelCacheManager(Environment environment) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // Its own URI, so a second application context in the JVM never shares regions with this one
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:cardwise:second-level-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(JpaConfig.class.getClassLoader()));
+        for (Region region : REGIONS) {
+            String prefix = "cardwise.second-level-cache." + region.name() + ".";
+            long entries = environment.getProperty(prefix + "entries", Long.class, region.entries());
+            Duration timeToLive = environment.getProperty(prefix + "ttl", Duration.class, region.timeToLive());
+            cacheManager.createCache(region.name(), Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries))
+                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(UPDATE_TIMESTAMPS_ENTRIES))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration())));
+        return cacheManager;
+    }
 }
@@ -0,0 +1,192 @@
+package cit.edu.cardwise.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Schema side of the time-partitioned progress and reviews tables. Hibernate creates them
+ * as plain tables. On MySQL, db/partition-progress-reviews.sql converts them to RANGE
+ * COLUMNS partitions, one per month of created_at; it rebuilds both tables, so it is run
+ * by hand in a maintenance window, never by the application. Once it has run and
+ * cardwise.partitioning.enabled is set, this keeps a few empty months ahead of the clock,
+ * and an expired month is removed with DROP PARTITION, which costs the same however many
+ * rows it holds and leaves the other months' indexes untouched. Otherwise old rows are
+ * deleted in batches instead.
+ */
+@Component
+public class PartitionManager {
+
+    private static final List<String> TABLES = List.of("progress", "reviews");
+    private static final String OVERFLOW_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String LOCK_NAME = "cardwise_partition_maintenance";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    @Value("${cardwise.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cardwise.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    private volatile Boolean supported;
+
+    public PartitionManager(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Off the startup path: it waits for other instances holding the maintenance lock
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.execute(this::maintain);
+    }
+
+    /**
+     * Whether expired months are dropped as partitions: switched on, on MySQL, and every
+     * table already converted. Checked on each call, since the conversion may run while
+     * the application is up.
+     */
+    public boolean isActive() {
+        if (!enabled || !isMySql()) {
+            return false;
+        }
+        for (String table : TABLES) {
+            if (partitionMonths(table).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the months up to monthsAhead from now to every partitioned table.
+     */
+    public void maintain() {
+        if (!enabled || !isMySql()) {
+            return;
+        }
+        try {
+            withLock(() -> {
+                YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+                for (String table : TABLES) {
+                    List<YearMonth> months = partitionMonths(table);
+                    if (months.isEmpty()) {
+                        System.out.println("Table " + table + " is not partitioned yet; run db/partition-progress-reviews.sql. "
+                                + "Until then its expired rows are deleted in batches");
+                    } else if (months.get(months.size() - 1).isBefore(last)) {
+                        addMonths(table, months.get(months.size() - 1).plusMonths(1), last);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            System.out.println("Partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private boolean isMySql() {
+        if (supported == null) {
+            supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return supported;
+    }
+
+    /**
+     * Drop every monthly partition of a table before the cutoff month. Their rows must have
+     * been summarised first.
+     *
+     * @return the months dropped
+     */
+    public List<YearMonth> dropMonthsBefore(String table, YearMonth cutoff) {
+        return withLock(() -> {
+            List<String> names = new ArrayList<>();
+            List<YearMonth> dropped = new ArrayList<>();
+            for (YearMonth month : partitionMonths(table)) {
+                if (month.isBefore(cutoff)) {
+                    names.add(month.format(PARTITION_NAME));
+                    dropped.add(month);
+                }
+            }
+            if (!names.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + String.join(", ", names));
+                System.out.println("Dropped partitions " + names + " of " + table);
+            }
+            return dropped;
+        });
+    }
+
+    private List<YearMonth> partitionMonths(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (!OVERFLOW_PARTITION.equals(name)) {
+                months.add(YearMonth.parse(name, PARTITION_NAME));
+            }
+        }
+        return months;
+    }
+
+    private void addMonths(String table, YearMonth first, YearMonth last) {
+        // pmax is empty unless the clock passed the last month, so this moves no rows
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + OVERFLOW_PARTITION + " INTO ("
+                + definitions(first, last) + ", PARTITION " + OVERFLOW_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    private static String definitions(YearMonth first, YearMonth last) {
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + month.format(PARTITION_NAME)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        return String.join(", ", definitions);
+    }
+
+    /**
+     * Run schema changes under a MySQL named lock, so two instances never alter the same
+     * table at once. The lock belongs to the connection, which is held until the work ends.
+     */
+    private <T> T withLock(Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, 600)")) {
+                lock.setString(1, LOCK_NAME);
+                try (ResultSet result = lock.executeQuery()) {
+                    if (!result.next() || result.getInt(1) != 1) {
+                        throw new IllegalStateException("Timed out waiting for the partition maintenance lock");
+                    }
+                }
+            }
+            try {
+                return work.get();
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    unlock.setString(1, LOCK_NAME);
+                    unlock.execute();
+                }
+            }
+        });
+    }
+}
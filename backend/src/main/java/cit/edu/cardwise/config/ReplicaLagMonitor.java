@@ -0,0 +1,82 @@
+package cit.edu.cardwise.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Measures replication lag with a heartbeat row: the primary's row is stamped with the
+ * current time and read back from the replica. Reads fall back to the primary when the
+ * replica is unreachable, has not seen a heartbeat yet, or is further behind than
+ * {@code cardwise.datasource.replica.max-lag-ms}.
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile boolean suspended;
+    private volatile long lastLagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable && !suspended;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * Route all reads to the primary until {@link #resume()} is called, e.g. while a
+     * replica is being re-seeded.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    public void resume() {
+        suspended = false;
+    }
+
+    @Scheduled(fixedDelayString = "${cardwise.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            long now = System.currentTimeMillis();
+            // The table comes from ReplicationHeartbeatEntity with the rest of the schema
+            primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?) " +
+                    "ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)", now);
+
+            List<Long> seen = replica.queryForList("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+            if (seen.isEmpty()) {
+                lastLagMillis = -1;
+                usable = false;
+            } else {
+                // With no lag the replica already returns the stamp just written; otherwise the
+                // age of the newest stamp it has applied is the lag, to within one check interval
+                lastLagMillis = Math.max(0, System.currentTimeMillis() - seen.get(0));
+                usable = lastLagMillis <= maxLagMillis;
+            }
+        } catch (Exception e) {
+            lastLagMillis = -1;
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            System.out.println(usable
+                    ? "Read replica is within lag budget; routing read-only transactions to it"
+                    : "Read replica unavailable or lagging (" + lastLagMillis + " ms); routing reads to primary");
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,122 @@
+package cit.edu.cardwise.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Poor man's replication for the {@code replica-local} profile, where primary and replica
+ * are two independent embedded H2 databases. The primary is periodically dumped with H2's
+ * {@code SCRIPT} command and copied into the replica, which gives the replica real,
+ * bounded lag and lets the routing and lag fallback be exercised without MySQL.
+ * <p>
+ * While the schema is unchanged only the rows are replaced, in one replica transaction,
+ * so reads running on the replica keep seeing the previous copy until it commits. A
+ * schema change rebuilds the replica, after routing reads away and letting the ones
+ * already running finish.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.datasource.replica.stand-in-sync-interval-ms")
+public class ReplicaStandInSync {
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE (?:CACHED |MEMORY )?TABLE (\\S+?)\\(");
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final DataSource replicaDataSource;
+    private final TransactionTemplate replicaTransaction;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    // Schema statements last replayed into the replica; null until the first rebuild
+    private List<String> appliedSchema;
+
+    public ReplicaStandInSync(@Qualifier("primaryDataSource") DataSource primary,
+                              @Qualifier("replicaDataSource") DataSource replica) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replicaDataSource = replica;
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(replica));
+    }
+
+    @Scheduled(fixedDelayString = "${cardwise.datasource.replica.stand-in-sync-interval-ms}")
+    public synchronized void sync() {
+        List<String> script = primary.queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class);
+        List<String> schema = new ArrayList<>();
+        List<String> tables = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        for (String statement : script) {
+            if (statement.startsWith("INSERT INTO")) {
+                rows.add(statement);
+            } else if (!statement.startsWith("--") && !statement.startsWith("CREATE USER")) {
+                schema.add(statement);
+                Matcher table = CREATE_TABLE.matcher(statement);
+                if (table.lookingAt()) {
+                    tables.add(table.group(1));
+                }
+            }
+        }
+
+        if (schema.equals(appliedSchema)) {
+            try {
+                replicaTransaction.executeWithoutResult(status -> {
+                    tables.forEach(table -> replica.execute("DELETE FROM " + table));
+                    rows.forEach(replica::execute);
+                });
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Replica row copy failed, rebuilding it: " + e.getMessage());
+            }
+        }
+        rebuild(schema, rows);
+    }
+
+    private void rebuild(List<String> schema, List<String> rows) {
+        appliedSchema = null;
+        replicaLagMonitor.suspend();
+        try {
+            awaitIdleReplica();
+            replica.execute("DROP ALL OBJECTS");
+            schema.forEach(replica::execute);
+            rows.forEach(replica::execute);
+            appliedSchema = schema;
+        } finally {
+            replicaLagMonitor.resume();
+        }
+    }
+
+    // suspend() only reroutes new transactions; wait for those already on the replica
+    private void awaitIdleReplica() {
+        HikariDataSource pool;
+        try {
+            pool = replicaDataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (pool.getHikariPoolMXBean() != null && pool.getHikariPoolMXBean().getActiveConnections() > 0
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
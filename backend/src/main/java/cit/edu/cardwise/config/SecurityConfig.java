@@ -1,12 +1,16 @@
 package cit.edu.cardwise.config;
 
 import cit.edu.cardwise.security.JwtAuthenticationFilter;
+import cit.edu.cardwise.security.RateLimitFilter;
 import cit.edu.cardwise.service.UserService;
 import cit.edu.cardwise.service.AdminService;
 import cit.edu.cardwise.entity.UserEntity;
 import cit.edu.cardwise.entity.AdminEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.util.Optional;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -35,12 +39,15 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
-            JwtAuthenticationFilter jwtAuthFilter) throws Exception {
+            JwtAuthenticationFilter jwtAuthFilter,
+            RateLimitFilter rateLimitFilter) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async and error dispatches re-enter the chain after the original request was authorised
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/").permitAll()
                         .requestMatchers("/error").permitAll()
@@ -53,6 +60,8 @@ public class SecurityConfig {
                                 "/oauth/**"
                         ).permitAll()
                         .requestMatchers("/achievements/**").permitAll()
+                        // Loaded by <img> tags, which send no token
+                        .requestMatchers(HttpMethod.GET, "/avatars/**", "/attachments/**").permitAll()
                         .requestMatchers("/user/**").authenticated()
                         .requestMatchers("/decks/**").authenticated()
                         .requestMatchers("/flashcards/**").authenticated()
@@ -60,10 +69,13 @@ public class SecurityConfig {
                         .requestMatchers("/quiz/**").authenticated()
                         .requestMatchers("/review/**").authenticated()
                         .requestMatchers("/admin/**").authenticated()
+                        .requestMatchers("/sync/**").authenticated()
+                        .requestMatchers("/events/**").authenticated()
                         .anyRequest().denyAll()
 
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -75,13 +87,26 @@ public class SecurityConfig {
         return new JwtAuthenticationFilter(userDetailsService);
     }
 
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+
+    // The limiter needs the authenticated user, so it only runs inside the security chain
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("http://localhost:3000", "https://quizwhiz-five.vercel.app"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "If-None-Match", "If-Match"));
+        configuration.setExposedHeaders(List.of("Authorization", "ETag", "Retry-After"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,67 @@
+package cit.edu.cardwise.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints where startup time went, from the steps recorded by the
+ * {@link BufferingApplicationStartup} that {@code CardWiseApplication} installs: the total
+ * per step type (context refresh, repository scanning, bean instantiation, ...) and the
+ * slowest individual beans. Compare the report across builds to measure startup work.
+ */
+@Component
+public class StartupTimingReporter {
+
+    @Value("${cardwise.startup.report-slowest-beans:10}")
+    private int slowestBeans;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        // Drained so the buffered events do not stay in memory for the life of the instance
+        List<StartupTimeline.TimelineEvent> events = buffering.drainBufferedTimeline().getEvents();
+
+        Map<String, Duration> totals = new TreeMap<>();
+        for (StartupTimeline.TimelineEvent step : events) {
+            totals.merge(step.getStartupStep().getName(), step.getDuration(), Duration::plus);
+        }
+        StringBuilder report = new StringBuilder("Startup timings (ready after ")
+                .append(event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis() + " ms")
+                .append(", ").append(events.size()).append(" steps recorded)\n");
+        totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .forEach(total -> report.append(String.format("  %6d ms  %s%n", total.getValue().toMillis(), total.getKey())));
+
+        report.append("Slowest beans:\n");
+        events.stream()
+                .filter(step -> "spring.beans.instantiate".equals(step.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestBeans)
+                .forEach(step -> report.append(String.format("  %6d ms  %s%n", step.getDuration().toMillis(), beanName(step))));
+        System.out.print(report);
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent step) {
+        for (StartupStep.Tag tag : step.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,34 @@
+package cit.edu.cardwise.config;
+
+import cit.edu.cardwise.room.QuizRoomSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private QuizRoomSocketHandler quizRoomSocketHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Same origins as the REST API's CORS mapping in WebConfig
+        registry.addHandler(quizRoomSocketHandler, "/quiz/rooms/*/socket")
+                .setAllowedOrigins("http://localhost:3000", "https://cardwise-five.vercel.app");
+    }
+
+    // Clients only send small answer and command messages
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(4096);
+        container.setMaxBinaryMessageBufferSize(1024);
+        return container;
+    }
+}
@@ -1,12 +1,17 @@
 package cit.edu.cardwise.controller;
 
-import cit.edu.cardwise.entity.AchievementEntity;
+import cit.edu.cardwise.dto.UnlockedAchievement;
 import cit.edu.cardwise.service.AchievementService;
+import cit.edu.cardwise.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @RestController
@@ -16,18 +21,32 @@ public class AchievementController {
     @Autowired
     private AchievementService achievementService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    // Returned as a future so the request thread is released while the achievements load;
+    // clients that keep /events/stream open no longer need to poll this at all
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<AchievementEntity>> getAchievementsByUserId(@PathVariable String userId)
-            throws ExecutionException, InterruptedException {
-        return ResponseEntity.ok(achievementService.getAchievementsByUserIdAsync(userId).get());
+    public CompletableFuture<ResponseEntity<List<UnlockedAchievement>>> getAchievementsByUserId(@PathVariable String userId, WebRequest request) {
+        String etag = resourceVersionService.etag(ResourceVersionService.userKey(userId));
+        if (request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        }
+        return achievementService.getVersionedAchievementsAsync(userId)
+                .thenApply(achievements -> ResponseEntity.ok()
+                        .eTag(achievements.getEtag())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(achievements.getBody()));
     }
 
 
     @PostMapping("/unlock")
-    public ResponseEntity<Void> unlockAchievement(@RequestParam String userId, @RequestParam String title, @RequestParam String description) {
+    public ResponseEntity<Void> unlockAchievement(@RequestParam String userId, @RequestParam String title) {
         try {
-            achievementService.unlockAchievement(userId, title, description);
+            achievementService.unlockAchievement(userId, title);
             return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
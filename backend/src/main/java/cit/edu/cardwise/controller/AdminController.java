@@ -1,10 +1,15 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.SecondLevelCacheStats;
+import cit.edu.cardwise.dto.SingleFlightStats;
 import cit.edu.cardwise.entity.AdminEntity;
 import cit.edu.cardwise.entity.UserEntity;
 import cit.edu.cardwise.security.JwtUtil;
 import cit.edu.cardwise.service.AdminService;
+import cit.edu.cardwise.service.SecondLevelCacheStatistics;
+import cit.edu.cardwise.service.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +23,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
+// Rarely used: created on its first request instead of during startup
+@Lazy
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
@@ -31,6 +38,12 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private SecondLevelCacheStatistics secondLevelCacheStatistics;
+
     @PostMapping("/create")
     public ResponseEntity<AdminEntity> createAdmin(@RequestBody AdminEntity admin) {
         try {
@@ -93,4 +106,14 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stats/single-flight")
+    public ResponseEntity<List<SingleFlightStats>> getSingleFlightStats() {
+        return ResponseEntity.ok(singleFlight.getStats());
+    }
+
+    @GetMapping("/stats/second-level-cache")
+    public ResponseEntity<List<SecondLevelCacheStats>> getSecondLevelCacheStats() {
+        return ResponseEntity.ok(secondLevelCacheStatistics.getStats());
+    }
+}
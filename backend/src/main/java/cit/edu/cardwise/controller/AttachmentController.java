@@ -0,0 +1,87 @@
+package cit.edu.cardwise.controller;
+
+import cit.edu.cardwise.entity.FlashcardAttachmentEntity;
+import cit.edu.cardwise.service.AttachmentService;
+import cit.edu.cardwise.service.AttachmentTypes;
+import cit.edu.cardwise.storage.Blob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+public class AttachmentController {
+
+    // An attachment id always names the same bytes
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    /**
+     * Attach a raster image or audio file to a flashcard. The request body is the file itself,
+     * sent with its own Content-Type, and is streamed to storage as it arrives.
+     */
+    @PostMapping("/flashcards/{flashcardId}/attachments")
+    public ResponseEntity<FlashcardAttachmentEntity> addAttachment(@PathVariable String flashcardId,
+                                                                   @RequestParam(required = false) String fileName,
+                                                                   @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   HttpServletRequest request) {
+        try {
+            return attachmentService.attach(flashcardId, fileName, contentType, request.getInputStream())
+                    .map(attachment -> ResponseEntity.status(HttpStatus.CREATED).body(attachment))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/flashcards/{flashcardId}/attachments")
+    public ResponseEntity<List<FlashcardAttachmentEntity>> getAttachments(@PathVariable String flashcardId) {
+        try {
+            return ResponseEntity.ok(attachmentService.getAttachments(flashcardId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/flashcards/attachments/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable String attachmentId) {
+        try {
+            return attachmentService.deleteAttachment(attachmentId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Public like avatars, since <img> and <audio> send no token; the random id is the capability
+    @GetMapping("/attachments/{attachmentId}")
+    public void getContent(@PathVariable String attachmentId, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        Optional<FlashcardAttachmentEntity> attachment = attachmentService.getAttachment(attachmentId);
+        Optional<Blob> blob = attachment.isPresent() ? attachmentService.openContent(attachment.get()) : Optional.empty();
+        if (blob.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Never rendered as anything but its stored type. Types outside the allowlist, from
+        // uploads made before it, are only ever downloaded
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (!AttachmentTypes.isAllowed(attachment.get().getContentType())) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        }
+        BlobResponses.write(request, response, blob.get(), attachment.get().getContentType(),
+                "\"" + attachment.get().getBlobKey() + "\"", IMMUTABLE);
+    }
+}
@@ -0,0 +1,48 @@
+package cit.edu.cardwise.controller;
+
+import cit.edu.cardwise.service.AvatarService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serves avatar thumbnails. A thumbnail's URL names the hash of its original, so the bytes
+ * behind it never change and browsers may keep it for a year without revalidating.
+ */
+@RestController
+@RequestMapping("/avatars")
+public class AvatarController {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Value("${cardwise.avatars.generation-wait-ms:2000}")
+    private long generationWaitMillis;
+
+    @GetMapping("/{hash}/{size}")
+    public void getThumbnail(@PathVariable String hash, @PathVariable int size,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!avatarService.isValidRequest(hash, size)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Optional<AvatarService.Thumbnail> found = avatarService.getThumbnail(hash, size, generationWaitMillis);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        AvatarService.Thumbnail thumbnail = found.get();
+        BlobResponses.write(request, response, thumbnail.blob(), thumbnail.contentType(),
+                "\"" + hash + "-" + size + "\"", IMMUTABLE);
+    }
+}
@@ -1,13 +1,21 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.ColumnarList;
+import cit.edu.cardwise.dto.Versioned;
 import cit.edu.cardwise.entity.DeckEntity;
 import cit.edu.cardwise.entity.FlashcardEntity;
 import cit.edu.cardwise.service.DeckService;
 import cit.edu.cardwise.service.FlashcardService;
+import cit.edu.cardwise.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +33,9 @@ public class DeckController {
     @Autowired
     private FlashcardService flashcardService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @PostMapping
     public ResponseEntity<DeckEntity> createDeck(@RequestBody DeckEntity deck) {
         try {
@@ -34,30 +45,76 @@ public class DeckController {
         }
     }
 
+    /**
+     * List every deck, or with userId just that user's decks. The per-user list is
+     * revalidated against that user's counter alone.
+     */
     @GetMapping
-    public ResponseEntity<List<DeckEntity>> getAllDecks() {
+    public ResponseEntity<Object> getAllDecks(@RequestParam(required = false) String userId,
+                                              @RequestParam(required = false) String view, WebRequest request) {
         try {
-            return ResponseEntity.ok(deckService.getAllDecks());
+            String etag = ColumnarList.etag(deckService.getDecksEtag(userId), view);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            Versioned<List<DeckEntity>> decks = deckService.getDecks(userId);
+            return ResponseEntity.ok()
+                    .eTag(ColumnarList.etag(decks.getEtag(), view))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(ColumnarList.render(decks.getBody(), DeckEntity.class, view));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DeckEntity> getDeckById(@PathVariable String id) {
+    public ResponseEntity<DeckEntity> getDeckById(@PathVariable String id, WebRequest request) {
         try {
             Optional<DeckEntity> deck = deckService.getDeckById(id);
-            return deck.map(ResponseEntity::ok)
-                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+            if (deck.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            String etag = ResourceVersionService.versionTag(deck.get().getVersion());
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(deck.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<DeckEntity> updateDeck(@PathVariable String id, @RequestBody DeckEntity deckDetails) {
+    public ResponseEntity<DeckEntity> updateDeck(@PathVariable String id, @RequestBody DeckEntity deckDetails,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(deckService.updateDeck(id, deckDetails));
+            DeckEntity saved = deckService.updateDeck(id, deckDetails, ResourceVersionService.parseVersionTag(ifMatch));
+            return ResponseEntity.ok().eTag(ResourceVersionService.versionTag(saved.getVersion())).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchDeck(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Long expectedVersion = ResourceVersionService.parseVersionTag(ifMatch);
+            if (!deckService.patchDeck(id, patch, expectedVersion)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return expectedVersion == null
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.noContent().eTag(ResourceVersionService.versionTag(expectedVersion + 1)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -73,11 +130,91 @@ public class DeckController {
         }
     }
 
+    /**
+     * Subscribe a user to a deck without copying its cards.
+     */
+    @PostMapping("/{id}/subscribe")
+    public ResponseEntity<DeckEntity> subscribeToDeck(@PathVariable String id, @RequestParam String userId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(deckService.subscribeToDeck(id, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Show the source deck's edits made since the subscription was created or last refreshed.
+     */
+    @PostMapping("/{id}/refresh")
+    public ResponseEntity<DeckEntity> refreshSubscription(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(deckService.refreshSubscription(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/{id}/fork")
+    public ResponseEntity<DeckEntity> forkDeck(@PathVariable String id, @RequestParam String userId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(deckService.forkDeck(id, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Edit a card as shown in this deck; on a subscription, source cards are copied on write.
+     */
+    @PutMapping("/{id}/flashcards/{flashcardId}")
+    public ResponseEntity<FlashcardEntity> updateFlashcardInDeck(@PathVariable String id, @PathVariable String flashcardId,
+                                                                 @RequestBody FlashcardEntity flashcardDetails) {
+        try {
+            return flashcardService.updateFlashcardInDeck(id, flashcardId, flashcardDetails)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/{id}/flashcards/{flashcardId}")
+    public ResponseEntity<Void> removeFlashcardFromDeck(@PathVariable String id, @PathVariable String flashcardId) {
+        try {
+            if (!flashcardService.removeFlashcardFromDeck(id, flashcardId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{id}/flashcards")
-    public ResponseEntity<List<FlashcardEntity>> getFlashcardsForDeck(@PathVariable String id) {
+    public ResponseEntity<Object> getFlashcardsForDeck(@PathVariable String id, @RequestParam(required = false) String view,
+                                                       WebRequest request) {
         try {
-            List<FlashcardEntity> flashcards = flashcardService.getFlashcardsByDeckId(id);
-            return ResponseEntity.ok(flashcards);
+            String version = flashcardService.getFlashcardsEtag(id);
+            String etag = ColumnarList.etag(version, view);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            Versioned<List<FlashcardEntity>> flashcards = flashcardService.getFlashcardsByDeckId(id, version);
+            return ResponseEntity.ok()
+                    .eTag(ColumnarList.etag(flashcards.getEtag(), view))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(ColumnarList.render(flashcards.getBody(), FlashcardEntity.class, view));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
@@ -0,0 +1,64 @@
+package cit.edu.cardwise.controller;
+
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.security.JwtUtil;
+import cit.edu.cardwise.service.EventStreamService;
+import cit.edu.cardwise.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/events")
+public class EventController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Get a ticket for opening an event stream or a quiz room socket, valid for a minute.
+     * Pass it as the ticket query parameter of /events/stream or /quiz/rooms/{code}/socket,
+     * whose URLs end up in access logs; the JWT itself is never put in a URL.
+     */
+    @PostMapping("/ticket")
+    public ResponseEntity<Map<String, Object>> ticket(@AuthenticationPrincipal UserDetails principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of("ticket", jwtUtil.generateStreamTicket(principal.getUsername()),
+                        "expiresIn", jwtUtil.getTicketExpirationSeconds()));
+    }
+
+    /**
+     * Open a Server-Sent Events stream of achievement unlocks and progress updates for the
+     * logged-in user. Browsers' EventSource cannot set headers, so a ticket from
+     * POST /events/ticket may be passed as a ticket query parameter instead.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserDetails principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        String userId = userService.findByEmail(principal.getUsername())
+                .map(UserEntity::getUserId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN, "Only users can subscribe to events"));
+        return eventStreamService.subscribe(userId);
+    }
+}
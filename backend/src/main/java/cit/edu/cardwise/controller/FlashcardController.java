@@ -1,13 +1,25 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.ColumnarList;
+import cit.edu.cardwise.dto.Versioned;
+import cit.edu.cardwise.dto.DuplicateGroup;
+import cit.edu.cardwise.dto.FlashcardImportResult;
 import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.service.DuplicateDetectionService;
 import cit.edu.cardwise.service.FlashcardService;
+import cit.edu.cardwise.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
@@ -18,6 +30,9 @@ public class FlashcardController {
     @Autowired
     private FlashcardService flashcardService;
 
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
     @PostMapping
     public ResponseEntity<FlashcardEntity> createFlashcard(@RequestBody FlashcardEntity flashcard) {
         try {
@@ -27,30 +42,92 @@ public class FlashcardController {
         }
     }
 
+    /**
+     * Add a batch of flashcards to a deck. Near-duplicates of the owner's existing cards,
+     * or of each other, are skipped unless dedupe=false.
+     */
+    @PostMapping("/import/{deckId}")
+    public ResponseEntity<FlashcardImportResult> importFlashcards(@PathVariable String deckId, @RequestBody List<FlashcardEntity> flashcards,
+                                                                  @RequestParam(defaultValue = "true") boolean dedupe) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(flashcardService.importFlashcards(deckId, flashcards, dedupe));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/duplicates/user/{userId}")
+    public ResponseEntity<List<DuplicateGroup>> getDuplicateReport(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(duplicateDetectionService.getDuplicateReport(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<FlashcardEntity>> getAllFlashcards() {
+    public ResponseEntity<Object> getAllFlashcards(@RequestParam(required = false) String view) {
         try {
-            return ResponseEntity.ok(flashcardService.getAllFlashcards());
+            return ResponseEntity.ok(ColumnarList.render(flashcardService.getAllFlashcards(), FlashcardEntity.class, view));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<FlashcardEntity> getFlashcardById(@PathVariable String id) {
+    public ResponseEntity<FlashcardEntity> getFlashcardById(@PathVariable String id, WebRequest request) {
         try {
             Optional<FlashcardEntity> flashcard = flashcardService.getFlashcardById(id);
-            return flashcard.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+            if (flashcard.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            String etag = ResourceVersionService.versionTag(flashcard.get().getVersion());
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(flashcard.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<FlashcardEntity> updateFlashcard(@PathVariable String id, @RequestBody FlashcardEntity flashcardDetails) {
+    public ResponseEntity<FlashcardEntity> updateFlashcard(@PathVariable String id, @RequestBody FlashcardEntity flashcardDetails,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            FlashcardEntity saved = flashcardService.updateFlashcard(id, flashcardDetails, ResourceVersionService.parseVersionTag(ifMatch));
+            return ResponseEntity.ok().eTag(ResourceVersionService.versionTag(saved.getVersion())).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Change only the fields present in a JSON Merge Patch body, e.g. {"learned": true}.
+     * Send the ETag from a previous GET as If-Match to reject the patch if the card was
+     * modified in the meantime.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchFlashcard(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(flashcardService.updateFlashcard(id, flashcardDetails));
+            Long expectedVersion = ResourceVersionService.parseVersionTag(ifMatch);
+            if (!flashcardService.patchFlashcard(id, patch, expectedVersion)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return expectedVersion == null
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.noContent().eTag(ResourceVersionService.versionTag(expectedVersion + 1)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -66,11 +143,25 @@ public class FlashcardController {
         }
     }
 
+    /**
+     * The cards of a deck, as JSON, CBOR or Smile depending on the Accept header, and
+     * column by column with view=columnar.
+     */
     @GetMapping("/getByDeckId/{deckId}")
-    public ResponseEntity<List<FlashcardEntity>> getFlashcardsByDeckId(@PathVariable String deckId) {
+    public ResponseEntity<Object> getFlashcardsByDeckId(@PathVariable String deckId,
+                                                        @RequestParam(required = false) String view, WebRequest request) {
         try {
-            List<FlashcardEntity> flashcards = flashcardService.getFlashcardsByDeckId(deckId);
-            return ResponseEntity.ok(flashcards);
+            String version = flashcardService.getFlashcardsEtag(deckId);
+            String etag = ColumnarList.etag(version, view);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            Versioned<List<FlashcardEntity>> flashcards = flashcardService.getFlashcardsByDeckId(deckId, version);
+            return ResponseEntity.ok()
+                    .eTag(ColumnarList.etag(flashcards.getEtag(), view))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(ColumnarList.render(flashcards.getBody(), FlashcardEntity.class, view));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
@@ -1,7 +1,12 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.ColumnarList;
+import cit.edu.cardwise.dto.ProgressDashboard;
+import cit.edu.cardwise.dto.StudyStreak;
 import cit.edu.cardwise.entity.ProgressEntity;
+import cit.edu.cardwise.entity.ProgressSummaryEntity;
 import cit.edu.cardwise.service.ProgressService;
+import cit.edu.cardwise.service.StreakService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +20,12 @@ import java.util.concurrent.ExecutionException;
 public class ProgressController {
 
     private final ProgressService progressService;
+    private final StreakService streakService;
 
     @Autowired
-    public ProgressController(ProgressService progressService) {
+    public ProgressController(ProgressService progressService, StreakService streakService) {
         this.progressService = progressService;
+        this.streakService = streakService;
     }
 
     @PostMapping("/add")
@@ -79,11 +86,38 @@ public class ProgressController {
         }
     }
 
+    @GetMapping("/monthly/{userId}")
+    public ResponseEntity<List<ProgressSummaryEntity>> getMonthlySummaries(@PathVariable String userId) {
+        try {
+            return new ResponseEntity<>(progressService.getMonthlySummaries(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/dashboard/{userId}")
+    public ResponseEntity<ProgressDashboard> getDashboard(@PathVariable String userId) {
+        try {
+            return new ResponseEntity<>(progressService.getDashboard(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/streak/{userId}")
+    public ResponseEntity<StudyStreak> getStreak(@PathVariable String userId) {
+        try {
+            return new ResponseEntity<>(streakService.getStreak(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @GetMapping("/getByUserId/{userId}")
-    public ResponseEntity<List<ProgressEntity>> getProgressByUserId(@PathVariable String userId) {
+    public ResponseEntity<Object> getProgressByUserId(@PathVariable String userId, @RequestParam(required = false) String view) {
         try {
             List<ProgressEntity> progressList = progressService.getProgressByUserId(userId);
-            return new ResponseEntity<>(progressList, HttpStatus.OK);
+            return new ResponseEntity<>(ColumnarList.render(progressList, ProgressEntity.class, view), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
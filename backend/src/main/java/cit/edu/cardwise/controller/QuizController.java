@@ -1,19 +1,30 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.ColumnarList;
+import cit.edu.cardwise.dto.QuizQuestion;
 import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.QuizAttemptEntity;
 import cit.edu.cardwise.entity.QuizEntity;
+import cit.edu.cardwise.entity.QuizStatsEntity;
+import cit.edu.cardwise.entity.UserQuizStatsEntity;
 import cit.edu.cardwise.service.QuizService;
+import cit.edu.cardwise.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/quiz")
-@CrossOrigin(origins = "*")
 public class QuizController {
 
     private final QuizService quizService;
@@ -34,21 +45,27 @@ public class QuizController {
     }
 
     @GetMapping("/get")
-    public ResponseEntity<List<QuizEntity>> getAllQuizzes() {
+    public ResponseEntity<Object> getAllQuizzes(@RequestParam(required = false) String view) {
         try {
             List<QuizEntity> quizzes = quizService.getAllQuizzes();
-            return new ResponseEntity<>(quizzes, HttpStatus.OK);
+            return new ResponseEntity<>(ColumnarList.render(quizzes, QuizEntity.class, view), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/get/{id}")
-    public ResponseEntity<QuizEntity> getQuizById(@PathVariable String id) {
+    public ResponseEntity<QuizEntity> getQuizById(@PathVariable String id, WebRequest request) {
         try {
-            return quizService.getQuizById(id)
-                    .map(quiz -> new ResponseEntity<>(quiz, HttpStatus.OK))
-                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            Optional<QuizEntity> quiz = quizService.getQuizById(id);
+            if (quiz.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            String etag = ResourceVersionService.versionTag(quiz.get().getVersion());
+            if (request.checkNotModified(etag)) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+            return ResponseEntity.ok().eTag(etag).body(quiz.get());
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -65,23 +82,56 @@ public class QuizController {
     }
 
     @PutMapping("/update")
-    public ResponseEntity<QuizEntity> updateQuiz(@RequestBody QuizEntity quiz) {
+    public ResponseEntity<QuizEntity> updateQuiz(@RequestBody QuizEntity quiz,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             String quizId = quiz.getQuizModeId();
             if (quizId == null || quizId.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
             }
+            Long expectedVersion = ResourceVersionService.parseVersionTag(ifMatch);
 
             return quizService.getQuizById(quizId)
                     .map(existingQuiz -> {
                         try {
-                            QuizEntity updatedQuiz = quizService.updateQuiz(quizId, quiz);
-                            return new ResponseEntity<>(updatedQuiz, HttpStatus.OK);
+                            QuizEntity updatedQuiz = quizService.updateQuiz(quizId, quiz, expectedVersion);
+                            return ResponseEntity.ok()
+                                    .eTag(ResourceVersionService.versionTag(updatedQuiz.getVersion()))
+                                    .body(updatedQuiz);
+                        } catch (OptimisticLockingFailureException e) {
+                            return new ResponseEntity<QuizEntity>(HttpStatus.PRECONDITION_FAILED);
                         } catch (Exception e) {
                             return new ResponseEntity<QuizEntity>(HttpStatus.INTERNAL_SERVER_ERROR);
                         }
                     })
                     .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Change only the fields present in a JSON Merge Patch body.
+     * @param ifMatch The ETag from a previous GET; the patch is rejected with 412 if the quiz changed since.
+     * @return HTTP 204 on success, 404 if the quiz does not exist.
+     */
+    @PatchMapping(value = "/update/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchQuiz(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Long expectedVersion = ResourceVersionService.parseVersionTag(ifMatch);
+            if (!quizService.patchQuiz(id, patch, expectedVersion)) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return expectedVersion == null
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.noContent().eTag(ResourceVersionService.versionTag(expectedVersion + 1)).build();
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -106,10 +156,10 @@ public class QuizController {
     }
 
     @GetMapping("/{id}/flashcards")
-    public ResponseEntity<List<FlashcardEntity>> getFlashcardsForQuiz(@PathVariable String id) {
+    public ResponseEntity<Object> getFlashcardsForQuiz(@PathVariable String id, @RequestParam(required = false) String view) {
         try {
             List<FlashcardEntity> flashcards = quizService.getFlashcardsForQuiz(id);
-            return ResponseEntity.ok(flashcards);
+            return ResponseEntity.ok(ColumnarList.render(flashcards, FlashcardEntity.class, view));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         } catch (Exception e) {
@@ -118,23 +168,100 @@ public class QuizController {
     }
 
     /**
-     * Complete a quiz and check for achievements.
+     * Generate multiple-choice questions from the quiz's deck.
+     * @param id The ID of the quiz.
+     * @param count The number of questions, at most 100.
+     * @param options The number of options per question, including the answer.
+     * @return The questions, or HTTP 404 if the quiz does not exist.
+     */
+    @GetMapping("/{id}/questions")
+    public ResponseEntity<List<QuizQuestion>> generateQuestions(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(defaultValue = "4") int options) {
+        try {
+            return ResponseEntity.ok(quizService.generateQuestions(id, count, options));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * Complete a quiz, record the attempt and check for achievements.
      * @param userId The ID of the user.
      * @param quizId The ID of the quiz.
      * @param score The score the user achieved.
+     * @param durationSeconds How long the attempt took, if known.
+     * @param questionOutcomes Per-question results as a string of 0s and 1s, if known.
      * @return HTTP 200 if the quiz is processed successfully.
      */
     @PostMapping("/complete")
     public ResponseEntity<Void> completeQuiz(
             @RequestParam String userId,
             @RequestParam String quizId,
-            @RequestParam int score) {
+            @RequestParam int score,
+            @RequestParam(defaultValue = "0") int durationSeconds,
+            @RequestParam(required = false) String questionOutcomes) {
         try {
-            quizService.completeQuiz(userId, quizId, score);
+            quizService.recordAttempt(new QuizAttemptEntity(null, userId, quizId, score, durationSeconds, questionOutcomes));
             return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/attempts")
+    public ResponseEntity<QuizAttemptEntity> recordAttempt(@RequestBody QuizAttemptEntity attempt) {
+        try {
+            return new ResponseEntity<>(quizService.recordAttempt(attempt), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/{id}/attempts/user/{userId}")
+    public ResponseEntity<List<QuizAttemptEntity>> getAttempts(@PathVariable String id, @PathVariable String userId) {
+        try {
+            return new ResponseEntity<>(quizService.getAttempts(userId, id), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<QuizStatsEntity> getQuizStats(@PathVariable String id) {
+        try {
+            return new ResponseEntity<>(quizService.getQuizStats(id), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/{id}/stats/user/{userId}")
+    public ResponseEntity<UserQuizStatsEntity> getUserQuizStats(@PathVariable String id, @PathVariable String userId) {
+        try {
+            return quizService.getUserQuizStats(userId, id)
+                    .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/stats/user/{userId}")
+    public ResponseEntity<List<UserQuizStatsEntity>> getUserQuizStats(@PathVariable String userId) {
+        try {
+            return new ResponseEntity<>(quizService.getUserQuizStats(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
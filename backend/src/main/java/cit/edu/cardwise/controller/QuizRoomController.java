@@ -0,0 +1,91 @@
+package cit.edu.cardwise.controller;
+
+import cit.edu.cardwise.dto.QuizRoomStatus;
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.room.QuizRoom;
+import cit.edu.cardwise.service.QuizRoomService;
+import cit.edu.cardwise.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/quiz/rooms")
+public class QuizRoomController {
+
+    private static final int DEFAULT_QUESTIONS = 10;
+
+    @Autowired
+    private QuizRoomService quizRoomService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Open a live room for a quiz with the caller as host. The body is
+     * {"quizId": ..., "questions": 10, "secondsPerQuestion": 20}; the last two are optional.
+     * Players then connect to the returned socketPath with a ticket from POST /events/ticket
+     * as ?ticket=.
+     */
+    @PostMapping
+    public ResponseEntity<QuizRoomStatus> createRoom(@AuthenticationPrincipal UserDetails principal,
+                                                     @RequestBody Map<String, Object> body) {
+        String hostUserId = currentUserId(principal);
+        Object quizId = body.get("quizId");
+        if (!(quizId instanceof String) || ((String) quizId).isBlank()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int questions = body.get("questions") instanceof Number n ? n.intValue() : DEFAULT_QUESTIONS;
+        Integer seconds = body.get("secondsPerQuestion") instanceof Number n ? n.intValue() : null;
+        try {
+            QuizRoom room = quizRoomService.createRoom(hostUserId, (String) quizId, questions, seconds);
+            return new ResponseEntity<>(QuizRoomStatus.of(room), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<QuizRoomStatus> getRoom(@PathVariable String code) {
+        Optional<QuizRoom> room = quizRoomService.findRoom(code);
+        if (room.isPresent()) {
+            return ResponseEntity.ok(QuizRoomStatus.of(room.get()));
+        }
+        return quizRoomService.locateElsewhere(code)
+                .map(node -> ResponseEntity.ok(QuizRoomStatus.elsewhere(code.toUpperCase(), node)))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Only the host may close a room early
+    @DeleteMapping("/{code}")
+    public ResponseEntity<Void> closeRoom(@AuthenticationPrincipal UserDetails principal, @PathVariable String code) {
+        String userId = currentUserId(principal);
+        Optional<QuizRoom> room = quizRoomService.findRoom(code);
+        if (room.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!room.get().getHostUserId().equals(userId)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        room.get().close("Closed by the host");
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    private String currentUserId(UserDetails principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return userService.findByEmail(principal.getUsername())
+                .map(UserEntity::getUserId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN, "Only users can use quiz rooms"));
+    }
+}
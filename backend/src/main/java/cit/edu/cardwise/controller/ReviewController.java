@@ -1,13 +1,19 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.entity.CardStatsEntity;
 import cit.edu.cardwise.entity.ReviewEntity;
+import cit.edu.cardwise.entity.UserCardStatsEntity;
 import cit.edu.cardwise.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
+@Lazy
 @RestController
 @RequestMapping("/review")
 public class ReviewController {
@@ -16,8 +22,12 @@ public class ReviewController {
     private ReviewService reviewService;
 
     @PostMapping("/add")
-    public ReviewEntity createReview(@RequestBody ReviewEntity review) throws ExecutionException, InterruptedException {
-        return reviewService.createReview(review);
+    public ResponseEntity<ReviewEntity> createReview(@RequestBody ReviewEntity review) {
+        try {
+            return new ResponseEntity<>(reviewService.createReview(review), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/get/{id}")
@@ -31,13 +41,42 @@ public class ReviewController {
     }
 
     @PutMapping("/update")
-    public ReviewEntity updateReview(@RequestBody ReviewEntity review) throws ExecutionException, InterruptedException {
-        return reviewService.updateReview(review);
+    public ResponseEntity<ReviewEntity> updateReview(@RequestBody ReviewEntity review) {
+        try {
+            return new ResponseEntity<>(reviewService.updateReview(review), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @DeleteMapping("/delete/{id}")
     public String deleteReview(@PathVariable String id) {
         return reviewService.deleteReview(id);
     }
-}
 
+    @GetMapping("/stats/card/{flashcardId}")
+    public ResponseEntity<CardStatsEntity> getCardStats(@PathVariable String flashcardId) {
+        return reviewService.getCardStats(flashcardId)
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/stats/card/{flashcardId}/user/{userId}")
+    public ResponseEntity<UserCardStatsEntity> getCardStats(@PathVariable String flashcardId, @PathVariable String userId) {
+        return reviewService.getCardStats(userId, flashcardId)
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/hardest/deck/{deckId}")
+    public ResponseEntity<List<CardStatsEntity>> getHardestCards(@PathVariable String deckId,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(reviewService.getHardestCards(deckId, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/hardest/deck/{deckId}/user/{userId}")
+    public ResponseEntity<List<UserCardStatsEntity>> getHardestCards(@PathVariable String deckId, @PathVariable String userId,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(reviewService.getHardestCards(userId, deckId, limit), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,42 @@
+package cit.edu.cardwise.controller;
+
+import cit.edu.cardwise.dto.SyncPage;
+import cit.edu.cardwise.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * Get the decks, flashcards and progress entries of a user that changed after a
+     * sequence number. A deck tombstone also covers that deck's flashcards.
+     * @param userId The ID of the user.
+     * @param since The nextSince of the previous page, or 0 for a full sync.
+     * @param limit The page size, at most 1000.
+     * @return The changes in sequence order and the cursor for the next page.
+     */
+    @GetMapping("/{userId}/changes")
+    public ResponseEntity<SyncPage> getChanges(@PathVariable String userId,
+                                               @RequestParam(defaultValue = "0") long since,
+                                               @RequestParam(defaultValue = "200") int limit) {
+        try {
+            // Written on the primary; the read below may then run on a replica
+            syncService.backfill(userId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(syncService.getChanges(userId, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
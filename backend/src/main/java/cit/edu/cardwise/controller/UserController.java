@@ -1,15 +1,24 @@
 package cit.edu.cardwise.controller;
 
+import cit.edu.cardwise.dto.RosterImportResult;
 import cit.edu.cardwise.entity.UserEntity;
 import cit.edu.cardwise.security.JwtUtil;
+import cit.edu.cardwise.service.AvatarService;
+import cit.edu.cardwise.service.ResourceVersionService;
+import cit.edu.cardwise.service.RosterImportService;
 import cit.edu.cardwise.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 
@@ -29,6 +38,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AvatarService avatarService;
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
 
     @GetMapping("/welcome")
     public String welcome() {
@@ -71,24 +86,98 @@ public class UserController {
 
     // Read user by ID
     @GetMapping("/{userId}")
-    public ResponseEntity<UserEntity> getUserById(@PathVariable String userId) {
+    public ResponseEntity<UserEntity> getUserById(@PathVariable String userId, WebRequest request) {
+        Optional<UserEntity> user;
         try {
-            Optional<UserEntity> user = userService.getUserById(userId);
-            return user.map(ResponseEntity::ok)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+            user = userService.getUserById(userId);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching user: " + e.getMessage());
         }
+        if (user.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        String etag = ResourceVersionService.versionTag(user.get().getVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(user.get());
     }
 
     // Update user details
     @PutMapping("/update/{userId}")
-    public ResponseEntity<UserEntity> updateUserDetails(@PathVariable String userId, @RequestBody UserEntity newUserDetails) {
+    public ResponseEntity<UserEntity> updateUserDetails(@AuthenticationPrincipal UserDetails principal,
+                                                        @PathVariable String userId, @RequestBody UserEntity newUserDetails,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Only admins change roles; for anyone else the stored role is kept
+        boolean admin = principal != null && principal.getAuthorities().stream()
+                .anyMatch(authority -> "ADMIN".equals(authority.getAuthority()));
+        try {
+            UserEntity saved = userService.updateUser(userId, newUserDetails, ResourceVersionService.parseVersionTag(ifMatch), admin);
+            return ResponseEntity.ok().eTag(ResourceVersionService.versionTag(saved.getVersion())).body(saved);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "User was modified by another request");
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating user: " + e.getMessage());
+        }
+    }
+
+    // Update only the profile fields present in a JSON Merge Patch body
+    @PatchMapping(value = "/update/{userId}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchUserDetails(@PathVariable String userId, @RequestBody Map<String, Object> patch,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean found;
+        Long expectedVersion;
         try {
-            return ResponseEntity.ok(userService.updateUser(userId, newUserDetails));
+            expectedVersion = ResourceVersionService.parseVersionTag(ifMatch);
+            found = userService.patchUser(userId, patch, expectedVersion);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "User was modified by another request");
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating user: " + e.getMessage());
         }
+        if (!found) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return expectedVersion == null
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.noContent().eTag(ResourceVersionService.versionTag(expectedVersion + 1)).build();
+    }
+
+    // Upload a profile picture; profilePictureUrl then points at its thumbnail
+    @PostMapping(value = "/{userId}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, String>> uploadAvatar(@PathVariable String userId, @RequestParam("file") MultipartFile file) {
+        try {
+            return avatarService.upload(userId, file.getInputStream())
+                    .map(url -> ResponseEntity.ok(Map.of("profilePictureUrl", url)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error storing avatar: " + e.getMessage());
+        }
+    }
+
+    // Educators onboard a class from a CSV roster (email, firstName, lastName, password)
+    @PostMapping(value = "/roster", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RosterImportResult> importRoster(@AuthenticationPrincipal UserDetails principal,
+                                                           @RequestParam("file") MultipartFile file) {
+        boolean educator = principal != null && userService.findByEmail(principal.getUsername())
+                .map(user -> "EDUCATOR".equals(user.getRole()))
+                .orElse(false);
+        if (!educator) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only educators can import a roster");
+        }
+        try {
+            return ResponseEntity.ok(rosterImportService.importRoster(file.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error importing roster: " + e.getMessage());
+        }
     }
 
     // Delete user by ID
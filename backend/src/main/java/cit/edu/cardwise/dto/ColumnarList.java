@@ -0,0 +1,137 @@
+package cit.edu.cardwise.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A list of entities written column by column instead of row by row, selected on list
+ * endpoints with {@code view=columnar}:
+ * <pre>
+ * {"count": 3, "constants": {"deckId": "d1", "learned": false},
+ *  "columns": {"id": ["a", "b", "c"], "question": [...], ...}}
+ * </pre>
+ * Each field name is written once, and a field with the same value in every row (such as
+ * the deckId of a deck's cards) is written once under constants. Row i is rebuilt from
+ * constants plus element i of each column. Values are streamed straight from the entities
+ * through their regular Jackson serializers, so this works for JSON, CBOR and Smile alike.
+ */
+@JsonSerialize(using = ColumnarList.Serializer.class)
+public class ColumnarList<T> {
+
+    public static final String VIEW = "columnar";
+
+    private final List<T> rows;
+    private final Class<T> type;
+
+    public ColumnarList(List<T> rows, Class<T> type) {
+        this.rows = rows;
+        this.type = type;
+    }
+
+    /**
+     * @return the rows wrapped when view is "columnar", otherwise the rows unchanged
+     */
+    public static <T> Object render(List<T> rows, Class<T> type, String view) {
+        return VIEW.equals(view) ? new ColumnarList<>(rows, type) : rows;
+    }
+
+    /**
+     * The columnar form is a different representation of the same data, so it needs a
+     * tag of its own for caches to keep the two apart.
+     */
+    public static String etag(String etag, String view) {
+        if (!VIEW.equals(view)) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + VIEW + "\"";
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    public static class Serializer extends JsonSerializer<ColumnarList<?>> {
+
+        @Override
+        public void serialize(ColumnarList<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            List<?> rows = list.rows;
+            JsonSerializer<Object> rowSerializer = provider.findValueSerializer(list.type);
+
+            gen.writeStartObject();
+            gen.writeNumberField("count", rows.size());
+            if (!(rowSerializer instanceof BeanSerializerBase bean)) {
+                // Not a bean: nothing to split into columns
+                provider.defaultSerializeField("rows", rows, gen);
+                gen.writeEndObject();
+                return;
+            }
+
+            List<BeanPropertyWriter> constants = new ArrayList<>();
+            List<BeanPropertyWriter> columns = new ArrayList<>();
+            for (Iterator<PropertyWriter> properties = bean.properties(); properties.hasNext(); ) {
+                PropertyWriter property = properties.next();
+                if (property instanceof BeanPropertyWriter writer) {
+                    (isConstant(writer, rows) ? constants : columns).add(writer);
+                }
+            }
+
+            gen.writeObjectFieldStart("constants");
+            for (BeanPropertyWriter writer : constants) {
+                gen.writeFieldName(writer.getName());
+                writeValue(writer, rows.get(0), gen, provider);
+            }
+            gen.writeEndObject();
+
+            gen.writeObjectFieldStart("columns");
+            for (BeanPropertyWriter writer : columns) {
+                gen.writeArrayFieldStart(writer.getName());
+                for (Object row : rows) {
+                    writeValue(writer, row, gen, provider);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+
+        private static void writeValue(BeanPropertyWriter writer, Object row, JsonGenerator gen,
+                                       SerializerProvider provider) throws IOException {
+            try {
+                writer.serializeAsElement(row, gen, provider);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw JsonMappingException.from(gen, "Failed to write " + writer.getName(), e);
+            }
+        }
+
+        private static boolean isConstant(BeanPropertyWriter writer, List<?> rows) {
+            if (rows.isEmpty()) {
+                return false;
+            }
+            try {
+                Object first = writer.get(rows.get(0));
+                for (int i = 1; i < rows.size(); i++) {
+                    if (!Objects.equals(first, writer.get(rows.get(i)))) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cit.edu.cardwise.dto;
+
+import java.time.LocalDate;
+
+public class DailyProgress {
+    private final LocalDate day;
+    private final long attempts;
+    private final long timeSpent;
+    private final double averageScore;
+
+    public DailyProgress(LocalDate day, Long attempts, Long timeSpent, Double averageScore) {
+        this.day = day;
+        this.attempts = attempts != null ? attempts : 0;
+        this.timeSpent = timeSpent != null ? timeSpent : 0;
+        this.averageScore = averageScore != null ? averageScore : 0;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getTimeSpent() {
+        return timeSpent;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+}
@@ -0,0 +1,29 @@
+package cit.edu.cardwise.dto;
+
+import cit.edu.cardwise.entity.FlashcardEntity;
+
+import java.util.List;
+
+/**
+ * Flashcards of one user that are likely duplicates of each other. Similarity is the
+ * highest estimated similarity between two cards of the group.
+ */
+public class DuplicateGroup {
+    private List<FlashcardEntity> flashcards;
+    private double similarity;
+
+    public DuplicateGroup() {}
+
+    public DuplicateGroup(List<FlashcardEntity> flashcards, double similarity) {
+        this.flashcards = flashcards;
+        this.similarity = similarity;
+    }
+
+    public List<FlashcardEntity> getFlashcards() {
+        return flashcards;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+}
@@ -0,0 +1,32 @@
+package cit.edu.cardwise.dto;
+
+import cit.edu.cardwise.entity.FlashcardEntity;
+
+/**
+ * A flashcard that was not imported because it is a near-duplicate of an existing one.
+ */
+public class DuplicateMatch {
+    private FlashcardEntity flashcard;
+    private FlashcardEntity duplicateOf;
+    private double similarity;
+
+    public DuplicateMatch() {}
+
+    public DuplicateMatch(FlashcardEntity flashcard, FlashcardEntity duplicateOf, double similarity) {
+        this.flashcard = flashcard;
+        this.duplicateOf = duplicateOf;
+        this.similarity = similarity;
+    }
+
+    public FlashcardEntity getFlashcard() {
+        return flashcard;
+    }
+
+    public FlashcardEntity getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+}
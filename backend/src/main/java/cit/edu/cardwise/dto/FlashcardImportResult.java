@@ -0,0 +1,25 @@
+package cit.edu.cardwise.dto;
+
+import cit.edu.cardwise.entity.FlashcardEntity;
+
+import java.util.List;
+
+public class FlashcardImportResult {
+    private List<FlashcardEntity> imported;
+    private List<DuplicateMatch> skipped;
+
+    public FlashcardImportResult() {}
+
+    public FlashcardImportResult(List<FlashcardEntity> imported, List<DuplicateMatch> skipped) {
+        this.imported = imported;
+        this.skipped = skipped;
+    }
+
+    public List<FlashcardEntity> getImported() {
+        return imported;
+    }
+
+    public List<DuplicateMatch> getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,65 @@
+package cit.edu.cardwise.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user's progress reduced to totals, score buckets and a short daily series, so its size
+ * does not grow with the user's history. Totals and score buckets include months already
+ * compacted into monthly summaries; the series covers raw rows only.
+ */
+public class ProgressDashboard {
+    private final String userId;
+    private final long attempts;
+    private final long totalTimeSpent;
+    private final double averageScore;
+    private final int bestScore;
+    private final Map<String, Long> scoreComparisons;
+    private final LocalDate seriesFrom;
+    private final List<DailyProgress> daily;
+
+    public ProgressDashboard(String userId, long attempts, long totalTimeSpent, double averageScore, int bestScore,
+                             Map<String, Long> scoreComparisons, LocalDate seriesFrom, List<DailyProgress> daily) {
+        this.userId = userId;
+        this.attempts = attempts;
+        this.totalTimeSpent = totalTimeSpent;
+        this.averageScore = averageScore;
+        this.bestScore = bestScore;
+        this.scoreComparisons = scoreComparisons;
+        this.seriesFrom = seriesFrom;
+        this.daily = daily;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getTotalTimeSpent() {
+        return totalTimeSpent;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public Map<String, Long> getScoreComparisons() {
+        return scoreComparisons;
+    }
+
+    public LocalDate getSeriesFrom() {
+        return seriesFrom;
+    }
+
+    public List<DailyProgress> getDaily() {
+        return daily;
+    }
+}
@@ -0,0 +1,35 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * Sums over a set of progress rows. Study-time rows (no flashcard) count towards
+ * timeSpent only.
+ */
+public class ProgressTotals {
+    private final long attempts;
+    private final long timeSpent;
+    private final long totalScore;
+    private final int bestScore;
+
+    public ProgressTotals(Long attempts, Long timeSpent, Long totalScore, Integer bestScore) {
+        this.attempts = attempts != null ? attempts : 0;
+        this.timeSpent = timeSpent != null ? timeSpent : 0;
+        this.totalScore = totalScore != null ? totalScore : 0;
+        this.bestScore = bestScore != null ? bestScore : 0;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getTimeSpent() {
+        return timeSpent;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+}
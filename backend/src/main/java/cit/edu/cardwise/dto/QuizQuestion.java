@@ -0,0 +1,38 @@
+package cit.edu.cardwise.dto;
+
+import java.util.List;
+
+/**
+ * A generated multiple-choice question; options[correctOption] is the card's answer.
+ */
+public class QuizQuestion {
+    private String flashcardId;
+    private String question;
+    private List<String> options;
+    private int correctOption;
+
+    public QuizQuestion() {}
+
+    public QuizQuestion(String flashcardId, String question, List<String> options, int correctOption) {
+        this.flashcardId = flashcardId;
+        this.question = question;
+        this.options = options;
+        this.correctOption = correctOption;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public int getCorrectOption() {
+        return correctOption;
+    }
+}
@@ -0,0 +1,72 @@
+package cit.edu.cardwise.dto;
+
+import cit.edu.cardwise.room.QuizRoom;
+
+public class QuizRoomStatus {
+    private final String code;
+    private final String quizId;
+    private final String phase;
+    private final int players;
+    private final int question;
+    private final int questions;
+    private final String socketPath;
+    // The node hosting the room when it is not this one; empty otherwise
+    private final String node;
+
+    public QuizRoomStatus(String code, String quizId, String phase, int players, int question, int questions,
+                          String socketPath, String node) {
+        this.code = code;
+        this.quizId = quizId;
+        this.phase = phase;
+        this.players = players;
+        this.question = question;
+        this.questions = questions;
+        this.socketPath = socketPath;
+        this.node = node;
+    }
+
+    public static QuizRoomStatus of(QuizRoom room) {
+        return new QuizRoomStatus(room.getCode(), room.getQuizId(), room.getPhase().name(), room.getPlayerCount(),
+                room.getCurrentQuestion(), room.getQuestionCount(), socketPath(room.getCode()), "");
+    }
+
+    public static QuizRoomStatus elsewhere(String code, String node) {
+        return new QuizRoomStatus(code, null, null, 0, 0, 0, socketPath(code), node);
+    }
+
+    private static String socketPath(String code) {
+        return "/quiz/rooms/" + code + "/socket";
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public int getQuestion() {
+        return question;
+    }
+
+    public int getQuestions() {
+        return questions;
+    }
+
+    public String getSocketPath() {
+        return socketPath;
+    }
+
+    public String getNode() {
+        return node;
+    }
+}
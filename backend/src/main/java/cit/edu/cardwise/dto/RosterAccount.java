@@ -0,0 +1,48 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * A student account created from a roster. temporaryPassword is only set when the roster
+ * row had no password and one was generated; it is not stored anywhere else in plain text.
+ */
+public class RosterAccount {
+    private final int line;
+    private final String userId;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final String temporaryPassword;
+
+    public RosterAccount(int line, String userId, String email, String firstName, String lastName,
+                         String temporaryPassword) {
+        this.line = line;
+        this.userId = userId;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.temporaryPassword = temporaryPassword;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getTemporaryPassword() {
+        return temporaryPassword;
+    }
+}
@@ -0,0 +1,23 @@
+package cit.edu.cardwise.dto;
+
+import java.util.List;
+
+public class RosterImportResult {
+    private List<RosterAccount> created;
+    private List<RosterRejection> skipped;
+
+    public RosterImportResult() {}
+
+    public RosterImportResult(List<RosterAccount> created, List<RosterRejection> skipped) {
+        this.created = created;
+        this.skipped = skipped;
+    }
+
+    public List<RosterAccount> getCreated() {
+        return created;
+    }
+
+    public List<RosterRejection> getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,26 @@
+package cit.edu.cardwise.dto;
+
+// A roster row that did not become an account, by its line number in the file
+public class RosterRejection {
+    private final int line;
+    private final String email;
+    private final String reason;
+
+    public RosterRejection(int line, String email, String reason) {
+        this.line = line;
+        this.email = email;
+        this.reason = reason;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
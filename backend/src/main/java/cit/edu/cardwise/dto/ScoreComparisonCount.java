@@ -0,0 +1,19 @@
+package cit.edu.cardwise.dto;
+
+public class ScoreComparisonCount {
+    private final String scoreComparison;
+    private final long count;
+
+    public ScoreComparisonCount(String scoreComparison, Long count) {
+        this.scoreComparison = scoreComparison;
+        this.count = count != null ? count : 0;
+    }
+
+    public String getScoreComparison() {
+        return scoreComparison;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * Counters for one second-level cache region since startup. hitRatio is hits over lookups,
+ * or 0 before the first lookup.
+ */
+public class SecondLevelCacheStats {
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final double hitRatio;
+
+    public SecondLevelCacheStats(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+}
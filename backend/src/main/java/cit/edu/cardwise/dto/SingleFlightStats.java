@@ -0,0 +1,54 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * Counters for one kind of coalesced read since startup. calls = executions + coalesced +
+ * timeouts; every timed-out caller ran its own query.
+ */
+public class SingleFlightStats {
+    private final String name;
+    private final long calls;
+    private final long executions;
+    private final long coalesced;
+    private final long timeouts;
+    private final long failures;
+    private final int inFlight;
+
+    public SingleFlightStats(String name, long calls, long executions, long coalesced, long timeouts,
+                             long failures, int inFlight) {
+        this.name = name;
+        this.calls = calls;
+        this.executions = executions;
+        this.coalesced = coalesced;
+        this.timeouts = timeouts;
+        this.failures = failures;
+        this.inFlight = inFlight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,39 @@
+package cit.edu.cardwise.dto;
+
+import java.time.LocalDate;
+
+public class StudyStreak {
+    private final String userId;
+    private final int currentStreak;
+    private final int longestStreak;
+    private final LocalDate lastActiveDay;
+    private final String timeZone;
+
+    public StudyStreak(String userId, int currentStreak, int longestStreak, LocalDate lastActiveDay, String timeZone) {
+        this.userId = userId;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.lastActiveDay = lastActiveDay;
+        this.timeZone = timeZone;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public LocalDate getLastActiveDay() {
+        return lastActiveDay;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+}
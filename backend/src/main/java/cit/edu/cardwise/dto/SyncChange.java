@@ -0,0 +1,49 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * A single entry of a sync page. For upserts data holds the current state of the entity;
+ * for deletes it is null.
+ */
+public class SyncChange {
+    private long sequence;
+    private String entityType;
+    private String entityId;
+    private String operation;
+    private String parentId;
+    private Object data;
+
+    public SyncChange() {}
+
+    public SyncChange(long sequence, String entityType, String entityId, String operation, String parentId, Object data) {
+        this.sequence = sequence;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.parentId = parentId;
+        this.data = data;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public Object getData() {
+        return data;
+    }
+}
@@ -0,0 +1,40 @@
+package cit.edu.cardwise.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's change feed. Pass nextSince back as since to fetch the next page.
+ * When resetRequired is set the client's cursor predates discarded tombstones and it must
+ * drop its local copy and sync again from 0.
+ */
+public class SyncPage {
+    private List<SyncChange> changes;
+    private long nextSince;
+    private boolean hasMore;
+    private boolean resetRequired;
+
+    public SyncPage() {}
+
+    public SyncPage(List<SyncChange> changes, long nextSince, boolean hasMore, boolean resetRequired) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+        this.resetRequired = resetRequired;
+    }
+
+    public List<SyncChange> getChanges() {
+        return changes;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public boolean isResetRequired() {
+        return resetRequired;
+    }
+}
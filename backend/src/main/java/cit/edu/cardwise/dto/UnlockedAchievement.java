@@ -0,0 +1,48 @@
+package cit.edu.cardwise.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A catalog achievement as unlocked by one user. Same JSON fields the per-user achievement
+ * rows used to have; achievementId is now the catalog id.
+ */
+public class UnlockedAchievement {
+    private final int achievementId;
+    private final String userId;
+    private final String title;
+    private final String description;
+    private final LocalDateTime unlockedAt;
+
+    public UnlockedAchievement(int achievementId, String userId, String title, String description,
+                               LocalDateTime unlockedAt) {
+        this.achievementId = achievementId;
+        this.userId = userId;
+        this.title = title;
+        this.description = description;
+        this.unlockedAt = unlockedAt;
+    }
+
+    public int getAchievementId() {
+        return achievementId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isUnlocked() {
+        return true;
+    }
+
+    public LocalDateTime getUnlockedAt() {
+        return unlockedAt;
+    }
+}
@@ -0,0 +1,24 @@
+package cit.edu.cardwise.dto;
+
+/**
+ * A response body and the ETag read in the same transaction. With a read replica, reading
+ * the two separately could pair a new tag with an old body, and the client would then
+ * keep the stale copy until the next change.
+ */
+public class Versioned<T> {
+    private final String etag;
+    private final T body;
+
+    public Versioned(String etag, T body) {
+        this.etag = etag;
+        this.body = body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public T getBody() {
+        return body;
+    }
+}
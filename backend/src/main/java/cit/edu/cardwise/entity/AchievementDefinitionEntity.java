@@ -0,0 +1,63 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the achievement catalog. The id doubles as the achievement's bit position in
+ * {@link UserAchievementsEntity}, so it is assigned once and never reused.
+ */
+@Entity
+@Table(name = "achievement_catalog", indexes = {
+        @Index(name = "uk_achievement_catalog_title", columnList = "title", unique = true)
+})
+public class AchievementDefinitionEntity {
+    @Id
+    private int achievementId;
+    private String title;
+    private String description;
+    private LocalDateTime createdAt;
+
+    public AchievementDefinitionEntity() {}
+
+    public AchievementDefinitionEntity(int achievementId, String title, String description) {
+        this.achievementId = achievementId;
+        this.title = title;
+        this.description = description;
+    }
+
+    public int getAchievementId() {
+        return achievementId;
+    }
+
+    public void setAchievementId(int achievementId) {
+        this.achievementId = achievementId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,117 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Review outcomes of one flashcard across all users, maintained incrementally by
+ * {@code ReviewService.createReview}. The (deckId, difficulty) index returns a deck's
+ * hardest cards in order without aggregating any reviews.
+ */
+@Entity
+@Table(name = "card_stats", indexes = {
+        @Index(name = "idx_card_stats_deck_difficulty", columnList = "deckId, difficulty")
+})
+public class CardStatsEntity implements ReviewCounters {
+    @Id
+    private String flashcardId;
+    private String deckId;
+    private long reviews;
+    private long correct;
+    private long totalResponseTimeMs;
+    private long timedReviews;     // reviews that reported a response time
+    private long totalConfidence;
+    private long ratedReviews;     // reviews that reported a confidence
+    private int difficulty;        // permille, see ReviewService.difficulty
+    private LocalDateTime updatedAt;
+
+    public CardStatsEntity() {}
+
+    public CardStatsEntity(String flashcardId, String deckId) {
+        this.flashcardId = flashcardId;
+        this.deckId = deckId;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(String flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public String getDeckId() {
+        return deckId;
+    }
+
+    public void setDeckId(String deckId) {
+        this.deckId = deckId;
+    }
+
+    public long getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(long reviews) {
+        this.reviews = reviews;
+    }
+
+    public long getCorrect() {
+        return correct;
+    }
+
+    public void setCorrect(long correct) {
+        this.correct = correct;
+    }
+
+    public long getTotalResponseTimeMs() {
+        return totalResponseTimeMs;
+    }
+
+    public void setTotalResponseTimeMs(long totalResponseTimeMs) {
+        this.totalResponseTimeMs = totalResponseTimeMs;
+    }
+
+    public long getTimedReviews() {
+        return timedReviews;
+    }
+
+    public void setTimedReviews(long timedReviews) {
+        this.timedReviews = timedReviews;
+    }
+
+    public long getTotalConfidence() {
+        return totalConfidence;
+    }
+
+    public void setTotalConfidence(long totalConfidence) {
+        this.totalConfidence = totalConfidence;
+    }
+
+    public long getRatedReviews() {
+        return ratedReviews;
+    }
+
+    public void setRatedReviews(long ratedReviews) {
+        this.ratedReviews = ratedReviews;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(int difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,113 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One entry in a user's change feed. Only the latest change per entity is kept, so the
+ * log grows with the number of live entities and recent tombstones, not with edits.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_user_sequence", columnList = "userId, sequence", unique = true),
+        @Index(name = "idx_change_log_entity", columnList = "userId, entityType, entityId")
+})
+public class ChangeLogEntity {
+    public static final String TYPE_DECK = "DECK";
+    public static final String TYPE_FLASHCARD = "FLASHCARD";
+    public static final String TYPE_PROGRESS = "PROGRESS";
+
+    public static final String OPERATION_UPSERT = "UPSERT";
+    public static final String OPERATION_DELETE = "DELETE";
+
+    @Id
+    private String changeId;
+    private String userId;
+    private long sequence;
+    private String entityType; // DECK, FLASHCARD, PROGRESS
+    private String entityId;
+    private String operation; // UPSERT, DELETE
+    private String parentId; // deckId for flashcards, flashCardId for progress
+    private LocalDateTime changedAt;
+
+    public ChangeLogEntity() {}
+
+    public ChangeLogEntity(String changeId, String userId, long sequence, String entityType,
+                           String entityId, String operation, String parentId) {
+        this.changeId = changeId;
+        this.userId = userId;
+        this.sequence = sequence;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.parentId = parentId;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public String getChangeId() {
+        return changeId;
+    }
+
+    public void setChangeId(String changeId) {
+        this.changeId = changeId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -2,21 +2,32 @@ package cit.edu.cardwise.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "decks")
+@DynamicUpdate
+@Table(name = "decks", indexes = {
+        @Index(name = "idx_decks_source", columnList = "sourceDeckId")
+})
 public class DeckEntity {
     @Id
     private String id;
     private String subject;
     private String category;
     private String userId; // Reference to UserEntity by ID
+    private String sourceDeckId; // Set on a subscription: the deck whose cards it shows
+    private long sourceVersion; // The version of that deck it shows
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    private long version;
+
     public DeckEntity() {}
 
     public DeckEntity(String id, String subject, String category, String userId) {
@@ -40,9 +51,18 @@ public class DeckEntity {
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
 
+    public String getSourceDeckId() { return sourceDeckId; }
+    public void setSourceDeckId(String sourceDeckId) { this.sourceDeckId = sourceDeckId; }
+
+    public long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(long sourceVersion) { this.sourceVersion = sourceVersion; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
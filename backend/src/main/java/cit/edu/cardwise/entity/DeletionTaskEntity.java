@@ -0,0 +1,108 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Durable record of a deleted deck or user whose dependent rows still have to be
+ * purged. The root row itself is removed when the task is created.
+ */
+@Entity
+@Table(name = "deletion_tasks", indexes = {
+        @Index(name = "idx_deletion_tasks_status", columnList = "status, createdAt")
+})
+public class DeletionTaskEntity {
+    public static final String TYPE_DECK = "DECK";
+    public static final String TYPE_USER = "USER";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    private String taskId;
+    private String rootType; // DECK, USER
+    private String rootId;
+    private String status; // PENDING, DONE, FAILED
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public DeletionTaskEntity() {}
+
+    public DeletionTaskEntity(String taskId, String rootType, String rootId) {
+        this.taskId = taskId;
+        this.rootType = rootType;
+        this.rootId = rootId;
+        this.status = STATUS_PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getRootType() {
+        return rootType;
+    }
+
+    public void setRootType(String rootType) {
+        this.rootType = rootType;
+    }
+
+    public String getRootId() {
+        return rootId;
+    }
+
+    public void setRootId(String rootId) {
+        this.rootId = rootId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
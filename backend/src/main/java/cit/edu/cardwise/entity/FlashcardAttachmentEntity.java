@@ -0,0 +1,85 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * An image or audio file attached to a flashcard. The bytes live in the blob store under
+ * blobKey; several attachments may share one blob.
+ */
+@Entity
+@Table(name = "flashcard_attachments", indexes = {
+        @Index(name = "idx_attachments_flashcard", columnList = "flashcardId"),
+        @Index(name = "idx_attachments_blob", columnList = "blobKey")
+})
+public class FlashcardAttachmentEntity {
+    @Id
+    private String attachmentId;
+    private String flashcardId;
+    private String blobKey;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private LocalDateTime createdAt;
+
+    public FlashcardAttachmentEntity() {}
+
+    public String getAttachmentId() {
+        return attachmentId;
+    }
+
+    public void setAttachmentId(String attachmentId) {
+        this.attachmentId = attachmentId;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(String flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public String getBlobKey() {
+        return blobKey;
+    }
+
+    public void setBlobKey(String blobKey) {
+        this.blobKey = blobKey;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -2,10 +2,18 @@ package cit.edu.cardwise.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "flashcards")
+@DynamicUpdate
+@Table(name = "flashcards", indexes = {
+        @Index(name = "idx_flashcards_deck_source", columnList = "deckId, sourceFlashcardId")
+})
 public class FlashcardEntity {
 
     @Id
@@ -14,6 +22,19 @@ public class FlashcardEntity {
     private String answer;
     private boolean learned;
     private String deckId;
+    private LocalDateTime updatedAt;
+
+    // In a subscribed deck: the source card this row overrides, and whether the
+    // subscriber removed that card instead of editing it
+    private String sourceFlashcardId;
+    private boolean hidden;
+
+    // Version of the deck when the card got its current state; subscriptions pinned to an
+    // older version show the card's FlashcardRevisionEntity from then instead
+    private long deckVersion;
+
+    @Version
+    private long version;
 
     public FlashcardEntity() {}
 
@@ -65,4 +86,44 @@ public class FlashcardEntity {
     public void setDeckId(String deckId) {
         this.deckId = deckId;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getSourceFlashcardId() {
+        return sourceFlashcardId;
+    }
+
+    public void setSourceFlashcardId(String sourceFlashcardId) {
+        this.sourceFlashcardId = sourceFlashcardId;
+    }
+
+    public boolean isHidden() {
+        return hidden;
+    }
+
+    public void setHidden(boolean hidden) {
+        this.hidden = hidden;
+    }
+
+    public long getDeckVersion() {
+        return deckVersion;
+    }
+
+    public void setDeckVersion(long deckVersion) {
+        this.deckVersion = deckVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,74 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A source card as it was from fromVersion of its deck until the write at toVersion, kept
+ * while a subscription pinned in between may still show it. One row per write however
+ * many subscriptions there are.
+ */
+@Entity
+@Table(name = "flashcard_revisions", indexes = {
+        @Index(name = "idx_flashcard_revisions_deck", columnList = "deckId, fromVersion"),
+        @Index(name = "idx_flashcard_revisions_flashcard", columnList = "flashcardId")
+})
+public class FlashcardRevisionEntity {
+    @Id
+    private String revisionId;
+    private String flashcardId;
+    private String deckId;
+    private String question;
+    private String answer;
+    private boolean learned;
+    private long fromVersion;
+    private long toVersion;
+
+    public FlashcardRevisionEntity() {}
+
+    public FlashcardRevisionEntity(String revisionId, FlashcardEntity flashcard, long toVersion) {
+        this.revisionId = revisionId;
+        this.flashcardId = flashcard.getId();
+        this.deckId = flashcard.getDeckId();
+        this.question = flashcard.getQuestion();
+        this.answer = flashcard.getAnswer();
+        this.learned = flashcard.isLearned();
+        this.fromVersion = flashcard.getDeckVersion();
+        this.toVersion = toVersion;
+    }
+
+    /**
+     * The card as a subscription pinned to this revision shows it.
+     */
+    public FlashcardEntity toFlashcard() {
+        FlashcardEntity flashcard = new FlashcardEntity(flashcardId, question, answer, learned, deckId);
+        flashcard.setDeckVersion(fromVersion);
+        return flashcard;
+    }
+
+    public String getRevisionId() { return revisionId; }
+    public void setRevisionId(String revisionId) { this.revisionId = revisionId; }
+
+    public String getFlashcardId() { return flashcardId; }
+    public void setFlashcardId(String flashcardId) { this.flashcardId = flashcardId; }
+
+    public String getDeckId() { return deckId; }
+    public void setDeckId(String deckId) { this.deckId = deckId; }
+
+    public String getQuestion() { return question; }
+    public void setQuestion(String question) { this.question = question; }
+
+    public String getAnswer() { return answer; }
+    public void setAnswer(String answer) { this.answer = answer; }
+
+    public boolean isLearned() { return learned; }
+    public void setLearned(boolean learned) { this.learned = learned; }
+
+    public long getFromVersion() { return fromVersion; }
+    public void setFromVersion(long fromVersion) { this.fromVersion = fromVersion; }
+
+    public long getToVersion() { return toVersion; }
+    public void setToVersion(long toVersion) { this.toVersion = toVersion; }
+}
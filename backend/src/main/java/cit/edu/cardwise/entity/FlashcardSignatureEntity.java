@@ -0,0 +1,77 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * MinHash signature of a flashcard's question and answer, stored as 32 hex-encoded ints.
+ */
+@Entity
+@Table(name = "flashcard_signatures", indexes = {
+        @Index(name = "idx_flashcard_signatures_deck", columnList = "deckId")
+})
+public class FlashcardSignatureEntity {
+    @Id
+    private String flashcardId;
+    private String userId; // Owner of the card's deck
+    private String deckId;
+
+    @Column(length = 256)
+    private String signature;
+
+    private LocalDateTime updatedAt;
+
+    public FlashcardSignatureEntity() {}
+
+    public FlashcardSignatureEntity(String flashcardId, String userId, String deckId, String signature) {
+        this.flashcardId = flashcardId;
+        this.userId = userId;
+        this.deckId = deckId;
+        this.signature = signature;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(String flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getDeckId() {
+        return deckId;
+    }
+
+    public void setDeckId(String deckId) {
+        this.deckId = deckId;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
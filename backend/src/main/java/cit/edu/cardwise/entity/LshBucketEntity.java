@@ -0,0 +1,64 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Membership of a flashcard in one locality-sensitive-hash bucket of its owner. Each
+ * signed card has one row per band; cards sharing a bandKey are duplicate candidates.
+ */
+@Entity
+@Table(name = "lsh_buckets", indexes = {
+        @Index(name = "idx_lsh_buckets_user_band", columnList = "userId, bandKey"),
+        @Index(name = "idx_lsh_buckets_flashcard", columnList = "flashcardId")
+})
+public class LshBucketEntity {
+    @Id
+    private String entryId;
+    private String userId;
+    private String bandKey;
+    private String flashcardId;
+
+    public LshBucketEntity() {}
+
+    public LshBucketEntity(String entryId, String userId, String bandKey, String flashcardId) {
+        this.entryId = entryId;
+        this.userId = userId;
+        this.bandKey = bandKey;
+        this.flashcardId = flashcardId;
+    }
+
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(String entryId) {
+        this.entryId = entryId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getBandKey() {
+        return bandKey;
+    }
+
+    public void setBandKey(String bandKey) {
+        this.bandKey = bandKey;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(String flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+}
@@ -2,11 +2,17 @@ package cit.edu.cardwise.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
+// Range-partitioned by month of createdAt on MySQL, see PartitionManager
 @Entity
-@Table(name = "progress")
+@Table(name = "progress", indexes = {
+        @Index(name = "idx_progress_user_created", columnList = "userId, createdAt"),
+        @Index(name = "idx_progress_flashcard", columnList = "flashCardId"),
+        @Index(name = "idx_progress_created", columnList = "createdAt")
+})
 public class ProgressEntity {
     @Id
     private String progressId;
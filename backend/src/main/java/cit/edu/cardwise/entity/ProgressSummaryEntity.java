@@ -0,0 +1,106 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+
+/**
+ * One user's progress rows on one flashcard with one score comparison during one month,
+ * kept after the raw rows have passed the retention period. monthStart is the first day
+ * of the month.
+ */
+@Entity
+@Table(name = "progress_monthly_summaries", indexes = {
+        @Index(name = "idx_progress_summaries_user_month", columnList = "userId, monthStart"),
+        @Index(name = "idx_progress_summaries_month", columnList = "monthStart"),
+        @Index(name = "idx_progress_summaries_flashcard", columnList = "flashCardId")
+})
+public class ProgressSummaryEntity {
+    @Id
+    private String summaryId;
+    private String userId;
+    private String flashCardId;
+    private String scoreComparison;
+    private LocalDate monthStart;
+    private long attempts;
+    private long totalScore;
+    private int bestScore;
+    private long totalTimeSpent;
+
+    public ProgressSummaryEntity() {
+    }
+
+    public String getSummaryId() {
+        return summaryId;
+    }
+
+    public void setSummaryId(String summaryId) {
+        this.summaryId = summaryId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getFlashCardId() {
+        return flashCardId;
+    }
+
+    public void setFlashCardId(String flashCardId) {
+        this.flashCardId = flashCardId;
+    }
+
+    public String getScoreComparison() {
+        return scoreComparison;
+    }
+
+    public void setScoreComparison(String scoreComparison) {
+        this.scoreComparison = scoreComparison;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public long getTotalTimeSpent() {
+        return totalTimeSpent;
+    }
+
+    public void setTotalTimeSpent(long totalTimeSpent) {
+        this.totalTimeSpent = totalTimeSpent;
+    }
+}
@@ -0,0 +1,101 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a single quiz attempt. Rows are never updated; aggregate
+ * figures live in {@link QuizStatsEntity} and {@link UserQuizStatsEntity}.
+ */
+@Entity
+@Table(name = "quiz_attempts", indexes = {
+        @Index(name = "idx_quiz_attempts_user_quiz", columnList = "userId, quizId, createdAt"),
+        @Index(name = "idx_quiz_attempts_quiz", columnList = "quizId")
+})
+public class QuizAttemptEntity {
+    @Id
+    private String attemptId;
+    private String userId;
+    private String quizId;
+    private int score; // 0-100
+    private int durationSeconds;
+
+    // One character per question in play order: '1' = correct, '0' = incorrect
+    @Column(length = 1000)
+    private String questionOutcomes;
+
+    private LocalDateTime createdAt;
+
+    public QuizAttemptEntity() {}
+
+    public QuizAttemptEntity(String attemptId, String userId, String quizId, int score,
+                             int durationSeconds, String questionOutcomes) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.quizId = quizId;
+        this.score = score;
+        this.durationSeconds = durationSeconds;
+        this.questionOutcomes = questionOutcomes;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getAttemptId() {
+        return attemptId;
+    }
+
+    public void setAttemptId(String attemptId) {
+        this.attemptId = attemptId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(String quizId) {
+        this.quizId = quizId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public String getQuestionOutcomes() {
+        return questionOutcomes;
+    }
+
+    public void setQuestionOutcomes(String questionOutcomes) {
+        this.questionOutcomes = questionOutcomes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
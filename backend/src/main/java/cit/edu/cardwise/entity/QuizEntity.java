@@ -1,11 +1,19 @@
 package cit.edu.cardwise.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzes")
+@DynamicUpdate
 @Table(name = "quizzes")
 public class QuizEntity {
     @Id
@@ -19,6 +27,9 @@ public class QuizEntity {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    private long version;
+
     public String getQuizModeId() {
         return quizModeId;
     }
@@ -90,4 +101,12 @@ public class QuizEntity {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
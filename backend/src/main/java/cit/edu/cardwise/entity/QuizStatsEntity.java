@@ -0,0 +1,80 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Running statistics for one quiz across all users, maintained incrementally by
+ * {@code QuizService.recordAttempt} so reads never aggregate raw attempts.
+ */
+@Entity
+@Table(name = "quiz_stats")
+public class QuizStatsEntity {
+    @Id
+    private String quizId;
+    private long attempts;
+    private int bestScore;
+    private long totalScore;
+    private String histogram; // attempt counts per 10-point score bucket, comma separated
+    private LocalDateTime updatedAt;
+
+    public QuizStatsEntity() {}
+
+    public QuizStatsEntity(String quizId) {
+        this.quizId = quizId;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(String quizId) {
+        this.quizId = quizId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    public double getMeanScore() {
+        return attempts == 0 ? 0 : (double) totalScore / attempts;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,36 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The single row {@code ReplicaLagMonitor} stamps on the primary and reads back from the
+ * replica. Mapped so the table is created with the rest of the schema rather than by
+ * the monitor at runtime.
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+public class ReplicationHeartbeatEntity {
+    @Id
+    private int id;
+    private long beatAt;
+
+    public ReplicationHeartbeatEntity() {}
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public long getBeatAt() {
+        return beatAt;
+    }
+
+    public void setBeatAt(long beatAt) {
+        this.beatAt = beatAt;
+    }
+}
@@ -0,0 +1,40 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Monotonic change counter for a cacheable resource (e.g. a deck's flashcard list).
+ * Mutating service methods bump it; controllers turn it into an ETag.
+ */
+@Entity
+@Table(name = "resource_versions")
+public class ResourceVersionEntity {
+    @Id
+    private String resourceKey;
+    private long version;
+
+    public ResourceVersionEntity() {}
+
+    public ResourceVersionEntity(String resourceKey, long version) {
+        this.resourceKey = resourceKey;
+        this.version = version;
+    }
+
+    public String getResourceKey() {
+        return resourceKey;
+    }
+
+    public void setResourceKey(String resourceKey) {
+        this.resourceKey = resourceKey;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
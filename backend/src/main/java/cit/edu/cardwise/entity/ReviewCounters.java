@@ -0,0 +1,33 @@
+package cit.edu.cardwise.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * The review outcome counters kept both per card and per user and card, so
+ * {@code ReviewService} updates either kind of row the same way.
+ */
+public interface ReviewCounters {
+    long getReviews();
+    void setReviews(long reviews);
+
+    long getCorrect();
+    void setCorrect(long correct);
+
+    long getTotalResponseTimeMs();
+    void setTotalResponseTimeMs(long totalResponseTimeMs);
+
+    long getTimedReviews();
+    void setTimedReviews(long timedReviews);
+
+    long getTotalConfidence();
+    void setTotalConfidence(long totalConfidence);
+
+    long getRatedReviews();
+    void setRatedReviews(long ratedReviews);
+
+    int getDifficulty();
+    void setDifficulty(int difficulty);
+
+    LocalDateTime getUpdatedAt();
+    void setUpdatedAt(LocalDateTime updatedAt);
+}
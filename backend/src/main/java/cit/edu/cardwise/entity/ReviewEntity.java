@@ -2,17 +2,27 @@ package cit.edu.cardwise.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
+// Range-partitioned by month of createdAt on MySQL, see PartitionManager
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_flashcard", columnList = "flashCardId"),
+        @Index(name = "idx_reviews_user", columnList = "userId"),
+        @Index(name = "idx_reviews_created", columnList = "createdAt")
+})
 public class ReviewEntity {
     @Id
     private String reviewId;
     private String flashCardId;
     private String reviewCorrectAnswer;
     private String reviewIncorrectAnswer;
+    private String userId;
+    private Boolean correct;        // null for free-text reviews, which feed no statistics
+    private Integer responseTimeMs;
+    private Integer confidence;     // 1 (guess) to 5 (certain)
     private LocalDateTime createdAt;
 
     public ReviewEntity() {
@@ -50,6 +60,38 @@ public class ReviewEntity {
         this.reviewIncorrectAnswer = reviewIncorrectAnswer;
     }
 
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Boolean getCorrect() {
+        return correct;
+    }
+
+    public void setCorrect(Boolean correct) {
+        this.correct = correct;
+    }
+
+    public Integer getResponseTimeMs() {
+        return responseTimeMs;
+    }
+
+    public void setResponseTimeMs(Integer responseTimeMs) {
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    public Integer getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Integer confidence) {
+        this.confidence = confidence;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
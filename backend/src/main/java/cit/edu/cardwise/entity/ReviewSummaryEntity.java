@@ -0,0 +1,59 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+
+/**
+ * The number of reviews of one flashcard during one month, kept after the raw review
+ * rows have passed the retention period. monthStart is the first day of the month.
+ */
+@Entity
+@Table(name = "review_monthly_summaries", indexes = {
+        @Index(name = "idx_review_summaries_flashcard", columnList = "flashCardId"),
+        @Index(name = "idx_review_summaries_month", columnList = "monthStart")
+})
+public class ReviewSummaryEntity {
+    @Id
+    private String summaryId;
+    private String flashCardId;
+    private LocalDate monthStart;
+    private long reviews;
+
+    public ReviewSummaryEntity() {
+    }
+
+    public String getSummaryId() {
+        return summaryId;
+    }
+
+    public void setSummaryId(String summaryId) {
+        this.summaryId = summaryId;
+    }
+
+    public String getFlashCardId() {
+        return flashCardId;
+    }
+
+    public void setFlashCardId(String flashCardId) {
+        this.flashCardId = flashCardId;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public long getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(long reviews) {
+        this.reviews = reviews;
+    }
+}
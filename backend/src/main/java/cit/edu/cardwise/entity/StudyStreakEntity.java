@@ -0,0 +1,136 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A user's run of consecutive study days, kept up to date one activity at a time. Bit n of
+ * {@code recentDays} is set if the user studied n days before {@code lastActiveDay}, so an
+ * activity that arrives late still lands on its own day as long as it is within the last
+ * {@link #WINDOW} days. Days are in the user's time zone.
+ */
+@Entity
+@Table(name = "study_streaks")
+public class StudyStreakEntity {
+    public static final int WINDOW = Long.SIZE;
+
+    @Id
+    private String userId;
+    private LocalDate lastActiveDay;
+    private long recentDays;
+    private int currentStreak;    // ending on lastActiveDay
+    private int longestStreak;
+    private LocalDateTime updatedAt;
+
+    public StudyStreakEntity() {}
+
+    public StudyStreakEntity(String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Mark a day as studied.
+     *
+     * @return false if it was already marked, or is too far behind lastActiveDay to place
+     */
+    public boolean record(LocalDate day) {
+        if (lastActiveDay == null) {
+            lastActiveDay = day;
+            recentDays = 1L;
+            currentStreak = 1;
+            longestStreak = Math.max(longestStreak, 1);
+            return true;
+        }
+
+        long ahead = ChronoUnit.DAYS.between(lastActiveDay, day);
+        if (ahead > 0) {
+            recentDays = ahead >= WINDOW ? 1L : (recentDays << ahead) | 1L;
+            currentStreak = ahead == 1 ? currentStreak + 1 : 1;
+            lastActiveDay = day;
+        } else {
+            long behind = -ahead;
+            if (behind >= WINDOW || (recentDays & (1L << behind)) != 0) {
+                return false;
+            }
+            recentDays |= 1L << behind;
+            // A filled gap can join the streak to days before the window, which are not
+            // kept; the stored length is then a lower bound
+            int run = Long.numberOfTrailingZeros(~recentDays);
+            currentStreak = run < WINDOW ? run : Math.max(currentStreak, WINDOW);
+        }
+        longestStreak = Math.max(longestStreak, Math.max(currentStreak, longestRun(recentDays)));
+        return true;
+    }
+
+    /**
+     * The streak as of the given day: broken once a whole day passes without study.
+     */
+    public int currentStreakOn(LocalDate today) {
+        if (lastActiveDay == null || lastActiveDay.isBefore(today.minusDays(1))) {
+            return 0;
+        }
+        return currentStreak;
+    }
+
+    // Each pass shortens every run of set bits by one
+    private static int longestRun(long bits) {
+        int length = 0;
+        while (bits != 0) {
+            bits &= bits << 1;
+            length++;
+        }
+        return length;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getLastActiveDay() {
+        return lastActiveDay;
+    }
+
+    public void setLastActiveDay(LocalDate lastActiveDay) {
+        this.lastActiveDay = lastActiveDay;
+    }
+
+    public long getRecentDays() {
+        return recentDays;
+    }
+
+    public void setRecentDays(long recentDays) {
+        this.recentDays = recentDays;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
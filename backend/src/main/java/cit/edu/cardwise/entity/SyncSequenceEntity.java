@@ -0,0 +1,59 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user change counter. prunedThrough is the highest sequence of a tombstone that has
+ * been discarded; a client whose cursor is older than that has to resync from scratch.
+ * backfilled is set once the user's existing data has been entered in the feed.
+ */
+@Entity
+@Table(name = "sync_sequences")
+public class SyncSequenceEntity {
+    @Id
+    private String userId;
+    private long lastSequence;
+    private long prunedThrough;
+    private boolean backfilled;
+
+    public SyncSequenceEntity() {}
+
+    public SyncSequenceEntity(String userId, long lastSequence) {
+        this.userId = userId;
+        this.lastSequence = lastSequence;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+
+    public void setPrunedThrough(long prunedThrough) {
+        this.prunedThrough = prunedThrough;
+    }
+
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public void setBackfilled(boolean backfilled) {
+        this.backfilled = backfilled;
+    }
+}
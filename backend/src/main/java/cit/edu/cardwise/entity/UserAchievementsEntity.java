@@ -0,0 +1,123 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Every achievement one user has unlocked, in a single row. Bit n of {@code unlockedBits} is
+ * set once catalog achievement n is unlocked; {@code unlockTimes} holds four bytes per catalog
+ * id up to the highest one unlocked, the unlock time in seconds since the epoch.
+ */
+@Entity
+@Table(name = "user_achievements")
+public class UserAchievementsEntity {
+    public static final int MAX_ACHIEVEMENTS = 512;
+
+    @Id
+    private String userId;
+    @Column(length = MAX_ACHIEVEMENTS / 8)
+    private byte[] unlockedBits = new byte[0];
+    @Column(length = MAX_ACHIEVEMENTS * 4)
+    private byte[] unlockTimes = new byte[0];
+    private int unlockedCount;
+    private LocalDateTime updatedAt;
+
+    public UserAchievementsEntity() {}
+
+    public UserAchievementsEntity(String userId) {
+        this.userId = userId;
+    }
+
+    public boolean isUnlocked(int achievementId) {
+        return isUnlocked(unlockedBits, achievementId);
+    }
+
+    public static boolean isUnlocked(byte[] unlockedBits, int achievementId) {
+        int index = achievementId >> 3;
+        return index < unlockedBits.length && (unlockedBits[index] & (1 << (achievementId & 7))) != 0;
+    }
+
+    /**
+     * Set the achievement's bit and record when it was unlocked.
+     *
+     * @return false if it was already unlocked
+     */
+    public boolean unlock(int achievementId, Instant at) {
+        if (achievementId < 0 || achievementId >= MAX_ACHIEVEMENTS) {
+            throw new IllegalArgumentException("Achievement id out of range: " + achievementId);
+        }
+        if (isUnlocked(achievementId)) {
+            return false;
+        }
+        // New arrays rather than in-place writes, so the change is seen as dirty
+        byte[] bits = Arrays.copyOf(unlockedBits, Math.max(unlockedBits.length, (achievementId >> 3) + 1));
+        bits[achievementId >> 3] |= (byte) (1 << (achievementId & 7));
+        byte[] times = Arrays.copyOf(unlockTimes, Math.max(unlockTimes.length, (achievementId + 1) * 4));
+        ByteBuffer.wrap(times).putInt(achievementId * 4, (int) at.getEpochSecond());
+        unlockedBits = bits;
+        unlockTimes = times;
+        unlockedCount++;
+        return true;
+    }
+
+    public LocalDateTime unlockedAt(int achievementId) {
+        if (!isUnlocked(achievementId) || unlockTimes.length < (achievementId + 1) * 4) {
+            return null;
+        }
+        // Stored unsigned, which lasts until 2106
+        long seconds = Integer.toUnsignedLong(ByteBuffer.wrap(unlockTimes).getInt(achievementId * 4));
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds), ZoneId.systemDefault());
+    }
+
+    public BitSet unlocked() {
+        return BitSet.valueOf(unlockedBits);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public byte[] getUnlockedBits() {
+        return unlockedBits;
+    }
+
+    public void setUnlockedBits(byte[] unlockedBits) {
+        this.unlockedBits = unlockedBits;
+    }
+
+    public byte[] getUnlockTimes() {
+        return unlockTimes;
+    }
+
+    public void setUnlockTimes(byte[] unlockTimes) {
+        this.unlockTimes = unlockTimes;
+    }
+
+    public int getUnlockedCount() {
+        return unlockedCount;
+    }
+
+    public void setUnlockedCount(int unlockedCount) {
+        this.unlockedCount = unlockedCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,159 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One user's review outcomes on one flashcard. The id is {@code userId + ":" + flashcardId},
+ * like {@link UserQuizStatsEntity}.
+ */
+@Entity
+@Table(name = "user_card_stats", indexes = {
+        @Index(name = "idx_user_card_stats_user_deck_difficulty", columnList = "userId, deckId, difficulty"),
+        @Index(name = "idx_user_card_stats_flashcard", columnList = "flashcardId")
+})
+public class UserCardStatsEntity implements ReviewCounters {
+    @Id
+    private String statsId;
+    private String userId;
+    private String flashcardId;
+    private String deckId;
+    private long reviews;
+    private long correct;
+    private long totalResponseTimeMs;
+    private long timedReviews;     // reviews that reported a response time
+    private long totalConfidence;
+    private long ratedReviews;     // reviews that reported a confidence
+    private int difficulty;        // permille, see ReviewService.difficulty
+    private Boolean lastCorrect;
+    private LocalDateTime lastReviewedAt;
+    private LocalDateTime updatedAt;
+
+    public UserCardStatsEntity() {}
+
+    public UserCardStatsEntity(String userId, String flashcardId, String deckId) {
+        this.statsId = idFor(userId, flashcardId);
+        this.userId = userId;
+        this.flashcardId = flashcardId;
+        this.deckId = deckId;
+    }
+
+    public static String idFor(String userId, String flashcardId) {
+        return userId + ":" + flashcardId;
+    }
+
+    public String getStatsId() {
+        return statsId;
+    }
+
+    public void setStatsId(String statsId) {
+        this.statsId = statsId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(String flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public String getDeckId() {
+        return deckId;
+    }
+
+    public void setDeckId(String deckId) {
+        this.deckId = deckId;
+    }
+
+    public long getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(long reviews) {
+        this.reviews = reviews;
+    }
+
+    public long getCorrect() {
+        return correct;
+    }
+
+    public void setCorrect(long correct) {
+        this.correct = correct;
+    }
+
+    public long getTotalResponseTimeMs() {
+        return totalResponseTimeMs;
+    }
+
+    public void setTotalResponseTimeMs(long totalResponseTimeMs) {
+        this.totalResponseTimeMs = totalResponseTimeMs;
+    }
+
+    public long getTimedReviews() {
+        return timedReviews;
+    }
+
+    public void setTimedReviews(long timedReviews) {
+        this.timedReviews = timedReviews;
+    }
+
+    public long getTotalConfidence() {
+        return totalConfidence;
+    }
+
+    public void setTotalConfidence(long totalConfidence) {
+        this.totalConfidence = totalConfidence;
+    }
+
+    public long getRatedReviews() {
+        return ratedReviews;
+    }
+
+    public void setRatedReviews(long ratedReviews) {
+        this.ratedReviews = ratedReviews;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(int difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Boolean getLastCorrect() {
+        return lastCorrect;
+    }
+
+    public void setLastCorrect(Boolean lastCorrect) {
+        this.lastCorrect = lastCorrect;
+    }
+
+    public LocalDateTime getLastReviewedAt() {
+        return lastReviewedAt;
+    }
+
+    public void setLastReviewedAt(LocalDateTime lastReviewedAt) {
+        this.lastReviewedAt = lastReviewedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
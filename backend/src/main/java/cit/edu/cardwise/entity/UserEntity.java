@@ -4,9 +4,12 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class UserEntity {
     @Id
@@ -21,10 +24,14 @@ public class UserEntity {
     private String password;
     private String role; // STUDENT, EDUCATOR
     private String profilePictureUrl;
+    private String timeZone; // IANA zone id for study days, e.g. Asia/Manila; UTC when unset
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    private long version;
+
     public UserEntity() {}
 
     public UserEntity(String userId, String firstName, String lastName, String email,
@@ -90,6 +97,14 @@ public class UserEntity {
         this.profilePictureUrl = profilePictureUrl;
     }
 
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -103,4 +118,11 @@ public class UserEntity {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,116 @@
+package cit.edu.cardwise.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Running statistics for one user on one quiz. The id is {@code userId + ":" + quizId}
+ * so the row can be located without a secondary lookup.
+ */
+@Entity
+@Table(name = "user_quiz_stats", indexes = {
+        @Index(name = "idx_user_quiz_stats_user", columnList = "userId")
+})
+public class UserQuizStatsEntity {
+    @Id
+    private String statsId;
+    private String userId;
+    private String quizId;
+    private long attempts;
+    private int bestScore;
+    private int lastScore;
+    private long totalScore;
+    private String histogram; // attempt counts per 10-point score bucket, comma separated
+    private LocalDateTime updatedAt;
+
+    public UserQuizStatsEntity() {}
+
+    public UserQuizStatsEntity(String userId, String quizId) {
+        this.statsId = idFor(userId, quizId);
+        this.userId = userId;
+        this.quizId = quizId;
+    }
+
+    public static String idFor(String userId, String quizId) {
+        return userId + ":" + quizId;
+    }
+
+    public String getStatsId() {
+        return statsId;
+    }
+
+    public void setStatsId(String statsId) {
+        this.statsId = statsId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(String quizId) {
+        this.quizId = quizId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public void setLastScore(int lastScore) {
+        this.lastScore = lastScore;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    public double getMeanScore() {
+        return attempts == 0 ? 0 : (double) totalScore / attempts;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package cit.edu.cardwise.event;
+
+import cit.edu.cardwise.dto.UnlockedAchievement;
+
+/**
+ * Published when a user unlocks an achievement. Delivered to listeners after the
+ * unlocking transaction commits.
+ */
+public class AchievementUnlockedEvent {
+    private final String userId;
+    private final UnlockedAchievement achievement;
+
+    public AchievementUnlockedEvent(String userId, UnlockedAchievement achievement) {
+        this.userId = userId;
+        this.achievement = achievement;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public UnlockedAchievement getAchievement() {
+        return achievement;
+    }
+}
@@ -0,0 +1,43 @@
+package cit.edu.cardwise.event;
+
+/**
+ * Published when a flashcard is added to, changed in or removed from a deck. deckVersion
+ * is the deck's resource version produced by the write, so listeners that keep derived
+ * state can tell whether they missed a change. A null answer on a card that was not
+ * removed means the answer did not change.
+ */
+public class FlashcardChangedEvent {
+    private final String deckId;
+    private final long deckVersion;
+    private final String flashcardId;
+    private final String answer;
+    private final boolean removed;
+
+    public FlashcardChangedEvent(String deckId, long deckVersion, String flashcardId, String answer, boolean removed) {
+        this.deckId = deckId;
+        this.deckVersion = deckVersion;
+        this.flashcardId = flashcardId;
+        this.answer = answer;
+        this.removed = removed;
+    }
+
+    public String getDeckId() {
+        return deckId;
+    }
+
+    public long getDeckVersion() {
+        return deckVersion;
+    }
+
+    public String getFlashcardId() {
+        return flashcardId;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
@@ -0,0 +1,25 @@
+package cit.edu.cardwise.event;
+
+import cit.edu.cardwise.entity.ProgressEntity;
+
+/**
+ * Published when a progress entry is created or updated. Delivered to listeners after
+ * the writing transaction commits.
+ */
+public class ProgressUpdatedEvent {
+    private final String userId;
+    private final ProgressEntity progress;
+
+    public ProgressUpdatedEvent(String userId, ProgressEntity progress) {
+        this.userId = userId;
+        this.progress = progress;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public ProgressEntity getProgress() {
+        return progress;
+    }
+}
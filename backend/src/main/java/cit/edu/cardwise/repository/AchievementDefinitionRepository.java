@@ -0,0 +1,25 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.AchievementDefinitionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AchievementDefinitionRepository extends JpaRepository<AchievementDefinitionEntity, Integer> {
+    @Query("select coalesce(max(a.achievementId), -1) from AchievementDefinitionEntity a")
+    int findMaxId();
+
+    // A plain insert, unlike save(), fails on a taken id instead of overwriting that entry
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "achievement_catalog"))
+    @Query(value = "insert into achievement_catalog (achievement_id, title, description, created_at) " +
+            "values (:achievementId, :title, :description, current_timestamp)", nativeQuery = true)
+    int insert(@Param("achievementId") int achievementId, @Param("title") String title,
+               @Param("description") String description);
+}
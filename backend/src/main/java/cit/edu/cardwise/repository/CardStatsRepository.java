@@ -0,0 +1,61 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.CardStatsEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CardStatsRepository extends JpaRepository<CardStatsEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CardStatsEntity s where s.flashcardId = :flashcardId")
+    Optional<CardStatsEntity> findForUpdate(@Param("flashcardId") String flashcardId);
+
+    // Creates the empty row unless it exists; a concurrent first insert waits on the
+    // row lock and then takes the no-op update instead of failing on the primary key
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "card_stats"))
+    @Query(value = "insert into card_stats (flashcard_id, deck_id, reviews, correct, total_response_time_ms, " +
+            "timed_reviews, total_confidence, rated_reviews, difficulty, updated_at) " +
+            "values (:flashcardId, :deckId, 0, 0, 0, 0, 0, 0, 500, current_timestamp) " +
+            "on duplicate key update flashcard_id = flashcard_id", nativeQuery = true)
+    int insertIfAbsent(@Param("flashcardId") String flashcardId, @Param("deckId") String deckId);
+
+    // Reads idx_card_stats_deck_difficulty backwards; the primary key breaks ties in index order
+    @Query("select s from CardStatsEntity s where s.deckId = :deckId order by s.difficulty desc, s.flashcardId desc")
+    List<CardStatsEntity> findHardest(@Param("deckId") String deckId, Pageable pageable);
+
+    /**
+     * Like findHardest for a subscription: its own cards plus the source cards it shows at
+     * sourceVersion, live or as revisions, and has not overridden.
+     */
+    @Query("select s from CardStatsEntity s where s.deckId = :deckId or (s.deckId = :sourceDeckId " +
+            "and not exists (select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = s.flashcardId) " +
+            "and (exists (select f.id from FlashcardEntity f where f.id = s.flashcardId and f.deckId = :sourceDeckId " +
+            "and f.deckVersion <= :sourceVersion) or exists (select r.revisionId from FlashcardRevisionEntity r " +
+            "where r.flashcardId = s.flashcardId and r.deckId = :sourceDeckId " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion))) " +
+            "order by s.difficulty desc, s.flashcardId desc")
+    List<CardStatsEntity> findHardestShown(@Param("deckId") String deckId, @Param("sourceDeckId") String sourceDeckId,
+                                           @Param("sourceVersion") long sourceVersion, Pageable pageable);
+
+    @Modifying
+    @Query("update CardStatsEntity s set s.deckId = :deckId where s.flashcardId = :flashcardId")
+    int moveToDeck(@Param("flashcardId") String flashcardId, @Param("deckId") String deckId);
+
+    @Modifying
+    @Query("delete from CardStatsEntity s where s.flashcardId in :flashcardIds")
+    int deleteByFlashcardIds(@Param("flashcardIds") Collection<String> flashcardIds);
+}
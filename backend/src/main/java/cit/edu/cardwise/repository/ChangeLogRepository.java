@@ -0,0 +1,150 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.ChangeLogEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntity, String> {
+    List<ChangeLogEntity> findByUserIdAndSequenceGreaterThanOrderBySequence(String userId, long sequence, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.userId = :userId and c.entityType = :entityType and c.entityId = :entityId")
+    int deleteEntry(@Param("userId") String userId, @Param("entityType") String entityType, @Param("entityId") String entityId);
+
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.entityType = :entityType and c.parentId = :parentId and c.entityId in :entityIds")
+    int deleteByEntityIds(@Param("entityType") String entityType, @Param("parentId") String parentId,
+                          @Param("entityIds") Collection<String> entityIds);
+
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+
+    @Query("select c.userId, max(c.sequence) from ChangeLogEntity c " +
+            "where c.operation = 'DELETE' and c.changedAt < :cutoff group by c.userId")
+    List<Object[]> findPrunableTombstones(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.userId = :userId and c.operation = 'DELETE' and c.sequence <= :sequence")
+    int deleteTombstones(@Param("userId") String userId, @Param("sequence") long sequence);
+
+    // Set-based logging: each statement enters many entities at once, numbered base + 1,
+    // base + 2, ... in id order, and returns how many sequences it used. Change ids are
+    // batchId-n, with a fresh batchId per statement
+
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.userId = :userId and c.entityType = 'FLASHCARD' and c.entityId in " +
+            "(select f.id from FlashcardEntity f where f.deckId = :deckId and f.hidden = false)")
+    int deleteCardEntries(@Param("userId") String userId, @Param("deckId") String deckId);
+
+    // The source cards a subscription shows at sourceVersion, live or as revisions
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.userId = :userId and c.entityType = 'FLASHCARD' and (c.entityId in " +
+            "(select f.id from FlashcardEntity f where f.deckId = :sourceDeckId and f.deckVersion <= :sourceVersion " +
+            "and not exists (select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = f.id)) " +
+            "or c.entityId in (select r.flashcardId from FlashcardRevisionEntity r where r.deckId = :sourceDeckId " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion " +
+            "and not exists (select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = r.flashcardId)))")
+    int deleteSourceCardEntries(@Param("userId") String userId, @Param("deckId") String deckId,
+                                @Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by f.id)), :userId, " +
+            ":base + row_number() over (order by f.id), 'FLASHCARD', f.id, 'UPSERT', f.deck_id, current_timestamp " +
+            "from flashcards f where f.deck_id = :deckId and f.hidden = false", nativeQuery = true)
+    int logCards(@Param("userId") String userId, @Param("deckId") String deckId,
+                 @Param("base") long base, @Param("batchId") String batchId);
+
+    // The source cards a subscription shows at sourceVersion, filed under the subscription:
+    // those unchanged since, then the revisions of the others
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by f.id)), :userId, " +
+            ":base + row_number() over (order by f.id), 'FLASHCARD', f.id, :operation, :deckId, current_timestamp " +
+            "from flashcards f where f.deck_id = :sourceDeckId and f.deck_version <= :sourceVersion and not exists " +
+            "(select o.id from flashcards o where o.deck_id = :deckId and o.source_flashcard_id = f.id)", nativeQuery = true)
+    int logSourceCards(@Param("userId") String userId, @Param("deckId") String deckId,
+                       @Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                       @Param("operation") String operation, @Param("base") long base, @Param("batchId") String batchId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by r.flashcard_id)), :userId, " +
+            ":base + row_number() over (order by r.flashcard_id), 'FLASHCARD', r.flashcard_id, :operation, :deckId, current_timestamp " +
+            "from flashcard_revisions r where r.deck_id = :sourceDeckId and r.from_version <= :sourceVersion " +
+            "and r.to_version > :sourceVersion and not exists " +
+            "(select o.id from flashcards o where o.deck_id = :deckId and o.source_flashcard_id = r.flashcard_id)", nativeQuery = true)
+    int logSourceRevisions(@Param("userId") String userId, @Param("deckId") String deckId,
+                           @Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                           @Param("operation") String operation, @Param("base") long base, @Param("batchId") String batchId);
+
+    // Backfill: only entities the feed has no entry for
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by d.id)), :userId, " +
+            ":base + row_number() over (order by d.id), 'DECK', d.id, 'UPSERT', null, current_timestamp " +
+            "from decks d where d.user_id = :userId and not exists (select c.change_id from change_log c " +
+            "where c.user_id = :userId and c.entity_type = 'DECK' and c.entity_id = d.id)", nativeQuery = true)
+    int logMissingDecks(@Param("userId") String userId, @Param("base") long base, @Param("batchId") String batchId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by f.id)), :userId, " +
+            ":base + row_number() over (order by f.id), 'FLASHCARD', f.id, 'UPSERT', f.deck_id, current_timestamp " +
+            "from flashcards f join decks d on d.id = f.deck_id where d.user_id = :userId and f.hidden = false " +
+            "and not exists (select c.change_id from change_log c " +
+            "where c.user_id = :userId and c.entity_type = 'FLASHCARD' and c.entity_id = f.id)", nativeQuery = true)
+    int logMissingCards(@Param("userId") String userId, @Param("base") long base, @Param("batchId") String batchId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by f.id)), :userId, " +
+            ":base + row_number() over (order by f.id), 'FLASHCARD', f.id, 'UPSERT', d.id, current_timestamp " +
+            "from decks d join flashcards f on f.deck_id = d.source_deck_id and f.deck_version <= d.source_version " +
+            "where d.user_id = :userId " +
+            "and not exists (select o.id from flashcards o where o.deck_id = d.id and o.source_flashcard_id = f.id) " +
+            "and not exists (select c.change_id from change_log c " +
+            "where c.user_id = :userId and c.entity_type = 'FLASHCARD' and c.entity_id = f.id)", nativeQuery = true)
+    int logMissingSourceCards(@Param("userId") String userId, @Param("base") long base, @Param("batchId") String batchId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by r.flashcard_id)), :userId, " +
+            ":base + row_number() over (order by r.flashcard_id), 'FLASHCARD', r.flashcard_id, 'UPSERT', d.id, current_timestamp " +
+            "from decks d join flashcard_revisions r on r.deck_id = d.source_deck_id " +
+            "and r.from_version <= d.source_version and r.to_version > d.source_version where d.user_id = :userId " +
+            "and not exists (select o.id from flashcards o where o.deck_id = d.id and o.source_flashcard_id = r.flashcard_id) " +
+            "and not exists (select c.change_id from change_log c " +
+            "where c.user_id = :userId and c.entity_type = 'FLASHCARD' and c.entity_id = r.flashcard_id)", nativeQuery = true)
+    int logMissingSourceRevisions(@Param("userId") String userId, @Param("base") long base, @Param("batchId") String batchId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "insert into change_log (change_id, user_id, sequence, entity_type, entity_id, operation, parent_id, changed_at) " +
+            "select concat(:batchId, '-', row_number() over (order by p.progress_id)), :userId, " +
+            ":base + row_number() over (order by p.progress_id), 'PROGRESS', p.progress_id, 'UPSERT', p.flash_card_id, current_timestamp " +
+            "from progress p where p.user_id = :userId and not exists (select c.change_id from change_log c " +
+            "where c.user_id = :userId and c.entity_type = 'PROGRESS' and c.entity_id = p.progress_id)", nativeQuery = true)
+    int logMissingProgress(@Param("userId") String userId, @Param("base") long base, @Param("batchId") String batchId);
+}
@@ -1,12 +1,54 @@
 package cit.edu.cardwise.repository;
 
 import cit.edu.cardwise.entity.DeckEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DeckRepository extends JpaRepository<DeckEntity, String> {
     List<DeckEntity> findByUserId(String userId);
+
+    @Query("select d.userId from DeckEntity d where d.id = :id")
+    Optional<String> findUserIdById(@Param("id") String id);
+
+    @Query("select d.id from DeckEntity d where d.userId = :userId")
+    List<String> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query("select d.sourceDeckId from DeckEntity d where d.id = :id")
+    Optional<String> findSourceDeckIdById(@Param("id") String id);
+
+    @Query("select d.id from DeckEntity d where d.sourceDeckId = :sourceDeckId")
+    List<String> findIdsBySourceDeckId(@Param("sourceDeckId") String sourceDeckId, Pageable pageable);
+
+    @Query("select d from DeckEntity d where d.id = :id and d.sourceDeckId is not null")
+    Optional<DeckEntity> findSubscriptionById(@Param("id") String id);
+
+    @Query("select d.id from DeckEntity d where d.userId = :userId and d.sourceDeckId = :sourceDeckId order by d.createdAt")
+    List<String> findSubscriptionIds(@Param("userId") String userId, @Param("sourceDeckId") String sourceDeckId,
+                                     Pageable pageable);
+
+    // Subscriptions still showing a state from version onwards. A locking read, so it also
+    // sees one committed after this transaction started
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select d.id from DeckEntity d where d.sourceDeckId = :sourceDeckId and d.sourceVersion >= :version")
+    List<String> findPinnedSince(@Param("sourceDeckId") String sourceDeckId, @Param("version") long version,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("update DeckEntity d set d.sourceDeckId = null, d.version = d.version + 1 where d.id = :id")
+    int clearSourceDeckId(@Param("id") String id);
+
+    @Modifying
+    @Query("delete from DeckEntity d where d.id in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
 }
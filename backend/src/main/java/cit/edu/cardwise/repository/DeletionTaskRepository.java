@@ -0,0 +1,13 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.DeletionTaskEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeletionTaskRepository extends JpaRepository<DeletionTaskEntity, String> {
+    List<DeletionTaskEntity> findByStatusOrderByCreatedAt(String status, Pageable pageable);
+}
@@ -0,0 +1,42 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.FlashcardAttachmentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FlashcardAttachmentRepository extends JpaRepository<FlashcardAttachmentEntity, String> {
+    @Query("select a from FlashcardAttachmentEntity a where a.flashcardId = :flashcardId order by a.createdAt")
+    List<FlashcardAttachmentEntity> findByFlashcardId(@Param("flashcardId") String flashcardId);
+
+    long countByFlashcardId(String flashcardId);
+
+    boolean existsByBlobKey(String blobKey);
+
+    // Blobs are left to AttachmentService.sweepOrphans, since others may still share them
+    @Modifying
+    @Query("delete from FlashcardAttachmentEntity a where a.flashcardId in :flashcardIds")
+    int deleteByFlashcardIds(@Param("flashcardIds") Collection<String> flashcardIds);
+
+    /**
+     * Give the cards FlashcardRepository copied into a deck the attachments of the cards
+     * they were copied from, sharing their blobs. Run before the copies' sourceFlashcardId
+     * is cleared.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "flashcard_attachments"))
+    @Query(value = "insert into flashcard_attachments (attachment_id, flashcard_id, blob_key, file_name, content_type, size, created_at) " +
+            "select uuid(), c.id, a.blob_key, a.file_name, a.content_type, a.size, a.created_at " +
+            "from flashcards c join flashcard_attachments a on a.flashcard_id = c.source_flashcard_id " +
+            "where c.deck_id = :deckId and c.id = concat(c.source_flashcard_id, '@', :deckId)", nativeQuery = true)
+    int copyToCopies(@Param("deckId") String deckId);
+}
@@ -1,12 +1,121 @@
 package cit.edu.cardwise.repository;
 
 import cit.edu.cardwise.entity.FlashcardEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FlashcardRepository extends JpaRepository<FlashcardEntity, String> {
     List<FlashcardEntity> findByDeckId(String deckId);
+
+    @Query("select f.id, f.answer from FlashcardEntity f where f.deckId = :deckId")
+    List<Object[]> findAnswersByDeckId(@Param("deckId") String deckId);
+
+    // Hidden rows only mark removed source cards in a subscribed deck
+    @Query("select f from FlashcardEntity f where f.hidden = false")
+    List<FlashcardEntity> findVisible();
+
+    /**
+     * The cards a subscribed deck shows: its own rows, minus hidden ones, plus every
+     * source card it has not overridden that has not changed since sourceVersion. Cards
+     * changed since then are shown from FlashcardRevisionRepository#findShown.
+     */
+    @Query("select f from FlashcardEntity f where (f.deckId = :deckId and f.hidden = false) or " +
+            "(f.deckId = :sourceDeckId and f.deckVersion <= :sourceVersion and not exists " +
+            "(select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = f.id))")
+    List<FlashcardEntity> findOverlay(@Param("deckId") String deckId, @Param("sourceDeckId") String sourceDeckId,
+                                      @Param("sourceVersion") long sourceVersion);
+
+    @Query("select f.id, f.answer from FlashcardEntity f where (f.deckId = :deckId and f.hidden = false) or " +
+            "(f.deckId = :sourceDeckId and f.deckVersion <= :sourceVersion and not exists " +
+            "(select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = f.id))")
+    List<Object[]> findOverlayAnswers(@Param("deckId") String deckId, @Param("sourceDeckId") String sourceDeckId,
+                                      @Param("sourceVersion") long sourceVersion);
+
+    Optional<FlashcardEntity> findByDeckIdAndSourceFlashcardId(String deckId, String sourceFlashcardId);
+
+    // Copies made below get the id <original id>@<deck id> and keep the original in
+    // sourceFlashcardId, so FlashcardAttachmentRepository#copyToCopies can tell them apart
+    // from a subscription's own overrides and copy their attachments in one statement
+
+    /**
+     * Copy a deck's visible rows into another deck in one statement, as unlearned cards.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "flashcards"))
+    @Query(value = "insert into flashcards (id, question, answer, learned, deck_id, updated_at, version, hidden, source_flashcard_id, deck_version) " +
+            "select concat(f.id, '@', :targetDeckId), f.question, f.answer, false, :targetDeckId, current_timestamp, 0, false, f.id, 0 " +
+            "from flashcards f where f.deck_id = :deckId and f.hidden = false", nativeQuery = true)
+    int copyCards(@Param("deckId") String deckId, @Param("targetDeckId") String targetDeckId);
+
+    // Copy the source cards a subscribed deck shows and has not overridden or hidden: those
+    // unchanged since its sourceVersion, then the revisions of the others. A target of the
+    // subscribed deck itself materializes it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "flashcards"))
+    @Query(value = "insert into flashcards (id, question, answer, learned, deck_id, updated_at, version, hidden, source_flashcard_id, deck_version) " +
+            "select concat(f.id, '@', :targetDeckId), f.question, f.answer, false, :targetDeckId, current_timestamp, 0, false, f.id, 0 " +
+            "from flashcards f where f.deck_id = :sourceDeckId and f.deck_version <= :sourceVersion and not exists " +
+            "(select 1 from flashcards o where o.deck_id = :deckId and o.source_flashcard_id = f.id)", nativeQuery = true)
+    int copySourceCards(@Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                        @Param("deckId") String deckId, @Param("targetDeckId") String targetDeckId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "flashcards"))
+    @Query(value = "insert into flashcards (id, question, answer, learned, deck_id, updated_at, version, hidden, source_flashcard_id, deck_version) " +
+            "select concat(r.flashcard_id, '@', :targetDeckId), r.question, r.answer, false, :targetDeckId, current_timestamp, 0, false, r.flashcard_id, 0 " +
+            "from flashcard_revisions r where r.deck_id = :sourceDeckId and r.from_version <= :sourceVersion " +
+            "and r.to_version > :sourceVersion and not exists " +
+            "(select 1 from flashcards o where o.deck_id = :deckId and o.source_flashcard_id = r.flashcard_id)", nativeQuery = true)
+    int copySourceRevisions(@Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                            @Param("deckId") String deckId, @Param("targetDeckId") String targetDeckId);
+
+    @Modifying
+    @Query("delete from FlashcardEntity f where f.deckId = :deckId and f.hidden = true")
+    int deleteHidden(@Param("deckId") String deckId);
+
+    @Modifying
+    @Query("update FlashcardEntity f set f.sourceFlashcardId = null where f.deckId = :deckId and f.sourceFlashcardId is not null")
+    int clearSourceFlashcardIds(@Param("deckId") String deckId);
+
+    @Query("select f.deckId from FlashcardEntity f where f.id = :id")
+    Optional<String> findDeckIdById(@Param("id") String id);
+
+    // Serializes attachment inserts for one card, so its attachment limit is checked and
+    // kept in one step
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from FlashcardEntity f where f.id = :id")
+    Optional<FlashcardEntity> findForUpdate(@Param("id") String id);
+
+    @Query("select f.id from FlashcardEntity f where f.deckId = :deckId")
+    List<String> findIdsByDeckId(@Param("deckId") String deckId, Pageable pageable);
+
+    @Query("select count(f) from FlashcardEntity f where f.deckId = :deckId and f.hidden = false")
+    long countByDeckId(@Param("deckId") String deckId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update FlashcardEntity f set f.deckVersion = :deckVersion where f.id = :id")
+    int setDeckVersion(@Param("id") String id, @Param("deckVersion") long deckVersion);
+
+    // Cards not yet seen by duplicate detection, e.g. created before it existed
+    @Query("select f from FlashcardEntity f where not exists " +
+            "(select s.flashcardId from FlashcardSignatureEntity s where s.flashcardId = f.id)")
+    List<FlashcardEntity> findUnsigned(Pageable pageable);
+
+    @Modifying
+    @Query("delete from FlashcardEntity f where f.id in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,51 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.FlashcardRevisionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FlashcardRevisionRepository extends JpaRepository<FlashcardRevisionEntity, String> {
+    /**
+     * The revisions of source cards a subscription pinned to sourceVersion shows, except
+     * the cards it has overridden.
+     */
+    @Query("select r from FlashcardRevisionEntity r where r.deckId = :sourceDeckId " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion and not exists " +
+            "(select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = r.flashcardId)")
+    List<FlashcardRevisionEntity> findShown(@Param("deckId") String deckId, @Param("sourceDeckId") String sourceDeckId,
+                                            @Param("sourceVersion") long sourceVersion);
+
+    @Query("select r.flashcardId, r.answer from FlashcardRevisionEntity r where r.deckId = :sourceDeckId " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion and not exists " +
+            "(select o.id from FlashcardEntity o where o.deckId = :deckId and o.sourceFlashcardId = r.flashcardId)")
+    List<Object[]> findShownAnswers(@Param("deckId") String deckId, @Param("sourceDeckId") String sourceDeckId,
+                                    @Param("sourceVersion") long sourceVersion);
+
+    @Query("select r from FlashcardRevisionEntity r where r.deckId = :sourceDeckId and r.flashcardId in :flashcardIds " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion")
+    List<FlashcardRevisionEntity> findAt(@Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                                         @Param("flashcardIds") Collection<String> flashcardIds);
+
+    @Query("select r from FlashcardRevisionEntity r where r.deckId = :sourceDeckId and r.flashcardId = :flashcardId " +
+            "and r.fromVersion <= :sourceVersion and r.toVersion > :sourceVersion")
+    Optional<FlashcardRevisionEntity> findAt(@Param("sourceDeckId") String sourceDeckId, @Param("sourceVersion") long sourceVersion,
+                                             @Param("flashcardId") String flashcardId);
+
+    // Revisions no subscription is pinned within any more
+    @Modifying
+    @Query("delete from FlashcardRevisionEntity r where not exists (select d.id from DeckEntity d " +
+            "where d.sourceDeckId = r.deckId and d.sourceVersion >= r.fromVersion and d.sourceVersion < r.toVersion)")
+    int deleteUnused();
+
+    @Modifying
+    @Query("delete from FlashcardRevisionEntity r where r.deckId = :deckId")
+    int deleteByDeckId(@Param("deckId") String deckId);
+}
@@ -0,0 +1,21 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.FlashcardSignatureEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface FlashcardSignatureRepository extends JpaRepository<FlashcardSignatureEntity, String> {
+    @Modifying
+    @Query("delete from FlashcardSignatureEntity s where s.flashcardId in :flashcardIds")
+    int deleteByFlashcardIds(@Param("flashcardIds") Collection<String> flashcardIds);
+
+    @Modifying
+    @Query("update FlashcardSignatureEntity s set s.userId = :userId where s.deckId = :deckId")
+    int reassignDeck(@Param("deckId") String deckId, @Param("userId") String userId);
+}
@@ -0,0 +1,32 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.LshBucketEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LshBucketRepository extends JpaRepository<LshBucketEntity, String> {
+    @Query("select distinct b.flashcardId from LshBucketEntity b where b.userId = :userId and b.bandKey in :bandKeys")
+    List<String> findFlashcardIds(@Param("userId") String userId, @Param("bandKeys") Collection<String> bandKeys, Pageable pageable);
+
+    // Only buckets holding more than one card can contain duplicates
+    @Query("select b.bandKey, b.flashcardId from LshBucketEntity b where b.userId = :userId and b.bandKey in " +
+            "(select c.bandKey from LshBucketEntity c where c.userId = :userId group by c.bandKey having count(c) > 1)")
+    List<Object[]> findSharedBuckets(@Param("userId") String userId);
+
+    @Modifying
+    @Query("delete from LshBucketEntity b where b.flashcardId in :flashcardIds")
+    int deleteByFlashcardIds(@Param("flashcardIds") Collection<String> flashcardIds);
+
+    @Modifying
+    @Query("update LshBucketEntity b set b.userId = :userId where b.flashcardId in " +
+            "(select s.flashcardId from FlashcardSignatureEntity s where s.deckId = :deckId)")
+    int reassignDeck(@Param("deckId") String deckId, @Param("userId") String userId);
+}
@@ -0,0 +1,53 @@
+package cit.edu.cardwise.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Column-targeted updates for versioned entities. Instead of loading a row and writing
+ * every column back, a single UPDATE sets only the given attributes and increments the
+ * version in place.
+ */
+@Repository
+public class PartialUpdateRepository {
+
+    private static final Pattern ATTRIBUTE = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Set the given attributes on one row and increment its version. When expectedVersion
+     * is not null the row is only touched if its version still matches.
+     * @return the number of rows updated, 0 if the row is missing or its version moved on
+     */
+    public int update(Class<?> entityType, String idAttribute, String id,
+                      Map<String, Object> values, Long expectedVersion) {
+        StringBuilder jpql = new StringBuilder("update ")
+                .append(entityType.getSimpleName())
+                .append(" e set e.version = e.version + 1");
+        for (String attribute : values.keySet()) {
+            if (!ATTRIBUTE.matcher(attribute).matches()) {
+                throw new IllegalArgumentException("Invalid attribute: " + attribute);
+            }
+            jpql.append(", e.").append(attribute).append(" = :v_").append(attribute);
+        }
+        jpql.append(" where e.").append(idAttribute).append(" = :id");
+        if (expectedVersion != null) {
+            jpql.append(" and e.version = :expectedVersion");
+        }
+
+        Query query = entityManager.createQuery(jpql.toString());
+        values.forEach((attribute, value) -> query.setParameter("v_" + attribute, value));
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+}
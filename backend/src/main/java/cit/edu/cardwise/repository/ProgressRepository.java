@@ -1,13 +1,73 @@
 package cit.edu.cardwise.repository;
 
+import cit.edu.cardwise.dto.DailyProgress;
+import cit.edu.cardwise.dto.ProgressTotals;
+import cit.edu.cardwise.dto.ScoreComparisonCount;
 import cit.edu.cardwise.entity.ProgressEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProgressRepository extends JpaRepository<ProgressEntity, String> {
     List<ProgressEntity> findByFlashCardId(String flashCardId);
     List<ProgressEntity> findByUserId(String userId);
+
+    @Query("select coalesce(sum(p.timeSpent), 0) from ProgressEntity p where p.userId = :userId")
+    long sumTimeSpentByUserId(@Param("userId") String userId);
+
+    @Query("select new cit.edu.cardwise.dto.ProgressTotals(count(p.flashCardId), sum(p.timeSpent), " +
+            "sum(case when p.flashCardId is not null then p.score else 0 end), " +
+            "max(case when p.flashCardId is not null then p.score end)) " +
+            "from ProgressEntity p where p.userId = :userId")
+    ProgressTotals findTotalsByUserId(@Param("userId") String userId);
+
+    @Query("select new cit.edu.cardwise.dto.ScoreComparisonCount(p.scoreComparison, count(p)) from ProgressEntity p " +
+            "where p.userId = :userId and p.scoreComparison is not null group by p.scoreComparison")
+    List<ScoreComparisonCount> countByScoreComparison(@Param("userId") String userId);
+
+    // Range scan of idx_progress_user_created
+    @Query("select new cit.edu.cardwise.dto.DailyProgress(cast(p.createdAt as LocalDate), count(p.flashCardId), " +
+            "sum(p.timeSpent), avg(case when p.flashCardId is not null then p.score end)) from ProgressEntity p " +
+            "where p.userId = :userId and p.createdAt >= :from " +
+            "group by cast(p.createdAt as LocalDate) order by cast(p.createdAt as LocalDate)")
+    List<DailyProgress> findDailySince(@Param("userId") String userId, @Param("from") LocalDateTime from);
+
+    @Query("select p.createdAt from ProgressEntity p where p.userId = :userId and p.createdAt >= :from")
+    List<LocalDateTime> findCreatedAtSince(@Param("userId") String userId, @Param("from") LocalDateTime from);
+
+    @Query("select min(p.createdAt) from ProgressEntity p")
+    LocalDateTime findOldestCreatedAt();
+
+    @Query("select p.progressId from ProgressEntity p where p.createdAt < :before")
+    List<String> findIdsCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("select p.progressId from ProgressEntity p where p.userId = :userId")
+    List<String> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ProgressEntity p where p.progressId in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
+    @Query("select p.progressId, p.userId, p.flashCardId from ProgressEntity p where p.flashCardId in :flashCardIds")
+    List<Object[]> findKeysByFlashCardIds(@Param("flashCardIds") Collection<String> flashCardIds);
+
+    // Point a user's progress on source cards at the deck rows that replaced them
+    @Modifying
+    @Query("update ProgressEntity p set p.flashCardId = (select f.id from FlashcardEntity f " +
+            "where f.deckId = :deckId and f.sourceFlashcardId = p.flashCardId) " +
+            "where p.userId = :userId and p.flashCardId in (select f.sourceFlashcardId from FlashcardEntity f " +
+            "where f.deckId = :deckId and f.sourceFlashcardId is not null)")
+    int remapToMaterialized(@Param("userId") String userId, @Param("deckId") String deckId);
+
+    @Modifying
+    @Query("delete from ProgressEntity p where p.flashCardId in :flashCardIds")
+    int deleteByFlashCardIds(@Param("flashCardIds") Collection<String> flashCardIds);
 }
@@ -0,0 +1,57 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.dto.ProgressTotals;
+import cit.edu.cardwise.dto.ScoreComparisonCount;
+import cit.edu.cardwise.entity.ProgressSummaryEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProgressSummaryRepository extends JpaRepository<ProgressSummaryEntity, String> {
+    @Query("select s from ProgressSummaryEntity s where s.userId = :userId order by s.monthStart")
+    List<ProgressSummaryEntity> findByUserId(@Param("userId") String userId);
+
+    @Query("select new cit.edu.cardwise.dto.ProgressTotals(" +
+            "sum(case when s.flashCardId is not null then s.attempts else 0 end), sum(s.totalTimeSpent), " +
+            "sum(case when s.flashCardId is not null then s.totalScore else 0 end), " +
+            "max(case when s.flashCardId is not null then s.bestScore end)) " +
+            "from ProgressSummaryEntity s where s.userId = :userId")
+    ProgressTotals findTotalsByUserId(@Param("userId") String userId);
+
+    // Like ProgressRepository#countByScoreComparison, for the compacted months
+    @Query("select new cit.edu.cardwise.dto.ScoreComparisonCount(s.scoreComparison, sum(s.attempts)) " +
+            "from ProgressSummaryEntity s where s.userId = :userId and s.scoreComparison is not null " +
+            "group by s.scoreComparison")
+    List<ScoreComparisonCount> countByScoreComparison(@Param("userId") String userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "progress_monthly_summaries"))
+    @Query(value = "insert into progress_monthly_summaries (summary_id, user_id, flash_card_id, score_comparison, " +
+            "month_start, attempts, total_score, best_score, total_time_spent) " +
+            "select uuid(), p.user_id, p.flash_card_id, p.score_comparison, :monthStart, count(*), coalesce(sum(p.score), 0), " +
+            "coalesce(max(p.score), 0), coalesce(sum(p.time_spent), 0) from progress p " +
+            "where p.created_at >= :from and p.created_at < :to " +
+            "group by p.user_id, p.flash_card_id, p.score_comparison", nativeQuery = true)
+    int summarize(@Param("monthStart") LocalDate monthStart, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    boolean existsByMonthStart(LocalDate monthStart);
+
+    @Modifying
+    @Query("delete from ProgressSummaryEntity s where s.flashCardId in :flashCardIds")
+    int deleteByFlashCardIds(@Param("flashCardIds") Collection<String> flashCardIds);
+
+    @Modifying
+    @Query("delete from ProgressSummaryEntity s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -0,0 +1,27 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.QuizAttemptEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttemptEntity, String> {
+    List<QuizAttemptEntity> findByUserIdAndQuizIdOrderByCreatedAtDesc(String userId, String quizId);
+
+    @Query("select a.attemptId from QuizAttemptEntity a where a.userId = :userId")
+    List<String> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query("select a.attemptId from QuizAttemptEntity a where a.quizId in :quizIds")
+    List<String> findIdsByQuizIds(@Param("quizIds") Collection<String> quizIds, Pageable pageable);
+
+    @Modifying
+    @Query("delete from QuizAttemptEntity a where a.attemptId in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+}
@@ -1,12 +1,27 @@
 package cit.edu.cardwise.repository;
 
 import cit.edu.cardwise.entity.QuizEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuizRepository extends JpaRepository<QuizEntity, String> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<QuizEntity> findByDeckId(String deckId);
+
+    @Query("select q.quizModeId from QuizEntity q where q.deckId = :deckId")
+    List<String> findIdsByDeckId(@Param("deckId") String deckId);
+
+    @Modifying
+    @Query("delete from QuizEntity q where q.quizModeId in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,36 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.QuizStatsEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface QuizStatsRepository extends JpaRepository<QuizStatsEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from QuizStatsEntity s where s.quizId = :quizId")
+    Optional<QuizStatsEntity> findForUpdate(@Param("quizId") String quizId);
+
+    // Creates the empty row unless it exists; a concurrent first insert waits on the
+    // row lock and then takes the no-op update instead of failing on the primary key
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_stats"))
+    @Query(value = "insert into quiz_stats (quiz_id, attempts, best_score, total_score, histogram, updated_at) " +
+            "values (:quizId, 0, 0, 0, :histogram, current_timestamp) " +
+            "on duplicate key update quiz_id = quiz_id", nativeQuery = true)
+    int insertIfAbsent(@Param("quizId") String quizId, @Param("histogram") String histogram);
+
+    @Modifying
+    @Query("delete from QuizStatsEntity s where s.quizId in :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<String> quizIds);
+}
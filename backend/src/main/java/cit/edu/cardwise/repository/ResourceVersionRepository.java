@@ -0,0 +1,31 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.ResourceVersionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ResourceVersionRepository extends JpaRepository<ResourceVersionEntity, String> {
+    // One statement for first use and every later bump, so concurrent first writes
+    // cannot both try to insert the row
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resource_versions"))
+    @Query(value = "insert into resource_versions (resource_key, version) values (:resourceKey, 1) " +
+            "on duplicate key update version = version + 1", nativeQuery = true)
+    int increment(@Param("resourceKey") String resourceKey);
+
+    @Query("select v.version from ResourceVersionEntity v where v.resourceKey = :resourceKey")
+    Optional<Long> findVersion(@Param("resourceKey") String resourceKey);
+
+    // Counters only ever grow, so their sum changes whenever any one of them does
+    @Query("select coalesce(sum(v.version), 0) from ResourceVersionEntity v where v.resourceKey like :prefix%")
+    long sumVersions(@Param("prefix") String prefix);
+}
@@ -1,12 +1,35 @@
 package cit.edu.cardwise.repository;
 
 import cit.edu.cardwise.entity.ReviewEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<ReviewEntity, String> {
     List<ReviewEntity> findByFlashCardId(String flashCardId);
+
+    @Query("select min(r.createdAt) from ReviewEntity r")
+    LocalDateTime findOldestCreatedAt();
+
+    @Query("select r.reviewId from ReviewEntity r where r.createdAt < :before")
+    List<String> findIdsCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("select r.reviewId from ReviewEntity r where r.userId = :userId")
+    List<String> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ReviewEntity r where r.reviewId in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("delete from ReviewEntity r where r.flashCardId in :flashCardIds")
+    int deleteByFlashCardIds(@Param("flashCardIds") Collection<String> flashCardIds);
 }
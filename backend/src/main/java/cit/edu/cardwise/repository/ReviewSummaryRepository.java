@@ -0,0 +1,31 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.ReviewSummaryEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ReviewSummaryRepository extends JpaRepository<ReviewSummaryEntity, String> {
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "review_monthly_summaries"))
+    @Query(value = "insert into review_monthly_summaries (summary_id, flash_card_id, month_start, reviews) " +
+            "select uuid(), r.flash_card_id, :monthStart, count(*) from reviews r " +
+            "where r.created_at >= :from and r.created_at < :to group by r.flash_card_id", nativeQuery = true)
+    int summarize(@Param("monthStart") LocalDate monthStart, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    boolean existsByMonthStart(LocalDate monthStart);
+
+    @Modifying
+    @Query("delete from ReviewSummaryEntity s where s.flashCardId in :flashCardIds")
+    int deleteByFlashCardIds(@Param("flashCardIds") Collection<String> flashCardIds);
+}
@@ -0,0 +1,32 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.StudyStreakEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StudyStreakRepository extends JpaRepository<StudyStreakEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from StudyStreakEntity s where s.userId = :userId")
+    Optional<StudyStreakEntity> findForUpdate(@Param("userId") String userId);
+
+    // Concurrent first activities: the loser waits on the winner's row lock and then takes
+    // the no-op update instead of failing on the primary key. The row starts with no
+    // updated_at until it has been seeded
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "study_streaks"))
+    @Query(value = "insert into study_streaks (user_id, last_active_day, recent_days, current_streak, longest_streak, updated_at) " +
+            "values (:userId, null, 0, 0, 0, null) " +
+            "on duplicate key update user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") String userId);
+}
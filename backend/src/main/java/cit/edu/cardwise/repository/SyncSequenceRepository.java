@@ -0,0 +1,65 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.SyncSequenceEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SyncSequenceRepository extends JpaRepository<SyncSequenceEntity, String> {
+    // The row lock taken here serialises concurrent writers for the same user until commit;
+    // a concurrent first write waits on it and then takes the update instead of failing
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sync_sequences"))
+    @Query(value = "insert into sync_sequences (user_id, last_sequence, pruned_through, backfilled) " +
+            "values (:userId, 1, 0, false) " +
+            "on duplicate key update last_sequence = last_sequence + 1", nativeQuery = true)
+    int increment(@Param("userId") String userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sync_sequences"))
+    @Query(value = "insert into sync_sequences (user_id, last_sequence, pruned_through, backfilled) " +
+            "values (:userId, 0, 0, false) " +
+            "on duplicate key update user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SyncSequenceEntity s where s.userId = :userId")
+    Optional<SyncSequenceEntity> findForUpdate(@Param("userId") String userId);
+
+    @Query("select s.lastSequence from SyncSequenceEntity s where s.userId = :userId")
+    Optional<Long> findLastSequence(@Param("userId") String userId);
+
+    @Modifying
+    @Query("update SyncSequenceEntity s set s.lastSequence = :lastSequence where s.userId = :userId")
+    int setLastSequence(@Param("userId") String userId, @Param("lastSequence") long lastSequence);
+
+    @Query("select s.backfilled from SyncSequenceEntity s where s.userId = :userId")
+    Optional<Boolean> findBackfilled(@Param("userId") String userId);
+
+    @Modifying
+    @Query("update SyncSequenceEntity s set s.backfilled = true where s.userId = :userId")
+    int markBackfilled(@Param("userId") String userId);
+
+    @Query("select u.userId from UserEntity u where not exists (select s.userId from SyncSequenceEntity s " +
+            "where s.userId = u.userId and s.backfilled = true)")
+    List<String> findUsersToBackfill(Pageable pageable);
+
+    @Query("select s.prunedThrough from SyncSequenceEntity s where s.userId = :userId")
+    Optional<Long> findPrunedThrough(@Param("userId") String userId);
+
+    @Modifying
+    @Query("update SyncSequenceEntity s set s.prunedThrough = :sequence where s.userId = :userId and s.prunedThrough < :sequence")
+    int advancePrunedThrough(@Param("userId") String userId, @Param("sequence") long sequence);
+}
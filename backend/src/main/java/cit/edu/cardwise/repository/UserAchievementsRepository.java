@@ -0,0 +1,36 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.UserAchievementsEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserAchievementsRepository extends JpaRepository<UserAchievementsEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from UserAchievementsEntity u where u.userId = :userId")
+    Optional<UserAchievementsEntity> findForUpdate(@Param("userId") String userId);
+
+    // Only the bits, so the quick already-unlocked check leaves no managed entity behind
+    // for findForUpdate to hand back unrefreshed
+    @Query("select u.unlockedBits from UserAchievementsEntity u where u.userId = :userId")
+    Optional<byte[]> findUnlockedBits(@Param("userId") String userId);
+
+    // Concurrent first unlocks for one user: the loser waits on the winner's row lock and
+    // then takes the no-op update instead of failing on the primary key
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_achievements"))
+    @Query(value = "insert into user_achievements (user_id, unlocked_bits, unlock_times, unlocked_count, updated_at) " +
+            "values (:userId, X'', X'', 0, current_timestamp) " +
+            "on duplicate key update user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") String userId);
+}
@@ -0,0 +1,53 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.UserCardStatsEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserCardStatsRepository extends JpaRepository<UserCardStatsEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserCardStatsEntity s where s.statsId = :statsId")
+    Optional<UserCardStatsEntity> findForUpdate(@Param("statsId") String statsId);
+
+    // Like CardStatsRepository.insertIfAbsent
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_card_stats"))
+    @Query(value = "insert into user_card_stats (stats_id, user_id, flashcard_id, deck_id, reviews, correct, " +
+            "total_response_time_ms, timed_reviews, total_confidence, rated_reviews, difficulty, updated_at) " +
+            "values (:statsId, :userId, :flashcardId, :deckId, 0, 0, 0, 0, 0, 0, 500, current_timestamp) " +
+            "on duplicate key update stats_id = stats_id", nativeQuery = true)
+    int insertIfAbsent(@Param("statsId") String statsId, @Param("userId") String userId,
+                       @Param("flashcardId") String flashcardId, @Param("deckId") String deckId);
+
+    @Query("select s from UserCardStatsEntity s where s.userId = :userId and s.deckId = :deckId " +
+            "order by s.difficulty desc, s.statsId desc")
+    List<UserCardStatsEntity> findHardest(@Param("userId") String userId, @Param("deckId") String deckId, Pageable pageable);
+
+    // Rows filed under a subscription showing the card stay there
+    @Modifying
+    @Query("update UserCardStatsEntity s set s.deckId = :deckId where s.flashcardId = :flashcardId and s.deckId = :previousDeckId")
+    int moveToDeck(@Param("flashcardId") String flashcardId, @Param("previousDeckId") String previousDeckId,
+                   @Param("deckId") String deckId);
+
+    @Modifying
+    @Query("delete from UserCardStatsEntity s where s.flashcardId in :flashcardIds")
+    int deleteByFlashcardIds(@Param("flashcardIds") Collection<String> flashcardIds);
+
+    @Modifying
+    @Query("delete from UserCardStatsEntity s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -0,0 +1,42 @@
+package cit.edu.cardwise.repository;
+
+import cit.edu.cardwise.entity.UserQuizStatsEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserQuizStatsRepository extends JpaRepository<UserQuizStatsEntity, String> {
+    List<UserQuizStatsEntity> findByUserId(String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserQuizStatsEntity s where s.statsId = :statsId")
+    Optional<UserQuizStatsEntity> findForUpdate(@Param("statsId") String statsId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_quiz_stats"))
+    @Query(value = "insert into user_quiz_stats (stats_id, user_id, quiz_id, attempts, best_score, last_score, " +
+            "total_score, histogram, updated_at) values (:statsId, :userId, :quizId, 0, 0, 0, 0, :histogram, " +
+            "current_timestamp) on duplicate key update stats_id = stats_id", nativeQuery = true)
+    int insertIfAbsent(@Param("statsId") String statsId, @Param("userId") String userId,
+                       @Param("quizId") String quizId, @Param("histogram") String histogram);
+
+    @Modifying
+    @Query("delete from UserQuizStatsEntity s where s.quizId in :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<String> quizIds);
+
+    @Modifying
+    @Query("delete from UserQuizStatsEntity s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
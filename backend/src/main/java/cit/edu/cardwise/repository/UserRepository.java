@@ -2,11 +2,19 @@ package cit.edu.cardwise.repository;
 
 import cit.edu.cardwise.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, String> {
     Optional<UserEntity> findByEmail(String email);
+
+    // Which of these emails already have an account, in one query
+    @Query("select u.email from UserEntity u where u.email in :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,40 @@
+package cit.edu.cardwise.room;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A directory held in this JVM, for a single node or local development. Stands in for
+ * {@link RedisRoomDirectory}; every room it knows is hosted here.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.rooms.directory", havingValue = "local", matchIfMissing = true)
+public class LocalRoomDirectory implements RoomDirectory {
+
+    private final ConcurrentMap<String, String> owners = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean claim(String code, String nodeUrl) {
+        return owners.putIfAbsent(code, nodeUrl) == null;
+    }
+
+    @Override
+    public Optional<String> locate(String code) {
+        return Optional.ofNullable(owners.get(code));
+    }
+
+    @Override
+    public void release(String code, String nodeUrl) {
+        owners.remove(code, nodeUrl);
+    }
+
+    @Override
+    public void refresh(Collection<String> codes, String nodeUrl) {
+        // Entries live until released
+    }
+}
@@ -0,0 +1,552 @@
+package cit.edu.cardwise.room;
+
+import cit.edu.cardwise.dto.QuizQuestion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One live quiz: a host runs the questions and any number of players answer them over
+ * WebSockets. All state is owned by the room's {@link SerialExecutor}; the public methods
+ * only queue a message for it, so no field needs a lock. Recording an answer is O(1);
+ * scores are worked out and sent once per question, as one frame shared by every player
+ * plus a small personal one. Each connection has a {@link SessionOutbox} on the fan-out
+ * pool, so its frames arrive in the order the room sent them, and a slow client holds up
+ * a fan-out thread rather than a room.
+ * <p>
+ * Question deadlines, the pause after each answer reveal and the periodic pulse that
+ * sends player counts and answer progress all run on the shared {@link TimerWheel}.
+ */
+public class QuizRoom {
+
+    public enum Phase { LOBBY, QUESTION, REVEAL, FINISHED }
+
+    /**
+     * A player's standing when the quiz ended.
+     */
+    public record PlayerResult(String userId, int score, int correct, String outcomes, int rank) {}
+
+    /**
+     * Told when a room has finished its questions and when it has closed for good.
+     */
+    public interface Listener {
+        void finished(QuizRoom room, List<PlayerResult> results, int durationSeconds);
+
+        void closed(QuizRoom room);
+    }
+
+    /**
+     * Timing and size limits shared by every room on a node.
+     */
+    public record Settings(long revealMillis, long pulseMillis, long heartbeatMillis, long idleMillis,
+                           long lingerMillis, int maxPlayers, int leaderboardSize, long sendTimeLimitMillis,
+                           int sendBufferBytes) {}
+
+    private static final int MAX_POINTS = 1000;
+    // Answers sent just before the deadline still arrive in time
+    private static final long DEADLINE_GRACE_MILLIS = 250;
+    private static final PingMessage PING = new PingMessage();
+
+    private static final class Player {
+        final String userId;
+        final String name;
+        SessionOutbox outbox;
+        int score;
+        int correct;
+        int answeredQuestion = -1;
+        int option;
+        long answeredAt;
+        int lastPoints;
+        int rank;
+        final StringBuilder outcomes = new StringBuilder();
+
+        Player(String userId, String name) {
+            this.userId = userId;
+            this.name = name;
+        }
+    }
+
+    private final String code;
+    private final String quizId;
+    private final String hostUserId;
+    private final List<QuizQuestion> questions;
+    private final long questionMillis;
+    private final Settings settings;
+    private final SerialExecutor actor;
+    private final Executor fanOutPool;
+    private final TimerWheel timers;
+    private final ObjectMapper objectMapper;
+    private final Listener listener;
+
+    // Owned by the actor
+    private final Map<String, Player> players = new HashMap<>();
+    private final List<Player> joinOrder = new ArrayList<>();
+    private SessionOutbox host;
+    private int connected;
+    private int questionIndex = -1;
+    private long questionStart;
+    private long questionDeadline;
+    private int answered;
+    private int[] distribution;
+    private TextMessage answeredFrame;
+    private TimerWheel.Timeout questionTimer;
+    private TimerWheel.Timeout revealTimer;
+    private boolean playersChanged;
+    private boolean answersChanged;
+    private long lastActivity = System.nanoTime();
+    private long lastHeartbeat = System.nanoTime();
+    private long startedAt;
+    private boolean closed;
+
+    // Written by the actor, read by status requests
+    private volatile Phase phase = Phase.LOBBY;
+    private volatile int playerCount;
+    private volatile int currentQuestion = -1;
+
+    public QuizRoom(String code, String quizId, String hostUserId, List<QuizQuestion> questions, long questionMillis,
+                    Settings settings, Executor pool, Executor fanOutPool, TimerWheel timers, ObjectMapper objectMapper,
+                    Listener listener) {
+        this.code = code;
+        this.quizId = quizId;
+        this.hostUserId = hostUserId;
+        this.questions = List.copyOf(questions);
+        this.questionMillis = questionMillis;
+        this.settings = settings;
+        this.actor = new SerialExecutor(pool);
+        this.fanOutPool = fanOutPool;
+        this.timers = timers;
+        this.objectMapper = objectMapper;
+        this.listener = listener;
+        schedulePulse();
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public String getHostUserId() {
+        return hostUserId;
+    }
+
+    public int getQuestionCount() {
+        return questions.size();
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getCurrentQuestion() {
+        return currentQuestion;
+    }
+
+    /**
+     * Add a connection. The host's user joins as host, everyone else as a player; a user
+     * who joins again takes over their place, score included, from the older connection.
+     */
+    public void join(String userId, String name, WebSocketSession session) {
+        actor.execute(() -> onJoin(userId, name, session));
+    }
+
+    public void leave(WebSocketSession session) {
+        actor.execute(() -> onLeave(session));
+    }
+
+    /**
+     * @param receivedAt System.nanoTime() when the answer arrived, so time spent queued
+     *                   behind other answers does not cost the player points
+     */
+    public void answer(String userId, int question, int option, long receivedAt) {
+        actor.execute(() -> onAnswer(userId, question, option, receivedAt));
+    }
+
+    /**
+     * A host command: start, next (skip the rest of the question or the reveal) or end.
+     */
+    public void command(String userId, String command) {
+        actor.execute(() -> onCommand(userId, command));
+    }
+
+    public void close(String reason) {
+        actor.execute(() -> onClose(reason));
+    }
+
+    private void onJoin(String userId, String name, WebSocketSession session) {
+        if (closed || phase == Phase.FINISHED) {
+            SessionOutbox.closeQuietly(session, CloseStatus.GOING_AWAY.withReason("Quiz has ended"));
+            return;
+        }
+        lastActivity = System.nanoTime();
+        boolean isHost = userId.equals(hostUserId);
+        SessionOutbox outbox = new SessionOutbox(session, fanOutPool, settings.sendTimeLimitMillis(),
+                settings.sendBufferBytes());
+        if (isHost) {
+            if (host != null) {
+                host.close(CloseStatus.POLICY_VIOLATION.withReason("Joined from another connection"));
+            }
+            host = outbox;
+        } else {
+            Player player = players.get(userId);
+            if (player == null) {
+                if (players.size() >= settings.maxPlayers()) {
+                    SessionOutbox.closeQuietly(session, CloseStatus.POLICY_VIOLATION.withReason("Room is full"));
+                    return;
+                }
+                player = new Player(userId, name);
+                players.put(userId, player);
+                joinOrder.add(player);
+                playerCount = players.size();
+            }
+            if (player.outbox != null) {
+                player.outbox.close(CloseStatus.POLICY_VIOLATION.withReason("Joined from another connection"));
+            } else {
+                connected++;
+            }
+            player.outbox = outbox;
+            playersChanged = true;
+        }
+
+        Map<String, Object> joined = frame("joined");
+        joined.put("room", code);
+        joined.put("host", isHost);
+        joined.put("phase", phase);
+        joined.put("players", players.size());
+        joined.put("questions", questions.size());
+        outbox.send(toFrame(joined));
+        if (phase == Phase.QUESTION) {
+            outbox.send(questionFrame());
+        }
+    }
+
+    private void onLeave(WebSocketSession session) {
+        if (host != null && host.id().equals(session.getId())) {
+            host = null;
+            return;
+        }
+        Player player = players.get(userIdOf(session));
+        if (player != null && player.outbox != null && player.outbox.id().equals(session.getId())) {
+            player.outbox = null;
+            connected--;
+            playersChanged = true;
+            // Everyone still here has answered
+            if (phase == Phase.QUESTION && connected > 0 && answered >= connected) {
+                closeQuestion(questionIndex);
+            }
+        }
+    }
+
+    private void onAnswer(String userId, int question, int option, long receivedAt) {
+        Player player = players.get(userId);
+        if (phase != Phase.QUESTION || question != questionIndex || player == null
+                || player.answeredQuestion == questionIndex || option < 0 || option >= distribution.length) {
+            return;
+        }
+        player.answeredQuestion = questionIndex;
+        player.option = option;
+        player.answeredAt = receivedAt;
+        answered++;
+        distribution[option]++;
+        answersChanged = true;
+        lastActivity = System.nanoTime();
+        if (player.outbox != null) {
+            player.outbox.send(answeredFrame);
+        }
+        if (answered >= connected) {
+            closeQuestion(questionIndex);
+        }
+    }
+
+    private void onCommand(String userId, String command) {
+        if (!userId.equals(hostUserId) || closed) {
+            return;
+        }
+        lastActivity = System.nanoTime();
+        switch (command) {
+            case "start" -> {
+                if (phase == Phase.LOBBY) {
+                    startedAt = System.nanoTime();
+                    nextQuestion();
+                }
+            }
+            case "next" -> {
+                if (phase == Phase.QUESTION) {
+                    closeQuestion(questionIndex);
+                } else if (phase == Phase.REVEAL) {
+                    nextQuestion();
+                }
+            }
+            case "end" -> {
+                if (phase != Phase.FINISHED) {
+                    finish();
+                }
+            }
+            default -> {
+                // Unknown commands are ignored, like stale answers
+            }
+        }
+    }
+
+    private void nextQuestion() {
+        cancel(revealTimer);
+        if (questionIndex + 1 >= questions.size()) {
+            finish();
+            return;
+        }
+        questionIndex++;
+        currentQuestion = questionIndex;
+        phase = Phase.QUESTION;
+        QuizQuestion question = questions.get(questionIndex);
+        answered = 0;
+        distribution = new int[question.getOptions().size()];
+        questionStart = System.nanoTime();
+        questionDeadline = questionStart + TimeUnit.MILLISECONDS.toNanos(questionMillis);
+        Map<String, Object> ack = frame("answered");
+        ack.put("question", questionIndex);
+        answeredFrame = toFrame(ack);
+
+        broadcast(questionFrame(), null);
+        int index = questionIndex;
+        questionTimer = timers.schedule(() -> actor.execute(() -> closeQuestion(index)),
+                questionMillis + DEADLINE_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private TextMessage questionFrame() {
+        QuizQuestion question = questions.get(questionIndex);
+        Map<String, Object> frame = frame("question");
+        frame.put("question", questionIndex);
+        frame.put("of", questions.size());
+        frame.put("text", question.getQuestion());
+        frame.put("options", question.getOptions());
+        frame.put("remainingMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(questionDeadline - System.nanoTime())));
+        return toFrame(frame);
+    }
+
+    /**
+     * Score the question and send the reveal. A right answer is worth half the points
+     * for being right and the other half in proportion to the time it had left.
+     */
+    private void closeQuestion(int index) {
+        if (phase != Phase.QUESTION || index != questionIndex) {
+            return;
+        }
+        cancel(questionTimer);
+        phase = Phase.REVEAL;
+        QuizQuestion question = questions.get(questionIndex);
+        long window = Math.max(1, questionDeadline - questionStart);
+        for (Player player : joinOrder) {
+            boolean right = player.answeredQuestion == questionIndex && player.option == question.getCorrectOption();
+            long left = Math.max(0, questionDeadline - player.answeredAt);
+            player.lastPoints = right ? (int) (MAX_POINTS / 2 + MAX_POINTS / 2 * Math.min(left, window) / window) : 0;
+            player.score += player.lastPoints;
+            if (right) {
+                player.correct++;
+            }
+            player.outcomes.append(right ? '1' : '0');
+        }
+        List<Player> ranking = rank();
+
+        Map<String, Object> reveal = frame("reveal");
+        reveal.put("question", questionIndex);
+        reveal.put("correctOption", question.getCorrectOption());
+        reveal.put("distribution", distribution);
+        reveal.put("answered", answered);
+        reveal.put("leaderboard", leaderboard(ranking));
+        broadcast(toFrame(reveal), player -> {
+            Map<String, Object> result = frame("result");
+            result.put("question", questionIndex);
+            result.put("correct", player.lastPoints > 0);
+            result.put("points", player.lastPoints);
+            result.put("score", player.score);
+            result.put("rank", player.rank);
+            return result;
+        });
+
+        int revealed = questionIndex;
+        revealTimer = timers.schedule(() -> actor.execute(() -> {
+            if (phase == Phase.REVEAL && questionIndex == revealed) {
+                nextQuestion();
+            }
+        }), settings.revealMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void finish() {
+        cancel(questionTimer);
+        cancel(revealTimer);
+        phase = Phase.FINISHED;
+        List<Player> ranking = rank();
+        Map<String, Object> finished = frame("finished");
+        finished.put("leaderboard", leaderboard(ranking));
+        broadcast(toFrame(finished), player -> {
+            Map<String, Object> result = frame("final");
+            result.put("score", player.score);
+            result.put("correct", player.correct);
+            result.put("rank", player.rank);
+            return result;
+        });
+
+        List<PlayerResult> results = new ArrayList<>();
+        for (Player player : ranking) {
+            if (player.answeredQuestion >= 0) {
+                results.add(new PlayerResult(player.userId, player.score, player.correct,
+                        player.outcomes.toString(), player.rank));
+            }
+        }
+        int duration = startedAt == 0 ? 0 : (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+        listener.finished(this, results, duration);
+        timers.schedule(() -> close("Quiz has ended"), settings.lingerMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void onClose(String reason) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        phase = Phase.FINISHED;
+        cancel(questionTimer);
+        cancel(revealTimer);
+        CloseStatus status = CloseStatus.GOING_AWAY.withReason(reason);
+        if (host != null) {
+            host.close(status);
+        }
+        for (Player player : joinOrder) {
+            if (player.outbox != null) {
+                player.outbox.close(status);
+            }
+        }
+        listener.closed(this);
+    }
+
+    /**
+     * Sends what changed since the last pulse: the player count while in the lobby, and
+     * answer progress to the host during a question. Also pings every connection now and
+     * then, so proxies keep quiet ones open, and closes rooms left idle in the lobby.
+     */
+    private void pulse() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (phase == Phase.LOBBY && now - lastActivity > TimeUnit.MILLISECONDS.toNanos(settings.idleMillis())) {
+            onClose("Room was idle");
+            return;
+        }
+        if (now - lastHeartbeat > TimeUnit.MILLISECONDS.toNanos(settings.heartbeatMillis())) {
+            lastHeartbeat = now;
+            broadcast(PING, null);
+        }
+        if (playersChanged) {
+            playersChanged = false;
+            Map<String, Object> count = frame("players");
+            count.put("players", players.size());
+            count.put("connected", connected);
+            if (phase == Phase.LOBBY) {
+                broadcast(toFrame(count), null);
+            } else if (host != null) {
+                host.send(toFrame(count));
+            }
+        }
+        if (answersChanged && phase == Phase.QUESTION && host != null) {
+            answersChanged = false;
+            Map<String, Object> progress = frame("progress");
+            progress.put("question", questionIndex);
+            progress.put("answered", answered);
+            progress.put("connected", connected);
+            host.send(toFrame(progress));
+        }
+        schedulePulse();
+    }
+
+    private void schedulePulse() {
+        timers.schedule(() -> actor.execute(this::pulse), settings.pulseMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Highest score first; players on equal scores share a rank
+    private List<Player> rank() {
+        List<Player> ranking = new ArrayList<>(joinOrder);
+        ranking.sort(Comparator.comparingInt((Player player) -> player.score).reversed());
+        for (int i = 0; i < ranking.size(); i++) {
+            Player player = ranking.get(i);
+            player.rank = i > 0 && ranking.get(i - 1).score == player.score ? ranking.get(i - 1).rank : i + 1;
+        }
+        return ranking;
+    }
+
+    private List<Map<String, Object>> leaderboard(List<Player> ranking) {
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (Player player : ranking.subList(0, Math.min(ranking.size(), settings.leaderboardSize()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("rank", player.rank);
+            entry.put("name", player.name);
+            entry.put("score", player.score);
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * Send a frame to the host and every connected player, followed for each player by
+     * their own frame if personal is given. The shared frame is serialised once; personal
+     * frames are built here, where the player state is, and serialised by the fan-out
+     * thread that sends them.
+     */
+    private void broadcast(WebSocketMessage<?> shared, Function<Player, Map<String, Object>> personal) {
+        if (host != null) {
+            host.send(shared);
+        }
+        for (Player player : joinOrder) {
+            if (player.outbox != null) {
+                player.outbox.send(shared);
+                if (personal != null) {
+                    Map<String, Object> own = personal.apply(player);
+                    player.outbox.send(() -> toFrame(own));
+                }
+            }
+        }
+    }
+
+    private static void cancel(TimerWheel.Timeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    static String userIdOf(WebSocketSession session) {
+        return (String) session.getAttributes().get(QuizRoomSocketHandler.USER_ID);
+    }
+
+    private static Map<String, Object> frame(String type) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        return frame;
+    }
+
+    private TextMessage toFrame(Map<String, Object> frame) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(frame));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
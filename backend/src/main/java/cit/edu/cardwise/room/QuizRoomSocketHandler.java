@@ -0,0 +1,120 @@
+package cit.edu.cardwise.room;
+
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.service.QuizRoomService;
+import cit.edu.cardwise.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The socket at /quiz/rooms/{code}/socket. Each connection is tied to its user and room
+ * once, when it opens, so an incoming answer is parsed and queued on the room without any
+ * lookup. Client messages are {"type":"answer","question":n,"option":k} and, from the
+ * host, {"type":"start"}, {"type":"next"} and {"type":"end"}.
+ * <p>
+ * A room hosted by another node gets a {"type":"moved","url":...} message and close code
+ * 4001, and the client reconnects to that node.
+ */
+@Component
+public class QuizRoomSocketHandler extends TextWebSocketHandler {
+
+    public static final String USER_ID = "cardwise.room.userId";
+    private static final String ROOM = "cardwise.room";
+    private static final CloseStatus MOVED = new CloseStatus(4001, "Room is hosted on another server");
+
+    @Autowired
+    private QuizRoomService quizRoomService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        Principal principal = session.getPrincipal();
+        Optional<UserEntity> user = principal == null ? Optional.empty() : userService.findByEmail(principal.getName());
+        if (user.isEmpty()) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Only users can join a quiz room"));
+            return;
+        }
+        String code = roomCode(session.getUri());
+        Optional<QuizRoom> room = quizRoomService.findRoom(code);
+        if (room.isEmpty()) {
+            Optional<String> owner = quizRoomService.locateElsewhere(code);
+            if (owner.isPresent()) {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                        Map.of("type", "moved", "url", owner.get() + "/quiz/rooms/" + code + "/socket"))));
+                session.close(MOVED);
+            } else {
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Room not found"));
+            }
+            return;
+        }
+        session.getAttributes().put(USER_ID, user.get().getUserId());
+        session.getAttributes().put(ROOM, room.get());
+        // The room sends through an outbox of its own per connection, which keeps frames in
+        // order and drops a client whose unsent frames pass the time or buffer limit
+        room.get().join(user.get().getUserId(), displayName(user.get()), session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        long receivedAt = System.nanoTime();
+        QuizRoom room = (QuizRoom) session.getAttributes().get(ROOM);
+        String userId = (String) session.getAttributes().get(USER_ID);
+        if (room == null || userId == null) {
+            return;
+        }
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            return; // Malformed messages are ignored
+        }
+        String type = body.path("type").asText();
+        if ("answer".equals(type)) {
+            room.answer(userId, body.path("question").asInt(-1), body.path("option").asInt(-1), receivedAt);
+        } else if (!type.isEmpty()) {
+            room.command(userId, type);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        QuizRoom room = (QuizRoom) session.getAttributes().get(ROOM);
+        if (room != null) {
+            room.leave(session);
+        }
+    }
+
+    // The path is /quiz/rooms/{code}/socket
+    private static String roomCode(URI uri) {
+        String[] segments = uri == null ? new String[0] : uri.getPath().split("/");
+        return segments.length >= 2 ? segments[segments.length - 2] : "";
+    }
+
+    private static String displayName(UserEntity user) {
+        if (user.getFirstName() != null && !user.getFirstName().isBlank()) {
+            String lastName = user.getLastName();
+            return lastName == null || lastName.isBlank() ? user.getFirstName()
+                    : user.getFirstName() + " " + lastName.charAt(0) + ".";
+        }
+        String email = user.getEmail();
+        return email.substring(0, Math.max(0, email.indexOf('@')));
+    }
+}
@@ -0,0 +1,110 @@
+package cit.edu.cardwise.room;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Room ownership in Redis, shared by every node. Each claim is a key holding the owner's
+ * URL with a time to live that the owner keeps refreshing; a node only releases or
+ * refreshes a key it owns. If Redis cannot be reached, rooms are claimed and
+ * found on this node alone, like {@link LocalRoomDirectory}.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.rooms.directory", havingValue = "redis")
+public class RedisRoomDirectory implements RoomDirectory {
+
+    private static final String KEY_PREFIX = "cardwise:room:";
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    // Also restores a claim lost to expiry or made while Redis was down, unless another
+    // node has taken the code since
+    private static final RedisScript<Long> REFRESH = new DefaultRedisScript<>("""
+            local owner = redis.call('GET', KEYS[1])
+            if owner and owner ~= ARGV[1] then return 0 end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${cardwise.rooms.directory-ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final LocalRoomDirectory fallback = new LocalRoomDirectory();
+    private volatile boolean redisDown;
+
+    @Override
+    public boolean claim(String code, String nodeUrl) {
+        try {
+            Boolean claimed = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + code, nodeUrl, Duration.ofMillis(ttlMillis));
+            reachable();
+            return Boolean.TRUE.equals(claimed);
+        } catch (RuntimeException e) {
+            unreachable(e);
+            return fallback.claim(code, nodeUrl);
+        }
+    }
+
+    @Override
+    public Optional<String> locate(String code) {
+        try {
+            String owner = redisTemplate.opsForValue().get(KEY_PREFIX + code);
+            reachable();
+            return Optional.ofNullable(owner);
+        } catch (RuntimeException e) {
+            unreachable(e);
+            return fallback.locate(code);
+        }
+    }
+
+    @Override
+    public void release(String code, String nodeUrl) {
+        fallback.release(code, nodeUrl);
+        try {
+            redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + code), nodeUrl);
+        } catch (RuntimeException e) {
+            unreachable(e); // The key expires on its own
+        }
+    }
+
+    @Override
+    public void refresh(Collection<String> codes, String nodeUrl) {
+        try {
+            for (String code : codes) {
+                redisTemplate.execute(REFRESH, List.of(KEY_PREFIX + code), nodeUrl, Long.toString(ttlMillis));
+            }
+            reachable();
+        } catch (RuntimeException e) {
+            unreachable(e);
+        }
+    }
+
+    private void reachable() {
+        if (redisDown) {
+            redisDown = false;
+            System.out.println("Redis room directory reachable again");
+        }
+    }
+
+    private void unreachable(RuntimeException e) {
+        if (!redisDown) {
+            redisDown = true;
+            System.out.println("Redis room directory unavailable, rooms are local to this node: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package cit.edu.cardwise.room;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Which node hosts each live quiz room. A room's state lives in the memory of one node,
+ * so a player who reaches another node is sent to the one named here.
+ */
+public interface RoomDirectory {
+
+    /**
+     * Claim a room code for a node.
+     *
+     * @return false if another live room already has the code
+     */
+    boolean claim(String code, String nodeUrl);
+
+    /**
+     * @return the URL of the node hosting the room, or empty if no node does
+     */
+    Optional<String> locate(String code);
+
+    void release(String code, String nodeUrl);
+
+    /**
+     * Keep a node's claims alive. A node that stops refreshing, e.g. because it crashed,
+     * loses its rooms once their entries expire.
+     */
+    void refresh(Collection<String> codes, String nodeUrl);
+}
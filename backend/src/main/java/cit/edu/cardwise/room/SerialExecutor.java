@@ -0,0 +1,62 @@
+package cit.edu.cardwise.room;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs its tasks one at a time, in submission order, on a shared pool: the mailbox of a
+ * single-writer room, or the outbox of one event stream or room connection. Submitting never
+ * blocks or takes a lock, and a room with nothing to do holds no thread, so thousands of
+ * rooms share a few threads.
+ */
+public class SerialExecutor implements Executor {
+
+    // Tasks run per turn before the thread goes back to the pool, so one busy room
+    // cannot keep a thread from the others
+    private static final int BATCH = 256;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Executor pool;
+
+    public SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        mailbox.add(task);
+        // Only the submission that finds the mailbox idle schedules a drain
+        if (pending.getAndIncrement() == 0) {
+            pool.execute(this::drain);
+        }
+    }
+
+    /**
+     * Whether no task is queued or running.
+     */
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    private void drain() {
+        for (int ran = 1; ; ran++) {
+            // Non-null: every counted task was queued before it was counted
+            Runnable task = mailbox.poll();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Serial task failed: " + e);
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+            if (ran == BATCH) {
+                pool.execute(this::drain);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package cit.edu.cardwise.room;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The frames queued for one room connection, sent one at a time and in the order the room
+ * queued them, on the fan-out pool. A client that falls too far behind, by one send taking
+ * longer than the time limit or by more unsent bytes than the buffer limit, is closed
+ * instead of being buffered for without limit.
+ */
+final class SessionOutbox {
+
+    private final WebSocketSession session;
+    private final SerialExecutor sender;
+    private final Executor pool;
+    private final long sendTimeLimitNanos;
+    private final int bufferLimit;
+    private final AtomicInteger buffered = new AtomicInteger();
+    // System.nanoTime() when the send in progress started, 0 between sends
+    private volatile long sendStart;
+    private volatile boolean dropped;
+
+    SessionOutbox(WebSocketSession session, Executor pool, long sendTimeLimitMillis, int bufferLimit) {
+        this.session = session;
+        this.sender = new SerialExecutor(pool);
+        this.pool = pool;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMillis);
+        this.bufferLimit = bufferLimit;
+    }
+
+    String id() {
+        return session.getId();
+    }
+
+    void send(WebSocketMessage<?> message) {
+        int size = message.getPayloadLength();
+        if (!admit(size)) {
+            return;
+        }
+        sender.execute(() -> {
+            buffered.addAndGet(-size);
+            deliver(message);
+        });
+    }
+
+    /**
+     * Queue a frame that is built on the sending thread. Only sent right after a shared frame,
+     * whose size stands in for it against the buffer limit.
+     */
+    void send(Supplier<? extends WebSocketMessage<?>> message) {
+        if (!dropped) {
+            sender.execute(() -> deliver(message.get()));
+        }
+    }
+
+    /**
+     * Close the connection once the frames already queued are sent.
+     */
+    void close(CloseStatus status) {
+        sender.execute(() -> closeQuietly(session, status));
+    }
+
+    private boolean admit(int size) {
+        if (dropped) {
+            return false;
+        }
+        long start = sendStart;
+        if ((start != 0 && System.nanoTime() - start > sendTimeLimitNanos)
+                || buffered.addAndGet(size) > bufferLimit) {
+            dropped = true;
+            // Not here: closing waits for the stuck send, and the caller is the room
+            pool.execute(() -> closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE));
+            return false;
+        }
+        return true;
+    }
+
+    private void deliver(WebSocketMessage<?> message) {
+        if (dropped || !session.isOpen()) {
+            return;
+        }
+        sendStart = System.nanoTime();
+        try {
+            session.sendMessage(message);
+        } catch (IOException | RuntimeException e) {
+            dropped = true;
+            closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE);
+        } finally {
+            sendStart = 0;
+        }
+    }
+
+    static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException | RuntimeException e) {
+            // Already gone
+        }
+    }
+}
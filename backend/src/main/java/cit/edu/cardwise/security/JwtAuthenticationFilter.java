@@ -42,6 +42,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
 
+        // EventSource and browser WebSockets cannot send headers, so event streams and quiz
+        // room sockets take a short-lived ticket from POST /events/ticket in the query string
+        // instead of the token, which would end up in access logs
+        if (authHeader == null && request.getParameter("ticket") != null && acceptsTicket(request)) {
+            authenticateTicket(request.getParameter("ticket"), request);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         System.out.println("JWT Filter Triggered");  // 🟢 Debug Start
         System.out.println("Auth Header: " + authHeader);
 
@@ -81,5 +90,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
 
+    private void authenticateTicket(String ticket, HttpServletRequest request) {
+        String username = jwtUtil.extractTicketUsername(ticket);
+        if (username == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    private static boolean acceptsTicket(HttpServletRequest request) {
+        String path = path(request);
+        return path.equals("/events/stream") || (path.startsWith("/quiz/rooms/") && path.endsWith("/socket"));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -14,6 +14,9 @@ public class JwtUtil {
     private final String secret = "your-secret-key-that-is-long-enough";
     private final Key key = Keys.hmacShaKeyFor(secret.getBytes());
     private final long expiration = 1000 * 60 * 60 * 10; // 10 hours
+    private final long ticketExpiration = 1000 * 60; // 1 minute
+    private static final String TICKET_CLAIM = "use";
+    private static final String TICKET_USE = "stream";
 
     public String generateToken(String username) {
         return Jwts.builder()
@@ -24,6 +27,39 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * A short-lived ticket for opening an event stream or a quiz room socket, whose URL
+     * (and so the ticket) ends up in access logs: browsers' EventSource and WebSocket
+     * cannot send headers. A ticket is not accepted as a bearer token.
+     */
+    public String generateStreamTicket(String username) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(TICKET_CLAIM, TICKET_USE)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ticketExpiration))
+                .signWith(key)
+                .compact();
+    }
+
+    public long getTicketExpirationSeconds() {
+        return ticketExpiration / 1000;
+    }
+
+    /**
+     * @return the username of a valid, unexpired stream ticket, or null
+     */
+    public String extractTicketUsername(String ticket) {
+        try {
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build()
+                    .parseClaimsJws(ticket).getBody();
+            return TICKET_USE.equals(claims.get(TICKET_CLAIM)) ? claims.getSubject() : null;
+        } catch (JwtException e) {
+            // Expired tickets fail here too
+            System.out.println("Error reading stream ticket: " + e.getMessage());
+            return null;
+        }
+    }
 
     public String extractUsername(String token) {
         try {
@@ -37,7 +73,16 @@ public class JwtUtil {
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token) && !isStreamTicket(token));
+    }
+
+    private boolean isStreamTicket(String token) {
+        try {
+            return Jwts.parserBuilder().setSigningKey(key).build()
+                    .parseClaimsJws(token).getBody().get(TICKET_CLAIM) != null;
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
     private boolean isTokenExpired(String token) {
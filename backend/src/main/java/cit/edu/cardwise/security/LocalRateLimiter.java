@@ -0,0 +1,54 @@
+package cit.edu.cardwise.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets held in this JVM, stored as the generic cell rate algorithm does: one
+ * "theoretical arrival time" per key instead of a token count and a refill timestamp.
+ * A request is admitted when that time is less than burst intervals ahead of now, and
+ * then pushes it one interval further. A single compare-and-set updates it, so there is
+ * no lock and no refill thread.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+    @Override
+    public long acquire(String key, RateLimitQuota quota) {
+        long now = System.nanoTime();
+        long interval = quota.intervalNanos();
+        long tolerance = interval * quota.burst();
+        AtomicLong arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - tolerance - now;
+            if (wait > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop keys whose bucket has refilled completely; they behave exactly like a new key.
+     * A request racing the removal updates the dropped counter and goes uncounted, which
+     * at worst admits one request from an idle client.
+     */
+    @Scheduled(fixedDelayString = "${cardwise.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        arrivals.values().removeIf(arrival -> arrival.get() - now < 0);
+    }
+}
@@ -0,0 +1,120 @@
+package cit.edu.cardwise.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Admission control for the API. Runs right after {@link JwtAuthenticationFilter}, so
+ * signed-in clients are limited by account and anonymous ones by address, each with a
+ * separate bucket per route class:
+ * <ul>
+ *   <li>auth: sign-in, sign-up and password reset, always per address</li>
+ *   <li>bulk: GETs that return a whole table</li>
+ *   <li>write: every other non-GET request</li>
+ *   <li>read: everything else</li>
+ * </ul>
+ * A rejected request gets 429 with Retry-After before it reaches a controller or the
+ * connection pool.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> AUTH_PATHS = Set.of(
+            "/user/login", "/admin/login", "/user/google", "/user/create", "/user/forgot-password");
+
+    private static final Set<String> BULK_PATHS = Set.of(
+            "/flashcards", "/decks", "/progress/get", "/quiz/get", "/review/get", "/user/all", "/admin/all");
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${cardwise.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cardwise.rate-limit.auth.per-second:0.2}")
+    private double authRate;
+    @Value("${cardwise.rate-limit.auth.burst:10}")
+    private int authBurst;
+    @Value("${cardwise.rate-limit.bulk.per-second:0.5}")
+    private double bulkRate;
+    @Value("${cardwise.rate-limit.bulk.burst:5}")
+    private int bulkBurst;
+    @Value("${cardwise.rate-limit.write.per-second:10}")
+    private double writeRate;
+    @Value("${cardwise.rate-limit.write.burst:30}")
+    private int writeBurst;
+    @Value("${cardwise.rate-limit.read.per-second:30}")
+    private double readRate;
+    @Value("${cardwise.rate-limit.read.burst:100}")
+    private int readBurst;
+
+    private RateLimitQuota authQuota;
+    private RateLimitQuota bulkQuota;
+    private RateLimitQuota writeQuota;
+    private RateLimitQuota readQuota;
+
+    @Override
+    protected void initFilterBean() {
+        authQuota = new RateLimitQuota(authRate, authBurst);
+        bulkQuota = new RateLimitQuota(bulkRate, bulkBurst);
+        writeQuota = new RateLimitQuota(writeRate, writeBurst);
+        readQuota = new RateLimitQuota(readRate, readBurst);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        String routeClass;
+        RateLimitQuota quota;
+        if (HttpMethod.POST.matches(method) && (AUTH_PATHS.contains(path) || path.startsWith("/oauth/"))) {
+            routeClass = "auth";
+            quota = authQuota;
+        } else if (HttpMethod.GET.matches(method) && BULK_PATHS.contains(path)) {
+            routeClass = "bulk";
+            quota = bulkQuota;
+        } else if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            routeClass = "write";
+            quota = writeQuota;
+        } else {
+            routeClass = "read";
+            quota = readQuota;
+        }
+
+        // getRemoteAddr() is the client as Tomcat resolved it from X-Forwarded-For, past the
+        // proxies in server.tomcat.remoteip.internal-proxies
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String client = !"auth".equals(routeClass) && authentication != null && authentication.isAuthenticated()
+                ? "user:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+
+        long waitMillis = rateLimiter.acquire(routeClass + ":" + client, quota);
+        if (waitMillis > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((waitMillis + 999) / 1000));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,21 @@
+package cit.edu.cardwise.security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sustained rate plus the number of requests that may arrive at once after a quiet
+ * period.
+ */
+public record RateLimitQuota(double permitsPerSecond, int burst) {
+
+    public RateLimitQuota {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit quota needs a positive rate and a burst of at least 1");
+        }
+    }
+
+    /** Time one request uses up of the bucket. */
+    public long intervalNanos() {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+}
@@ -0,0 +1,11 @@
+package cit.edu.cardwise.security;
+
+public interface RateLimiter {
+
+    /**
+     * Take one request from the bucket of a key.
+     *
+     * @return 0 if the request is admitted, otherwise the milliseconds until it would be
+     */
+    long acquire(String key, RateLimitQuota quota);
+}
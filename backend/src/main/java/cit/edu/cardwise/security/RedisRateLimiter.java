@@ -0,0 +1,72 @@
+package cit.edu.cardwise.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same buckets as {@link LocalRateLimiter}, kept in Redis so every server instance
+ * draws from one quota per client. Each check is a single script call that reads and
+ * advances the arrival time atomically against the Redis clock, and the key expires as
+ * soon as its bucket is full again. If Redis cannot be reached, requests are limited per
+ * instance instead of not at all.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.rate-limit.store", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final String KEY_PREFIX = "cardwise:ratelimit:";
+
+    // Times in microseconds, which Lua's doubles still hold exactly
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local arrival = tonumber(redis.call('GET', KEYS[1]) or now)
+            if arrival < now then arrival = now end
+            local nextArrival = arrival + interval
+            local wait = nextArrival - tolerance - now
+            if wait > 0 then return wait end
+            redis.call('SET', KEYS[1], string.format('%.0f', nextArrival), 'PX', math.ceil((nextArrival - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private final LocalRateLimiter fallback = new LocalRateLimiter();
+    private volatile boolean redisDown;
+
+    @Override
+    public long acquire(String key, RateLimitQuota quota) {
+        long interval = TimeUnit.NANOSECONDS.toMicros(quota.intervalNanos());
+        try {
+            Long wait = redisTemplate.execute(ACQUIRE, List.of(KEY_PREFIX + key),
+                    Long.toString(interval), Long.toString(interval * quota.burst()));
+            if (redisDown) {
+                redisDown = false;
+                System.out.println("Redis rate limiter reachable again");
+            }
+            return wait == null || wait <= 0 ? 0 : Math.max(1, TimeUnit.MICROSECONDS.toMillis(wait));
+        } catch (RuntimeException e) {
+            if (!redisDown) {
+                redisDown = true;
+                System.out.println("Redis rate limiter unavailable, limiting per instance: " + e.getMessage());
+            }
+            return fallback.acquire(key, quota);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cardwise.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        fallback.evictIdle();
+    }
+}
@@ -0,0 +1,165 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.AchievementDefinitionEntity;
+import cit.edu.cardwise.entity.UserAchievementsEntity;
+import cit.edu.cardwise.repository.AchievementDefinitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The achievement catalog, read from the database once and then served from memory. The
+ * built-in achievements have fixed ids below {@link #FIRST_CUSTOM_ID}; titles carried over from
+ * the old achievements table are added by the migration with the next free id above them.
+ */
+@Component
+public class AchievementCatalog {
+
+    public static final int FIRST_DECK_CREATOR = 0;
+    public static final int FLASHCARD_MASTER = 1;
+    public static final int STUDY_STREAK = 2;
+    public static final int QUIZ_CHAMPION = 3;
+    public static final int WEEK_STREAK = 4;
+
+    private static final int FIRST_CUSTOM_ID = 64;
+    private static final int INSERT_ATTEMPTS = 3;
+
+    private static final List<AchievementDefinitionEntity> BUILT_IN = List.of(
+            new AchievementDefinitionEntity(FIRST_DECK_CREATOR, "First Deck Creator", "Created your first flashcard deck!"),
+            new AchievementDefinitionEntity(FLASHCARD_MASTER, "Flashcard Master", "Create 10 flashcards in a deck"),
+            new AchievementDefinitionEntity(STUDY_STREAK, "Study Streak", "Spend 30 minutes in study mode"),
+            new AchievementDefinitionEntity(QUIZ_CHAMPION, "Quiz Champion", "Score 100% on a quiz"),
+            new AchievementDefinitionEntity(WEEK_STREAK, "Week Streak", "Study 7 days in a row"),
+            // Unlocked by title from the web client (POST /achievements/unlock)
+            new AchievementDefinitionEntity(5, "Deck Builder", "Create 5 flashcard decks"),
+            new AchievementDefinitionEntity(6, "Master Creator", "Create 10 flashcard decks"),
+            new AchievementDefinitionEntity(7, "First Steps", "Started your first study session"),
+            new AchievementDefinitionEntity(8, "Learning Begins", "Marked your first flashcard as learned"),
+            new AchievementDefinitionEntity(9, "Getting Started", "Learned 5 flashcards"),
+            new AchievementDefinitionEntity(10, "Deck Master", "Completed an entire flashcard deck"),
+            new AchievementDefinitionEntity(11, "Quiz Taker", "Completed your first quiz"),
+            new AchievementDefinitionEntity(12, "Perfect Score", "Achieved a perfect score on a quiz"),
+            new AchievementDefinitionEntity(13, "High Achiever", "Scored 80% or higher on a quiz"),
+            new AchievementDefinitionEntity(14, "Speed Learner", "Completed a quiz in record time"));
+
+    private record Snapshot(Map<Integer, AchievementDefinitionEntity> byId,
+                            Map<String, AchievementDefinitionEntity> byTitle) {}
+
+    @Autowired
+    private AchievementDefinitionRepository definitionRepository;
+
+    // Catalog rows are committed on their own, so a rolled-back unlock cannot leave an
+    // id in memory that the database does not have
+    private final TransactionTemplate catalogTransaction;
+
+    private volatile Snapshot snapshot;
+
+    public AchievementCatalog(PlatformTransactionManager transactionManager) {
+        this.catalogTransaction = new TransactionTemplate(transactionManager);
+        this.catalogTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<AchievementDefinitionEntity> get(int achievementId) {
+        AchievementDefinitionEntity definition = snapshot().byId().get(achievementId);
+        if (definition == null) {
+            // Possibly added by another instance since this one loaded the catalog
+            definition = reload().byId().get(achievementId);
+        }
+        return Optional.ofNullable(definition);
+    }
+
+    public Optional<AchievementDefinitionEntity> find(String title) {
+        return Optional.ofNullable(snapshot().byTitle().get(title));
+    }
+
+    public Collection<AchievementDefinitionEntity> getAll() {
+        return snapshot().byId().values();
+    }
+
+    /**
+     * The id of the achievement with this title, adding it to the catalog if it is new. For
+     * server code only: every title takes one of the few ids a user's bitset has room for.
+     */
+    public synchronized int register(String title, String description) {
+        AchievementDefinitionEntity existing = snapshot().byTitle().get(title);
+        if (existing == null) {
+            existing = reload().byTitle().get(title);
+        }
+        if (existing != null) {
+            return existing.getAchievementId();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                int id = catalogTransaction.execute(status -> {
+                    int next = Math.max(FIRST_CUSTOM_ID, definitionRepository.findMaxId() + 1);
+                    if (next >= UserAchievementsEntity.MAX_ACHIEVEMENTS) {
+                        throw new IllegalStateException("The achievement catalog is full");
+                    }
+                    definitionRepository.insert(next, title, description);
+                    return next;
+                });
+                reload();
+                return id;
+            } catch (DataIntegrityViolationException e) {
+                // Another instance took the id or added the same title first
+                AchievementDefinitionEntity added = reload().byTitle().get(title);
+                if (added != null) {
+                    return added.getAchievementId();
+                }
+                if (attempt == INSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    private synchronized Snapshot load() {
+        if (snapshot == null) {
+            seedBuiltIns();
+            reload();
+        }
+        return snapshot;
+    }
+
+    private void seedBuiltIns() {
+        Map<Integer, AchievementDefinitionEntity> stored = new HashMap<>();
+        definitionRepository.findAllById(BUILT_IN.stream().map(AchievementDefinitionEntity::getAchievementId).toList())
+                .forEach(definition -> stored.put(definition.getAchievementId(), definition));
+        for (AchievementDefinitionEntity definition : BUILT_IN) {
+            if (!stored.containsKey(definition.getAchievementId())) {
+                try {
+                    catalogTransaction.executeWithoutResult(status -> definitionRepository.insert(
+                            definition.getAchievementId(), definition.getTitle(), definition.getDescription()));
+                } catch (DataIntegrityViolationException e) {
+                    // Seeded concurrently by another instance
+                }
+            }
+        }
+    }
+
+    private synchronized Snapshot reload() {
+        Map<Integer, AchievementDefinitionEntity> byId = new HashMap<>();
+        Map<String, AchievementDefinitionEntity> byTitle = new HashMap<>();
+        for (AchievementDefinitionEntity definition : definitionRepository.findAll()) {
+            byId.put(definition.getAchievementId(), definition);
+            byTitle.put(definition.getTitle(), definition);
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byTitle));
+        return snapshot;
+    }
+}
@@ -1,55 +1,219 @@
 package cit.edu.cardwise.service;
 
-import cit.edu.cardwise.entity.AchievementEntity;
-import cit.edu.cardwise.repository.AchievementRepository;
+import cit.edu.cardwise.dto.UnlockedAchievement;
+import cit.edu.cardwise.dto.Versioned;
+import cit.edu.cardwise.entity.AchievementDefinitionEntity;
+import cit.edu.cardwise.entity.UserAchievementsEntity;
+import cit.edu.cardwise.event.AchievementUnlockedEvent;
+import cit.edu.cardwise.repository.UserAchievementsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 @Service
 public class AchievementService {
 
+    public static final String ACHIEVEMENTS_CACHE = "achievements";
+
+    @Autowired
+    private UserAchievementsRepository userAchievementsRepository;
+
+    @Autowired
+    private AchievementCatalog achievementCatalog;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    private AchievementRepository achievementRepository;
+    private CacheManager cacheManager;
+
+    @Value("${cardwise.deletion.batch-size:500}")
+    private int batchSize;
 
     private final Executor asyncExecutor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public AchievementService(Executor asyncExecutor) {
+    public AchievementService(@Qualifier("applicationTaskExecutor") Executor asyncExecutor,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager) {
         this.asyncExecutor = asyncExecutor;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Async
     public CompletableFuture<Boolean> isAchievementUnlockedAsync(String userId, String title) {
-        return CompletableFuture.supplyAsync(() -> achievementRepository.findByUserId(userId).stream()
-                .anyMatch(a -> a.isUnlocked() && title.equals(a.getTitle())), asyncExecutor);
+        return CompletableFuture.supplyAsync(() -> achievementCatalog.find(title)
+                .map(definition -> isUnlocked(userId, definition.getAchievementId()))
+                .orElse(false), asyncExecutor);
+    }
+
+    public boolean isUnlocked(String userId, int achievementId) {
+        return userAchievementsRepository.findUnlockedBits(userId)
+                .map(bits -> UserAchievementsEntity.isUnlocked(bits, achievementId))
+                .orElse(false);
     }
 
-    @CacheEvict(value = "achievements", key = "#userId")
-    public void unlockAchievement(String userId, String title, String description) {
-        boolean already = achievementRepository.findByUserId(userId).stream()
-                .anyMatch(a -> a.isUnlocked() && title.equals(a.getTitle()));
-        if (already) {
+    @Transactional
+    public void unlockAchievement(String userId, int achievementId) {
+        // Most calls find the bit already set; only a real unlock takes the row lock
+        if (isUnlocked(userId, achievementId)) {
+            return;
+        }
+        AchievementDefinitionEntity definition = achievementCatalog.get(achievementId)
+                .orElseThrow(() -> new IllegalArgumentException("No achievement with id " + achievementId));
+        if (!unlock(userId, achievementId, Instant.now())) {
             System.out.println("Achievement already unlocked for user: " + userId);
             return;
         }
+        resourceVersionService.bump(ResourceVersionService.userKey(userId));
+        eventPublisher.publishEvent(new AchievementUnlockedEvent(userId, new UnlockedAchievement(achievementId, userId,
+                definition.getTitle(), definition.getDescription(), LocalDateTime.now())));
+    }
 
-        AchievementEntity achievement = new AchievementEntity();
-        achievement.setAchievementId(java.util.UUID.randomUUID().toString());
-        achievement.setUserId(userId);
-        achievement.setTitle(title);
-        achievement.setDescription(description);
-        achievement.setUnlocked(true);
+    /**
+     * Unlock by title. Only achievements already in the catalog can be unlocked; new ones
+     * are added by server code, never by callers.
+     */
+    @Transactional
+    public void unlockAchievement(String userId, String title) {
+        AchievementDefinitionEntity definition = achievementCatalog.find(title)
+                .orElseThrow(() -> new IllegalArgumentException("No achievement titled " + title));
+        unlockAchievement(userId, definition.getAchievementId());
+    }
 
-        achievementRepository.save(achievement);
+    // Evicted once the unlock has committed, so a read racing it cannot cache the old list again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAchievementUnlocked(AchievementUnlockedEvent event) {
+        Cache cache = cacheManager.getCache(ACHIEVEMENTS_CACHE);
+        if (cache != null) {
+            cache.evict(event.getUserId());
+        }
     }
 
     @Async
-    public CompletableFuture<List<AchievementEntity>> getAchievementsByUserIdAsync(String userId) {
-        return CompletableFuture.supplyAsync(() -> achievementRepository.findByUserId(userId), asyncExecutor);
+    public CompletableFuture<List<UnlockedAchievement>> getAchievementsByUserIdAsync(String userId) {
+        return CompletableFuture.supplyAsync(() -> getAchievementsByUserId(userId), asyncExecutor);
+    }
+
+    // The ETag and the list come from one read-only transaction, and so from one database
+    @Async
+    public CompletableFuture<Versioned<List<UnlockedAchievement>>> getVersionedAchievementsAsync(String userId) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> new Versioned<>(
+                resourceVersionService.etag(ResourceVersionService.userKey(userId)),
+                getAchievementsByUserId(userId))), asyncExecutor);
+    }
+
+    public List<UnlockedAchievement> getAchievementsByUserId(String userId) {
+        List<UnlockedAchievement> achievements = new ArrayList<>();
+        userAchievementsRepository.findById(userId).ifPresent(user -> {
+            BitSet unlocked = user.unlocked();
+            for (int id = unlocked.nextSetBit(0); id >= 0; id = unlocked.nextSetBit(id + 1)) {
+                int achievementId = id;
+                achievementCatalog.get(achievementId).ifPresent(definition -> achievements.add(new UnlockedAchievement(
+                        achievementId, userId, definition.getTitle(), definition.getDescription(),
+                        user.unlockedAt(achievementId))));
+            }
+        });
+        return achievements;
+    }
+
+    private boolean unlock(String userId, int achievementId, Instant at) {
+        userAchievementsRepository.insertIfAbsent(userId);
+        UserAchievementsEntity achievements = userAchievementsRepository.findForUpdate(userId).orElseThrow();
+        if (!achievements.unlock(achievementId, at)) {
+            return false;
+        }
+        achievements.setUpdatedAt(LocalDateTime.now());
+        userAchievementsRepository.save(achievements);
+        return true;
+    }
+
+    // Off the startup path, like the partition conversion
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        asyncExecutor.execute(this::migrateLegacyAchievements);
+    }
+
+    /**
+     * Fold the old one-row-per-unlock achievements table into the catalog and the per-user
+     * bitsets, a batch at a time, then drop it. Each batch sets its bits and deletes its rows
+     * in one transaction, so an interrupted run resumes without losing or repeating anything.
+     */
+    public void migrateLegacyAchievements() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM achievements", Long.class);
+        } catch (DataAccessException e) {
+            return; // Never existed, or already migrated
+        }
+        try {
+            int migrated = 0;
+            List<Map<String, Object>> rows;
+            while (!(rows = jdbcTemplate.queryForList("SELECT achievement_id, user_id, title, description, unlocked, unlocked_at " +
+                    "FROM achievements ORDER BY user_id LIMIT ?", batchSize)).isEmpty()) {
+                List<Map<String, Object>> batch = rows;
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Map<String, Object> row : batch) {
+                        String userId = (String) row.get("user_id");
+                        String title = (String) row.get("title");
+                        if (userId != null && title != null && Boolean.TRUE.equals(row.get("unlocked"))) {
+                            int achievementId = achievementCatalog.register(title, (String) row.get("description"));
+                            if (unlock(userId, achievementId, toInstant(row.get("unlocked_at")))) {
+                                resourceVersionService.bump(ResourceVersionService.userKey(userId));
+                            }
+                        }
+                        jdbcTemplate.update("DELETE FROM achievements WHERE achievement_id = ?", row.get("achievement_id"));
+                    }
+                });
+                migrated += batch.size();
+            }
+            jdbcTemplate.execute("DROP TABLE achievements");
+            System.out.println("Migrated " + migrated + " achievement rows to per-user bitsets");
+        } catch (RuntimeException e) {
+            System.out.println("Achievement migration failed, will retry on the next start: " + e.getMessage());
+        }
+    }
+
+    // Drivers return DATETIME as either Timestamp or LocalDateTime
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        }
+        return Instant.now();
     }
 }
@@ -5,12 +5,15 @@ import cit.edu.cardwise.repository.AdminRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 public class AdminService {
 
     @Autowired
@@ -19,6 +22,8 @@ public class AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    // Hash outside a transaction; see UserService.createUser
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AdminEntity createAdmin(AdminEntity admin) {
         Optional<AdminEntity> existingAdmin = adminRepository.findByEmail(admin.getEmail());
         if (existingAdmin.isPresent()) {
@@ -47,6 +52,7 @@ public class AdminService {
         return adminRepository.findById(id);
     }
 
+    @Transactional
     public void deleteAdmin(String id) {
         adminRepository.deleteById(id);
     }
@@ -0,0 +1,164 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.FlashcardAttachmentEntity;
+import cit.edu.cardwise.repository.FlashcardAttachmentRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.storage.Blob;
+import cit.edu.cardwise.storage.BlobStore;
+import cit.edu.cardwise.storage.StoredBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Image and audio attachments of flashcards. Only their metadata is in the database; the
+ * bytes go to the {@link BlobStore} and are served by their own endpoint, so card lists
+ * stay small. Deleting an attachment or its card leaves the blob for the orphan sweep,
+ * which removes blobs no attachment has referenced for a grace period.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AttachmentService {
+
+    @Autowired
+    private FlashcardAttachmentRepository attachmentRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${cardwise.attachments.max-bytes:26214400}")
+    private long maxBytes;
+
+    @Value("${cardwise.attachments.max-per-flashcard:10}")
+    private int maxPerFlashcard;
+
+    @Value("${cardwise.attachments.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public AttachmentService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stream an upload into the blob store and attach it to the flashcard.
+     *
+     * @return empty if the flashcard does not exist
+     * @throws IllegalArgumentException for content that is not one of the {@link AttachmentTypes},
+     *         does not start like its type's files, is too large, or would go over the per-card limit
+     */
+    // No transaction while the upload streams, so a slow client does not hold a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<FlashcardAttachmentEntity> attach(String flashcardId, String fileName, String contentType,
+                                                      InputStream content) throws IOException {
+        String type = AttachmentTypes.normalize(contentType)
+                .orElseThrow(() -> new IllegalArgumentException("Attachments must be raster images or audio"));
+        if (flashcardRepository.findDeckIdById(flashcardId).isEmpty()) {
+            return Optional.empty();
+        }
+        // Checked again under the card's lock below; this only turns most uploads over the
+        // limit away before they are streamed
+        if (attachmentRepository.countByFlashcardId(flashcardId) >= maxPerFlashcard) {
+            throw new IllegalArgumentException("A flashcard can have at most " + maxPerFlashcard + " attachments");
+        }
+
+        PushbackInputStream in = new PushbackInputStream(content, AttachmentTypes.HEAD_LENGTH);
+        byte[] head = new byte[AttachmentTypes.HEAD_LENGTH];
+        int read = in.readNBytes(head, 0, head.length);
+        if (!AttachmentTypes.matches(type, head)) {
+            throw new IllegalArgumentException("Content is not " + type);
+        }
+        in.unread(head, 0, read);
+
+        // A blob whose attachment is refused below is left to the orphan sweep
+        StoredBlob blob = blobStore.put(in, maxBytes);
+        return transactionTemplate.execute(status -> {
+            if (flashcardRepository.findForUpdate(flashcardId).isEmpty()) {
+                return Optional.empty();
+            }
+            if (attachmentRepository.countByFlashcardId(flashcardId) >= maxPerFlashcard) {
+                throw new IllegalArgumentException("A flashcard can have at most " + maxPerFlashcard + " attachments");
+            }
+            FlashcardAttachmentEntity attachment = new FlashcardAttachmentEntity();
+            attachment.setAttachmentId(UUID.randomUUID().toString());
+            attachment.setFlashcardId(flashcardId);
+            attachment.setBlobKey(blob.key());
+            attachment.setFileName(fileName);
+            attachment.setContentType(type);
+            attachment.setSize(blob.size());
+            attachment.setCreatedAt(LocalDateTime.now());
+            return Optional.of(attachmentRepository.save(attachment));
+        });
+    }
+
+    public List<FlashcardAttachmentEntity> getAttachments(String flashcardId) {
+        return attachmentRepository.findByFlashcardId(flashcardId);
+    }
+
+    public Optional<FlashcardAttachmentEntity> getAttachment(String attachmentId) {
+        return attachmentRepository.findById(attachmentId);
+    }
+
+    public Optional<Blob> openContent(FlashcardAttachmentEntity attachment) throws IOException {
+        return blobStore.find(attachment.getBlobKey());
+    }
+
+    @Transactional
+    public boolean deleteAttachment(String attachmentId) {
+        if (!attachmentRepository.existsById(attachmentId)) {
+            return false;
+        }
+        attachmentRepository.deleteById(attachmentId);
+        return true;
+    }
+
+    @Transactional
+    public void forgetFlashcards(Collection<String> flashcardIds) {
+        if (!flashcardIds.isEmpty()) {
+            attachmentRepository.deleteByFlashcardIds(flashcardIds);
+        }
+    }
+
+    /**
+     * Delete blobs that no attachment references. Only blobs stored more than the grace
+     * period ago are considered, so an upload whose attachment row is not saved yet is safe.
+     */
+    @Scheduled(cron = "${cardwise.attachments.sweep-cron:0 15 4 * * *}")
+    public void sweepOrphans() {
+        Instant before = Instant.now().minus(Duration.ofMinutes(orphanGraceMinutes));
+        try (Stream<String> keys = blobStore.keysStoredBefore(before)) {
+            int deleted = 0;
+            for (String key : (Iterable<String>) keys::iterator) {
+                if (!attachmentRepository.existsByBlobKey(key) && blobStore.deleteIfStoredBefore(key, before)) {
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                System.out.println("Deleted " + deleted + " unreferenced attachment blobs");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Attachment sweep failed, will retry on the next run: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cit.edu.cardwise.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * The media types an attachment may have, each with the leading bytes its files start with.
+ * Only raster images and audio are accepted: a browser never runs script from them, unlike
+ * SVG or HTML, so serving them inline from the API's origin is safe.
+ */
+public final class AttachmentTypes {
+
+    /**
+     * Bytes to read from the start of an upload to check it against its type.
+     */
+    public static final int HEAD_LENGTH = 12;
+
+    private static final Map<String, Predicate<byte[]>> SIGNATURES = Map.ofEntries(
+            Map.entry("image/png", head -> startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)),
+            Map.entry("image/jpeg", head -> startsWith(head, 0, 0xFF, 0xD8, 0xFF)),
+            Map.entry("image/gif", head -> startsWith(head, 0, 'G', 'I', 'F', '8')),
+            Map.entry("image/webp", head -> startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')),
+            // An ID3 tag, or straight into an MPEG frame header
+            Map.entry("audio/mpeg", head -> startsWith(head, 0, 'I', 'D', '3') || ((head[0] & 0xFF) == 0xFF && (head[1] & 0xE0) == 0xE0)),
+            Map.entry("audio/ogg", head -> startsWith(head, 0, 'O', 'g', 'g', 'S')),
+            Map.entry("audio/wav", head -> startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'A', 'V', 'E')),
+            Map.entry("audio/flac", head -> startsWith(head, 0, 'f', 'L', 'a', 'C')),
+            Map.entry("audio/mp4", head -> startsWith(head, 4, 'f', 't', 'y', 'p')),
+            Map.entry("audio/webm", head -> startsWith(head, 0, 0x1A, 0x45, 0xDF, 0xA3)));
+
+    // Other names browsers give the same formats
+    private static final Map<String, String> ALIASES = Map.of(
+            "image/jpg", "image/jpeg",
+            "image/pjpeg", "image/jpeg",
+            "audio/mp3", "audio/mpeg",
+            "audio/x-wav", "audio/wav",
+            "audio/wave", "audio/wav",
+            "audio/x-flac", "audio/flac",
+            "audio/x-m4a", "audio/mp4");
+
+    private AttachmentTypes() {}
+
+    /**
+     * The allowed type a Content-Type header names, without parameters.
+     */
+    public static Optional<String> normalize(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        type = ALIASES.getOrDefault(type, type);
+        return SIGNATURES.containsKey(type) ? Optional.of(type) : Optional.empty();
+    }
+
+    public static boolean isAllowed(String contentType) {
+        return contentType != null && SIGNATURES.containsKey(contentType);
+    }
+
+    /**
+     * Whether a file starting with these bytes is of the given allowed type.
+     *
+     * @param head the first {@link #HEAD_LENGTH} bytes, zero-filled if the file is shorter
+     */
+    public static boolean matches(String contentType, byte[] head) {
+        Predicate<byte[]> signature = SIGNATURES.get(contentType);
+        return signature != null && signature.test(head);
+    }
+
+    private static boolean startsWith(byte[] head, int offset, int... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if ((head[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,256 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.storage.FileBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Profile pictures in a local content-addressed store. An upload is kept under the SHA-256
+ * of its bytes, so the same picture is stored once however many users pick it, and a
+ * stored file never changes; that is what lets thumbnails be cached forever. Square
+ * thumbnails are made once per size on the task executor, never on a request thread.
+ */
+@Service
+public class AvatarService {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    // Decoded at four bytes a pixel, so about 64 MB for the largest accepted image
+    private static final long MAX_PIXELS = 16_000_000;
+
+    /**
+     * A generated thumbnail on disk.
+     */
+    public record Thumbnail(FileBlob blob, String contentType) {}
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${cardwise.avatars.sizes:64,256}")
+    private List<Integer> sizes;
+
+    @Value("${cardwise.avatars.default-size:256}")
+    private int defaultSize;
+
+    @Value("${cardwise.avatars.public-base-url:}")
+    private String publicBaseUrl;
+
+    private final Path originals;
+    private final Path thumbnails;
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+    public AvatarService(@Value("${cardwise.avatars.dir:data/avatars}") String dir,
+                         @Qualifier("applicationTaskExecutor") Executor executor) throws IOException {
+        Path root = Paths.get(dir).toAbsolutePath();
+        this.originals = Files.createDirectories(root.resolve("originals"));
+        this.thumbnails = Files.createDirectories(root.resolve("thumbnails"));
+        this.executor = executor;
+    }
+
+    /**
+     * Store an uploaded picture and point the user's profilePictureUrl at its thumbnail.
+     *
+     * @return the new profilePictureUrl, or empty if the user does not exist
+     * @throws IllegalArgumentException if the upload is not a readable image
+     */
+    public Optional<String> upload(String userId, InputStream content) throws IOException {
+        // Nothing is stored or queued for a user who does not exist
+        if (userService.getUserById(userId).isEmpty()) {
+            return Optional.empty();
+        }
+        String hash = storeOriginal(content);
+        generateThumbnails(hash);
+        String url = publicBaseUrl + "/avatars/" + hash + "/" + defaultSize;
+        if (!userService.patchUser(userId, Map.of("profilePictureUrl", url), null)) {
+            return Optional.empty();
+        }
+        return Optional.of(url);
+    }
+
+    public boolean isValidRequest(String hash, int size) {
+        return HASH.matcher(hash).matches() && sizes.contains(size);
+    }
+
+    /**
+     * The thumbnail, waiting up to timeoutMillis for it to be generated if it is not yet.
+     *
+     * @return empty if the original does not exist or generation has not finished in time
+     */
+    public Optional<Thumbnail> getThumbnail(String hash, int size, long timeoutMillis) throws IOException {
+        Optional<Thumbnail> ready = findThumbnail(hash, size);
+        if (ready.isPresent() || !Files.exists(originalPath(hash))) {
+            return ready;
+        }
+        try {
+            generateThumbnails(hash).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            System.out.println("Thumbnail generation failed for " + hash + ": " + e.getCause().getMessage());
+            return Optional.empty();
+        }
+        return findThumbnail(hash, size);
+    }
+
+    private String storeOriginal(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(originals, "upload", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Hashed while it streams to disk, so the upload is never held in memory
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            checkImage(temp);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = originalPath(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads the header only, so an oversized image is turned away before it is decoded
+    private static void checkImage(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image has more than " + MAX_PIXELS + " pixels");
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private CompletableFuture<Void> generateThumbnails(String hash) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> running = pending.putIfAbsent(hash, created);
+        if (running != null) {
+            return running;
+        }
+        executor.execute(() -> {
+            try {
+                writeThumbnails(hash);
+                created.complete(null);
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                pending.remove(hash, created);
+            }
+        });
+        return created;
+    }
+
+    private void writeThumbnails(String hash) throws IOException {
+        BufferedImage original = null;
+        for (int size : sizes) {
+            if (findThumbnail(hash, size).isPresent()) {
+                continue;
+            }
+            if (original == null) {
+                original = ImageIO.read(originalPath(hash).toFile());
+                if (original == null) {
+                    throw new IOException("Stored original is not a readable image");
+                }
+            }
+            boolean alpha = original.getColorModel().hasAlpha();
+            BufferedImage thumbnail = squareThumbnail(original, size, alpha);
+            Path target = thumbnailPath(hash, size, alpha ? "png" : "jpg");
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                if (!ImageIO.write(thumbnail, alpha ? "png" : "jpg", temp.toFile())) {
+                    throw new IOException("No image writer for thumbnail");
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // Centre crop to a square, then halve until close to the target so the final
+    // bicubic step does not skip pixels
+    private static BufferedImage squareThumbnail(BufferedImage image, int size, boolean alpha) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage current = image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        do {
+            int next = Math.max(size, current.getWidth() / 2);
+            BufferedImage scaled = new BufferedImage(next, next, type);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.drawImage(current, 0, 0, next, next, null);
+            } finally {
+                g.dispose();
+            }
+            current = scaled;
+        } while (current.getWidth() != size);
+        return current;
+    }
+
+    private Optional<Thumbnail> findThumbnail(String hash, int size) throws IOException {
+        for (String extension : new String[] {"jpg", "png"}) {
+            Path path = thumbnailPath(hash, size, extension);
+            if (Files.exists(path)) {
+                return Optional.of(new Thumbnail(new FileBlob(path, Files.size(path)),
+                        "jpg".equals(extension) ? "image/jpeg" : "image/png"));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Path originalPath(String hash) {
+        return originals.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path thumbnailPath(String hash, int size, String extension) {
+        return thumbnails.resolve(hash.substring(0, 2)).resolve(hash + "-" + size + "." + extension);
+    }
+}
@@ -0,0 +1,295 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.ChangeLogEntity;
+import cit.edu.cardwise.entity.DeletionTaskEntity;
+import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.DeletionTaskRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardRevisionRepository;
+import cit.edu.cardwise.repository.ProgressRepository;
+import cit.edu.cardwise.repository.ProgressSummaryRepository;
+import cit.edu.cardwise.repository.QuizAttemptRepository;
+import cit.edu.cardwise.repository.QuizRepository;
+import cit.edu.cardwise.repository.QuizStatsRepository;
+import cit.edu.cardwise.repository.ReviewRepository;
+import cit.edu.cardwise.repository.ReviewSummaryRepository;
+import cit.edu.cardwise.repository.StudyStreakRepository;
+import cit.edu.cardwise.repository.UserAchievementsRepository;
+import cit.edu.cardwise.repository.UserCardStatsRepository;
+import cit.edu.cardwise.repository.UserQuizStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges the rows that hang off a deleted deck or user. The request that deletes the
+ * root only removes that row and records a {@link DeletionTaskEntity}; the dependants
+ * are removed here, on a background thread, with set-based {@code DELETE ... WHERE id IN}
+ * statements of at most {@code cardwise.deletion.batch-size} ids, each chunk in its own
+ * short transaction. Every step is idempotent, so a task interrupted by a restart is
+ * simply picked up again by the periodic sweep.
+ */
+@Service
+public class CascadeDeletionService {
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    @Autowired
+    private DeletionTaskRepository deletionTaskRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private FlashcardRevisionRepository flashcardRevisionRepository;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProgressSummaryRepository progressSummaryRepository;
+
+    @Autowired
+    private ReviewSummaryRepository reviewSummaryRepository;
+
+    @Autowired
+    private UserCardStatsRepository userCardStatsRepository;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizStatsRepository quizStatsRepository;
+
+    @Autowired
+    private UserQuizStatsRepository userQuizStatsRepository;
+
+    @Autowired
+    private UserAchievementsRepository userAchievementsRepository;
+
+    @Autowired
+    private StudyStreakRepository studyStreakRepository;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private FlashcardService flashcardService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${cardwise.deletion.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CascadeDeletionService(PlatformTransactionManager transactionManager,
+                                  @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Record that the dependants of a deleted root must be purged. When called inside a
+     * transaction the worker is started after commit, so it never races the root delete.
+     */
+    public void enqueue(String rootType, String rootId) {
+        deletionTaskRepository.save(new DeletionTaskEntity(UUID.randomUUID().toString(), rootType, rootId));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(CascadeDeletionService.this::processPendingTasks);
+                }
+            });
+        } else {
+            executor.execute(this::processPendingTasks);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cardwise.deletion.poll-interval-ms:30000}")
+    public void processPendingTasks() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Keep draining while tasks succeed; a failing task waits for the next sweep
+            boolean allSucceeded = true;
+            List<DeletionTaskEntity> tasks;
+            while (allSucceeded && !(tasks = deletionTaskRepository.findByStatusOrderByCreatedAt(
+                    DeletionTaskEntity.STATUS_PENDING, PageRequest.of(0, 20))).isEmpty()) {
+                for (DeletionTaskEntity task : tasks) {
+                    allSucceeded &= process(task);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean process(DeletionTaskEntity task) {
+        boolean succeeded = true;
+        try {
+            if (DeletionTaskEntity.TYPE_DECK.equals(task.getRootType())) {
+                purgeDeckDependants(task.getRootId());
+            } else if (DeletionTaskEntity.TYPE_USER.equals(task.getRootType())) {
+                purgeUserDependants(task.getRootId());
+            }
+            task.setStatus(DeletionTaskEntity.STATUS_DONE);
+            task.setCompletedAt(LocalDateTime.now());
+        } catch (Exception e) {
+            succeeded = false;
+            System.out.println("Cascade deletion failed for " + task.getRootType() + " " + task.getRootId() + ": " + e.getMessage());
+            task.setAttempts(task.getAttempts() + 1);
+            task.setLastError(e.getMessage() == null ? e.getClass().getName() : e.getMessage().substring(0, Math.min(255, e.getMessage().length())));
+            if (task.getAttempts() >= MAX_ATTEMPTS) {
+                task.setStatus(DeletionTaskEntity.STATUS_FAILED);
+            }
+        }
+        deletionTaskRepository.save(task);
+        return succeeded;
+    }
+
+    private void purgeDeckDependants(String deckId) {
+        // Subscriptions get their own copies before the cards they show disappear
+        List<String> subscriptionIds;
+        while (!(subscriptionIds = deckRepository.findIdsBySourceDeckId(deckId, PageRequest.of(0, batchSize))).isEmpty()) {
+            for (String subscriptionId : subscriptionIds) {
+                flashcardService.materializeSubscription(subscriptionId);
+            }
+        }
+
+        List<String> quizIds = quizRepository.findIdsByDeckId(deckId);
+        if (!quizIds.isEmpty()) {
+            List<String> attemptIds;
+            while (!(attemptIds = quizAttemptRepository.findIdsByQuizIds(quizIds, PageRequest.of(0, batchSize))).isEmpty()) {
+                List<String> chunk = attemptIds;
+                transactionTemplate.executeWithoutResult(status -> quizAttemptRepository.deleteByIds(chunk));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                quizStatsRepository.deleteByQuizIds(quizIds);
+                userQuizStatsRepository.deleteByQuizIds(quizIds);
+                quizRepository.deleteByIds(quizIds);
+            });
+        }
+
+        List<String> flashcardIds;
+        while (!(flashcardIds = flashcardRepository.findIdsByDeckId(deckId, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = flashcardIds;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Progress may belong to other users, whose feeds need explicit tombstones;
+                // the flashcards themselves are covered by the deck's tombstone
+                for (Object[] progress : progressRepository.findKeysByFlashCardIds(chunk)) {
+                    syncService.recordDelete((String) progress[1], ChangeLogEntity.TYPE_PROGRESS,
+                            (String) progress[0], (String) progress[2]);
+                }
+                progressRepository.deleteByFlashCardIds(chunk);
+                reviewRepository.deleteByFlashCardIds(chunk);
+                progressSummaryRepository.deleteByFlashCardIds(chunk);
+                reviewSummaryRepository.deleteByFlashCardIds(chunk);
+                reviewService.forgetCardStats(chunk);
+                attachmentService.forgetFlashcards(chunk);
+                flashcardRepository.deleteByIds(chunk);
+                syncService.forget(ChangeLogEntity.TYPE_FLASHCARD, deckId, chunk);
+                duplicateDetectionService.forget(chunk);
+                resourceVersionService.bump(ResourceVersionService.deckKey(deckId));
+            });
+        }
+        // Every subscription has its own copies by now
+        transactionTemplate.executeWithoutResult(status -> flashcardRevisionRepository.deleteByDeckId(deckId));
+        // The deleted progress may have been anyone's
+        clearDashboards();
+    }
+
+    private void purgeUserDependants(String userId) {
+        // Dependants first, then the deck rows, so a retry can still find every deck
+        List<String> deckIds;
+        while (!(deckIds = deckRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize))).isEmpty()) {
+            for (String deckId : deckIds) {
+                purgeDeckDependants(deckId);
+            }
+            List<String> chunk = deckIds;
+            transactionTemplate.executeWithoutResult(status -> {
+                deckRepository.deleteByIds(chunk);
+                resourceVersionService.bump(ResourceVersionService.deckListKey(userId));
+            });
+        }
+
+        List<String> progressIds;
+        while (!(progressIds = progressRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = progressIds;
+            transactionTemplate.executeWithoutResult(status -> progressRepository.deleteByIds(chunk));
+        }
+        transactionTemplate.executeWithoutResult(status -> progressSummaryRepository.deleteByUserId(userId));
+
+        // Card statistics keep the user's past outcomes; only the per-user rows go
+        List<String> reviewIds;
+        while (!(reviewIds = reviewRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = reviewIds;
+            transactionTemplate.executeWithoutResult(status -> reviewRepository.deleteByIds(chunk));
+        }
+        transactionTemplate.executeWithoutResult(status -> userCardStatsRepository.deleteByUserId(userId));
+
+        List<String> attemptIds;
+        while (!(attemptIds = quizAttemptRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = attemptIds;
+            transactionTemplate.executeWithoutResult(status -> quizAttemptRepository.deleteByIds(chunk));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userQuizStatsRepository.deleteByUserId(userId);
+            userAchievementsRepository.deleteById(userId);
+            studyStreakRepository.deleteById(userId);
+            syncService.forgetUser(userId);
+            resourceVersionService.bump(ResourceVersionService.userKey(userId));
+        });
+        clearDashboards();
+    }
+
+    private void clearDashboards() {
+        Cache dashboards = cacheManager.getCache(ProgressService.DASHBOARD_CACHE);
+        if (dashboards != null) {
+            dashboards.clear();
+        }
+    }
+}
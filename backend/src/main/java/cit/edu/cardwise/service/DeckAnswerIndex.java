@@ -0,0 +1,224 @@
+package cit.edu.cardwise.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * In-memory index of the answers in one deck, used to pick multiple-choice distractors.
+ * Answers are indexed by their word tokens and by a logarithmic length bucket, so the
+ * answers that resemble a given one are found from a handful of posting lists instead of
+ * by comparing every pair of cards. All access is synchronized on the index.
+ */
+class DeckAnswerIndex {
+
+    private static final int MAX_TOKENS_PER_ANSWER = 8;
+
+    private static final class Entry {
+        final String answer;
+        final String normalized;
+        final Set<String> tokens;
+        final int lengthBucket;
+
+        Entry(String answer) {
+            this.answer = answer;
+            this.normalized = answer.trim().toLowerCase(Locale.ROOT);
+            this.tokens = tokenize(normalized);
+            this.lengthBucket = 32 - Integer.numberOfLeadingZeros(normalized.length());
+        }
+    }
+
+    private long version;
+    private final long sourceVersion;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final Map<Integer, Set<String>> lengthBuckets = new HashMap<>();
+
+    /**
+     * @param sourceVersion For a subscribed deck, the version of its source deck when the
+     *                      index was built; changes there are never applied incrementally.
+     */
+    DeckAnswerIndex(long version, long sourceVersion) {
+        this.version = version;
+        this.sourceVersion = sourceVersion;
+    }
+
+    static DeckAnswerIndex build(long version, long sourceVersion, List<Object[]> idsAndAnswers) {
+        DeckAnswerIndex index = new DeckAnswerIndex(version, sourceVersion);
+        for (Object[] row : idsAndAnswers) {
+            index.put((String) row[0], (String) row[1]);
+        }
+        return index;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    long getSourceVersion() {
+        return sourceVersion;
+    }
+
+    /**
+     * Apply a single change made at deckVersion.
+     * @return false if changes were missed and the index must be rebuilt
+     */
+    synchronized boolean apply(long deckVersion, String flashcardId, String answer, boolean removed) {
+        if (deckVersion <= version) {
+            return true; // Already reflected by a rebuild that read a newer version
+        }
+        if (deckVersion != version + 1) {
+            return false;
+        }
+        if (removed) {
+            remove(flashcardId);
+        } else if (answer != null) {
+            put(flashcardId, answer);
+        }
+        version = deckVersion;
+        return true;
+    }
+
+    synchronized List<String> cardIds() {
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Pick up to count distinct answers other than the card's own. The first similarCount
+     * are taken from answers sharing the most tokens with it, then from the same length
+     * bucket; the rest are random.
+     */
+    synchronized List<String> distractors(String flashcardId, String correctAnswer, int count, int similarCount, Random random) {
+        Entry target = entries.containsKey(flashcardId) ? entries.get(flashcardId) : new Entry(correctAnswer);
+        Set<String> seen = new HashSet<>();
+        seen.add(target.normalized);
+        List<String> picked = new ArrayList<>(count);
+
+        if (similarCount > 0) {
+            int wanted = Math.min(count, similarCount);
+            for (String id : similarIds(target, flashcardId, random)) {
+                if (picked.size() >= wanted) {
+                    break;
+                }
+                addIfNew(entries.get(id), seen, picked);
+            }
+            List<String> sameLength = new ArrayList<>(lengthBuckets.getOrDefault(target.lengthBucket, Set.of()));
+            Collections.shuffle(sameLength, random);
+            for (String id : sameLength) {
+                if (picked.size() >= wanted) {
+                    break;
+                }
+                addIfNew(entries.get(id), seen, picked);
+            }
+        }
+
+        if (picked.size() < count) {
+            if (ids.size() <= count * 8) {
+                List<String> all = new ArrayList<>(ids);
+                Collections.shuffle(all, random);
+                for (String id : all) {
+                    if (picked.size() >= count) {
+                        break;
+                    }
+                    addIfNew(entries.get(id), seen, picked);
+                }
+            } else {
+                // Large deck: sample, giving up after a bounded number of collisions
+                for (int attempt = 0; attempt < count * 8 && picked.size() < count; attempt++) {
+                    addIfNew(entries.get(ids.get(random.nextInt(ids.size()))), seen, picked);
+                }
+            }
+        }
+        return picked;
+    }
+
+    private List<String> similarIds(Entry target, String flashcardId, Random random) {
+        // Tokens shared by more than half the deck carry no signal
+        int commonLimit = Math.max(3, entries.size() / 2);
+        Map<String, Integer> scores = new HashMap<>();
+        for (String token : target.tokens) {
+            Set<String> cards = postings.get(token);
+            if (cards == null || cards.size() > commonLimit) {
+                continue;
+            }
+            for (String id : cards) {
+                if (!id.equals(flashcardId)) {
+                    scores.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> candidates = new ArrayList<>(scores.keySet());
+        Collections.shuffle(candidates, random);
+        candidates.sort((a, b) -> scores.get(b) - scores.get(a));
+        return candidates;
+    }
+
+    private static void addIfNew(Entry entry, Set<String> seen, List<String> picked) {
+        if (entry != null && seen.add(entry.normalized)) {
+            picked.add(entry.answer);
+        }
+    }
+
+    private void put(String flashcardId, String answer) {
+        remove(flashcardId);
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        Entry entry = new Entry(answer);
+        entries.put(flashcardId, entry);
+        positions.put(flashcardId, ids.size());
+        ids.add(flashcardId);
+        for (String token : entry.tokens) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(flashcardId);
+        }
+        lengthBuckets.computeIfAbsent(entry.lengthBucket, b -> new HashSet<>()).add(flashcardId);
+    }
+
+    private void remove(String flashcardId) {
+        Entry entry = entries.remove(flashcardId);
+        if (entry == null) {
+            return;
+        }
+        // Swap with the last id so removal stays O(1)
+        int position = positions.remove(flashcardId);
+        String last = ids.remove(ids.size() - 1);
+        if (!last.equals(flashcardId)) {
+            ids.set(position, last);
+            positions.put(last, position);
+        }
+        for (String token : entry.tokens) {
+            Set<String> cards = postings.get(token);
+            cards.remove(flashcardId);
+            if (cards.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+        Set<String> bucket = lengthBuckets.get(entry.lengthBucket);
+        bucket.remove(flashcardId);
+        if (bucket.isEmpty()) {
+            lengthBuckets.remove(entry.lengthBucket);
+        }
+    }
+
+    private static Set<String> tokenize(String normalized) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+                if (tokens.size() == MAX_TOKENS_PER_ANSWER) {
+                    break;
+                }
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,58 +1,239 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.dto.Versioned;
+import cit.edu.cardwise.entity.ChangeLogEntity;
 import cit.edu.cardwise.entity.DeckEntity;
+import cit.edu.cardwise.entity.DeletionTaskEntity;
 import cit.edu.cardwise.repository.DeckRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Transactional(readOnly = true)
 public class DeckService {
 
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "subject", String.class,
+            "category", String.class);
+
     @Autowired
     private DeckRepository deckRepository;
 
     @Autowired
     private AchievementService achievementService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private CascadeDeletionService cascadeDeletionService;
+
+    @Autowired
+    private MergePatchService mergePatchService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private FlashcardService flashcardService;
+
+    @Transactional
     public DeckEntity createDeck(DeckEntity deck) {
+        if (deck.getSourceDeckId() != null) {
+            checkSubscribable(deck.getSourceDeckId());
+            deck.setSourceVersion(pinSource(deck.getSourceDeckId()));
+        } else {
+            deck.setSourceVersion(0);
+        }
         List<DeckEntity> userDecks = deckRepository.findByUserId(deck.getUserId());
         boolean isFirstDeck = userDecks.isEmpty();
 
         if (deck.getId() == null || deck.getId().isEmpty()) {
             deck.setId(UUID.randomUUID().toString());
         }
+        deck.setVersion(0);
         deck.setCreatedAt(LocalDateTime.now());
         deck.setUpdatedAt(LocalDateTime.now());
 
         DeckEntity saved = deckRepository.save(deck);
+        resourceVersionService.bump(ResourceVersionService.deckListKey(saved.getUserId()));
+        syncService.recordUpsert(saved.getUserId(), ChangeLogEntity.TYPE_DECK, saved.getId(), null);
+        if (saved.getSourceDeckId() != null) {
+            syncService.recordDeckCards(saved.getUserId(), saved.getId());
+        }
 
         if (isFirstDeck) {
-            achievementService.unlockAchievement(deck.getUserId(), "First Deck Creator", "Created your first flashcard deck!");
+            achievementService.unlockAchievement(deck.getUserId(), AchievementCatalog.FIRST_DECK_CREATOR);
         }
 
         return saved;
     }
 
+    /**
+     * Subscribe a user to a deck. Only the deck row is written: the subscription shows the
+     * source deck's cards as they are now until it edits or removes one, so it costs the
+     * same however large or popular the source is. Later edits of the source are kept
+     * from it until {@link #refreshSubscription}. The cards are entered in the
+     * subscriber's sync feed with set-based statements. Subscribing to a subscription is
+     * not supported; fork it instead.
+     */
+    @Transactional
+    public DeckEntity subscribeToDeck(String sourceDeckId, String userId) {
+        DeckEntity source = checkSubscribable(sourceDeckId);
+        DeckEntity subscription = new DeckEntity(null, source.getSubject(), source.getCategory(), userId);
+        subscription.setSourceDeckId(sourceDeckId);
+        return createDeck(subscription);
+    }
+
+    /**
+     * Give a user an independent copy of a deck and every card it shows. The cards are
+     * copied with set-based INSERT ... SELECT statements.
+     */
+    @Transactional
+    public DeckEntity forkDeck(String deckId, String userId) {
+        DeckEntity source = deckRepository.findById(deckId)
+                .orElseThrow(() -> new IllegalArgumentException("Deck with ID " + deckId + " does not exist."));
+        DeckEntity fork = createDeck(new DeckEntity(null, source.getSubject(), source.getCategory(), userId));
+        flashcardService.copyFlashcards(deckId, fork.getId(), userId);
+        return fork;
+    }
+
+    /**
+     * Move a subscription to the current version of its source deck, picking up the edits
+     * made there since it subscribed or last refreshed.
+     * @throws IllegalArgumentException if the deck does not exist or is not a subscription
+     */
+    @Transactional
+    public DeckEntity refreshSubscription(String id) {
+        DeckEntity subscription = deckRepository.findSubscriptionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Deck with ID " + id + " is not a subscription."));
+        // The feed drops the cards of the old version and enters those of the new one
+        syncService.recordSourceCardsRemoved(subscription.getUserId(), id);
+        subscription.setSourceVersion(pinSource(subscription.getSourceDeckId()));
+        subscription.setUpdatedAt(LocalDateTime.now());
+        DeckEntity saved = deckRepository.save(subscription);
+        resourceVersionService.bump(ResourceVersionService.deckListKey(saved.getUserId()));
+        resourceVersionService.bump(ResourceVersionService.deckKey(id));
+        syncService.recordUpsert(saved.getUserId(), ChangeLogEntity.TYPE_DECK, id, null);
+        syncService.recordDeckCards(saved.getUserId(), id);
+        return saved;
+    }
+
+    /**
+     * The version of a source deck a subscription created or refreshed now shows. Taken by
+     * bumping the deck's counter, whose row lock orders it against concurrent card writes:
+     * each either lands in the version or sees the subscription and keeps a revision.
+     */
+    private long pinSource(String sourceDeckId) {
+        return resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(sourceDeckId));
+    }
+
+    private DeckEntity checkSubscribable(String sourceDeckId) {
+        DeckEntity source = deckRepository.findById(sourceDeckId)
+                .orElseThrow(() -> new IllegalArgumentException("Deck with ID " + sourceDeckId + " does not exist."));
+        if (source.getSourceDeckId() != null) {
+            throw new IllegalArgumentException("Deck with ID " + sourceDeckId + " is itself a subscription.");
+        }
+        return source;
+    }
+
     public List<DeckEntity> getAllDecks() {
         return deckRepository.findAll();
     }
 
+    public String getDecksEtag(String userId) {
+        return userId == null ? resourceVersionService.allDecksEtag()
+                : resourceVersionService.etag(ResourceVersionService.deckListKey(userId));
+    }
+
+    /**
+     * Every deck, or one user's decks, with the ETag read in the same transaction.
+     */
+    public Versioned<List<DeckEntity>> getDecks(String userId) {
+        String etag = getDecksEtag(userId);
+        return new Versioned<>(etag, userId == null ? deckRepository.findAll() : deckRepository.findByUserId(userId));
+    }
+
     public Optional<DeckEntity> getDeckById(String id) {
         return deckRepository.findById(id);
     }
 
+    @Transactional
     public DeckEntity updateDeck(String id, DeckEntity deckDetails) {
-        deckDetails.setUpdatedAt(LocalDateTime.now());
+        return updateDeck(id, deckDetails, null);
+    }
+
+    @Transactional
+    public DeckEntity updateDeck(String id, DeckEntity deckDetails, Long expectedVersion) {
+        Optional<DeckEntity> existing = deckRepository.findById(id);
         deckDetails.setId(id);
-        return deckRepository.save(deckDetails);
+        deckDetails.setVersion(expectedVersion != null
+                ? expectedVersion
+                : existing.map(DeckEntity::getVersion).orElse(0L));
+        if (deckDetails.getCreatedAt() == null) {
+            existing.ifPresent(deck -> deckDetails.setCreatedAt(deck.getCreatedAt()));
+        }
+        // Subscriptions are only ended by materializing them, and only refreshed on request
+        deckDetails.setSourceDeckId(existing.map(DeckEntity::getSourceDeckId).orElse(null));
+        deckDetails.setSourceVersion(existing.map(DeckEntity::getSourceVersion).orElse(0L));
+        deckDetails.setUpdatedAt(LocalDateTime.now());
+        String previousOwner = existing.map(DeckEntity::getUserId).orElse(null);
+        DeckEntity saved = deckRepository.save(deckDetails);
+        resourceVersionService.bump(ResourceVersionService.deckListKey(saved.getUserId()));
+        resourceVersionService.bump(ResourceVersionService.deckKey(id));
+        if (previousOwner != null && !previousOwner.equals(saved.getUserId())) {
+            resourceVersionService.bump(ResourceVersionService.deckListKey(previousOwner));
+            syncService.recordDelete(previousOwner, ChangeLogEntity.TYPE_DECK, id, null);
+            duplicateDetectionService.reassignDeck(id, saved.getUserId());
+        }
+        syncService.recordUpsert(saved.getUserId(), ChangeLogEntity.TYPE_DECK, id, null);
+        if (previousOwner != null && !previousOwner.equals(saved.getUserId())) {
+            syncService.recordDeckCards(saved.getUserId(), id);
+        }
+        return saved;
+    }
+
+    /**
+     * Apply a JSON Merge Patch with one UPDATE of just the changed columns.
+     * @return false if the deck does not exist
+     */
+    @Transactional
+    public boolean patchDeck(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatchService.convert(patch, PATCHABLE);
+        values.put("updatedAt", LocalDateTime.now());
+        if (!mergePatchService.apply(DeckEntity.class, "id", id, values, expectedVersion, deckRepository)) {
+            return false;
+        }
+        String owner = deckRepository.findUserIdById(id).orElse(null);
+        if (owner != null) {
+            resourceVersionService.bump(ResourceVersionService.deckListKey(owner));
+        }
+        resourceVersionService.bump(ResourceVersionService.deckKey(id));
+        syncService.recordUpsert(owner, ChangeLogEntity.TYPE_DECK, id, null);
+        return true;
     }
 
+    /**
+     * Remove the deck immediately; its flashcards, quizzes, progress and reviews are
+     * purged in the background by {@link CascadeDeletionService}.
+     */
+    @Transactional
     public void deleteDeck(String id) {
+        Optional<String> owner = deckRepository.findUserIdById(id);
         deckRepository.deleteById(id);
+        owner.ifPresent(userId -> syncService.recordDelete(userId, ChangeLogEntity.TYPE_DECK, id, null));
+        cascadeDeletionService.enqueue(DeletionTaskEntity.TYPE_DECK, id);
+        owner.ifPresent(userId -> resourceVersionService.bump(ResourceVersionService.deckListKey(userId)));
+        resourceVersionService.bump(ResourceVersionService.deckKey(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.DeckEntity;
+import cit.edu.cardwise.event.FlashcardChangedEvent;
+import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardRevisionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps a {@link DeckAnswerIndex} per recently used deck. Each index records the deck's
+ * resource version it reflects: flashcard writes are applied incrementally after they
+ * commit, and an index that turns out to be behind the stored version (a missed event,
+ * a background purge, another server instance) is rebuilt on its next use.
+ */
+@Service
+public class DistractorIndexService {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private FlashcardRevisionRepository flashcardRevisionRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    private final Map<String, DeckAnswerIndex> indexes;
+
+    public DistractorIndexService(@Value("${cardwise.quiz.distractor-index.max-decks:500}") int maxDecks) {
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DeckAnswerIndex> eldest) {
+                return size() > maxDecks;
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    DeckAnswerIndex indexFor(String deckId) {
+        // Read the version first: a write landing before the cards are loaded only makes
+        // the index look stale and be rebuilt again, never look current while missing it
+        long version = resourceVersionService.currentVersion(ResourceVersionService.deckKey(deckId));
+        // A subscription shows a fixed version of its source deck
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        long sourceVersion = subscription.map(DeckEntity::getSourceVersion).orElse(0L);
+        DeckAnswerIndex index = indexes.get(deckId);
+        if (index != null && index.getVersion() == version && index.getSourceVersion() == sourceVersion) {
+            return index;
+        }
+        List<Object[]> answers;
+        if (subscription.isPresent()) {
+            String sourceDeckId = subscription.get().getSourceDeckId();
+            answers = new ArrayList<>(flashcardRepository.findOverlayAnswers(deckId, sourceDeckId, sourceVersion));
+            answers.addAll(flashcardRevisionRepository.findShownAnswers(deckId, sourceDeckId, sourceVersion));
+        } else {
+            answers = flashcardRepository.findAnswersByDeckId(deckId);
+        }
+        index = DeckAnswerIndex.build(version, sourceVersion, answers);
+        indexes.put(deckId, index);
+        return index;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlashcardChanged(FlashcardChangedEvent event) {
+        DeckAnswerIndex index = indexes.get(event.getDeckId());
+        if (index != null && !index.apply(event.getDeckVersion(), event.getFlashcardId(), event.getAnswer(), event.isRemoved())) {
+            indexes.remove(event.getDeckId());
+        }
+    }
+}
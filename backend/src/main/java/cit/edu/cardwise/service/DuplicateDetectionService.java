@@ -0,0 +1,235 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.DuplicateGroup;
+import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.FlashcardSignatureEntity;
+import cit.edu.cardwise.entity.LshBucketEntity;
+import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardSignatureRepository;
+import cit.edu.cardwise.repository.LshBucketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Finds near-duplicate flashcards within a user's decks. Each card gets a
+ * {@link MinHashSignature} and one row in lsh_buckets per signature band, so the cards
+ * that could resemble a new one are those sharing one of its eight band keys: an indexed
+ * lookup whose cost depends on the number of similar cards, not on the size of the
+ * collection. Only those candidates are compared signature by signature.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DuplicateDetectionService {
+
+    // Buckets this crowded hold the same boilerplate card many times over; comparing
+    // every pair would be quadratic and add nothing to the report
+    private static final int MAX_BUCKET_SIZE = 50;
+    private static final int MAX_CANDIDATES = 200;
+
+    @Autowired
+    private FlashcardSignatureRepository signatureRepository;
+
+    @Autowired
+    private LshBucketRepository lshBucketRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Value("${cardwise.duplicates.similarity-threshold:0.8}")
+    private double similarityThreshold;
+
+    @Value("${cardwise.duplicates.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    record Match(String flashcardId, double similarity) {}
+
+    /**
+     * (Re)index a card under the owner of its deck. Call inside the transaction that wrote it.
+     */
+    @Transactional
+    public void index(FlashcardEntity flashcard, String userId) {
+        index(flashcard, userId, MinHashSignature.compute(flashcard.getQuestion(), flashcard.getAnswer()));
+    }
+
+    @Transactional
+    void index(FlashcardEntity flashcard, String userId, int[] signature) {
+        List<String> id = List.of(flashcard.getId());
+        lshBucketRepository.deleteByFlashcardIds(id);
+        // Cards without text are stored unsigned so the backfill does not pick them up again
+        signatureRepository.save(new FlashcardSignatureEntity(flashcard.getId(), userId, flashcard.getDeckId(),
+                signature == null ? null : MinHashSignature.encode(signature)));
+        if (signature == null || userId == null) {
+            return;
+        }
+        List<LshBucketEntity> buckets = new ArrayList<>(MinHashSignature.BANDS);
+        for (String bandKey : MinHashSignature.bandKeys(signature)) {
+            buckets.add(new LshBucketEntity(UUID.randomUUID().toString(), userId, bandKey, flashcard.getId()));
+        }
+        lshBucketRepository.saveAll(buckets);
+    }
+
+    @Transactional
+    public void forget(Collection<String> flashcardIds) {
+        if (!flashcardIds.isEmpty()) {
+            lshBucketRepository.deleteByFlashcardIds(flashcardIds);
+            signatureRepository.deleteByFlashcardIds(flashcardIds);
+        }
+    }
+
+    /**
+     * Move a deck's cards to the buckets of its new owner.
+     */
+    @Transactional
+    public void reassignDeck(String deckId, String userId) {
+        lshBucketRepository.reassignDeck(deckId, userId);
+        signatureRepository.reassignDeck(deckId, userId);
+    }
+
+    /**
+     * Find the user's card most similar to a signature, if any reaches the threshold.
+     * Rows indexed earlier in the same transaction are visible, because Hibernate flushes
+     * pending inserts before running the bucket query.
+     */
+    Optional<Match> findDuplicate(String userId, int[] signature) {
+        if (userId == null || signature == null) {
+            return Optional.empty();
+        }
+        List<String> candidates = lshBucketRepository.findFlashcardIds(
+                userId, MinHashSignature.bandKeys(signature), PageRequest.of(0, MAX_CANDIDATES));
+        Match best = null;
+        for (FlashcardSignatureEntity candidate : signatureRepository.findAllById(candidates)) {
+            if (candidate.getSignature() == null) {
+                continue;
+            }
+            double similarity = MinHashSignature.similarity(signature, MinHashSignature.decode(candidate.getSignature()));
+            if (similarity >= similarityThreshold && (best == null || similarity > best.similarity())) {
+                best = new Match(candidate.getFlashcardId(), similarity);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Group the user's likely duplicates, largest groups first. Only cards that share a
+     * bucket with another card are loaded.
+     */
+    public List<DuplicateGroup> getDuplicateReport(String userId) {
+        Map<String, List<String>> buckets = new HashMap<>();
+        for (Object[] row : lshBucketRepository.findSharedBuckets(userId)) {
+            buckets.computeIfAbsent((String) row[0], key -> new ArrayList<>()).add((String) row[1]);
+        }
+        if (buckets.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, int[]> signatures = new HashMap<>();
+        for (FlashcardSignatureEntity signature : signatureRepository.findAllById(
+                buckets.values().stream().flatMap(List::stream).distinct().toList())) {
+            if (signature.getSignature() != null) {
+                signatures.put(signature.getFlashcardId(), MinHashSignature.decode(signature.getSignature()));
+            }
+        }
+
+        // Union-find over the pairs that pass the threshold
+        Map<String, String> parents = new HashMap<>();
+        Map<String, Double> bestSimilarity = new HashMap<>();
+        for (List<String> bucket : buckets.values()) {
+            List<String> ids = bucket.subList(0, Math.min(bucket.size(), MAX_BUCKET_SIZE));
+            for (int i = 0; i < ids.size(); i++) {
+                int[] a = signatures.get(ids.get(i));
+                for (int j = i + 1; a != null && j < ids.size(); j++) {
+                    int[] b = signatures.get(ids.get(j));
+                    if (b == null) {
+                        continue;
+                    }
+                    double similarity = MinHashSignature.similarity(a, b);
+                    if (similarity >= similarityThreshold) {
+                        union(parents, ids.get(i), ids.get(j));
+                        bestSimilarity.merge(ids.get(i), similarity, Math::max);
+                        bestSimilarity.merge(ids.get(j), similarity, Math::max);
+                    }
+                }
+            }
+        }
+
+        Map<String, List<String>> groups = new HashMap<>();
+        for (String id : parents.keySet()) {
+            groups.computeIfAbsent(find(parents, id), root -> new ArrayList<>()).add(id);
+        }
+        Map<String, FlashcardEntity> flashcards = new HashMap<>();
+        for (FlashcardEntity flashcard : flashcardRepository.findAllById(parents.keySet())) {
+            flashcards.put(flashcard.getId(), flashcard);
+        }
+
+        List<DuplicateGroup> report = new ArrayList<>();
+        groups.forEach((root, ids) -> {
+            List<FlashcardEntity> members = ids.stream().map(flashcards::get).filter(card -> card != null).toList();
+            if (members.size() > 1) {
+                double similarity = ids.stream().mapToDouble(id -> bestSimilarity.getOrDefault(id, 0.0)).max().orElse(0);
+                report.add(new DuplicateGroup(members, similarity));
+            }
+        });
+        report.sort(Comparator.comparingInt((DuplicateGroup group) -> group.getFlashcards().size()).reversed());
+        return report;
+    }
+
+    private static String find(Map<String, String> parents, String id) {
+        String root = id;
+        while (!root.equals(parents.getOrDefault(root, root))) {
+            root = parents.get(root);
+        }
+        // Path compression
+        while (!id.equals(root)) {
+            String next = parents.get(id);
+            parents.put(id, root);
+            id = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parents, String a, String b) {
+        parents.putIfAbsent(a, a);
+        parents.putIfAbsent(b, b);
+        String rootA = find(parents, a);
+        String rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+    }
+
+    /**
+     * Sign cards created before duplicate detection existed, a batch per run, until none
+     * are left.
+     */
+    @Scheduled(fixedDelayString = "${cardwise.duplicates.backfill-interval-ms:60000}", initialDelay = 30000)
+    @Transactional
+    public void backfillSignatures() {
+        List<FlashcardEntity> unsigned = flashcardRepository.findUnsigned(PageRequest.of(0, backfillBatchSize));
+        Map<String, Optional<String>> owners = new HashMap<>();
+        for (FlashcardEntity flashcard : unsigned) {
+            Optional<String> owner = flashcard.getDeckId() == null ? Optional.empty()
+                    : owners.computeIfAbsent(flashcard.getDeckId(), deckRepository::findUserIdById);
+            index(flashcard, owner.orElse(null));
+        }
+        if (!unsigned.isEmpty()) {
+            System.out.println("Signed " + unsigned.size() + " flashcards for duplicate detection");
+        }
+    }
+}
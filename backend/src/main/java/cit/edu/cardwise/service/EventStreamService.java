@@ -0,0 +1,158 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.event.AchievementUnlockedEvent;
+import cit.edu.cardwise.event.ProgressUpdatedEvent;
+import cit.edu.cardwise.room.SerialExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Event streams for logged-in users. An open stream is an async servlet
+ * request, so an idle connection holds a socket and a small emitter object but no
+ * thread; events are written from the task executor after the transaction that caused
+ * them commits. Each stream has its own outbox, so its events go out one at a time and
+ * in order, and a slow client only delays its own stream.
+ */
+@Service
+public class EventStreamService {
+
+    public static final String EVENT_ACHIEVEMENT = "achievement";
+    public static final String EVENT_PROGRESS = "progress";
+
+    private final Map<String, List<Stream>> streams = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Executor executor;
+
+    @Value("${cardwise.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${cardwise.events.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${cardwise.events.reconnect-delay-ms:5000}")
+    private long reconnectDelayMillis;
+
+    public EventStreamService(@Qualifier("applicationTaskExecutor") Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Open a stream for a user. The oldest stream is closed when a user exceeds
+     * cardwise.events.max-streams-per-user, e.g. after many abandoned tabs.
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, emitter));
+
+        Stream stream = new Stream(emitter, new SerialExecutor(executor));
+        List<Stream> userStreams = streams.compute(userId, (id, existing) -> {
+            List<Stream> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(stream);
+            return list;
+        });
+        for (Stream oldest : userStreams) {
+            if (userStreams.size() <= maxStreamsPerUser) {
+                break;
+            }
+            if (userStreams.remove(oldest)) {
+                oldest.outbox.execute(oldest.emitter::complete);
+            }
+        }
+
+        // Sent straight away so the client's EventSource opens without waiting for an event
+        Set<SseEmitter.DataWithMediaType> connected = SseEmitter.event()
+                .name("connected").reconnectTime(reconnectDelayMillis).data(userId).build();
+        stream.outbox.execute(() -> send(userId, stream, connected));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAchievementUnlocked(AchievementUnlockedEvent event) {
+        push(event.getUserId(), EVENT_ACHIEVEMENT, event.getAchievement());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressUpdated(ProgressUpdatedEvent event) {
+        push(event.getUserId(), EVENT_PROGRESS, event.getProgress());
+    }
+
+    private void push(String userId, String name, Object data) {
+        List<Stream> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return;
+        }
+        Set<SseEmitter.DataWithMediaType> payload = SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(name)
+                .data(data, MediaType.APPLICATION_JSON)
+                .build();
+        for (Stream stream : userStreams) {
+            stream.outbox.execute(() -> send(userId, stream, payload));
+        }
+    }
+
+    /**
+     * Comment lines keep idle streams open through proxies and reveal dead clients, whose
+     * failed write removes them from the registry. The scheduler thread only queues them;
+     * a stream that still has writes queued is not idle and gets none.
+     */
+    @Scheduled(fixedDelayString = "${cardwise.events.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        Set<SseEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        streams.forEach((userId, userStreams) -> {
+            for (Stream stream : userStreams) {
+                if (stream.outbox.isIdle()) {
+                    stream.outbox.execute(() -> send(userId, stream, heartbeat));
+                }
+            }
+        });
+    }
+
+    public int getOpenStreamCount() {
+        return streams.values().stream().mapToInt(List::size).sum();
+    }
+
+    // Runs on the stream's outbox
+    private void send(String userId, Stream stream, Set<SseEmitter.DataWithMediaType> payload) {
+        try {
+            stream.emitter.send(payload);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream already completed
+            remove(userId, stream.emitter);
+            stream.emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(String userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.removeIf(stream -> stream.emitter == emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    private static final class Stream {
+        final SseEmitter emitter;
+        final SerialExecutor outbox;
+
+        Stream(SseEmitter emitter, SerialExecutor outbox) {
+            this.emitter = emitter;
+            this.outbox = outbox;
+        }
+    }
+}
@@ -1,36 +1,103 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.dto.DuplicateMatch;
+import cit.edu.cardwise.dto.FlashcardImportResult;
+import cit.edu.cardwise.dto.Versioned;
+import cit.edu.cardwise.entity.ChangeLogEntity;
 import cit.edu.cardwise.entity.DeckEntity;
 import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.FlashcardRevisionEntity;
+import cit.edu.cardwise.event.FlashcardChangedEvent;
 import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.FlashcardAttachmentRepository;
 import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardRevisionRepository;
+import cit.edu.cardwise.repository.ProgressRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Transactional(readOnly = true)
 public class FlashcardService {
 
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "question", String.class,
+            "answer", String.class,
+            "learned", boolean.class,
+            "deckId", String.class);
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public FlashcardService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
     @Autowired
     private FlashcardRepository flashcardRepository;
 
+    @Autowired
+    private FlashcardRevisionRepository flashcardRevisionRepository;
+
+    @Autowired
+    private FlashcardAttachmentRepository flashcardAttachmentRepository;
+
     @Autowired
     private DeckRepository deckRepository;
 
+    @Autowired
+    private ProgressRepository progressRepository;
+
     @Autowired
     private AchievementService achievementService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private MergePatchService mergePatchService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<FlashcardEntity> getAllFlashcards() {
-        return flashcardRepository.findAll();
+        return flashcardRepository.findVisible();
     }
 
     public Optional<FlashcardEntity> getFlashcardById(String id) {
         return flashcardRepository.findById(id);
     }
 
+    @Transactional
     public FlashcardEntity createFlashcard(FlashcardEntity flashcard) {
         if (flashcard.getDeckId() == null || flashcard.getDeckId().isEmpty()) {
             throw new IllegalArgumentException("Flashcard must have a valid deckId");
@@ -44,28 +111,449 @@ public class FlashcardService {
         if (flashcard.getId() == null || flashcard.getId().isEmpty()) {
             flashcard.setId(UUID.randomUUID().toString());
         }
+        flashcard.setVersion(0);
+        flashcard.setUpdatedAt(LocalDateTime.now());
+        flashcard.setSourceFlashcardId(null);
+        flashcard.setHidden(false);
 
+        long deckVersion = resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(flashcard.getDeckId()));
+        flashcard.setDeckVersion(deckVersion);
         FlashcardEntity saved = flashcardRepository.save(flashcard);
+        eventPublisher.publishEvent(new FlashcardChangedEvent(saved.getDeckId(), deckVersion, saved.getId(), saved.getAnswer(), false));
 
         String userId = deckOpt.get().getUserId();
-        List<FlashcardEntity> flashcardsInDeck = flashcardRepository.findByDeckId(flashcard.getDeckId());
-        if (flashcardsInDeck.size() == 10) {
-            achievementService.unlockAchievement(userId, "Flashcard Master", "Create 10 flashcards in a deck");
+        syncService.recordUpsert(userId, ChangeLogEntity.TYPE_FLASHCARD, saved.getId(), saved.getDeckId());
+        duplicateDetectionService.index(saved, userId);
+        if (flashcardRepository.countByDeckId(flashcard.getDeckId()) == 10) {
+            achievementService.unlockAchievement(userId, AchievementCatalog.FLASHCARD_MASTER);
         }
 
         return saved;
     }
 
+    /**
+     * Add many flashcards to a deck in one transaction. With dedupe, a card that is a near
+     * duplicate of one the deck owner already has, or of an earlier card in the same
+     * import, is skipped and reported instead.
+     */
+    @Transactional
+    public FlashcardImportResult importFlashcards(String deckId, List<FlashcardEntity> flashcards, boolean dedupe) {
+        DeckEntity deck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new IllegalArgumentException("Deck with ID " + deckId + " does not exist."));
+        String userId = deck.getUserId();
+        long previousCount = flashcardRepository.countByDeckId(deckId);
+
+        List<FlashcardEntity> imported = new ArrayList<>();
+        List<DuplicateMatch> skipped = new ArrayList<>();
+        long deckVersion = 0;
+        for (FlashcardEntity flashcard : flashcards) {
+            int[] signature = MinHashSignature.compute(flashcard.getQuestion(), flashcard.getAnswer());
+            Optional<DuplicateDetectionService.Match> duplicate = dedupe
+                    ? duplicateDetectionService.findDuplicate(userId, signature)
+                    : Optional.empty();
+            if (duplicate.isPresent()) {
+                FlashcardEntity original = flashcardRepository.findById(duplicate.get().flashcardId()).orElse(null);
+                skipped.add(new DuplicateMatch(flashcard, original, duplicate.get().similarity()));
+                continue;
+            }
+
+            if (imported.isEmpty()) {
+                // One bump for the whole import; the distractor index sees the version gap and rebuilds
+                deckVersion = resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(deckId));
+            }
+            flashcard.setId(UUID.randomUUID().toString());
+            flashcard.setDeckId(deckId);
+            flashcard.setVersion(0);
+            flashcard.setUpdatedAt(LocalDateTime.now());
+            flashcard.setSourceFlashcardId(null);
+            flashcard.setHidden(false);
+            flashcard.setDeckVersion(deckVersion);
+            FlashcardEntity saved = flashcardRepository.save(flashcard);
+            duplicateDetectionService.index(saved, userId, signature);
+            syncService.recordUpsert(userId, ChangeLogEntity.TYPE_FLASHCARD, saved.getId(), deckId);
+            imported.add(saved);
+        }
+
+        if (previousCount < 10 && previousCount + imported.size() >= 10) {
+            achievementService.unlockAchievement(userId, AchievementCatalog.FLASHCARD_MASTER);
+        }
+        return new FlashcardImportResult(imported, skipped);
+    }
+
+    @Transactional
     public FlashcardEntity updateFlashcard(String id, FlashcardEntity flashcardDetails) {
+        return updateFlashcard(id, flashcardDetails, null);
+    }
+
+    /**
+     * Replace a flashcard. Without an expected version the write is last-writer-wins, as
+     * before; with one, a concurrent edit fails with an optimistic locking exception.
+     */
+    @Transactional
+    public FlashcardEntity updateFlashcard(String id, FlashcardEntity flashcardDetails, Long expectedVersion) {
+        // A card may have moved decks, so both the old and the new list change
+        Optional<FlashcardEntity> existing = flashcardRepository.findById(id);
+        Optional<String> previousDeckId = existing.map(FlashcardEntity::getDeckId);
+        Optional<FlashcardRevisionEntity> previous = existing.map(this::snapshot);
+
         flashcardDetails.setId(id);
-        return flashcardRepository.save(flashcardDetails);
+        flashcardDetails.setVersion(expectedVersion != null
+                ? expectedVersion
+                : existing.map(FlashcardEntity::getVersion).orElse(0L));
+        flashcardDetails.setUpdatedAt(LocalDateTime.now());
+        existing.ifPresent(card -> {
+            flashcardDetails.setSourceFlashcardId(card.getSourceFlashcardId());
+            flashcardDetails.setHidden(card.isHidden());
+        });
+        FlashcardEntity saved = flashcardRepository.save(flashcardDetails);
+
+        long deckVersion = 0;
+        if (saved.getDeckId() != null) {
+            deckVersion = resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(saved.getDeckId()));
+            saved.setDeckVersion(deckVersion);
+        }
+        long replacedAt = deckVersion;
+        if (previousDeckId.isPresent() && !previousDeckId.get().equals(saved.getDeckId())) {
+            replacedAt = publishRemoved(previousDeckId.get(), id);
+            reviewService.moveCardStats(id, previousDeckId.get(), saved.getDeckId());
+        }
+        long archivedAt = replacedAt;
+        previous.ifPresent(revision -> archive(revision, archivedAt));
+        if (saved.getDeckId() != null) {
+            eventPublisher.publishEvent(new FlashcardChangedEvent(saved.getDeckId(), deckVersion, id, saved.getAnswer(), false));
+        }
+        String owner = recordChange(id, previousDeckId.orElse(null), saved.getDeckId());
+        duplicateDetectionService.index(saved, owner);
+        return saved;
+    }
+
+    /**
+     * Apply a JSON Merge Patch with one UPDATE of just the changed columns.
+     * @return false if the flashcard does not exist
+     */
+    @Transactional
+    public boolean patchFlashcard(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatchService.convert(patch, PATCHABLE);
+        values.put("updatedAt", LocalDateTime.now());
+        if (values.containsKey("deckId")) {
+            String deckId = (String) values.get("deckId");
+            if (deckId == null || !deckRepository.existsById(deckId)) {
+                throw new IllegalArgumentException("Deck with ID " + deckId + " does not exist.");
+            }
+        }
+
+        Optional<FlashcardEntity> existing = flashcardRepository.findById(id);
+        Optional<String> previousDeckId = existing.map(FlashcardEntity::getDeckId);
+        Optional<FlashcardRevisionEntity> previous = existing.map(this::snapshot);
+        if (!mergePatchService.apply(FlashcardEntity.class, "id", id, values, expectedVersion, flashcardRepository)) {
+            return false;
+        }
+
+        String deckId = values.containsKey("deckId") ? (String) values.get("deckId") : previousDeckId.orElse(null);
+        boolean moved = deckId != null && !deckId.equals(previousDeckId.orElse(null));
+        long deckVersion = 0;
+        if (deckId != null) {
+            deckVersion = resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(deckId));
+            // Also clears the persistence context, so the card is read back as patched below
+            flashcardRepository.setDeckVersion(id, deckVersion);
+        }
+        long replacedAt = deckVersion;
+        String answer = (String) values.get("answer");
+        if (moved) {
+            if (previousDeckId.isPresent()) {
+                replacedAt = publishRemoved(previousDeckId.get(), id);
+            }
+            reviewService.moveCardStats(id, previousDeckId.orElse(null), deckId);
+            if (answer == null) {
+                answer = flashcardRepository.findById(id).map(FlashcardEntity::getAnswer).orElse(null);
+            }
+        }
+        long archivedAt = replacedAt;
+        previous.ifPresent(revision -> archive(revision, archivedAt));
+        if (deckId != null) {
+            eventPublisher.publishEvent(new FlashcardChangedEvent(deckId, deckVersion, id, answer, false));
+        }
+        String owner = recordChange(id, previousDeckId.orElse(null), deckId);
+        if (values.containsKey("question") || values.containsKey("answer") || moved) {
+            flashcardRepository.findById(id).ifPresent(card -> duplicateDetectionService.index(card, owner));
+        }
+        return true;
+    }
+
+    private long publishRemoved(String deckId, String flashcardId) {
+        long deckVersion = resourceVersionService.bumpAndGet(ResourceVersionService.deckKey(deckId));
+        eventPublisher.publishEvent(new FlashcardChangedEvent(deckId, deckVersion, flashcardId, null, true));
+        return deckVersion;
     }
 
+    // The card as it is before a write, for subscriptions pinned to a version it had
+    private FlashcardRevisionEntity snapshot(FlashcardEntity card) {
+        return new FlashcardRevisionEntity(UUID.randomUUID().toString(), card, 0);
+    }
+
+    /**
+     * Keep a source card's state from before the write that replaced it at deckVersion, if
+     * a subscription still shows it. Only edits of pinned source decks pay for a row.
+     */
+    private void archive(FlashcardRevisionEntity revision, long deckVersion) {
+        if (!deckRepository.findPinnedSince(revision.getDeckId(), revision.getFromVersion(),
+                PageRequest.of(0, 1)).isEmpty()) {
+            revision.setToVersion(deckVersion);
+            flashcardRevisionRepository.save(revision);
+        }
+    }
+
+    /**
+     * Drop revisions that no subscription shows any more, e.g. after every subscription
+     * pinned to them was refreshed or deleted.
+     */
+    @Scheduled(cron = "${cardwise.subscriptions.revision-prune-cron:0 45 3 * * *}")
+    @Transactional
+    public void pruneRevisions() {
+        int pruned = flashcardRevisionRepository.deleteUnused();
+        if (pruned > 0) {
+            System.out.println("Pruned " + pruned + " flashcard revisions");
+        }
+    }
+
+    // A card that moves to another user's deck disappears from the previous owner's feed
+    private String recordChange(String flashcardId, String previousDeckId, String deckId) {
+        String owner = deckId == null ? null : deckRepository.findUserIdById(deckId).orElse(null);
+        if (previousDeckId != null && !previousDeckId.equals(deckId)) {
+            deckRepository.findUserIdById(previousDeckId)
+                    .filter(previousOwner -> !previousOwner.equals(owner))
+                    .ifPresent(previousOwner -> syncService.recordDelete(
+                            previousOwner, ChangeLogEntity.TYPE_FLASHCARD, flashcardId, previousDeckId));
+        }
+        syncService.recordUpsert(owner, ChangeLogEntity.TYPE_FLASHCARD, flashcardId, deckId);
+        return owner;
+    }
+
+    /**
+     * Delete a flashcard. Deleting a subscribed deck's edited copy of a source card
+     * reverts the deck to showing the source card.
+     */
+    @Transactional
     public void deleteFlashcard(String id) {
+        Optional<FlashcardEntity> existing = flashcardRepository.findById(id);
+        Optional<FlashcardRevisionEntity> previous = existing.map(this::snapshot);
         flashcardRepository.deleteById(id);
+        duplicateDetectionService.forget(List.of(id));
+        reviewService.forgetCardStats(List.of(id));
+        attachmentService.forgetFlashcards(List.of(id));
+        existing.ifPresent(card -> {
+            if (card.getSourceFlashcardId() == null) {
+                long deckVersion = publishRemoved(card.getDeckId(), id);
+                previous.ifPresent(revision -> archive(revision, deckVersion));
+            } else {
+                // The source card comes back, which an incremental index update cannot express
+                resourceVersionService.bump(ResourceVersionService.deckKey(card.getDeckId()));
+            }
+            deckRepository.findUserIdById(card.getDeckId()).ifPresent(owner ->
+                    syncService.recordDelete(owner, ChangeLogEntity.TYPE_FLASHCARD, id, card.getDeckId()));
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<FlashcardEntity> getFlashcardsByDeckId(String deckId) {
-        return flashcardRepository.findByDeckId(deckId);
+        return getFlashcardsByDeckId(deckId, getFlashcardsEtag(deckId)).getBody();
+    }
+
+    /**
+     * The cards of a deck as of the version tagged etag, from {@link #getFlashcardsEtag}.
+     * A class starting a session sends many identical requests at once; all that arrive
+     * while one query for the deck and version is running share its result. The list is
+     * shared between those callers and cannot be modified.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Versioned<List<FlashcardEntity>> getFlashcardsByDeckId(String deckId, String etag) {
+        // The tag sent with the list is re-read in the list's own transaction, so it
+        // cannot come from a different database than the cards
+        return singleFlight.execute("deck-flashcards", deckId + "@" + etag,
+                () -> readOnlyTransaction.execute(status -> {
+                    String currentEtag = getFlashcardsEtag(deckId);
+                    Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+                    if (subscription.isPresent()) {
+                        return new Versioned<>(currentEtag, List.copyOf(findShown(subscription.get())));
+                    }
+                    return new Versioned<>(currentEtag, List.copyOf(flashcardRepository.findByDeckId(deckId)));
+                }));
+    }
+
+    // The cards a subscription shows: as its source deck was at its sourceVersion, with its own edits
+    private List<FlashcardEntity> findShown(DeckEntity subscription) {
+        List<FlashcardEntity> cards = new ArrayList<>(flashcardRepository.findOverlay(
+                subscription.getId(), subscription.getSourceDeckId(), subscription.getSourceVersion()));
+        for (FlashcardRevisionEntity revision : flashcardRevisionRepository.findShown(
+                subscription.getId(), subscription.getSourceDeckId(), subscription.getSourceVersion())) {
+            cards.add(revision.toFlashcard());
+        }
+        return cards;
+    }
+
+    /**
+     * ETag for {@link #getFlashcardsByDeckId}. A subscribed deck shows a fixed version of
+     * its source, and moving it to another one bumps the deck's own counter, so that
+     * counter alone covers it.
+     */
+    public String getFlashcardsEtag(String deckId) {
+        return resourceVersionService.etag(ResourceVersionService.deckKey(deckId));
+    }
+
+    /**
+     * Replace a card as seen in a deck. A subscribed deck's source cards are copied on
+     * write: the first edit stores the deck's own version of the card and later edits
+     * update it, while the source deck and its other subscribers are unaffected.
+     * @return empty if the flashcard does not exist
+     * @throws IllegalArgumentException if the card is not shown in the deck
+     */
+    @Transactional
+    public Optional<FlashcardEntity> updateFlashcardInDeck(String deckId, String flashcardId, FlashcardEntity flashcardDetails) {
+        Optional<FlashcardEntity> card = findInDeck(deckId, flashcardId);
+        if (card.isEmpty()) {
+            return Optional.empty();
+        }
+        flashcardDetails.setDeckId(deckId);
+        if (deckId.equals(card.get().getDeckId())) {
+            return Optional.of(updateFlashcard(flashcardId, flashcardDetails));
+        }
+
+        FlashcardEntity override = findOrCreateOverride(deckId, card.get());
+        override.setQuestion(flashcardDetails.getQuestion());
+        override.setAnswer(flashcardDetails.getAnswer());
+        override.setLearned(flashcardDetails.isLearned());
+        override.setHidden(false);
+        override.setUpdatedAt(LocalDateTime.now());
+        FlashcardEntity saved = flashcardRepository.save(override);
+
+        resourceVersionService.bump(ResourceVersionService.deckKey(deckId));
+        String owner = deckRepository.findUserIdById(deckId).orElse(null);
+        // The deck shows the copy in place of the source card
+        syncService.recordDelete(owner, ChangeLogEntity.TYPE_FLASHCARD, card.get().getId(), deckId);
+        syncService.recordUpsert(owner, ChangeLogEntity.TYPE_FLASHCARD, saved.getId(), deckId);
+        duplicateDetectionService.index(saved, owner);
+        return Optional.of(saved);
+    }
+
+    /**
+     * Remove a card from a deck. For a source card of a subscribed deck this only hides it
+     * from that deck.
+     * @return false if the flashcard does not exist
+     * @throws IllegalArgumentException if the card is not shown in the deck
+     */
+    @Transactional
+    public boolean removeFlashcardFromDeck(String deckId, String flashcardId) {
+        Optional<FlashcardEntity> card = findInDeck(deckId, flashcardId);
+        if (card.isEmpty()) {
+            return false;
+        }
+        if (deckId.equals(card.get().getDeckId()) && card.get().getSourceFlashcardId() == null) {
+            deleteFlashcard(flashcardId);
+            return true;
+        }
+
+        FlashcardEntity hidden = deckId.equals(card.get().getDeckId()) ? card.get() : findOrCreateOverride(deckId, card.get());
+        hidden.setQuestion(null);
+        hidden.setAnswer(null);
+        hidden.setHidden(true);
+        hidden.setUpdatedAt(LocalDateTime.now());
+        flashcardRepository.save(hidden);
+
+        resourceVersionService.bump(ResourceVersionService.deckKey(deckId));
+        duplicateDetectionService.forget(List.of(hidden.getId()));
+        deckRepository.findUserIdById(deckId).ifPresent(owner ->
+                syncService.recordDelete(owner, ChangeLogEntity.TYPE_FLASHCARD, flashcardId, deckId));
+        return true;
+    }
+
+    /**
+     * A card as a deck shows it. For a source card of a subscription that is the card as
+     * of the subscription's sourceVersion, which may only survive as a revision.
+     */
+    private Optional<FlashcardEntity> findInDeck(String deckId, String flashcardId) {
+        Optional<FlashcardEntity> card = flashcardRepository.findById(flashcardId);
+        if (card.isPresent() && deckId.equals(card.get().getDeckId())) {
+            return card;
+        }
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        if (subscription.isEmpty()) {
+            return card;
+        }
+        String sourceDeckId = subscription.get().getSourceDeckId();
+        long sourceVersion = subscription.get().getSourceVersion();
+        if (card.isPresent() && sourceDeckId.equals(card.get().getDeckId()) && card.get().getDeckVersion() <= sourceVersion) {
+            return card;
+        }
+        Optional<FlashcardEntity> revision = flashcardRevisionRepository.findAt(sourceDeckId, sourceVersion, flashcardId)
+                .map(FlashcardRevisionEntity::toFlashcard);
+        // A card the deck does not show is reported by findOrCreateOverride
+        return revision.isPresent() ? revision : card;
+    }
+
+    private FlashcardEntity findOrCreateOverride(String deckId, FlashcardEntity sourceCard) {
+        String sourceDeckId = deckRepository.findSourceDeckIdById(deckId).orElse(null);
+        if (sourceDeckId == null || !sourceDeckId.equals(sourceCard.getDeckId())) {
+            throw new IllegalArgumentException("Flashcard " + sourceCard.getId() + " is not part of deck " + deckId);
+        }
+        return flashcardRepository.findByDeckIdAndSourceFlashcardId(deckId, sourceCard.getId()).orElseGet(() -> {
+            FlashcardEntity override = new FlashcardEntity();
+            override.setId(UUID.randomUUID().toString());
+            override.setDeckId(deckId);
+            override.setSourceFlashcardId(sourceCard.getId());
+            return override;
+        });
+    }
+
+    /**
+     * Copy the cards a deck shows into another deck with INSERT ... SELECT statements,
+     * without loading them, together with their attachments. Used for forks.
+     */
+    @Transactional
+    public void copyFlashcards(String deckId, String targetDeckId, String targetUserId) {
+        flashcardRepository.copyCards(deckId, targetDeckId);
+        deckRepository.findSubscriptionById(deckId).ifPresent(subscription -> {
+            flashcardRepository.copySourceCards(subscription.getSourceDeckId(), subscription.getSourceVersion(),
+                    deckId, targetDeckId);
+            flashcardRepository.copySourceRevisions(subscription.getSourceDeckId(), subscription.getSourceVersion(),
+                    deckId, targetDeckId);
+        });
+        flashcardAttachmentRepository.copyToCopies(targetDeckId);
+        flashcardRepository.clearSourceFlashcardIds(targetDeckId);
+        resourceVersionService.bump(ResourceVersionService.deckKey(targetDeckId));
+        syncService.recordDeckCards(targetUserId, targetDeckId);
+    }
+
+    /**
+     * Turn a subscription into an ordinary deck with its own copy of every card it shows,
+     * attachments included. Run before the source deck's cards are purged; the owner's
+     * progress moves to the copies.
+     */
+    @Transactional
+    public void materializeSubscription(String deckId) {
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        if (subscription.isEmpty()) {
+            return;
+        }
+        String sourceDeckId = subscription.get().getSourceDeckId();
+        long sourceVersion = subscription.get().getSourceVersion();
+        String owner = subscription.get().getUserId();
+        // The owner's feed swaps the source cards for the copies
+        syncService.recordSourceCardsRemoved(owner, deckId);
+        flashcardRepository.copySourceCards(sourceDeckId, sourceVersion, deckId, deckId);
+        flashcardRepository.copySourceRevisions(sourceDeckId, sourceVersion, deckId, deckId);
+        flashcardAttachmentRepository.copyToCopies(deckId);
+        flashcardRepository.deleteHidden(deckId);
+        if (owner != null) {
+            progressRepository.remapToMaterialized(owner, deckId);
+        }
+        flashcardRepository.clearSourceFlashcardIds(deckId);
+        deckRepository.clearSourceDeckId(deckId);
+
+        if (owner != null) {
+            resourceVersionService.bump(ResourceVersionService.deckListKey(owner));
+        }
+        resourceVersionService.bump(ResourceVersionService.deckKey(deckId));
+        syncService.recordUpsert(owner, ChangeLogEntity.TYPE_DECK, deckId, null);
+        syncService.recordDeckCards(owner, deckId);
     }
 }
\ No newline at end of file
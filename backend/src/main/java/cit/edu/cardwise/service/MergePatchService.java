@@ -0,0 +1,74 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.repository.PartialUpdateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) to versioned entities. Only the members
+ * present in the patch are written, and a null member clears the column.
+ */
+@Service
+public class MergePatchService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PartialUpdateRepository partialUpdateRepository;
+
+    /**
+     * Convert the members of a patch to the Java types of the attributes they target.
+     * @param patchable the attributes a client may change and their types
+     * @throws IllegalArgumentException for unknown attributes or values of the wrong type
+     */
+    public Map<String, Object> convert(Map<String, Object> patch, Map<String, Class<?>> patchable) {
+        if (patch == null) {
+            throw new IllegalArgumentException("Patch document is required");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> member : patch.entrySet()) {
+            Class<?> type = patchable.get(member.getKey());
+            if (type == null) {
+                throw new IllegalArgumentException("Field cannot be patched: " + member.getKey());
+            }
+            Object value = member.getValue();
+            if (value instanceof Map || value instanceof Collection) {
+                throw new IllegalArgumentException("Field " + member.getKey() + " must be a scalar");
+            }
+            if (value == null && type.isPrimitive()) {
+                throw new IllegalArgumentException("Field " + member.getKey() + " cannot be null");
+            }
+            values.put(member.getKey(), value == null ? null : objectMapper.convertValue(value, type));
+        }
+        return values;
+    }
+
+    /**
+     * Write the converted values with a single UPDATE.
+     * @return false if no row has the given id
+     * @throws OptimisticLockingFailureException if the row exists but its version no longer
+     *         matches expectedVersion
+     */
+    @Transactional
+    public <T> boolean apply(Class<T> entityType, String idAttribute, String id, Map<String, Object> values,
+                             Long expectedVersion, CrudRepository<T, String> repository) {
+        if (partialUpdateRepository.update(entityType, idAttribute, id, values, expectedVersion) == 1) {
+            return true;
+        }
+        // Only a failed update pays for the extra lookup
+        if (expectedVersion != null && repository.existsById(id)) {
+            throw new OptimisticLockingFailureException(
+                    entityType.getSimpleName() + " " + id + " was modified by another request");
+        }
+        return false;
+    }
+}
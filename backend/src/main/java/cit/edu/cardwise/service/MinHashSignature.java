@@ -0,0 +1,107 @@
+package cit.edu.cardwise.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MinHash signatures over the character 4-gram shingles of a flashcard's question and
+ * answer. The fraction of equal positions in two signatures estimates the Jaccard
+ * similarity of their shingle sets. For locality-sensitive hashing the signature is cut
+ * into {@link #BANDS} bands of {@link #ROWS_PER_BAND} values; two cards share a band key
+ * with high probability once their similarity passes roughly (1/BANDS)^(1/ROWS_PER_BAND),
+ * about 0.6.
+ */
+final class MinHashSignature {
+
+    static final int HASHES = 32;
+    static final int BANDS = 8;
+    static final int ROWS_PER_BAND = HASHES / BANDS;
+
+    private static final int SHINGLE_LENGTH = 4;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private MinHashSignature() {}
+
+    /**
+     * @return the signature, or null if the card has no text to compare
+     */
+    static int[] compute(String question, String answer) {
+        String text = normalize((question == null ? "" : question) + " | " + (answer == null ? "" : answer));
+        if (text.replace("|", "").isBlank()) {
+            return null;
+        }
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = text.substring(start, Math.min(text.length(), start + SHINGLE_LENGTH)).hashCode();
+            for (int i = 0; i < HASHES; i++) {
+                int value = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    static List<String> bandKeys(int[] signature) {
+        List<String> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                hash = mix(hash * 31 + signature[band * ROWS_PER_BAND + row]);
+            }
+            keys.add(band + ":" + Long.toHexString(hash));
+        }
+        return keys;
+    }
+
+    static String encode(int[] signature) {
+        StringBuilder encoded = new StringBuilder(HASHES * 8);
+        for (int value : signature) {
+            String hex = Integer.toHexString(value);
+            encoded.append("0".repeat(8 - hex.length())).append(hex);
+        }
+        return encoded.toString();
+    }
+
+    static int[] decode(String encoded) {
+        int[] signature = new int[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = Integer.parseUnsignedInt(encoded, i * 8, i * 8 + 8, 16);
+        }
+        return signature;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}|]+", " ").trim();
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,32 +1,78 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.dto.DailyProgress;
+import cit.edu.cardwise.dto.ProgressDashboard;
+import cit.edu.cardwise.dto.ProgressTotals;
+import cit.edu.cardwise.dto.ScoreComparisonCount;
+import cit.edu.cardwise.entity.ChangeLogEntity;
 import cit.edu.cardwise.entity.ProgressEntity;
+import cit.edu.cardwise.entity.ProgressSummaryEntity;
+import cit.edu.cardwise.event.ProgressUpdatedEvent;
 import cit.edu.cardwise.repository.ProgressRepository;
+import cit.edu.cardwise.repository.ProgressSummaryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
+@Transactional(readOnly = true)
 public class ProgressService {
 
+    public static final String DASHBOARD_CACHE = "progressDashboards";
+
     @Autowired
     private ProgressRepository progressRepository;
 
+    @Autowired
+    private ProgressSummaryRepository progressSummaryRepository;
+
     @Autowired
     private AchievementService achievementService;
 
     @Autowired
     private cit.edu.cardwise.repository.UserRepository userRepository;
 
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StreakService streakService;
+
+    @Value("${cardwise.dashboard.days:30}")
+    private int dashboardDays;
+
+    @Transactional
     public ProgressEntity createProgress(ProgressEntity progress) {
         if (progress.getProgressId() == null || progress.getProgressId().isEmpty()) {
             progress.setProgressId(java.util.UUID.randomUUID().toString());
         }
         progress.setCreatedAt(LocalDateTime.now());
-        return progressRepository.save(progress);
+        ProgressEntity saved = progressRepository.save(progress);
+        syncService.recordUpsert(saved.getUserId(), ChangeLogEntity.TYPE_PROGRESS, saved.getProgressId(), saved.getFlashCardId());
+        eventPublisher.publishEvent(new ProgressUpdatedEvent(saved.getUserId(), saved));
+        streakService.recordActivity(saved.getUserId(), saved.getCreatedAt());
+        evictDashboard(saved.getUserId());
+        return saved;
     }
 
     public List<ProgressEntity> getAllProgress() {
@@ -45,15 +91,69 @@ public class ProgressService {
         return progressRepository.findByUserId(userId);
     }
 
+    /**
+     * Monthly totals for progress older than the retention period, oldest first.
+     */
+    public List<ProgressSummaryEntity> getMonthlySummaries(String userId) {
+        return progressSummaryRepository.findByUserId(userId);
+    }
+
+    /**
+     * The user's dashboard, computed by grouped queries and cached until their progress changes.
+     */
+    @Cacheable(value = DASHBOARD_CACHE, key = "#userId")
+    public ProgressDashboard getDashboard(String userId) {
+        ProgressTotals recent = progressRepository.findTotalsByUserId(userId);
+        ProgressTotals compacted = progressSummaryRepository.findTotalsByUserId(userId);
+        long attempts = recent.getAttempts() + compacted.getAttempts();
+        long totalScore = recent.getTotalScore() + compacted.getTotalScore();
+
+        Map<String, Long> scoreComparisons = new TreeMap<>();
+        for (ScoreComparisonCount count : progressRepository.countByScoreComparison(userId)) {
+            scoreComparisons.merge(count.getScoreComparison(), count.getCount(), Long::sum);
+        }
+        for (ScoreComparisonCount count : progressSummaryRepository.countByScoreComparison(userId)) {
+            scoreComparisons.merge(count.getScoreComparison(), count.getCount(), Long::sum);
+        }
+
+        LocalDate seriesFrom = LocalDate.now().minusDays(dashboardDays - 1);
+        List<DailyProgress> daily = progressRepository.findDailySince(userId, seriesFrom.atStartOfDay());
+
+        return new ProgressDashboard(userId, attempts,
+                recent.getTimeSpent() + compacted.getTimeSpent(),
+                attempts == 0 ? 0 : (double) totalScore / attempts,
+                Math.max(recent.getBestScore(), compacted.getBestScore()),
+                scoreComparisons, seriesFrom, daily);
+    }
+
+    @Transactional
     public ProgressEntity updateProgress(String id, ProgressEntity progressDetails) {
+        Optional<ProgressEntity> existing = progressRepository.findById(id);
+        Optional<String> previousOwner = existing.map(ProgressEntity::getUserId);
         progressDetails.setProgressId(id);
-        return progressRepository.save(progressDetails);
+        // createdAt places the row in its month partition and is never moved by an update
+        progressDetails.setCreatedAt(existing.map(ProgressEntity::getCreatedAt).orElseGet(LocalDateTime::now));
+        ProgressEntity saved = progressRepository.save(progressDetails);
+        previousOwner.filter(userId -> !userId.equals(saved.getUserId()))
+                .ifPresent(userId -> syncService.recordDelete(userId, ChangeLogEntity.TYPE_PROGRESS, id, saved.getFlashCardId()));
+        syncService.recordUpsert(saved.getUserId(), ChangeLogEntity.TYPE_PROGRESS, id, saved.getFlashCardId());
+        eventPublisher.publishEvent(new ProgressUpdatedEvent(saved.getUserId(), saved));
+        previousOwner.ifPresent(this::evictDashboard);
+        evictDashboard(saved.getUserId());
+        return saved;
     }
 
+    @Transactional
     public void deleteProgress(String id) {
+        Optional<ProgressEntity> existing = progressRepository.findById(id);
         progressRepository.deleteById(id);
+        existing.ifPresent(progress -> {
+            syncService.recordDelete(progress.getUserId(), ChangeLogEntity.TYPE_PROGRESS, id, progress.getFlashCardId());
+            evictDashboard(progress.getUserId());
+        });
     }
 
+    @Transactional
     public void trackStudyTime(String userId, int minutesSpent) {
         ProgressEntity progress = new ProgressEntity();
         progress.setProgressId(java.util.UUID.randomUUID().toString());
@@ -64,11 +164,10 @@ public class ProgressService {
         progress.setScoreComparison(null);
         createProgress(progress);
 
-        List<ProgressEntity> progressList = progressRepository.findByUserId(userId);
-        int totalMinutes = progressList.stream().mapToInt(ProgressEntity::getTimeSpent).sum();
+        long totalMinutes = progressRepository.sumTimeSpentByUserId(userId);
 
         if (totalMinutes >= 30) {
-            achievementService.unlockAchievement(userId, "Study Streak", "Spend 30 minutes in study mode");
+            achievementService.unlockAchievement(userId, AchievementCatalog.STUDY_STREAK);
         }
     }
 
@@ -82,4 +181,22 @@ public class ProgressService {
                 .map(cit.edu.cardwise.entity.UserEntity::getUserId)
                 .orElse(null);
     }
-}
\ No newline at end of file
+
+    // After commit, so a dashboard read racing the write cannot cache the old figures again
+    private void evictDashboard(String userId) {
+        Cache cache = cacheManager.getCache(DASHBOARD_CACHE);
+        if (userId == null || cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(userId);
+                }
+            });
+        } else {
+            cache.evict(userId);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.QuizQuestion;
+import cit.edu.cardwise.entity.QuizAttemptEntity;
+import cit.edu.cardwise.room.QuizRoom;
+import cit.edu.cardwise.room.RoomDirectory;
+import cit.edu.cardwise.room.TimerWheel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live quiz rooms hosted on this node. Every room runs on one small shared pool and one
+ * timer wheel, and sends its frames on a second pool, so the thread count stays fixed
+ * however many rooms and players there are, and clients slow to take their frames do not
+ * hold up the rooms.
+ * Room codes are claimed in the {@link RoomDirectory}, which tells the other nodes where
+ * each room lives.
+ */
+@Service
+public class QuizRoomService implements QuizRoom.Listener {
+
+    private static final char[] CODE_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int CODE_LENGTH = 6;
+    private static final int CODE_ATTEMPTS = 10;
+    private static final int MIN_QUESTION_SECONDS = 5;
+    private static final int MAX_QUESTION_SECONDS = 300;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Where clients reach this node, e.g. wss://node-1.example.com; empty on a single node
+    @Value("${cardwise.rooms.node-url:}")
+    private String nodeUrl;
+
+    @Value("${cardwise.rooms.max-rooms:200}")
+    private int maxRooms;
+
+    @Value("${cardwise.rooms.question-seconds:20}")
+    private int defaultQuestionSeconds;
+
+    @Value("${cardwise.rooms.options:4}")
+    private int optionCount;
+
+    private final Map<String, QuizRoom> rooms = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService pool;
+    private final ExecutorService fanOutPool;
+    private final TimerWheel timers;
+    private final Executor asyncExecutor;
+    private final QuizRoom.Settings settings;
+
+    public QuizRoomService(@Value("${cardwise.rooms.threads:0}") int threads,
+                           @Value("${cardwise.rooms.fan-out-threads:0}") int fanOutThreads,
+                           @Value("${cardwise.rooms.timer-tick-ms:50}") long tickMillis,
+                           @Value("${cardwise.rooms.reveal-ms:5000}") long revealMillis,
+                           @Value("${cardwise.rooms.pulse-ms:1000}") long pulseMillis,
+                           @Value("${cardwise.rooms.heartbeat-ms:25000}") long heartbeatMillis,
+                           @Value("${cardwise.rooms.idle-timeout-ms:1800000}") long idleMillis,
+                           @Value("${cardwise.rooms.linger-ms:60000}") long lingerMillis,
+                           @Value("${cardwise.rooms.max-players:5000}") int maxPlayers,
+                           @Value("${cardwise.rooms.leaderboard-size:10}") int leaderboardSize,
+                           @Value("${cardwise.rooms.send-time-limit-ms:5000}") long sendTimeLimitMillis,
+                           @Value("${cardwise.rooms.send-buffer-bytes:65536}") int sendBufferBytes,
+                           @Qualifier("applicationTaskExecutor") Executor asyncExecutor) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.pool = newPool("quiz-room-", threads > 0 ? threads : Math.max(4, 2 * cores));
+        // Sends block while a client's socket is full, so this pool is the larger one
+        this.fanOutPool = newPool("quiz-room-send-", fanOutThreads > 0 ? fanOutThreads : Math.max(8, 4 * cores));
+        this.timers = new TimerWheel("quiz-room-timer", tickMillis, 512);
+        this.asyncExecutor = asyncExecutor;
+        this.settings = new QuizRoom.Settings(revealMillis, pulseMillis, heartbeatMillis, idleMillis, lingerMillis,
+                maxPlayers, leaderboardSize, sendTimeLimitMillis, sendBufferBytes);
+    }
+
+    /**
+     * Open a room for a quiz, with multiple-choice questions generated from its deck.
+     *
+     * @throws IllegalArgumentException if the quiz does not exist or has no cards
+     * @throws IllegalStateException if this node already hosts cardwise.rooms.max-rooms rooms
+     */
+    public QuizRoom createRoom(String hostUserId, String quizId, int questionCount, Integer questionSeconds) {
+        if (rooms.size() >= maxRooms) {
+            throw new IllegalStateException("No room for another quiz on this server");
+        }
+        List<QuizQuestion> questions = quizService.generateQuestions(quizId, questionCount, optionCount);
+        if (questions.isEmpty()) {
+            throw new IllegalArgumentException("Quiz has no flashcards");
+        }
+        int seconds = Math.max(MIN_QUESTION_SECONDS, Math.min(MAX_QUESTION_SECONDS,
+                questionSeconds != null ? questionSeconds : defaultQuestionSeconds));
+        for (int attempt = 0; attempt < CODE_ATTEMPTS; attempt++) {
+            String code = newCode();
+            if (roomDirectory.claim(code, nodeUrl)) {
+                QuizRoom room = new QuizRoom(code, quizId, hostUserId, questions, seconds * 1000L, settings,
+                        pool, fanOutPool, timers, objectMapper, this);
+                rooms.put(code, room);
+                System.out.println("Opened quiz room " + code + " for quiz " + quizId);
+                return room;
+            }
+        }
+        throw new IllegalStateException("Could not find a free room code");
+    }
+
+    public Optional<QuizRoom> findRoom(String code) {
+        return Optional.ofNullable(rooms.get(code.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * @return the URL of the node hosting a room this node does not have, or empty if
+     * no node has it
+     */
+    public Optional<String> locateElsewhere(String code) {
+        String normalized = code.toUpperCase(Locale.ROOT);
+        if (rooms.containsKey(normalized)) {
+            return Optional.empty();
+        }
+        return roomDirectory.locate(normalized).filter(owner -> !owner.isEmpty() && !owner.equals(nodeUrl));
+    }
+
+    public String getNodeUrl() {
+        return nodeUrl;
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Store each player's result as an ordinary quiz attempt, off the room's threads. The
+     * score is the percentage of questions answered right.
+     */
+    @Override
+    public void finished(QuizRoom room, List<QuizRoom.PlayerResult> results, int durationSeconds) {
+        asyncExecutor.execute(() -> {
+            int saved = 0;
+            for (QuizRoom.PlayerResult result : results) {
+                try {
+                    int score = result.correct() * 100 / room.getQuestionCount();
+                    quizService.recordAttempt(new QuizAttemptEntity(null, result.userId(), room.getQuizId(), score,
+                            durationSeconds, result.outcomes()));
+                    saved++;
+                } catch (RuntimeException e) {
+                    System.out.println("Could not record room attempt for " + result.userId() + ": " + e.getMessage());
+                }
+            }
+            System.out.println("Quiz room " + room.getCode() + " finished; recorded " + saved + " attempts");
+        });
+    }
+
+    @Override
+    public void closed(QuizRoom room) {
+        rooms.remove(room.getCode(), room);
+        roomDirectory.release(room.getCode(), nodeUrl);
+    }
+
+    @Scheduled(fixedDelayString = "${cardwise.rooms.directory-refresh-ms:10000}")
+    public void refreshDirectory() {
+        if (!rooms.isEmpty()) {
+            roomDirectory.refresh(rooms.keySet(), nodeUrl);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rooms.values().forEach(room -> room.close("Server is restarting"));
+        timers.close();
+        pool.shutdown();
+        fanOutPool.shutdown();
+    }
+
+    private static ExecutorService newPool(String prefix, int size) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, task -> {
+            Thread thread = new Thread(task, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = CODE_CHARS[random.nextInt(CODE_CHARS.length)];
+        }
+        return new String(code);
+    }
+}
@@ -1,32 +1,81 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.dto.QuizQuestion;
 import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.QuizAttemptEntity;
 import cit.edu.cardwise.entity.QuizEntity;
+import cit.edu.cardwise.entity.QuizStatsEntity;
+import cit.edu.cardwise.entity.UserQuizStatsEntity;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.QuizAttemptRepository;
 import cit.edu.cardwise.repository.QuizRepository;
+import cit.edu.cardwise.repository.QuizStatsRepository;
+import cit.edu.cardwise.repository.UserQuizStatsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+@Transactional(readOnly = true)
 public class QuizService {
 
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    public static final int MAX_GENERATED_QUESTIONS = 100;
+
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "deckId", String.class,
+            "difficultyLevel", String.class,
+            "typeOfQuiz", String.class,
+            "score", int.class,
+            "timeLimit", int.class,
+            "randomizeQuestions", boolean.class);
+
     @Autowired
     private QuizRepository quizRepository;
 
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizStatsRepository quizStatsRepository;
+
+    @Autowired
+    private UserQuizStatsRepository userQuizStatsRepository;
+
     @Autowired
     private FlashcardService flashcardService;
 
     @Autowired
     private AchievementService achievementService;
 
+    @Autowired
+    private MergePatchService mergePatchService;
+
+    @Autowired
+    private DistractorIndexService distractorIndexService;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Transactional
     public QuizEntity createQuiz(QuizEntity quiz) {
         if (quiz.getQuizModeId() == null || quiz.getQuizModeId().isEmpty()) {
             quiz.setQuizModeId(UUID.randomUUID().toString());
         }
+        quiz.setVersion(0);
         quiz.setCreatedAt(LocalDateTime.now());
         quiz.setUpdatedAt(LocalDateTime.now());
         return quizRepository.save(quiz);
@@ -48,16 +97,43 @@ public class QuizService {
         return quizRepository.findByDeckId(fc.get().getDeckId());
     }
 
+    @Transactional
     public QuizEntity updateQuiz(String id, QuizEntity quizDetails) {
+        return updateQuiz(id, quizDetails, null);
+    }
+
+    @Transactional
+    public QuizEntity updateQuiz(String id, QuizEntity quizDetails, Long expectedVersion) {
+        Optional<QuizEntity> existing = quizRepository.findById(id);
         quizDetails.setQuizModeId(id);
+        quizDetails.setVersion(expectedVersion != null
+                ? expectedVersion
+                : existing.map(QuizEntity::getVersion).orElse(0L));
+        if (quizDetails.getCreatedAt() == null) {
+            existing.ifPresent(quiz -> quizDetails.setCreatedAt(quiz.getCreatedAt()));
+        }
         quizDetails.setUpdatedAt(LocalDateTime.now());
         return quizRepository.save(quizDetails);
     }
 
+    /**
+     * Apply a JSON Merge Patch with one UPDATE of just the changed columns.
+     * @return false if the quiz does not exist
+     */
+    @Transactional
+    public boolean patchQuiz(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatchService.convert(patch, PATCHABLE);
+        values.put("updatedAt", LocalDateTime.now());
+        return mergePatchService.apply(QuizEntity.class, "quizModeId", id, values, expectedVersion, quizRepository);
+    }
+
+    @Transactional
     public void deleteQuiz(String id) {
         quizRepository.deleteById(id);
     }
 
+    // No transaction of its own, so no connection is held while waiting on a shared deck read
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<FlashcardEntity> getFlashcardsForQuiz(String quizId) {
         Optional<QuizEntity> quiz = getQuizById(quizId);
         if (quiz.isEmpty()) {
@@ -68,14 +144,155 @@ public class QuizService {
         return flashcardService.getFlashcardsByDeckId(deckId);
     }
 
+    /**
+     * Build multiple-choice questions from the quiz's deck. Distractors come from the deck's
+     * {@link DeckAnswerIndex}: HARD quizzes use answers resembling the correct one, EASY
+     * quizzes random ones, and anything else a mix of both.
+     * @param count The number of questions, at most {@link #MAX_GENERATED_QUESTIONS}.
+     * @param optionCount Options per question including the answer, between 2 and 6.
+     */
+    public List<QuizQuestion> generateQuestions(String quizId, int count, int optionCount) {
+        QuizEntity quiz = getQuizById(quizId).orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+        if (quiz.getDeckId() == null) {
+            return List.of();
+        }
+        int distractorCount = Math.max(2, Math.min(optionCount, 6)) - 1;
+        int similarCount = "HARD".equalsIgnoreCase(quiz.getDifficultyLevel()) ? distractorCount
+                : "EASY".equalsIgnoreCase(quiz.getDifficultyLevel()) ? 0
+                : (distractorCount + 1) / 2;
+
+        DeckAnswerIndex index = distractorIndexService.indexFor(quiz.getDeckId());
+        Random random = ThreadLocalRandom.current();
+        List<String> cardIds = index.cardIds();
+        if (quiz.isRandomizeQuestions()) {
+            Collections.shuffle(cardIds, random);
+        }
+        cardIds = cardIds.subList(0, Math.min(cardIds.size(), Math.max(1, Math.min(count, MAX_GENERATED_QUESTIONS))));
+
+        Map<String, FlashcardEntity> cards = new HashMap<>();
+        for (FlashcardEntity card : flashcardRepository.findAllById(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+
+        List<QuizQuestion> questions = new ArrayList<>(cardIds.size());
+        for (String cardId : cardIds) {
+            FlashcardEntity card = cards.get(cardId);
+            if (card == null) {
+                continue; // Deleted since the index was read
+            }
+            List<String> options = new ArrayList<>(
+                    index.distractors(cardId, card.getAnswer(), distractorCount, similarCount, random));
+            int correctOption = random.nextInt(options.size() + 1);
+            options.add(correctOption, card.getAnswer());
+            questions.add(new QuizQuestion(cardId, card.getQuestion(), options, correctOption));
+        }
+        return questions;
+    }
+
+    @Transactional
     public void completeQuiz(String userId, String quizId, int score) {
-        Optional<QuizEntity> quiz = getQuizById(quizId);
+        recordAttempt(new QuizAttemptEntity(null, userId, quizId, score, 0, null));
+    }
+
+    /**
+     * Store a finished attempt and fold it into the per-quiz and per-user summary rows.
+     * Each summary update touches a single locked row, so the cost per attempt is
+     * constant regardless of how many attempts already exist.
+     * @param attempt The attempt to record; userId, quizId and score are required.
+     * @return The saved attempt.
+     */
+    @Transactional
+    public QuizAttemptEntity recordAttempt(QuizAttemptEntity attempt) {
+        if (attempt.getUserId() == null || attempt.getUserId().isEmpty()) {
+            throw new IllegalArgumentException("Attempt must have a userId");
+        }
+        if (attempt.getQuizId() == null || attempt.getQuizId().isEmpty()) {
+            throw new IllegalArgumentException("Attempt must have a quizId");
+        }
+        if (attempt.getScore() < 0 || attempt.getScore() > 100) {
+            throw new IllegalArgumentException("Score must be between 0 and 100");
+        }
+        String outcomes = attempt.getQuestionOutcomes();
+        if (outcomes != null && !outcomes.matches("[01]{0,1000}")) {
+            throw new IllegalArgumentException("Question outcomes must be a string of 0s and 1s");
+        }
+
+        Optional<QuizEntity> quiz = getQuizById(attempt.getQuizId());
         if (quiz.isEmpty()) {
             throw new IllegalArgumentException("Quiz not found");
         }
 
-        if (score == 100) {
-            achievementService.unlockAchievement(userId, "Quiz Champion", "Score 100% on a quiz");
+        attempt.setAttemptId(UUID.randomUUID().toString());
+        attempt.setDurationSeconds(Math.max(0, attempt.getDurationSeconds()));
+        attempt.setCreatedAt(LocalDateTime.now());
+        QuizAttemptEntity saved = quizAttemptRepository.save(attempt);
+
+        updateQuizStats(saved);
+        updateUserQuizStats(saved);
+
+        if (saved.getScore() == 100) {
+            achievementService.unlockAchievement(saved.getUserId(), AchievementCatalog.QUIZ_CHAMPION);
         }
+
+        return saved;
+    }
+
+    public List<QuizAttemptEntity> getAttempts(String userId, String quizId) {
+        return quizAttemptRepository.findByUserIdAndQuizIdOrderByCreatedAtDesc(userId, quizId);
+    }
+
+    public QuizStatsEntity getQuizStats(String quizId) {
+        return quizStatsRepository.findById(quizId).orElseGet(() -> {
+            QuizStatsEntity empty = new QuizStatsEntity(quizId);
+            empty.setHistogram(emptyHistogram());
+            return empty;
+        });
+    }
+
+    public List<UserQuizStatsEntity> getUserQuizStats(String userId) {
+        return userQuizStatsRepository.findByUserId(userId);
+    }
+
+    public Optional<UserQuizStatsEntity> getUserQuizStats(String userId, String quizId) {
+        return userQuizStatsRepository.findById(UserQuizStatsEntity.idFor(userId, quizId));
+    }
+
+    private void updateQuizStats(QuizAttemptEntity attempt) {
+        // Seed the row first so concurrent first attempts queue on its lock rather than
+        // racing to insert it
+        quizStatsRepository.insertIfAbsent(attempt.getQuizId(), emptyHistogram());
+        QuizStatsEntity stats = quizStatsRepository.findForUpdate(attempt.getQuizId()).orElseThrow();
+
+        stats.setAttempts(stats.getAttempts() + 1);
+        stats.setTotalScore(stats.getTotalScore() + attempt.getScore());
+        stats.setBestScore(Math.max(stats.getBestScore(), attempt.getScore()));
+        stats.setHistogram(incrementHistogram(stats.getHistogram(), attempt.getScore()));
+        stats.setUpdatedAt(LocalDateTime.now());
+        quizStatsRepository.save(stats);
+    }
+
+    private void updateUserQuizStats(QuizAttemptEntity attempt) {
+        String statsId = UserQuizStatsEntity.idFor(attempt.getUserId(), attempt.getQuizId());
+        userQuizStatsRepository.insertIfAbsent(statsId, attempt.getUserId(), attempt.getQuizId(), emptyHistogram());
+        UserQuizStatsEntity stats = userQuizStatsRepository.findForUpdate(statsId).orElseThrow();
+
+        stats.setAttempts(stats.getAttempts() + 1);
+        stats.setTotalScore(stats.getTotalScore() + attempt.getScore());
+        stats.setBestScore(Math.max(stats.getBestScore(), attempt.getScore()));
+        stats.setLastScore(attempt.getScore());
+        stats.setHistogram(incrementHistogram(stats.getHistogram(), attempt.getScore()));
+        stats.setUpdatedAt(LocalDateTime.now());
+        userQuizStatsRepository.save(stats);
+    }
+
+    private static String emptyHistogram() {
+        return String.join(",", Collections.nCopies(HISTOGRAM_BUCKETS, "0"));
+    }
+
+    private static String incrementHistogram(String histogram, int score) {
+        String[] buckets = (histogram == null || histogram.isEmpty() ? emptyHistogram() : histogram).split(",");
+        int bucket = Math.min(score / (100 / HISTOGRAM_BUCKETS), HISTOGRAM_BUCKETS - 1);
+        buckets[bucket] = Long.toString(Long.parseLong(buckets[bucket]) + 1);
+        return String.join(",", buckets);
     }
-}
\ No newline at end of file
+}
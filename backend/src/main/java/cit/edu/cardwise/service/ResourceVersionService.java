@@ -0,0 +1,117 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.ResourceVersionEntity;
+import cit.edu.cardwise.repository.ResourceVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.StringJoiner;
+
+/**
+ * Version counters behind the ETags on read-heavy list endpoints. Checking a
+ * counter is a single primary-key lookup, so a conditional GET can be answered
+ * with 304 without loading any decks or flashcards.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ResourceVersionService {
+
+    private static final String DECK_LIST_PREFIX = "decks:";
+
+    @Autowired
+    private ResourceVersionRepository resourceVersionRepository;
+
+    /**
+     * Counter for the list of one owner's decks. Deck writes bump only their owner's
+     * counter, so writers for different users never wait on the same row.
+     */
+    public static String deckListKey(String userId) {
+        return DECK_LIST_PREFIX + userId;
+    }
+
+    public static String deckKey(String deckId) {
+        return "deck:" + deckId;
+    }
+
+    public static String userKey(String userId) {
+        return "user:" + userId;
+    }
+
+    /**
+     * Strong ETag for a single entity, built from its {@code @Version} column. Unlike the
+     * list tags it must be strong, because If-Match only uses strong comparison.
+     */
+    public static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Read the version out of an If-Match header.
+     * @return the expected version, or null if the header is absent or "*"
+     * @throws IllegalArgumentException if the header is not a single tag from {@link #versionTag}
+     */
+    public static Long parseVersionTag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+    }
+
+    /**
+     * Increment the counter for a resource, creating it on first use. Call this inside
+     * the same transaction as the write so the new ETag is visible exactly when the data is.
+     */
+    @Transactional
+    public void bump(String resourceKey) {
+        resourceVersionRepository.increment(resourceKey);
+    }
+
+    /**
+     * Like {@link #bump} but also return the new value, for callers that need to know
+     * exactly which version their write produced.
+     */
+    @Transactional
+    public long bumpAndGet(String resourceKey) {
+        resourceVersionRepository.increment(resourceKey);
+        return resourceVersionRepository.findVersion(resourceKey).orElseThrow();
+    }
+
+    /**
+     * Weak ETag for the list of every user's decks: the sum of the per-owner counters.
+     */
+    public String allDecksEtag() {
+        return "W/\"" + resourceVersionRepository.sumVersions(DECK_LIST_PREFIX) + "\"";
+    }
+
+    public long currentVersion(String resourceKey) {
+        return resourceVersionRepository.findById(resourceKey)
+                .map(ResourceVersionEntity::getVersion)
+                .orElse(0L);
+    }
+
+    /**
+     * Build an ETag from the current counters of one or more resources. The tag changes
+     * exactly when the data does, but it is sent as a weak validator because Tomcat will
+     * not gzip a response carrying a strong one (the compressed bytes are a different
+     * representation). If-None-Match only uses weak comparison, so nothing is lost.
+     * Read the ETag before loading the body: a write landing in between then only
+     * causes one extra download, never a stale cached copy. Runs read-only so that, with a
+     * read replica, the tag comes from the same database as the data it describes.
+     */
+    public String etag(String... resourceKeys) {
+        StringJoiner tag = new StringJoiner(".", "W/\"", "\"");
+        for (String key : resourceKeys) {
+            tag.add(Long.toString(currentVersion(key)));
+        }
+        return tag.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.config.PartitionManager;
+import cit.edu.cardwise.repository.ProgressRepository;
+import cit.edu.cardwise.repository.ProgressSummaryRepository;
+import cit.edu.cardwise.repository.ReviewRepository;
+import cit.edu.cardwise.repository.ReviewSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compacts progress and reviews older than {@code cardwise.retention.raw-months} into
+ * monthly summaries, then removes the raw rows: by dropping their partitions on MySQL, by
+ * batched deletes elsewhere. A month is summarised only once, so a run interrupted between
+ * summarising and removing picks up where it stopped without counting anything twice.
+ */
+@Service
+public class RetentionService {
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProgressSummaryRepository progressSummaryRepository;
+
+    @Autowired
+    private ReviewSummaryRepository reviewSummaryRepository;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${cardwise.retention.raw-months:12}")
+    private int rawMonths;
+
+    @Value("${cardwise.deletion.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RetentionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${cardwise.retention.cron:0 30 3 * * *}")
+    public void compact() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            partitionManager.maintain();
+            YearMonth cutoff = YearMonth.now().minusMonths(rawMonths);
+            compactProgress(cutoff);
+            // Compacted rows leave the dashboards' score buckets
+            Cache dashboards = cacheManager.getCache(ProgressService.DASHBOARD_CACHE);
+            if (dashboards != null) {
+                dashboards.clear();
+            }
+            compactReviews(cutoff);
+        } catch (RuntimeException e) {
+            System.out.println("Retention run failed, will retry on the next run: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void compactProgress(YearMonth cutoff) {
+        LocalDateTime oldest = progressRepository.findOldestCreatedAt();
+        if (oldest == null || !YearMonth.from(oldest).isBefore(cutoff)) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            YearMonth current = month;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!progressSummaryRepository.existsByMonthStart(current.atDay(1))) {
+                    int rows = progressSummaryRepository.summarize(current.atDay(1), start(current), start(current.plusMonths(1)));
+                    if (rows > 0) {
+                        System.out.println("Summarised progress for " + current + " into " + rows + " rows");
+                    }
+                }
+            });
+        }
+
+        if (partitionManager.isActive()) {
+            partitionManager.dropMonthsBefore("progress", cutoff);
+            return;
+        }
+        List<String> ids;
+        while (!(ids = progressRepository.findIdsCreatedBefore(start(cutoff), PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = ids;
+            transactionTemplate.executeWithoutResult(status -> progressRepository.deleteByIds(chunk));
+        }
+    }
+
+    private void compactReviews(YearMonth cutoff) {
+        LocalDateTime oldest = reviewRepository.findOldestCreatedAt();
+        if (oldest == null || !YearMonth.from(oldest).isBefore(cutoff)) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            YearMonth current = month;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!reviewSummaryRepository.existsByMonthStart(current.atDay(1))) {
+                    int rows = reviewSummaryRepository.summarize(current.atDay(1), start(current), start(current.plusMonths(1)));
+                    if (rows > 0) {
+                        System.out.println("Summarised reviews for " + current + " into " + rows + " rows");
+                    }
+                }
+            });
+        }
+
+        if (partitionManager.isActive()) {
+            partitionManager.dropMonthsBefore("reviews", cutoff);
+            return;
+        }
+        List<String> ids;
+        while (!(ids = reviewRepository.findIdsCreatedBefore(start(cutoff), PageRequest.of(0, batchSize))).isEmpty()) {
+            List<String> chunk = ids;
+            transactionTemplate.executeWithoutResult(status -> reviewRepository.deleteByIds(chunk));
+        }
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -1,24 +1,65 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.entity.CardStatsEntity;
+import cit.edu.cardwise.entity.DeckEntity;
+import cit.edu.cardwise.entity.ReviewCounters;
 import cit.edu.cardwise.entity.ReviewEntity;
+import cit.edu.cardwise.entity.UserCardStatsEntity;
+import cit.edu.cardwise.repository.CardStatsRepository;
+import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
 import cit.edu.cardwise.repository.ReviewRepository;
+import cit.edu.cardwise.repository.UserCardStatsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 public class ReviewService {
 
+    private static final int MAX_HARDEST = 100;
+
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private CardStatsRepository cardStatsRepository;
+
+    @Autowired
+    private UserCardStatsRepository userCardStatsRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    // The fields of a review that feed the statistics, copied before an update overwrites them
+    private record Outcome(String userId, String flashCardId, Boolean correct, Integer responseTimeMs, Integer confidence) {
+        static Outcome of(ReviewEntity review) {
+            return new Outcome(review.getUserId(), review.getFlashCardId(), review.getCorrect(),
+                    review.getResponseTimeMs(), review.getConfidence());
+        }
+    }
+
+    @Transactional
     public ReviewEntity createReview(ReviewEntity review) {
+        validate(review);
         if (review.getReviewId() == null || review.getReviewId().isEmpty()) {
             review.setReviewId(java.util.UUID.randomUUID().toString());
         }
-        return reviewRepository.save(review);
+        // Decides the month partition the review is stored in
+        review.setCreatedAt(LocalDateTime.now());
+        ReviewEntity saved = reviewRepository.save(review);
+        applyToStats(Outcome.of(saved), 1);
+        return saved;
     }
 
     public ReviewEntity getReviewById(String reviewId) {
@@ -30,12 +71,146 @@ public class ReviewService {
         return reviewRepository.findAll();
     }
 
+    @Transactional
     public ReviewEntity updateReview(ReviewEntity review) {
-        return reviewRepository.save(review);
+        validate(review);
+        Optional<ReviewEntity> existing = review.getReviewId() == null ? Optional.empty()
+                : reviewRepository.findById(review.getReviewId());
+        Optional<Outcome> previous = existing.map(Outcome::of);
+        review.setCreatedAt(existing.map(ReviewEntity::getCreatedAt).orElseGet(LocalDateTime::now));
+        ReviewEntity saved = reviewRepository.save(review);
+        previous.ifPresent(outcome -> applyToStats(outcome, -1));
+        applyToStats(Outcome.of(saved), 1);
+        return saved;
     }
 
+    @Transactional
     public String deleteReview(String reviewId) {
+        reviewRepository.findById(reviewId).ifPresent(review -> applyToStats(Outcome.of(review), -1));
         reviewRepository.deleteById(reviewId);
         return "Review with ID " + reviewId + " has been deleted";
     }
+
+    /**
+     * The deck's cards that reviewers get wrong most often, hardest first.
+     */
+    public List<CardStatsEntity> getHardestCards(String deckId, int limit) {
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        if (subscription.isPresent()) {
+            return cardStatsRepository.findHardestShown(deckId, subscription.get().getSourceDeckId(),
+                    subscription.get().getSourceVersion(), PageRequest.of(0, clampLimit(limit)));
+        }
+        return cardStatsRepository.findHardest(deckId, PageRequest.of(0, clampLimit(limit)));
+    }
+
+    public List<UserCardStatsEntity> getHardestCards(String userId, String deckId, int limit) {
+        return userCardStatsRepository.findHardest(userId, deckId, PageRequest.of(0, clampLimit(limit)));
+    }
+
+    public Optional<CardStatsEntity> getCardStats(String flashcardId) {
+        return cardStatsRepository.findById(flashcardId);
+    }
+
+    public Optional<UserCardStatsEntity> getCardStats(String userId, String flashcardId) {
+        return userCardStatsRepository.findById(UserCardStatsEntity.idFor(userId, flashcardId));
+    }
+
+    /**
+     * Keep a moved card's statistics listed under its new deck.
+     */
+    @Transactional
+    public void moveCardStats(String flashcardId, String previousDeckId, String deckId) {
+        cardStatsRepository.moveToDeck(flashcardId, deckId);
+        userCardStatsRepository.moveToDeck(flashcardId, previousDeckId, deckId);
+    }
+
+    @Transactional
+    public void forgetCardStats(Collection<String> flashcardIds) {
+        if (!flashcardIds.isEmpty()) {
+            cardStatsRepository.deleteByFlashcardIds(flashcardIds);
+            userCardStatsRepository.deleteByFlashcardIds(flashcardIds);
+        }
+    }
+
+    /**
+     * Error rate with one imagined right and one imagined wrong answer added, in permille.
+     * A card nobody has reviewed sits at 500, and a single wrong answer does not outrank a
+     * card missed nine times out of ten.
+     */
+    static int difficulty(long reviews, long correct) {
+        return (int) ((reviews - correct + 1) * 1000 / (reviews + 2));
+    }
+
+    private static void validate(ReviewEntity review) {
+        if (review.getCorrect() != null && (review.getFlashCardId() == null || review.getFlashCardId().isEmpty())) {
+            throw new IllegalArgumentException("A review with an outcome must name its flashcard");
+        }
+        if (review.getResponseTimeMs() != null && review.getResponseTimeMs() < 0) {
+            throw new IllegalArgumentException("Response time cannot be negative");
+        }
+        if (review.getConfidence() != null && (review.getConfidence() < 1 || review.getConfidence() > 5)) {
+            throw new IllegalArgumentException("Confidence must be between 1 and 5");
+        }
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_HARDEST));
+    }
+
+    // sign is 1 to add a review's outcome and -1 to take it back out
+    private void applyToStats(Outcome outcome, int sign) {
+        if (outcome.correct() == null || outcome.flashCardId() == null) {
+            return;
+        }
+        String deckId = flashcardRepository.findDeckIdById(outcome.flashCardId()).orElse(null);
+        updateCardStats(outcome, sign, deckId);
+        if (outcome.userId() != null) {
+            // A reviewer studying a source card through their subscription sees it there
+            String userDeckId = deckId == null ? null : deckRepository.findSubscriptionIds(
+                    outcome.userId(), deckId, PageRequest.of(0, 1)).stream().findFirst().orElse(deckId);
+            updateUserCardStats(outcome, sign, userDeckId);
+        }
+    }
+
+    // Rows are created by the first review counted; taking one back out of a missing row
+    // (e.g. one purged with its card) changes nothing
+    private void updateCardStats(Outcome outcome, int sign, String deckId) {
+        if (sign > 0) {
+            cardStatsRepository.insertIfAbsent(outcome.flashCardId(), deckId);
+        }
+        cardStatsRepository.findForUpdate(outcome.flashCardId()).ifPresent(stats -> {
+            count(stats, outcome, sign);
+            cardStatsRepository.save(stats);
+        });
+    }
+
+    private void updateUserCardStats(Outcome outcome, int sign, String deckId) {
+        String statsId = UserCardStatsEntity.idFor(outcome.userId(), outcome.flashCardId());
+        if (sign > 0) {
+            userCardStatsRepository.insertIfAbsent(statsId, outcome.userId(), outcome.flashCardId(), deckId);
+        }
+        userCardStatsRepository.findForUpdate(statsId).ifPresent(stats -> {
+            count(stats, outcome, sign);
+            if (sign > 0) {
+                stats.setLastCorrect(outcome.correct());
+                stats.setLastReviewedAt(LocalDateTime.now());
+            }
+            userCardStatsRepository.save(stats);
+        });
+    }
+
+    private static void count(ReviewCounters stats, Outcome outcome, int sign) {
+        stats.setReviews(stats.getReviews() + sign);
+        stats.setCorrect(stats.getCorrect() + (outcome.correct() ? sign : 0));
+        if (outcome.responseTimeMs() != null) {
+            stats.setTotalResponseTimeMs(stats.getTotalResponseTimeMs() + (long) sign * outcome.responseTimeMs());
+            stats.setTimedReviews(stats.getTimedReviews() + sign);
+        }
+        if (outcome.confidence() != null) {
+            stats.setTotalConfidence(stats.getTotalConfidence() + (long) sign * outcome.confidence());
+            stats.setRatedReviews(stats.getRatedReviews() + sign);
+        }
+        stats.setDifficulty(difficulty(stats.getReviews(), stats.getCorrect()));
+        stats.setUpdatedAt(LocalDateTime.now());
+    }
 }
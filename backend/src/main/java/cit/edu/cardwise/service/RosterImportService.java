@@ -0,0 +1,332 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.RosterAccount;
+import cit.edu.cardwise.dto.RosterImportResult;
+import cit.edu.cardwise.dto.RosterRejection;
+import cit.edu.cardwise.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Creates a class's student accounts from a CSV roster in one request. Unlike a
+ * createUser call per student, the emails are checked against existing accounts with one
+ * query, the passwords are hashed in parallel, and the rows are inserted in JDBC batches.
+ * <p>
+ * The roster's first line names its columns: email (required), firstName, lastName and
+ * password. A row without a password gets a generated one, returned once in the result.
+ * Rows that cannot become accounts are reported with their line number and skipped; the
+ * rest are still created.
+ */
+@Service
+public class RosterImportService {
+
+    private static final String ROLE = "STUDENT";
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final int MAX_FIELD_LENGTH = 255;
+    // BCrypt only reads the first 72 bytes, and Spring's encoder rejects anything longer
+    private static final int MAX_PASSWORD_BYTES = 72;
+    private static final int EMAIL_QUERY_CHUNK = 1000;
+    private static final int GENERATED_PASSWORD_LENGTH = 12;
+    private static final char[] PASSWORD_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnpqrstuvwxyz23456789".toCharArray();
+    private static final String INSERT = "INSERT INTO users (user_id, first_name, last_name, email, password, role, " +
+            "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final class Row {
+        final int line;
+        final String email;
+        final String firstName;
+        final String lastName;
+        final String password;
+        final boolean generated;
+        final String userId = UUID.randomUUID().toString();
+        String hash;
+
+        Row(int line, String email, String firstName, String lastName, String password, boolean generated) {
+            this.line = line;
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.password = password;
+            this.generated = generated;
+        }
+
+        String key() {
+            return email.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${cardwise.roster.max-rows:2000}")
+    private int maxRows;
+
+    @Value("${cardwise.roster.batch-size:200}")
+    private int batchSize;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ForkJoinPool hashPool;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Shared by all imports, so two educators importing at once still use at most
+    // hash-parallelism cores between them
+    public RosterImportService(@Value("${cardwise.roster.hash-parallelism:0}") int hashParallelism,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager) {
+        this.hashPool = new ForkJoinPool(hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors());
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the roster has no email column or too many rows
+     */
+    public RosterImportResult importRoster(InputStream content) throws IOException {
+        List<RosterRejection> skipped = new ArrayList<>();
+        List<Row> rows = withoutExistingAccounts(parse(content, skipped), skipped);
+        hashPasswords(rows);
+        List<RosterAccount> created = insert(rows, skipped);
+        skipped.sort(Comparator.comparingInt(RosterRejection::getLine));
+        System.out.println("Roster import: created " + created.size() + " accounts, skipped " + skipped.size() + " rows");
+        return new RosterImportResult(created, skipped);
+    }
+
+    private List<Row> parse(InputStream content, List<RosterRejection> skipped) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        Set<String> seen = new HashSet<>();
+        List<Row> rows = new ArrayList<>();
+        int lineNumber = 0;
+        int dataRows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            if (columns == null) {
+                columns = readHeader(fields);
+                continue;
+            }
+            if (++dataRows > maxRows) {
+                throw new IllegalArgumentException("Roster has more than " + maxRows + " rows");
+            }
+            String email = field(fields, columns, "email");
+            String firstName = field(fields, columns, "firstname");
+            String lastName = field(fields, columns, "lastname");
+            String password = field(fields, columns, "password");
+
+            String reason = null;
+            if (!EMAIL.matcher(email).matches()) {
+                reason = "Invalid email";
+            } else if (email.length() > MAX_FIELD_LENGTH || firstName.length() > MAX_FIELD_LENGTH
+                    || lastName.length() > MAX_FIELD_LENGTH) {
+                reason = "Field longer than " + MAX_FIELD_LENGTH + " characters";
+            } else if (password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+                reason = "Password longer than " + MAX_PASSWORD_BYTES + " bytes";
+            } else if (!seen.add(email.toLowerCase(Locale.ROOT))) {
+                reason = "Duplicate email in roster";
+            }
+            if (reason != null) {
+                skipped.add(new RosterRejection(lineNumber, email, reason));
+                continue;
+            }
+            boolean generated = password.isEmpty();
+            rows.add(new Row(lineNumber, email, emptyToNull(firstName), emptyToNull(lastName),
+                    generated ? generatePassword() : password, generated));
+        }
+        if (columns == null) {
+            throw new IllegalArgumentException("Roster is empty");
+        }
+        return rows;
+    }
+
+    // Header names are matched ignoring case, spaces and underscores: "First Name" is firstname
+    private static Map<String, Integer> readHeader(List<String> fields) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            columns.putIfAbsent(fields.get(i).toLowerCase(Locale.ROOT).replaceAll("[\\s_-]", ""), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new IllegalArgumentException("Roster needs an email column");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? "" : fields.get(index);
+    }
+
+    // One line of RFC 4180 CSV; quoted fields may contain commas and doubled quotes, not newlines
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private List<Row> withoutExistingAccounts(List<Row> rows, List<RosterRejection> skipped) {
+        Set<String> existing = existingEmails(rows);
+        if (existing.isEmpty()) {
+            return rows;
+        }
+        List<Row> remaining = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (existing.contains(row.key())) {
+                skipped.add(new RosterRejection(row.line, row.email, "Email already exists"));
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    // Lower-cased, since MySQL's default collation matches emails regardless of case
+    private Set<String> existingEmails(List<Row> rows) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += EMAIL_QUERY_CHUNK) {
+            List<String> emails = rows.subList(from, Math.min(rows.size(), from + EMAIL_QUERY_CHUNK)).stream()
+                    .map(row -> row.email)
+                    .toList();
+            for (String email : userRepository.findEmailsIn(emails)) {
+                existing.add(email.toLowerCase(Locale.ROOT));
+            }
+        }
+        return existing;
+    }
+
+    private void hashPasswords(List<Row> rows) {
+        List<Callable<Void>> tasks = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            tasks.add(() -> {
+                row.hash = passwordEncoder.encode(row.password);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> hashed : hashPool.invokeAll(tasks)) {
+                hashed.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing roster passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hashing a roster password failed", e.getCause());
+        }
+    }
+
+    /**
+     * Insert a batch per transaction. Should someone register one of the emails after the
+     * existence check, the batch's insert fails on the unique email index; those rows are
+     * then looked up again, skipped, and the rest of the batch retried.
+     */
+    private List<RosterAccount> insert(List<Row> rows, List<RosterRejection> skipped) {
+        List<RosterAccount> created = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Row> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            while (!batch.isEmpty()) {
+                try {
+                    insertBatch(batch);
+                    break;
+                } catch (DuplicateKeyException e) {
+                    List<Row> remaining = withoutExistingAccounts(batch, skipped);
+                    if (remaining.size() == batch.size()) {
+                        throw e;
+                    }
+                    batch = remaining;
+                }
+            }
+            for (Row row : batch) {
+                created.add(new RosterAccount(row.line, row.userId, row.email, row.firstName, row.lastName,
+                        row.generated ? row.password : null));
+            }
+        }
+        return created;
+    }
+
+    private void insertBatch(List<Row> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            args.add(new Object[] {row.userId, row.firstName, row.lastName, row.email, row.hash, ROLE, now, now});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, args));
+    }
+
+    private String generatePassword() {
+        char[] password = new char[GENERATED_PASSWORD_LENGTH];
+        for (int i = 0; i < password.length; i++) {
+            password[i] = PASSWORD_CHARS[random.nextInt(PASSWORD_CHARS.length)];
+        }
+        return new String(password);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,42 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.SecondLevelCacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions configured in JpaConfig, read
+ * from Hibernate's statistics. Empty when the cache or statistics are turned off.
+ */
+@Service
+public class SecondLevelCacheStatistics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<SecondLevelCacheStats> getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<SecondLevelCacheStats> stats = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return stats;
+        }
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        for (String region : regions) {
+            CacheRegionStatistics counters = statistics.getCacheRegionStatistics(region);
+            if (counters != null) {
+                stats.add(new SecondLevelCacheStats(region, counters.getHitCount(), counters.getMissCount(),
+                        counters.getPutCount()));
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,109 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.SingleFlightStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads. The first caller for a key runs the query; callers
+ * arriving while it is in flight wait for the same future and get the same result, or the
+ * same exception. A caller that waits longer than the timeout stops waiting and runs the
+ * query itself, so a stuck query never holds up more than one request for good.
+ * <p>
+ * Only finished flights are forgotten; nothing is cached. Keys must change whenever the
+ * data may have (include a version), or a caller could receive a result its own earlier
+ * write is missing. Results are shared between requests and must not be modified.
+ * <p>
+ * Call this outside a transaction: a waiting caller should not hold a pooled connection.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @Value("${cardwise.single-flight.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private static class Counters {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong executions = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+    }
+
+    /**
+     * @param name groups keys for the metrics, e.g. "deck-flashcards"
+     * @param key  identifies the read within name, including the version it reads at
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, String key, Supplier<T> query) {
+        Counters stats = counters.computeIfAbsent(name, n -> new Counters());
+        stats.calls.incrementAndGet();
+        String flightKey = name + ":" + key;
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing == null) {
+            return (T) lead(flightKey, flight, query, stats);
+        }
+
+        try {
+            Object result = existing.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            stats.coalesced.incrementAndGet();
+            return (T) result;
+        } catch (TimeoutException e) {
+            stats.timeouts.incrementAndGet();
+            return query.get();
+        } catch (ExecutionException e) {
+            stats.coalesced.incrementAndGet();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + flightKey, e);
+        }
+    }
+
+    private Object lead(String flightKey, CompletableFuture<Object> flight, Supplier<?> query, Counters stats) {
+        stats.executions.incrementAndGet();
+        try {
+            Object result = query.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            stats.failures.incrementAndGet();
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    public List<SingleFlightStats> getStats() {
+        List<SingleFlightStats> stats = new ArrayList<>();
+        counters.forEach((name, c) -> {
+            int flying = (int) inFlight.keySet().stream().filter(key -> key.startsWith(name + ":")).count();
+            stats.add(new SingleFlightStats(name, c.calls.get(), c.executions.get(), c.coalesced.get(),
+                    c.timeouts.get(), c.failures.get(), flying));
+        });
+        return stats;
+    }
+}
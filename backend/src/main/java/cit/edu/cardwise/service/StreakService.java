@@ -0,0 +1,105 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.StudyStreak;
+import cit.edu.cardwise.entity.StudyStreakEntity;
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.repository.ProgressRepository;
+import cit.edu.cardwise.repository.StudyStreakRepository;
+import cit.edu.cardwise.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.TreeSet;
+
+/**
+ * Day streaks, updated as each progress row is written instead of being worked out from the
+ * user's history. A user's first activity after this was introduced seeds their streak from
+ * the last {@link StudyStreakEntity#WINDOW} days of progress, once.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StreakService {
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("UTC");
+
+    @Autowired
+    private StudyStreakRepository studyStreakRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private AchievementService achievementService;
+
+    @Value("${cardwise.streak.achievement-days:7}")
+    private int achievementDays;
+
+    /**
+     * Count the day of an activity towards the user's streak.
+     *
+     * @param at when the activity happened, in server time like every createdAt
+     */
+    @Transactional
+    public void recordActivity(String userId, LocalDateTime at) {
+        if (userId == null || at == null) {
+            return;
+        }
+        ZoneId zone = zoneOf(userId);
+        studyStreakRepository.insertIfAbsent(userId);
+        StudyStreakEntity streak = studyStreakRepository.findForUpdate(userId).orElseThrow();
+        if (streak.getUpdatedAt() == null) {
+            seed(streak, userId, zone);
+        }
+        boolean changed = streak.record(toDay(at, zone));
+        if (changed || streak.getUpdatedAt() == null) {
+            streak.setUpdatedAt(LocalDateTime.now());
+            studyStreakRepository.save(streak);
+        }
+        if (streak.getCurrentStreak() >= achievementDays) {
+            achievementService.unlockAchievement(userId, AchievementCatalog.WEEK_STREAK);
+        }
+    }
+
+    public StudyStreak getStreak(String userId) {
+        ZoneId zone = zoneOf(userId);
+        LocalDate today = LocalDate.now(zone);
+        return studyStreakRepository.findById(userId)
+                .map(streak -> new StudyStreak(userId, streak.currentStreakOn(today), streak.getLongestStreak(),
+                        streak.getLastActiveDay(), zone.getId()))
+                .orElseGet(() -> new StudyStreak(userId, 0, 0, null, zone.getId()));
+    }
+
+    private void seed(StudyStreakEntity streak, String userId, ZoneId zone) {
+        LocalDateTime from = LocalDateTime.now().minusDays(StudyStreakEntity.WINDOW);
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (LocalDateTime createdAt : progressRepository.findCreatedAtSince(userId, from)) {
+            days.add(toDay(createdAt, zone));
+        }
+        days.forEach(streak::record);
+    }
+
+    private ZoneId zoneOf(String userId) {
+        String timeZone = userRepository.findById(userId).map(UserEntity::getTimeZone).orElse(null);
+        if (timeZone != null) {
+            try {
+                return ZoneId.of(timeZone);
+            } catch (DateTimeException e) {
+                // Stored before zones were validated; fall through to UTC
+            }
+        }
+        return DEFAULT_ZONE;
+    }
+
+    private static LocalDate toDay(LocalDateTime at, ZoneId zone) {
+        return at.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDate();
+    }
+}
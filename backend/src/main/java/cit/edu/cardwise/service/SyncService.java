@@ -0,0 +1,359 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.SyncChange;
+import cit.edu.cardwise.dto.SyncPage;
+import cit.edu.cardwise.entity.ChangeLogEntity;
+import cit.edu.cardwise.entity.DeckEntity;
+import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.FlashcardRevisionEntity;
+import cit.edu.cardwise.entity.ProgressEntity;
+import cit.edu.cardwise.repository.ChangeLogRepository;
+import cit.edu.cardwise.repository.DeckRepository;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardRevisionRepository;
+import cit.edu.cardwise.repository.ProgressRepository;
+import cit.edu.cardwise.repository.SyncSequenceRepository;
+import cit.edu.cardwise.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Change tracking for offline-capable clients. Every write to a deck, flashcard or
+ * progress entry appends an entry with the next value of the owner's sequence, replacing
+ * any older entry for the same entity, and deletes leave a tombstone. A client that
+ * remembers the last sequence it saw only ever downloads what changed since.
+ * <p>
+ * Record calls must run inside the transaction of the write they describe, so a change is
+ * visible in the feed exactly when it is visible in the data. Data written before the
+ * feed existed is entered by {@link #backfill}, once per user.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SyncService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private SyncSequenceRepository syncSequenceRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private FlashcardRevisionRepository flashcardRevisionRepository;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${cardwise.sync.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    @Value("${cardwise.sync.backfill-batch-size:100}")
+    private int backfillBatchSize;
+
+    @Transactional
+    public void recordUpsert(String userId, String entityType, String entityId, String parentId) {
+        record(userId, entityType, entityId, ChangeLogEntity.OPERATION_UPSERT, parentId);
+    }
+
+    @Transactional
+    public void recordDelete(String userId, String entityType, String entityId, String parentId) {
+        record(userId, entityType, entityId, ChangeLogEntity.OPERATION_DELETE, parentId);
+    }
+
+    /**
+     * Enter every card a deck shows as an upsert in a user's feed, e.g. when they subscribe
+     * to, fork or take over the deck: its own cards and, for a subscription, the source
+     * cards it has not overridden, filed under the deck. Set-based, so the cost does not
+     * grow with one statement per card.
+     */
+    @Transactional
+    public void recordDeckCards(String userId, String deckId) {
+        if (userId == null) {
+            return;
+        }
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        long sequence = lockSequence(userId);
+        changeLogRepository.deleteCardEntries(userId, deckId);
+        sequence += changeLogRepository.logCards(userId, deckId, sequence, UUID.randomUUID().toString());
+        if (subscription.isPresent()) {
+            sequence = logSourceCards(userId, subscription.get(), ChangeLogEntity.OPERATION_UPSERT, sequence);
+        }
+        syncSequenceRepository.setLastSequence(userId, sequence);
+    }
+
+    /**
+     * Tombstone the source cards a subscription shows, before it stops showing them, e.g.
+     * because it is about to get its own copies.
+     */
+    @Transactional
+    public void recordSourceCardsRemoved(String userId, String deckId) {
+        Optional<DeckEntity> subscription = deckRepository.findSubscriptionById(deckId);
+        if (userId == null || subscription.isEmpty()) {
+            return;
+        }
+        long sequence = lockSequence(userId);
+        sequence = logSourceCards(userId, subscription.get(), ChangeLogEntity.OPERATION_DELETE, sequence);
+        syncSequenceRepository.setLastSequence(userId, sequence);
+    }
+
+    // Replace the entries of the source cards a subscription shows; returns the last sequence used
+    private long logSourceCards(String userId, DeckEntity subscription, String operation, long sequence) {
+        String deckId = subscription.getId();
+        String sourceDeckId = subscription.getSourceDeckId();
+        long sourceVersion = subscription.getSourceVersion();
+        changeLogRepository.deleteSourceCardEntries(userId, deckId, sourceDeckId, sourceVersion);
+        sequence += changeLogRepository.logSourceCards(userId, deckId, sourceDeckId, sourceVersion,
+                operation, sequence, UUID.randomUUID().toString());
+        sequence += changeLogRepository.logSourceRevisions(userId, deckId, sourceDeckId, sourceVersion,
+                operation, sequence, UUID.randomUUID().toString());
+        return sequence;
+    }
+
+    /**
+     * Enter a user's decks, cards and progress that have no feed entry yet, e.g. because
+     * they were written before the feed existed. Does nothing once it has run for the user.
+     */
+    @Transactional
+    public void backfill(String userId) {
+        if (syncSequenceRepository.findBackfilled(userId).orElse(false) || !userRepository.existsById(userId)) {
+            return;
+        }
+        // Writers wait on the sequence row meanwhile, so none can slip in between the queries
+        long sequence = lockSequence(userId);
+        sequence += changeLogRepository.logMissingDecks(userId, sequence, UUID.randomUUID().toString());
+        sequence += changeLogRepository.logMissingCards(userId, sequence, UUID.randomUUID().toString());
+        sequence += changeLogRepository.logMissingSourceCards(userId, sequence, UUID.randomUUID().toString());
+        sequence += changeLogRepository.logMissingSourceRevisions(userId, sequence, UUID.randomUUID().toString());
+        sequence += changeLogRepository.logMissingProgress(userId, sequence, UUID.randomUUID().toString());
+        syncSequenceRepository.setLastSequence(userId, sequence);
+        syncSequenceRepository.markBackfilled(userId);
+    }
+
+    /**
+     * Backfill the feeds of users who have none yet, a batch per run, until none are left.
+     * Users who sync first are backfilled on that request instead.
+     */
+    @Scheduled(fixedDelayString = "${cardwise.sync.backfill-interval-ms:60000}", initialDelay = 30000)
+    @Transactional
+    public void backfillFeeds() {
+        List<String> userIds = syncSequenceRepository.findUsersToBackfill(PageRequest.of(0, backfillBatchSize));
+        for (String userId : userIds) {
+            backfill(userId);
+        }
+        if (!userIds.isEmpty()) {
+            System.out.println("Backfilled the change feeds of " + userIds.size() + " users");
+        }
+    }
+
+    /**
+     * Drop the feed entries of entities that disappear together with a parent whose own
+     * tombstone already tells clients to discard them, e.g. the flashcards of a deleted deck.
+     * Entries filed under another parent, such as a subscription that showed the cards,
+     * are kept.
+     */
+    @Transactional
+    public void forget(String entityType, String parentId, List<String> entityIds) {
+        if (!entityIds.isEmpty()) {
+            changeLogRepository.deleteByEntityIds(entityType, parentId, entityIds);
+        }
+    }
+
+    /**
+     * Remove a deleted user's feed together with their sequence.
+     */
+    @Transactional
+    public void forgetUser(String userId) {
+        changeLogRepository.deleteByUserId(userId);
+        syncSequenceRepository.deleteById(userId);
+    }
+
+    private void record(String userId, String entityType, String entityId, String operation, String parentId) {
+        if (userId == null || entityId == null) {
+            return;
+        }
+        long sequence = nextSequence(userId);
+        changeLogRepository.deleteEntry(userId, entityType, entityId);
+        changeLogRepository.save(new ChangeLogEntity(UUID.randomUUID().toString(), userId, sequence,
+                entityType, entityId, operation, parentId));
+    }
+
+    private long nextSequence(String userId) {
+        syncSequenceRepository.increment(userId);
+        return syncSequenceRepository.findLastSequence(userId).orElseThrow();
+    }
+
+    // Lock the user's sequence, creating it if needed, and return its last value
+    private long lockSequence(String userId) {
+        syncSequenceRepository.insertIfAbsent(userId);
+        syncSequenceRepository.findForUpdate(userId).orElseThrow();
+        return syncSequenceRepository.findLastSequence(userId).orElseThrow();
+    }
+
+    /**
+     * Return the user's changes with a sequence greater than since, oldest first. Until
+     * the user's feed is backfilled this is an empty page with hasMore set.
+     * @param since The nextSince of the previous page, or 0 for a full sync.
+     * @param limit The maximum number of changes, capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public SyncPage getChanges(String userId, long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long prunedThrough = syncSequenceRepository.findPrunedThrough(userId).orElse(0L);
+        if (since > 0 && since < prunedThrough) {
+            return new SyncPage(List.of(), 0, false, true);
+        }
+        // A replica may not have the backfill yet; an empty page with more to come has the
+        // client ask again rather than take a partial feed for the whole
+        boolean backfilled = syncSequenceRepository.findBackfilled(userId)
+                .orElseGet(() -> !userRepository.existsById(userId));
+        if (!backfilled) {
+            return new SyncPage(List.of(), since, true, false);
+        }
+
+        List<ChangeLogEntity> entries = changeLogRepository.findByUserIdAndSequenceGreaterThanOrderBySequence(
+                userId, since, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+
+        Map<String, Object> decks = load(entries, ChangeLogEntity.TYPE_DECK,
+                ids -> index(deckRepository.findAllById(ids), DeckEntity::getId));
+        Map<String, Object> flashcards = load(entries, ChangeLogEntity.TYPE_FLASHCARD,
+                ids -> index(flashcardRepository.findAllById(ids), FlashcardEntity::getId));
+        Map<String, Map<String, FlashcardEntity>> sourceCards = loadSourceCards(entries, flashcards);
+        Map<String, Object> progress = load(entries, ChangeLogEntity.TYPE_PROGRESS,
+                ids -> index(progressRepository.findAllById(ids), ProgressEntity::getProgressId));
+
+        List<SyncChange> changes = new ArrayList<>(entries.size());
+        for (ChangeLogEntity entry : entries) {
+            Object data = null;
+            String operation = entry.getOperation();
+            if (ChangeLogEntity.OPERATION_UPSERT.equals(operation)) {
+                data = switch (entry.getEntityType()) {
+                    case ChangeLogEntity.TYPE_DECK -> decks.get(entry.getEntityId());
+                    case ChangeLogEntity.TYPE_FLASHCARD -> sourceCards.containsKey(entry.getParentId())
+                            ? sourceCards.get(entry.getParentId()).get(entry.getEntityId())
+                            : flashcards.get(entry.getEntityId());
+                    default -> progress.get(entry.getEntityId());
+                };
+                // Removed along with its parent before the entry was cleaned up
+                if (data == null) {
+                    operation = ChangeLogEntity.OPERATION_DELETE;
+                }
+            }
+            changes.add(new SyncChange(entry.getSequence(), entry.getEntityType(), entry.getEntityId(),
+                    operation, entry.getParentId(), data));
+        }
+
+        long nextSince = entries.isEmpty() ? since : entries.get(entries.size() - 1).getSequence();
+        return new SyncPage(changes, nextSince, hasMore, false);
+    }
+
+    /**
+     * For the subscriptions among the parents of the page's card entries: each source card
+     * as the subscription shows it, i.e. as of its sourceVersion. A card changed since
+     * then comes from its revision; one the subscription does not show is left out.
+     */
+    private Map<String, Map<String, FlashcardEntity>> loadSourceCards(List<ChangeLogEntity> entries,
+                                                                     Map<String, Object> flashcards) {
+        Set<String> parentIds = entries.stream()
+                .filter(entry -> ChangeLogEntity.TYPE_FLASHCARD.equals(entry.getEntityType()))
+                .filter(entry -> ChangeLogEntity.OPERATION_UPSERT.equals(entry.getOperation()))
+                .map(ChangeLogEntity::getParentId)
+                .filter(parentId -> parentId != null)
+                .collect(Collectors.toSet());
+        Map<String, Map<String, FlashcardEntity>> byParent = new HashMap<>();
+        for (DeckEntity subscription : parentIds.isEmpty() ? List.<DeckEntity>of() : deckRepository.findAllById(parentIds)) {
+            if (subscription.getSourceDeckId() == null) {
+                continue;
+            }
+            Map<String, FlashcardEntity> shown = new HashMap<>();
+            Set<String> changed = new HashSet<>();
+            for (ChangeLogEntity entry : entries) {
+                if (!subscription.getId().equals(entry.getParentId())
+                        || !ChangeLogEntity.TYPE_FLASHCARD.equals(entry.getEntityType())) {
+                    continue;
+                }
+                FlashcardEntity card = (FlashcardEntity) flashcards.get(entry.getEntityId());
+                if (card != null && (subscription.getId().equals(card.getDeckId())
+                        || subscription.getSourceDeckId().equals(card.getDeckId())
+                        && card.getDeckVersion() <= subscription.getSourceVersion())) {
+                    shown.put(card.getId(), card);
+                } else {
+                    changed.add(entry.getEntityId());
+                }
+            }
+            if (!changed.isEmpty()) {
+                for (FlashcardRevisionEntity revision : flashcardRevisionRepository.findAt(
+                        subscription.getSourceDeckId(), subscription.getSourceVersion(), changed)) {
+                    shown.put(revision.getFlashcardId(), revision.toFlashcard());
+                }
+            }
+            byParent.put(subscription.getId(), shown);
+        }
+        return byParent;
+    }
+
+    private static Map<String, Object> load(List<ChangeLogEntity> entries, String entityType,
+                                            Function<Set<String>, Map<String, Object>> loader) {
+        Set<String> ids = entries.stream()
+                .filter(entry -> entityType.equals(entry.getEntityType()))
+                .filter(entry -> ChangeLogEntity.OPERATION_UPSERT.equals(entry.getOperation()))
+                .map(ChangeLogEntity::getEntityId)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? Map.of() : loader.apply(ids);
+    }
+
+    private static <T> Map<String, Object> index(List<T> entities, Function<T, String> id) {
+        Map<String, Object> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(id.apply(entity), entity);
+        }
+        return byId;
+    }
+
+    /**
+     * Discard tombstones older than the retention period. Clients that have not synced
+     * since then are told to resync from scratch instead of missing a delete.
+     */
+    @Scheduled(cron = "${cardwise.sync.tombstone-prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        for (Object[] row : changeLogRepository.findPrunableTombstones(cutoff)) {
+            String userId = (String) row[0];
+            long sequence = ((Number) row[1]).longValue();
+            syncSequenceRepository.advancePrunedThrough(userId, sequence);
+            changeLogRepository.deleteTombstones(userId, sequence);
+        }
+    }
+}
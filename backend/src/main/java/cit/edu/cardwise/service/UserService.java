@@ -1,38 +1,82 @@
 package cit.edu.cardwise.service;
 
+import cit.edu.cardwise.entity.DeletionTaskEntity;
 import cit.edu.cardwise.entity.UserEntity;
 import cit.edu.cardwise.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
+@Transactional(readOnly = true)
 public class UserService {
 
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "firstName", String.class,
+            "lastName", String.class,
+            "profilePictureUrl", String.class,
+            "timeZone", String.class);
+
+    private static final String DEFAULT_ROLE = "STUDENT";
+    private static final Set<String> ROLES = Set.of("STUDENT", "EDUCATOR");
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CascadeDeletionService cascadeDeletionService;
+
+    @Autowired
+    private MergePatchService mergePatchService;
+
+    // BCrypt is slow by design, so the methods that hash or verify passwords run outside any
+    // transaction and hold a connection only for short read-write transactions around their
+    // lookups and saves. Read-write, so they run on the primary: a replica that lags could
+    // miss a user just signed up, or return a row whose @Version is already stale
+    private final TransactionTemplate primaryTransaction;
+
+    public UserService(PlatformTransactionManager transactionManager) {
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserEntity createUser(UserEntity user) {
-        Optional<UserEntity> existingUser = userRepository.findByEmail(user.getEmail());
-        if (existingUser.isPresent()) {
+        if (primaryTransaction.execute(status -> userRepository.findByEmail(user.getEmail())).isPresent()) {
             throw new IllegalArgumentException("Email already exists");
         }
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // Roles grant privileges such as roster imports, so only an admin assigns them
+        user.setRole(DEFAULT_ROLE);
         if (user.getUserId() == null || user.getUserId().isEmpty()) {
             user.setUserId(UUID.randomUUID().toString());
         }
+        user.setVersion(0);
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        try {
+            return primaryTransaction.execute(status -> userRepository.save(user));
+        } catch (DataIntegrityViolationException e) {
+            // Another signup with the same email got in while this one was hashing
+            throw new IllegalArgumentException("Email already exists");
+        }
     }
 
     public List<UserEntity> getAllUsers() {
@@ -43,18 +87,64 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    @Transactional
     public UserEntity updateUser(String id, UserEntity updatedUser) {
-        updatedUser.setUpdatedAt(LocalDateTime.now());
+        return updateUser(id, updatedUser, null, false);
+    }
+
+    /**
+     * Replace a user's profile. The password hash and creation time are always kept from
+     * the stored row; passwords only change through {@link #changePassword}. So is the
+     * role, unless roleChangeAllowed (an admin is making the change) and a role is given.
+     */
+    @Transactional
+    public UserEntity updateUser(String id, UserEntity updatedUser, Long expectedVersion, boolean roleChangeAllowed) {
+        validateTimeZone(updatedUser.getTimeZone());
+        if (roleChangeAllowed && updatedUser.getRole() != null && !ROLES.contains(updatedUser.getRole())) {
+            throw new IllegalArgumentException("Unknown role: " + updatedUser.getRole());
+        }
+        Optional<UserEntity> existing = userRepository.findById(id);
         updatedUser.setUserId(id);
+        updatedUser.setVersion(expectedVersion != null
+                ? expectedVersion
+                : existing.map(UserEntity::getVersion).orElse(0L));
+        existing.ifPresent(user -> {
+            updatedUser.setPassword(user.getPassword());
+            updatedUser.setCreatedAt(user.getCreatedAt());
+            if (!roleChangeAllowed || updatedUser.getRole() == null) {
+                updatedUser.setRole(user.getRole());
+            }
+        });
+        updatedUser.setUpdatedAt(LocalDateTime.now());
         return userRepository.save(updatedUser);
     }
 
+    /**
+     * Apply a JSON Merge Patch to the profile fields with one UPDATE of just the changed
+     * columns. Email, role and password cannot be patched.
+     * @return false if the user does not exist
+     */
+    @Transactional
+    public boolean patchUser(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatchService.convert(patch, PATCHABLE);
+        validateTimeZone((String) values.get("timeZone"));
+        values.put("updatedAt", LocalDateTime.now());
+        return mergePatchService.apply(UserEntity.class, "userId", id, values, expectedVersion, userRepository);
+    }
+
+    /**
+     * Remove the user immediately; their decks, progress, quiz attempts and achievements
+     * are purged in the background by {@link CascadeDeletionService}.
+     */
+    @Transactional
     public void deleteUser(String id) {
         userRepository.deleteById(id);
+        cascadeDeletionService.enqueue(DeletionTaskEntity.TYPE_USER, id);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<UserEntity> loginUser(String email, String password) {
-        Optional<UserEntity> userOpt = userRepository.findByEmail(email);
+        Optional<UserEntity> userOpt = primaryTransaction.execute(status -> userRepository.findByEmail(email));
         if (userOpt.isEmpty()) {
             return Optional.empty();
         }
@@ -67,6 +157,7 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    @Transactional
     public UserEntity createOrGetOAuthUser(String email, String fullName) {
         Optional<UserEntity> existing = userRepository.findByEmail(email);
         if (existing.isPresent()) return existing.get();
@@ -87,37 +178,62 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean changePassword(String userId, String currentPassword, String newPassword) {
-        Optional<UserEntity> userOpt = getUserById(userId);
+        Optional<UserEntity> userOpt = primaryTransaction.execute(status -> userRepository.findById(userId));
         if (userOpt.isEmpty()) {
             throw new IllegalArgumentException("User not found");
         }
 
-        UserEntity user = userOpt.get();
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        String verifiedHash = userOpt.get().getPassword();
+        if (!passwordEncoder.matches(currentPassword, verifiedHash)) {
             return false;
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
-        return true;
+        String newHash = passwordEncoder.encode(newPassword);
+        return primaryTransaction.execute(status -> {
+            // Reloaded so the save carries the current @Version; a password changed in the
+            // meantime no longer matches what was verified
+            UserEntity user = userRepository.findById(userId).orElse(null);
+            if (user == null || !verifiedHash.equals(user.getPassword())) {
+                return false;
+            }
+            user.setPassword(newHash);
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+            return true;
+        });
     }
 
     public long getUserCount() {
         return userRepository.count();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean resetPasswordByEmail(String email, String newPassword) {
-        Optional<UserEntity> userOpt = userRepository.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            return false;
-        }
+        String newHash = passwordEncoder.encode(newPassword);
+        return primaryTransaction.execute(status -> {
+            Optional<UserEntity> userOpt = userRepository.findByEmail(email);
+            if (userOpt.isEmpty()) {
+                return false;
+            }
+
+            UserEntity user = userOpt.get();
+            user.setPassword(newHash);
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+            return true;
+        });
+    }
 
-        UserEntity user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
-        return true;
+    private static void validateTimeZone(String timeZone) {
+        if (timeZone == null) {
+            return;
+        }
+        try {
+            ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + timeZone);
+        }
     }
 }
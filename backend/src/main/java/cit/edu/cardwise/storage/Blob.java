@@ -0,0 +1,29 @@
+package cit.edu.cardwise.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Readable content of a stored blob.
+ */
+public interface Blob {
+
+    long size();
+
+    /**
+     * Copy part of the blob to a channel, like {@link java.nio.channels.FileChannel#transferTo}.
+     *
+     * @return the number of bytes written, possibly fewer than count
+     */
+    long transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * The local file holding the blob, for backends that have one; lets the servlet
+     * container send it with sendfile.
+     */
+    default Optional<Path> file() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,42 @@
+package cit.edu.cardwise.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for binaries kept out of the database. A blob's key is the
+ * SHA-256 of its bytes, so storing the same content twice keeps one copy and a key always
+ * names the same bytes. Select a backend with {@code cardwise.blobs.store}.
+ */
+public interface BlobStore {
+
+    /**
+     * Store content read from the stream, without holding it all in memory.
+     *
+     * @param maxBytes content longer than this is rejected with IllegalArgumentException
+     */
+    StoredBlob put(InputStream content, long maxBytes) throws IOException;
+
+    Optional<Blob> find(String key) throws IOException;
+
+    /**
+     * Delete a blob unless it was stored (again) at or after the given time, which means
+     * a new reference to it may be on its way.
+     *
+     * @return whether it was deleted
+     */
+    boolean deleteIfStoredBefore(String key, Instant before) throws IOException;
+
+    /**
+     * Keys of blobs last stored before the given time, read lazily; close the stream when
+     * done. Storing content that already exists counts as storing it again.
+     */
+    Stream<String> keysStoredBefore(Instant before) throws IOException;
+
+    static boolean isValidKey(String key) {
+        return key != null && key.matches("[0-9a-f]{64}");
+    }
+}
@@ -0,0 +1,50 @@
+package cit.edu.cardwise.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * A blob that is a local file, read with {@link FileChannel#transferTo}. That only avoids
+ * copying through the heap when the target is itself a file or socket channel; one wrapping
+ * a servlet output stream is fed through a buffer like any other stream. Responses skip
+ * the copy by handing the file to Tomcat's sendfile instead (see BlobResponses).
+ */
+public class FileBlob implements Blob {
+    private final Path path;
+    private final long size;
+
+    public FileBlob(Path path, long size) {
+        this.path = path;
+        this.size = size;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = position + count;
+            long at = position;
+            while (at < end) {
+                long sent = channel.transferTo(at, end - at, target);
+                if (sent <= 0) {
+                    break;
+                }
+                at += sent;
+            }
+            return at - position;
+        }
+    }
+
+    @Override
+    public Optional<Path> file() {
+        return Optional.of(path);
+    }
+}
@@ -0,0 +1,147 @@
+package cit.edu.cardwise.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Blobs as files under {@code cardwise.blobs.dir}, at {@code <first two hex chars>/<key>}.
+ * Content is hashed while it streams to a temp file, then moved into place atomically, so
+ * readers never see a partial blob.
+ */
+@Component
+@ConditionalOnProperty(name = "cardwise.blobs.store", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${cardwise.blobs.dir:data/blobs}") String dir) throws IOException {
+        this.root = Files.createDirectories(Paths.get(dir).toAbsolutePath());
+    }
+
+    @Override
+    public StoredBlob put(InputStream content, long maxBytes) throws IOException {
+        Path temp = Files.createTempFile(root, "upload", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(new LimitedInputStream(content, maxBytes), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(key);
+            if (Files.exists(target)) {
+                // Keeps an existing blob clear of the orphan sweep while its new reference is saved
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(key, size);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Blob> find(String key) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path path = pathOf(key);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileBlob(path, Files.size(path)));
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String key, Instant before) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return false;
+        }
+        Path path = pathOf(key);
+        try {
+            if (Files.getLastModifiedTime(path).compareTo(FileTime.from(before)) >= 0) {
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        return Files.deleteIfExists(path);
+    }
+
+    @Override
+    public Stream<String> keysStoredBefore(Instant before) throws IOException {
+        FileTime cutoff = FileTime.from(before);
+        return Files.walk(root, 2)
+                .filter(path -> BlobStore.isValidKey(path.getFileName().toString()))
+                .filter(path -> {
+                    try {
+                        return Files.getLastModifiedTime(path).compareTo(cutoff) < 0;
+                    } catch (IOException e) {
+                        return false; // Deleted while walking
+                    }
+                })
+                .map(path -> path.getFileName().toString());
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    // Fails the copy as soon as the content passes maxBytes, before it fills the disk
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new IllegalArgumentException("Content is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+}
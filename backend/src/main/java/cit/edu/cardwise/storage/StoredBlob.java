@@ -0,0 +1,6 @@
+package cit.edu.cardwise.storage;
+
+/**
+ * The result of storing a blob: its key (the SHA-256 of its content, in hex) and size.
+ */
+public record StoredBlob(String key, long size) {}
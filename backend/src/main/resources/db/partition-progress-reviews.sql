@@ -0,0 +1,59 @@
+-- Converts progress and reviews to RANGE COLUMNS partitions, one per month of created_at
+-- from the oldest row to three months ahead, plus an empty overflow partition pmax.
+-- MySQL 8 only. Each ALTER rebuilds its table, so run this once, by hand, in a
+-- maintenance window, then set cardwise.partitioning.enabled=true. From then on the
+-- application adds the months ahead and drops expired ones (see PartitionManager).
+--
+--   mysql -u root -p cardwise < partition-progress-reviews.sql
+
+SET SESSION group_concat_max_len = 1048576;
+
+-- progress
+
+-- Rows from before created_at was always set are kept for a full retention period
+UPDATE progress SET created_at = CURRENT_TIMESTAMP(6) WHERE created_at IS NULL;
+ALTER TABLE progress MODIFY created_at DATETIME(6) NOT NULL;
+-- MySQL requires the partitioning column in every unique key
+ALTER TABLE progress DROP PRIMARY KEY, ADD PRIMARY KEY (progress_id, created_at);
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT CAST(DATE_FORMAT(COALESCE(MIN(created_at), CURRENT_DATE), '%Y-%m-01') AS DATE) FROM progress
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH FROM months
+    WHERE month_start < CAST(DATE_FORMAT(CURRENT_DATE + INTERVAL 3 MONTH, '%Y-%m-01') AS DATE)
+)
+SELECT CONCAT('ALTER TABLE progress PARTITION BY RANGE COLUMNS(created_at) (',
+              GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                                  ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ''')')
+                           ORDER BY month_start SEPARATOR ', '),
+              ', PARTITION pmax VALUES LESS THAN (MAXVALUE))')
+INTO @partition_progress
+FROM months;
+
+PREPARE partition_progress FROM @partition_progress;
+EXECUTE partition_progress;
+DEALLOCATE PREPARE partition_progress;
+
+-- reviews
+
+UPDATE reviews SET created_at = CURRENT_TIMESTAMP(6) WHERE created_at IS NULL;
+ALTER TABLE reviews MODIFY created_at DATETIME(6) NOT NULL;
+ALTER TABLE reviews DROP PRIMARY KEY, ADD PRIMARY KEY (review_id, created_at);
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT CAST(DATE_FORMAT(COALESCE(MIN(created_at), CURRENT_DATE), '%Y-%m-01') AS DATE) FROM reviews
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH FROM months
+    WHERE month_start < CAST(DATE_FORMAT(CURRENT_DATE + INTERVAL 3 MONTH, '%Y-%m-01') AS DATE)
+)
+SELECT CONCAT('ALTER TABLE reviews PARTITION BY RANGE COLUMNS(created_at) (',
+              GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                                  ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ''')')
+                           ORDER BY month_start SEPARATOR ', '),
+              ', PARTITION pmax VALUES LESS THAN (MAXVALUE))')
+INTO @partition_reviews
+FROM months;
+
+PREPARE partition_reviews FROM @partition_reviews;
+EXECUTE partition_reviews;
+DEALLOCATE PREPARE partition_reviews;
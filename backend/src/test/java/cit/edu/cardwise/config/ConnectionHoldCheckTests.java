@@ -0,0 +1,84 @@
+package cit.edu.cardwise.config;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConnectionHoldCheckTests {
+
+    private static final DataSource DATA_SOURCE = mock(DataSource.class);
+
+    @RestController
+    static class SlowController {
+
+        // Keeps a connection bound to the request thread across a slow call, as a
+        // transactional controller or open-in-view would
+        @GetMapping("/held")
+        Map<String, String> held() throws InterruptedException {
+            TransactionSynchronizationManager.bindResource(DATA_SOURCE, new ConnectionHolder(mock(Connection.class)));
+            Thread.sleep(50);
+            return Map.of("status", "done");
+        }
+
+        @GetMapping("/released")
+        Map<String, String> released() throws InterruptedException {
+            Thread.sleep(50);
+            return Map.of("status", "done");
+        }
+    }
+
+    @AfterEach
+    void unbind() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(DATA_SOURCE);
+    }
+
+    @Test
+    void failModeRejectsResponseSerializedWhileHoldingConnection() {
+        MockMvc mockMvc = mockMvc("fail");
+
+        ServletException failure = assertThrows(ServletException.class, () -> mockMvc.perform(get("/held")));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertTrue(failure.getCause().getMessage().contains("GET /held"));
+    }
+
+    @Test
+    void failModeAllowsResponseAfterConnectionIsReleased() throws Exception {
+        mockMvc("fail").perform(get("/released")).andExpect(status().isOk());
+    }
+
+    @Test
+    void logModeOnlyReports() throws Exception {
+        mockMvc("log").perform(get("/held")).andExpect(status().isOk());
+    }
+
+    @Test
+    void offModeSkipsCheck() throws Exception {
+        mockMvc("off").perform(get("/held")).andExpect(status().isOk());
+        assertEquals(1, TransactionSynchronizationManager.getResourceMap().size());
+    }
+
+    private static MockMvc mockMvc(String mode) {
+        ConnectionHoldCheck check = new ConnectionHoldCheck();
+        ReflectionTestUtils.setField(check, "mode", mode);
+        return MockMvcBuilders.standaloneSetup(new SlowController()).setControllerAdvice(check).build();
+    }
+}
@@ -0,0 +1,100 @@
+package cit.edu.cardwise.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudyStreakEntityTests {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Test
+    void secondActivityOnTheSameDayChangesNothing() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        assertTrue(streak.record(DAY));
+        assertFalse(streak.record(DAY));
+        assertEquals(1, streak.getCurrentStreak());
+        assertEquals(1, streak.getLongestStreak());
+        assertEquals(1L, streak.getRecentDays());
+    }
+
+    @Test
+    void nextDayExtendsTheStreak() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        streak.record(DAY);
+        streak.record(DAY.plusDays(1));
+        assertTrue(streak.record(DAY.plusDays(2)));
+
+        assertEquals(3, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+        assertEquals(DAY.plusDays(2), streak.getLastActiveDay());
+        // Still alive the day after, broken once a whole day is missed
+        assertEquals(3, streak.currentStreakOn(DAY.plusDays(3)));
+        assertEquals(0, streak.currentStreakOn(DAY.plusDays(4)));
+    }
+
+    @Test
+    void gapStartsANewStreakAndKeepsTheLongest() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        streak.record(DAY);
+        streak.record(DAY.plusDays(1));
+        streak.record(DAY.plusDays(3));
+
+        assertEquals(1, streak.getCurrentStreak());
+        assertEquals(2, streak.getLongestStreak());
+    }
+
+    @Test
+    void lateActivityFillingTheGapJoinsBothRuns() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        streak.record(DAY);
+        streak.record(DAY.plusDays(2));
+        assertTrue(streak.record(DAY.plusDays(1)));
+
+        assertEquals(3, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+        assertEquals(DAY.plusDays(2), streak.getLastActiveDay());
+    }
+
+    @Test
+    void daysBeyondTheWindowAreDropped() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        streak.record(DAY);
+        streak.record(DAY.plusDays(StudyStreakEntity.WINDOW));
+
+        assertEquals(1L, streak.getRecentDays());
+        assertFalse(streak.record(DAY));
+        assertEquals(1, streak.getCurrentStreak());
+    }
+
+    @Test
+    void timeZoneChangesNeitherDoubleCountNorBreakTheStreak() {
+        StudyStreakEntity streak = new StudyStreakEntity("u");
+
+        // 23:00 on the 10th in UTC
+        assertTrue(streak.record(dayOf("2026-03-10T23:00:00Z", "UTC")));
+        // Two hours later, after moving to Tokyo: already the 11th there
+        assertTrue(streak.record(dayOf("2026-03-11T01:00:00Z", "Asia/Tokyo")));
+        assertEquals(2, streak.getCurrentStreak());
+
+        // Then to Los Angeles, where it is the 10th again: a day already counted
+        assertFalse(streak.record(dayOf("2026-03-11T03:00:00Z", "America/Los_Angeles")));
+        assertEquals(2, streak.getCurrentStreak());
+        assertEquals(LocalDate.of(2026, 3, 11), streak.getLastActiveDay());
+    }
+
+    private static LocalDate dayOf(String instant, String zone) {
+        return Instant.parse(instant).atZone(ZoneId.of(zone)).toLocalDate();
+    }
+}
@@ -0,0 +1,176 @@
+package cit.edu.cardwise.room;
+
+import cit.edu.cardwise.dto.QuizQuestion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuizRoomTests {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    // Runs everything on the calling thread, so each call has done its sending when it returns
+    private static final Executor DIRECT = Runnable::run;
+    // Long enough that no timer fires during a test
+    private static final QuizRoom.Settings SETTINGS =
+            new QuizRoom.Settings(HOUR, HOUR, HOUR, HOUR, HOUR, 100, 10, 5000, 65536);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TimerWheel timers = new TimerWheel("test-timer", 50, 8);
+    private final List<QuizRoom.PlayerResult> results = new ArrayList<>();
+
+    private final QuizRoom room = new QuizRoom("ROOM01", "quiz", "host", List.of(
+            new QuizQuestion("c1", "2 + 2", List.of("3", "4", "5"), 1),
+            new QuizQuestion("c2", "3 + 3", List.of("6", "7", "8"), 0)),
+            HOUR, SETTINGS, DIRECT, DIRECT, timers, objectMapper, new QuizRoom.Listener() {
+                @Override
+                public void finished(QuizRoom room, List<QuizRoom.PlayerResult> playerResults, int durationSeconds) {
+                    results.addAll(playerResults);
+                }
+
+                @Override
+                public void closed(QuizRoom room) {
+                }
+            });
+
+    @AfterEach
+    void stopTimers() {
+        timers.close();
+    }
+
+    @Test
+    void fastRightAnswersScoreMoreAndEqualScoresShareARank() throws IOException {
+        List<JsonNode> host = join("host");
+        List<JsonNode> fast = join("fast");
+        List<JsonNode> slow = join("slow");
+        List<JsonNode> late = join("late");
+        List<JsonNode> wrong = join("wrong");
+
+        long beforeStart = System.nanoTime();
+        room.command("host", "start");
+        long afterDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2 * HOUR);
+        // Answered before the clock started: the full time bonus
+        room.answer("fast", 0, 1, beforeStart);
+        // Right but out of time: only the points for being right
+        room.answer("slow", 0, 1, afterDeadline);
+        room.answer("late", 0, 1, afterDeadline);
+        room.answer("wrong", 0, 2, beforeStart);
+
+        assertEquals(QuizRoom.Phase.REVEAL, room.getPhase());
+        assertResult(last(fast, "result"), true, 1000, 1000, 1);
+        assertResult(last(slow, "result"), true, 500, 500, 2);
+        assertResult(last(late, "result"), true, 500, 500, 2);
+        assertResult(last(wrong, "result"), false, 0, 0, 4);
+
+        JsonNode reveal = last(host, "reveal");
+        assertEquals(1, reveal.get("correctOption").asInt());
+        assertEquals(4, reveal.get("answered").asInt());
+        assertEquals("[0,3,1]", reveal.get("distribution").toString());
+        assertEquals("fast", reveal.get("leaderboard").get(0).get("name").asText());
+
+        room.command("host", "next");
+        room.answer("fast", 1, 2, beforeStart);
+        room.answer("slow", 1, 0, beforeStart);
+        room.answer("late", 1, 0, afterDeadline);
+        room.answer("wrong", 1, 0, afterDeadline);
+
+        assertResult(last(slow, "result"), true, 1000, 1500, 1);
+        assertResult(last(fast, "result"), false, 0, 1000, 2);
+        assertResult(last(late, "result"), true, 500, 1000, 2);
+        assertResult(last(wrong, "result"), true, 500, 500, 4);
+
+        room.command("host", "next");
+        assertEquals(QuizRoom.Phase.FINISHED, room.getPhase());
+        assertEquals(2, last(fast, "final").get("rank").asInt());
+        assertEquals(List.of(
+                new QuizRoom.PlayerResult("slow", 1500, 2, "11", 1),
+                new QuizRoom.PlayerResult("fast", 1000, 1, "10", 2),
+                new QuizRoom.PlayerResult("late", 1000, 2, "11", 2),
+                new QuizRoom.PlayerResult("wrong", 500, 1, "01", 4)), results);
+    }
+
+    @Test
+    void onlyTheFirstAnswerToTheCurrentQuestionCounts() throws IOException {
+        join("host");
+        List<JsonNode> player = join("player");
+        join("other");
+
+        long now = System.nanoTime();
+        room.command("host", "start");
+        // A stale question, an option out of range, then a right answer changed to a wrong one
+        room.answer("player", 1, 0, now);
+        room.answer("player", 0, 7, now);
+        room.answer("player", 0, 1, now);
+        room.answer("player", 0, 2, now);
+        assertEquals(QuizRoom.Phase.QUESTION, room.getPhase());
+        assertEquals(1, count(player, "answered"));
+
+        room.command("host", "next");
+        assertResult(last(player, "result"), true, 1000, 1000, 1);
+    }
+
+    @Test
+    void playerJoiningMidQuestionIsToldTheyJoinedBeforeTheQuestion() throws IOException {
+        join("host");
+        join("first");
+        room.command("host", "start");
+
+        List<JsonNode> frames = join("second");
+
+        assertEquals(List.of("joined", "question"), frames.stream().map(frame -> frame.get("type").asText()).toList());
+    }
+
+    private List<JsonNode> join(String userId) throws IOException {
+        List<JsonNode> frames = new ArrayList<>();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(QuizRoomSocketHandler.USER_ID, userId);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(userId + "-session");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) instanceof TextMessage message) {
+                frames.add(objectMapper.readTree(message.getPayload()));
+            }
+            return null;
+        }).when(session).sendMessage(any());
+        room.join(userId, userId, session);
+        return frames;
+    }
+
+    private static JsonNode last(List<JsonNode> frames, String type) {
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            if (frames.get(i).get("type").asText().equals(type)) {
+                return frames.get(i);
+            }
+        }
+        throw new AssertionError("No " + type + " frame in " + frames);
+    }
+
+    private static long count(List<JsonNode> frames, String type) {
+        return frames.stream().filter(frame -> frame.get("type").asText().equals(type)).count();
+    }
+
+    private static void assertResult(JsonNode result, boolean correct, int points, int score, int rank) {
+        assertEquals(correct, result.get("correct").asBoolean());
+        assertEquals(points, result.get("points").asInt());
+        assertEquals(score, result.get("score").asInt());
+        assertEquals(rank, result.get("rank").asInt());
+    }
+}
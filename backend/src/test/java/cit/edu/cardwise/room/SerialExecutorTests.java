@@ -0,0 +1,123 @@
+package cit.edu.cardwise.room;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerialExecutorTests {
+
+    @Test
+    void onlyTheFirstSubmissionSchedulesADrain() {
+        Queue<Runnable> pool = new ArrayDeque<>();
+        SerialExecutor executor = new SerialExecutor(pool::add);
+        List<Integer> ran = new ArrayList<>();
+
+        executor.execute(() -> ran.add(1));
+        executor.execute(() -> ran.add(2));
+        assertEquals(1, pool.size());
+        assertFalse(executor.isIdle());
+
+        pool.poll().run();
+        assertEquals(List.of(1, 2), ran);
+        assertTrue(executor.isIdle());
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test
+    void busyExecutorGivesItsThreadBackAfterABatch() {
+        Queue<Runnable> pool = new ArrayDeque<>();
+        SerialExecutor executor = new SerialExecutor(pool::add);
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int task = i;
+            executor.execute(() -> ran.add(task));
+        }
+
+        pool.poll().run();
+        assertEquals(256, ran.size());
+        // The rest waits behind whatever else the pool has queued
+        assertEquals(1, pool.size());
+
+        pool.poll().run();
+        assertEquals(300, ran.size());
+        for (int i = 0; i < ran.size(); i++) {
+            assertEquals(i, ran.get(i));
+        }
+        assertTrue(executor.isIdle());
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheOthers() {
+        Queue<Runnable> pool = new ArrayDeque<>();
+        SerialExecutor executor = new SerialExecutor(pool::add);
+        List<Integer> ran = new ArrayList<>();
+
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute(() -> ran.add(1));
+        pool.poll().run();
+
+        assertEquals(List.of(1), ran);
+        assertTrue(executor.isIdle());
+    }
+
+    @Test
+    void tasksFromManyThreadsRunOneAtATimeInEachSubmittersOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            SerialExecutor executor = new SerialExecutor(pool);
+            int submitters = 4;
+            int tasks = 5000;
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger overlaps = new AtomicInteger();
+            List<List<Integer>> seen = new ArrayList<>();
+            for (int i = 0; i < submitters; i++) {
+                seen.add(Collections.synchronizedList(new ArrayList<>()));
+            }
+            CountDownLatch done = new CountDownLatch(submitters * tasks);
+
+            for (int s = 0; s < submitters; s++) {
+                List<Integer> order = seen.get(s);
+                new Thread(() -> {
+                    for (int i = 0; i < tasks; i++) {
+                        int task = i;
+                        executor.execute(() -> {
+                            if (running.incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            order.add(task);
+                            running.decrementAndGet();
+                            done.countDown();
+                        });
+                    }
+                }).start();
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(0, overlaps.get());
+            for (List<Integer> order : seen) {
+                assertEquals(tasks, order.size());
+                for (int i = 0; i < tasks; i++) {
+                    assertEquals(i, order.get(i));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cit.edu.cardwise.room;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTests {
+
+    private static final long TICK_MILLIS = 10;
+
+    @Test
+    void bucketCountMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel("test-timer", TICK_MILLIS, 6));
+    }
+
+    @Test
+    void timerRunsNoSoonerThanItsDelay() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-timer", TICK_MILLIS, 8)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            long scheduled = System.nanoTime();
+            long[] firedAt = new long[1];
+
+            wheel.schedule(() -> {
+                firedAt[0] = System.nanoTime();
+                fired.countDown();
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(firedAt[0] - scheduled >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    void delayLongerThanTheWheelWaitsOutItsRounds() throws InterruptedException {
+        // Four buckets turn in 40 ms, so 130 ms lands three rounds on
+        try (TimerWheel wheel = new TimerWheel("test-timer", TICK_MILLIS, 4)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            long scheduled = System.nanoTime();
+            long[] firedAt = new long[1];
+
+            wheel.schedule(() -> {
+                firedAt[0] = System.nanoTime();
+                fired.countDown();
+            }, 130, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(firedAt[0] - scheduled >= TimeUnit.MILLISECONDS.toNanos(130));
+        }
+    }
+
+    @Test
+    void timersRunInDeadlineOrder() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-timer", TICK_MILLIS, 4)) {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch fired = new CountDownLatch(3);
+
+            wheel.schedule(() -> { order.add(3); fired.countDown(); }, 150, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.add(1); fired.countDown(); }, 20, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.add(2); fired.countDown(); }, 70, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of(1, 2, 3), order);
+        }
+    }
+
+    @Test
+    void cancelledTimerNeverRuns() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-timer", TICK_MILLIS, 4)) {
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch later = new CountDownLatch(1);
+
+            // One cancelled before the wheel picks it up, one already in its bucket
+            wheel.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS).cancel();
+            TimerWheel.Timeout queued = wheel.schedule(runs::incrementAndGet, 60, TimeUnit.MILLISECONDS);
+            Thread.sleep(3 * TICK_MILLIS);
+            queued.cancel();
+            wheel.schedule(later::countDown, 120, TimeUnit.MILLISECONDS);
+
+            assertTrue(later.await(2, TimeUnit.SECONDS));
+            assertEquals(0, runs.get());
+        }
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-timer", TICK_MILLIS, 4)) {
+            CountDownLatch fired = new CountDownLatch(1);
+
+            wheel.schedule(() -> {
+                throw new IllegalStateException("boom");
+            }, 10, TimeUnit.MILLISECONDS);
+            wheel.schedule(fired::countDown, 40, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+        }
+    }
+}
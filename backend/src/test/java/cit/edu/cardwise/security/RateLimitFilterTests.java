@@ -0,0 +1,64 @@
+package cit.edu.cardwise.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Requests come from 127.0.0.1, which stands in for the load balancer: like it, it is an
+ * internal proxy, and each request carries the X-Forwarded-For it would send on, with the
+ * client's address appended to whatever the client sent.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "cardwise.rate-limit.auth.per-second=0.001",
+        "cardwise.rate-limit.auth.burst=3"})
+class RateLimitFilterTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void spoofedForwardedForDoesNotGetAFreshBucket() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(429, login("198.51.100." + i + ", 203.0.113.7"));
+        }
+        // A new made-up address each time, but the same client behind it
+        assertEquals(429, login("198.51.100.99, 203.0.113.7"));
+        assertEquals(429, login("203.0.113.7"));
+    }
+
+    @Test
+    void eachClientBehindTheProxyHasItsOwnBucket() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(429, login("203.0.113.20"));
+        }
+        assertEquals(429, login("203.0.113.20"));
+        assertNotEquals(429, login("203.0.113.21"));
+    }
+
+    private int login(String forwardedFor) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/user/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"nobody@example.com\",\"password\":\"x\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
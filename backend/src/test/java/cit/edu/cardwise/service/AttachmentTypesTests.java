@@ -0,0 +1,56 @@
+package cit.edu.cardwise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttachmentTypesTests {
+
+    @Test
+    void scriptableTypesAreNotAllowed() {
+        assertEquals(Optional.empty(), AttachmentTypes.normalize("image/svg+xml"));
+        assertEquals(Optional.empty(), AttachmentTypes.normalize("text/html"));
+        assertEquals(Optional.empty(), AttachmentTypes.normalize(null));
+        assertFalse(AttachmentTypes.isAllowed("image/svg+xml"));
+    }
+
+    @Test
+    void headerParametersCaseAndAliasesAreNormalized() {
+        assertEquals(Optional.of("image/png"), AttachmentTypes.normalize("Image/PNG; charset=binary"));
+        assertEquals(Optional.of("image/jpeg"), AttachmentTypes.normalize("image/jpg"));
+        assertEquals(Optional.of("audio/wav"), AttachmentTypes.normalize("audio/x-wav"));
+    }
+
+    @Test
+    void contentMustStartLikeItsType() {
+        byte[] png = head(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+        byte[] svg = Arrays.copyOf("<svg xmlns=\"".getBytes(StandardCharsets.US_ASCII), AttachmentTypes.HEAD_LENGTH);
+
+        assertTrue(AttachmentTypes.matches("image/png", png));
+        assertFalse(AttachmentTypes.matches("image/png", svg));
+        assertFalse(AttachmentTypes.matches("image/jpeg", png));
+        assertTrue(AttachmentTypes.matches("image/webp", head('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')));
+        assertFalse(AttachmentTypes.matches("audio/wav", head('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')));
+        assertTrue(AttachmentTypes.matches("audio/mpeg", head('I', 'D', '3')));
+    }
+
+    @Test
+    void emptyContentMatchesNothing() {
+        assertFalse(AttachmentTypes.matches("audio/mpeg", new byte[AttachmentTypes.HEAD_LENGTH]));
+        assertFalse(AttachmentTypes.matches("image/png", new byte[AttachmentTypes.HEAD_LENGTH]));
+    }
+
+    private static byte[] head(int... bytes) {
+        byte[] head = new byte[AttachmentTypes.HEAD_LENGTH];
+        for (int i = 0; i < bytes.length; i++) {
+            head[i] = (byte) bytes[i];
+        }
+        return head;
+    }
+}
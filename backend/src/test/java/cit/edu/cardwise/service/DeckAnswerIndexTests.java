@@ -0,0 +1,109 @@
+package cit.edu.cardwise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckAnswerIndexTests {
+
+    private static DeckAnswerIndex deck() {
+        return DeckAnswerIndex.build(3, 0, List.of(
+                new Object[]{"c1", "Mitochondria"},
+                new Object[]{"c2", "Ribosome"},
+                new Object[]{"c3", "Golgi apparatus"}));
+    }
+
+    @Test
+    void builtIndexHoldsEveryCard() {
+        DeckAnswerIndex index = deck();
+
+        assertEquals(3, index.getVersion());
+        assertEquals(Set.of("c1", "c2", "c3"), new HashSet<>(index.cardIds()));
+        assertEquals(Set.of("Ribosome", "Golgi apparatus"), answersOtherThan(index, "c1"));
+    }
+
+    @Test
+    void addedCardIsIndexed() {
+        DeckAnswerIndex index = deck();
+
+        assertTrue(index.apply(4, "c4", "Nucleus", false));
+
+        assertEquals(4, index.getVersion());
+        assertEquals(Set.of("c1", "c2", "c3", "c4"), new HashSet<>(index.cardIds()));
+        assertEquals(Set.of("Mitochondria", "Ribosome", "Golgi apparatus"), answersOtherThan(index, "c4"));
+    }
+
+    @Test
+    void updatedAnswerReplacesTheOldOne() {
+        DeckAnswerIndex index = deck();
+
+        assertTrue(index.apply(4, "c2", "Endoplasmic reticulum", false));
+
+        assertEquals(3, index.cardIds().size());
+        assertEquals(Set.of("Endoplasmic reticulum", "Golgi apparatus"), answersOtherThan(index, "c1"));
+        // The old answer's tokens no longer lead to the card
+        assertEquals(List.of("Golgi apparatus"), index.distractors("new", "Golgi body", 1, 1, new Random(1)));
+    }
+
+    @Test
+    void deletedCardLeavesTheIndex() {
+        DeckAnswerIndex index = deck();
+
+        assertTrue(index.apply(4, "c1", null, true));
+
+        assertEquals(Set.of("c2", "c3"), new HashSet<>(index.cardIds()));
+        assertEquals(Set.of("Golgi apparatus"), answersOtherThan(index, "c2"));
+        // Removing the card swapped in the last id; the others must still be reachable
+        assertTrue(index.apply(5, "c3", null, true));
+        assertEquals(List.of("c2"), index.cardIds());
+    }
+
+    @Test
+    void blankAnswerIsNotIndexed() {
+        DeckAnswerIndex index = deck();
+
+        assertTrue(index.apply(4, "c2", "  ", false));
+
+        assertEquals(Set.of("c1", "c3"), new HashSet<>(index.cardIds()));
+    }
+
+    @Test
+    void staleChangesAreIgnoredAndGapsNeedARebuild() {
+        DeckAnswerIndex index = deck();
+
+        // Already covered by the version the index was built at
+        assertTrue(index.apply(3, "c9", "Lysosome", false));
+        assertFalse(index.cardIds().contains("c9"));
+
+        // Version 4 was missed
+        assertFalse(index.apply(5, "c9", "Lysosome", false));
+        assertEquals(3, index.getVersion());
+    }
+
+    @Test
+    void answersSharingWordsArePickedFirst() {
+        DeckAnswerIndex index = DeckAnswerIndex.build(1, 0, List.of(
+                new Object[]{"c1", "World War One"},
+                new Object[]{"c2", "World War Two"},
+                new Object[]{"c3", "Photosynthesis"},
+                new Object[]{"c4", "Cold War"},
+                new Object[]{"c5", "Osmosis"}));
+
+        for (int seed = 0; seed < 20; seed++) {
+            List<String> picked = index.distractors("c1", "World War One", 3, 2, new Random(seed));
+            assertEquals(3, picked.size());
+            assertEquals(Set.of("World War Two", "Cold War"), new HashSet<>(picked.subList(0, 2)));
+        }
+    }
+
+    private static Set<String> answersOtherThan(DeckAnswerIndex index, String flashcardId) {
+        return new HashSet<>(index.distractors(flashcardId, "", 10, 0, new Random(7)));
+    }
+}
@@ -0,0 +1,144 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.DuplicateGroup;
+import cit.edu.cardwise.entity.FlashcardEntity;
+import cit.edu.cardwise.entity.FlashcardSignatureEntity;
+import cit.edu.cardwise.repository.FlashcardRepository;
+import cit.edu.cardwise.repository.FlashcardSignatureRepository;
+import cit.edu.cardwise.repository.LshBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DuplicateDetectionServiceTests {
+
+    private static final String USER = "user-1";
+
+    private final LshBucketRepository lshBucketRepository = mock(LshBucketRepository.class);
+    private final FlashcardSignatureRepository signatureRepository = mock(FlashcardSignatureRepository.class);
+    private final FlashcardRepository flashcardRepository = mock(FlashcardRepository.class);
+    private final DuplicateDetectionService service = new DuplicateDetectionService();
+
+    // a ~ b and b ~ c in different buckets; d only shares a bucket with the unrelated e
+    private final int[] a = signature(0);
+    private final int[] b = changed(a, 0, 1);
+    private final int[] c = changed(b, 2, 3);
+    private final int[] d = signature(1000);
+    private final int[] e = signature(2000);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "lshBucketRepository", lshBucketRepository);
+        ReflectionTestUtils.setField(service, "signatureRepository", signatureRepository);
+        ReflectionTestUtils.setField(service, "flashcardRepository", flashcardRepository);
+        ReflectionTestUtils.setField(service, "similarityThreshold", 0.8);
+
+        Map<String, int[]> signatures = Map.of("a", a, "b", b, "c", c, "d", d, "e", e);
+        when(signatureRepository.findAllById(anyCollection())).thenAnswer(call -> {
+            List<FlashcardSignatureEntity> found = new ArrayList<>();
+            for (String id : call.<Collection<String>>getArgument(0)) {
+                found.add(new FlashcardSignatureEntity(id, USER, "deck",
+                        signatures.containsKey(id) ? MinHashSignature.encode(signatures.get(id)) : null));
+            }
+            return found;
+        });
+        when(flashcardRepository.findAllById(anyCollection())).thenAnswer(call ->
+                call.<Collection<String>>getArgument(0).stream()
+                        .map(id -> new FlashcardEntity(id, "q " + id, "a " + id, false, "deck"))
+                        .toList());
+    }
+
+    @Test
+    void reportJoinsTransitiveMatchesIntoOneGroup() {
+        when(lshBucketRepository.findSharedBuckets(USER)).thenReturn(List.of(
+                new Object[]{"0:ab", "a"}, new Object[]{"0:ab", "b"},
+                new Object[]{"1:bc", "b"}, new Object[]{"1:bc", "c"},
+                new Object[]{"2:de", "d"}, new Object[]{"2:de", "e"}));
+
+        List<DuplicateGroup> report = service.getDuplicateReport(USER);
+
+        assertEquals(1, report.size());
+        assertEquals(Set.of("a", "b", "c"), ids(report.get(0)));
+        assertEquals(30.0 / 32, report.get(0).getSimilarity());
+    }
+
+    @Test
+    void reportListsLargestGroupsFirst() {
+        int[] f = signature(3000);
+        int[] g = changed(f, 5, 6);
+        when(signatureRepository.findAllById(anyCollection())).thenAnswer(call -> {
+            Map<String, int[]> signatures = Map.of("a", a, "b", b, "c", c, "f", f, "g", g);
+            return call.<Collection<String>>getArgument(0).stream()
+                    .map(id -> new FlashcardSignatureEntity(id, USER, "deck", MinHashSignature.encode(signatures.get(id))))
+                    .toList();
+        });
+        when(lshBucketRepository.findSharedBuckets(USER)).thenReturn(List.of(
+                new Object[]{"0:fg", "f"}, new Object[]{"0:fg", "g"},
+                new Object[]{"1:abc", "a"}, new Object[]{"1:abc", "b"}, new Object[]{"1:abc", "c"}));
+
+        List<DuplicateGroup> report = service.getDuplicateReport(USER);
+
+        assertEquals(List.of(Set.of("a", "b", "c"), Set.of("f", "g")),
+                report.stream().map(DuplicateDetectionServiceTests::ids).toList());
+    }
+
+    @Test
+    void reportSkipsCardsWithoutSignature() {
+        when(lshBucketRepository.findSharedBuckets(USER)).thenReturn(List.of(
+                new Object[]{"0:x", "a"}, new Object[]{"0:x", "unsigned"}));
+
+        assertTrue(service.getDuplicateReport(USER).isEmpty());
+    }
+
+    @Test
+    void findDuplicatePicksMostSimilarCandidateAboveThreshold() {
+        when(lshBucketRepository.findFlashcardIds(eq(USER), anyCollection(), any()))
+                .thenReturn(List.of("c", "b", "e", "unsigned"));
+
+        Optional<DuplicateDetectionService.Match> match = service.findDuplicate(USER, a);
+
+        assertEquals(Optional.of(new DuplicateDetectionService.Match("b", 30.0 / 32)), match);
+    }
+
+    @Test
+    void findDuplicateIgnoresCandidatesBelowThreshold() {
+        when(lshBucketRepository.findFlashcardIds(eq(USER), anyCollection(), any())).thenReturn(List.of("e"));
+
+        assertEquals(Optional.empty(), service.findDuplicate(USER, d));
+    }
+
+    private static int[] signature(int offset) {
+        int[] signature = new int[MinHashSignature.HASHES];
+        Arrays.setAll(signature, i -> offset + i);
+        return signature;
+    }
+
+    private static int[] changed(int[] signature, int... positions) {
+        int[] copy = signature.clone();
+        for (int position : positions) {
+            copy[position] += 100_000;
+        }
+        return copy;
+    }
+
+    private static Set<String> ids(DuplicateGroup group) {
+        return group.getFlashcards().stream().map(FlashcardEntity::getId).collect(Collectors.toSet());
+    }
+}
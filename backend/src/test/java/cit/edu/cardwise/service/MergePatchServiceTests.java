@@ -0,0 +1,137 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.repository.PartialUpdateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MergePatchServiceTests {
+
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "firstName", String.class,
+            "lastName", String.class,
+            "timeZone", String.class,
+            "level", int.class);
+
+    private final MergePatchService mergePatchService = new MergePatchService();
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final Query query = mock(Query.class);
+    @SuppressWarnings("unchecked")
+    private final CrudRepository<UserEntity, String> repository = mock(CrudRepository.class);
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    @BeforeEach
+    void wire() {
+        PartialUpdateRepository partialUpdateRepository = new PartialUpdateRepository();
+        ReflectionTestUtils.setField(partialUpdateRepository, "entityManager", entityManager);
+        ReflectionTestUtils.setField(mergePatchService, "partialUpdateRepository", partialUpdateRepository);
+        ReflectionTestUtils.setField(mergePatchService, "objectMapper", new ObjectMapper());
+        when(entityManager.createQuery(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return query;
+        });
+        when(query.setParameter(anyString(), any())).thenAnswer(invocation -> {
+            parameters.put(invocation.getArgument(0), invocation.getArgument(1));
+            return query;
+        });
+    }
+
+    @Test
+    void nullMemberClearsTheColumnAndAbsentMembersAreLeftAlone() {
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("firstName", "Ada");
+        patch.put("lastName", null);
+        when(query.executeUpdate()).thenReturn(1);
+
+        Map<String, Object> values = mergePatchService.convert(patch, PATCHABLE);
+        assertTrue(mergePatchService.apply(UserEntity.class, "userId", "u1", values, null, repository));
+
+        assertEquals(List.of("update UserEntity e set e.version = e.version + 1, e.firstName = :v_firstName, "
+                + "e.lastName = :v_lastName where e.userId = :id"), statements);
+        assertEquals("Ada", parameters.get("v_firstName"));
+        assertTrue(parameters.containsKey("v_lastName"));
+        assertNull(parameters.get("v_lastName"));
+        assertFalse(parameters.containsKey("v_timeZone"));
+    }
+
+    @Test
+    void membersOutsideThePatchableColumnsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatchService.convert(Map.of("role", "EDUCATOR"), PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatchService.convert(Map.of("password", "secret"), PATCHABLE));
+    }
+
+    @Test
+    void valuesMustBeScalarsOfTheColumnsType() {
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatchService.convert(Map.of("firstName", Map.of("nested", "x")), PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatchService.convert(Map.of("firstName", List.of("a")), PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatchService.convert(Map.of("level", "high"), PATCHABLE));
+        Map<String, Object> nullLevel = new HashMap<>();
+        nullLevel.put("level", null);
+        assertThrows(IllegalArgumentException.class, () -> mergePatchService.convert(nullLevel, PATCHABLE));
+
+        assertEquals(Map.of("level", 3), mergePatchService.convert(Map.of("level", "3"), PATCHABLE));
+    }
+
+    @Test
+    void expectedVersionIsPartOfTheUpdate() {
+        when(query.executeUpdate()).thenReturn(1);
+
+        assertTrue(mergePatchService.apply(UserEntity.class, "userId", "u1",
+                mergePatchService.convert(Map.of("timeZone", "Asia/Manila"), PATCHABLE), 4L, repository));
+
+        assertTrue(statements.get(0).endsWith(" where e.userId = :id and e.version = :expectedVersion"));
+        assertEquals(4L, parameters.get("expectedVersion"));
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    void versionMismatchOnAnExistingRowIsAConflict() {
+        when(query.executeUpdate()).thenReturn(0);
+        when(repository.existsById("u1")).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> mergePatchService.apply(UserEntity.class,
+                "userId", "u1", mergePatchService.convert(Map.of("firstName", "Ada"), PATCHABLE), 3L, repository));
+    }
+
+    @Test
+    void missingRowIsNotFoundWithOrWithoutAVersion() {
+        when(query.executeUpdate()).thenReturn(0);
+        when(repository.existsById("gone")).thenReturn(false);
+        Map<String, Object> values = mergePatchService.convert(Map.of("firstName", "Ada"), PATCHABLE);
+
+        assertFalse(mergePatchService.apply(UserEntity.class, "userId", "gone", values, 3L, repository));
+        assertFalse(mergePatchService.apply(UserEntity.class, "userId", "gone", values, null, repository));
+        // Without a version there is nothing to conflict with, so no lookup either
+        verify(repository).existsById("gone");
+    }
+}
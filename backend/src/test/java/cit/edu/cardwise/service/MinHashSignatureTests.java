@@ -0,0 +1,90 @@
+package cit.edu.cardwise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashSignatureTests {
+
+    @Test
+    void signatureIsStableAcrossReleases() {
+        // Signatures are stored; a change to the shingles, seeds or hash would make old
+        // and new ones incomparable until every card is signed again
+        assertEquals("037211bc02f90c040009ce9e00c5291400fe46f8032a27a0016b928c012910ad"
+                        + "00639de903bb0b0d02ac8fd50005ebfa00ac3c850069aa2e0427e42008876206"
+                        + "0600b85004c21f0e016f54ed0409f58b03799c890160c76603e10f0400a0f3b7"
+                        + "05ea08e6008b7ace0183782800fd6f3d07d30660038e11dd015864870063e394",
+                MinHashSignature.encode(MinHashSignature.compute("What is the capital of France?", "Paris")));
+    }
+
+    @Test
+    void signatureIgnoresCaseAndPunctuation() {
+        assertArrayEquals(MinHashSignature.compute("What is the capital of France?", "Paris"),
+                MinHashSignature.compute("what is the CAPITAL of france", "paris!"));
+    }
+
+    @Test
+    void cardWithoutTextHasNoSignature() {
+        assertNull(MinHashSignature.compute(null, null));
+        assertNull(MinHashSignature.compute("  ", "?!"));
+    }
+
+    @Test
+    void similarityTracksTextOverlap() {
+        int[] card = MinHashSignature.compute("What is the powerhouse of the cell?", "The mitochondria");
+        int[] edited = MinHashSignature.compute("What is the powerhouse of a cell?", "The mitochondria");
+        int[] unrelated = MinHashSignature.compute("Who wrote Noli Me Tangere?", "Jose Rizal");
+
+        assertEquals(1.0, MinHashSignature.similarity(card, card));
+        assertTrue(MinHashSignature.similarity(card, edited) >= 0.6);
+        assertTrue(MinHashSignature.similarity(card, unrelated) < 0.3);
+    }
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        int[] signature = MinHashSignature.compute("Define osmosis", "Diffusion of water through a membrane");
+        String encoded = MinHashSignature.encode(signature);
+
+        assertEquals(MinHashSignature.HASHES * 8, encoded.length());
+        assertArrayEquals(signature, MinHashSignature.decode(encoded));
+
+        int[] extremes = new int[MinHashSignature.HASHES];
+        extremes[1] = Integer.MAX_VALUE;
+        extremes[2] = 1;
+        assertArrayEquals(extremes, MinHashSignature.decode(MinHashSignature.encode(extremes)));
+    }
+
+    @Test
+    void oneChangedValueChangesOnlyItsBand() {
+        int[] signature = MinHashSignature.compute("Define osmosis", "Diffusion of water through a membrane");
+        int[] changed = signature.clone();
+        changed[MinHashSignature.ROWS_PER_BAND * 3 + 1]++;
+
+        List<String> keys = MinHashSignature.bandKeys(signature);
+        List<String> changedKeys = MinHashSignature.bandKeys(changed);
+        assertEquals(MinHashSignature.BANDS, keys.size());
+        assertEquals(keys, MinHashSignature.bandKeys(signature.clone()));
+        for (int band = 0; band < MinHashSignature.BANDS; band++) {
+            if (band == 3) {
+                assertNotEquals(keys.get(band), changedKeys.get(band));
+            } else {
+                assertEquals(keys.get(band), changedKeys.get(band));
+            }
+        }
+    }
+
+    @Test
+    void equalRowsInDifferentBandsGetDifferentKeys() {
+        int[] signature = new int[MinHashSignature.HASHES];
+        Arrays.fill(signature, 7);
+
+        assertEquals(MinHashSignature.BANDS, MinHashSignature.bandKeys(signature).stream().distinct().count());
+    }
+}
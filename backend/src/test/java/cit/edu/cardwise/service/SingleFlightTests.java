@@ -0,0 +1,184 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.dto.SingleFlightStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService threads = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void stopThreads() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        timeout(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(threads.submit(() -> singleFlight.execute("test", "k", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return new Object();
+            })));
+        }
+        awaitCalls(CALLERS);
+        release.countDown();
+
+        Object first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        SingleFlightStats stats = stats();
+        assertEquals(1, stats.getExecutions());
+        assertEquals(CALLERS - 1, stats.getCoalesced());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        timeout(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("query failed");
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(threads.submit(() -> {
+                try {
+                    singleFlight.execute("test", "k", () -> {
+                        await(release);
+                        throw failure;
+                    });
+                    return null;
+                } catch (IllegalStateException e) {
+                    return e;
+                }
+            }));
+        }
+        awaitCalls(CALLERS);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertSame(failure, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stats().getFailures());
+        assertEquals(0, stats().getInFlight());
+    }
+
+    @Test
+    void callerWaitingPastTheTimeoutRunsTheQueryItself() throws Exception {
+        timeout(100);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        Future<String> leader = threads.submit(() -> singleFlight.execute("test", "k", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "leader";
+        }));
+        awaitCalls(1);
+        String follower = singleFlight.execute("test", "k", () -> {
+            executions.incrementAndGet();
+            return "follower";
+        });
+
+        assertEquals("follower", follower);
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+        assertEquals(1, stats().getTimeouts());
+    }
+
+    @Test
+    void finishedFlightIsForgottenAndTheNextCallRunsAgain() {
+        timeout(10_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, (int) singleFlight.execute("test", "k", executions::incrementAndGet));
+        assertEquals(2, (int) singleFlight.execute("test", "k", executions::incrementAndGet));
+        // Other keys never share a flight
+        assertEquals(3, (int) singleFlight.execute("test", "other", executions::incrementAndGet));
+    }
+
+    @Test
+    void flightsEndingWhileOthersJoinLeaveNothingBehind() throws Exception {
+        timeout(10_000);
+        int rounds = 2000;
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        AtomicInteger wrong = new AtomicInteger();
+
+        // Short flights on one key, so leaders keep removing theirs just as the next callers
+        // arrive; a caller may join a finishing flight or start a new one, never lose one
+        for (int t = 0; t < CALLERS; t++) {
+            threads.execute(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    if (!"v".equals(singleFlight.execute("test", "k", () -> "v"))) {
+                        wrong.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(0, wrong.get());
+        SingleFlightStats stats = stats();
+        assertEquals(CALLERS * rounds, stats.getCalls());
+        assertEquals(stats.getCalls(), stats.getExecutions() + stats.getCoalesced() + stats.getTimeouts());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    private void timeout(long millis) {
+        ReflectionTestUtils.setField(singleFlight, "timeoutMillis", millis);
+    }
+
+    private SingleFlightStats stats() {
+        return singleFlight.getStats().stream().filter(s -> s.getName().equals("test")).findFirst().orElseThrow();
+    }
+
+    // Every caller has reached execute() and is leading or waiting
+    private void awaitCalls(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getStats().isEmpty() || stats().getCalls() < calls) {
+            if (System.nanoTime() > deadline) {
+                fail("Callers did not arrive");
+            }
+            Thread.sleep(5);
+        }
+        // Followers count the call just before they start waiting
+        Thread.sleep(50);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.config.ReplicaLagMonitor;
+import cit.edu.cardwise.config.ReplicaStandInSync;
+import cit.edu.cardwise.entity.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the replica-local profile with the replica's sync paused, so the replica
+ * keeps serving read-only transactions but never sees users created by the tests.
+ */
+// A real server: the quiz room sockets need a servlet container with WebSocket support
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cardwise.datasource.replica.stand-in-sync-interval-ms=3600000",
+        "cardwise.datasource.replica.lag-check-interval-ms=3600000",
+        "cardwise.datasource.replica.max-lag-ms=3600000"})
+@ActiveProfiles("replica-local")
+class UserServiceReplicaTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaStandInSync replicaStandInSync;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void syncReplicaOnceThenPause() {
+        replicaStandInSync.sync();
+        replicaLagMonitor.checkLag();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void newUserCanLogInBeforeTheReplicaHasThem() {
+        String email = newEmail();
+        userService.createUser(user(email, "first-password"));
+
+        // Read-only lookups still go to the stale replica
+        assertTrue(userService.findByEmail(email).isEmpty());
+        assertTrue(userService.loginUser(email, "first-password").isPresent());
+    }
+
+    @Test
+    void secondSignupWithTheSameEmailIsRejected() {
+        String email = newEmail();
+        userService.createUser(user(email, "first-password"));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.createUser(user(email, "other-password")));
+    }
+
+    @Test
+    void passwordChangesSeeTheCurrentRow() {
+        String email = newEmail();
+        String userId = userService.createUser(user(email, "first-password")).getUserId();
+
+        // Each save bumps @Version on the primary only; stale replica copies would fail the next one
+        assertTrue(userService.changePassword(userId, "first-password", "second-password"));
+        assertTrue(userService.changePassword(userId, "second-password", "third-password"));
+        assertTrue(userService.resetPasswordByEmail(email, "fourth-password"));
+
+        assertTrue(userService.loginUser(email, "fourth-password").isPresent());
+        assertTrue(userService.loginUser(email, "third-password").isEmpty());
+    }
+
+    private static String newEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+
+    private static UserEntity user(String email, String password) {
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setPassword(password);
+        user.setFirstName("Test");
+        user.setLastName("User");
+        return user;
+    }
+}
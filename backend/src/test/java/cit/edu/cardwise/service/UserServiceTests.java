@@ -0,0 +1,76 @@
+package cit.edu.cardwise.service;
+
+import cit.edu.cardwise.entity.UserEntity;
+import cit.edu.cardwise.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserService userService = new UserService(mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", NoOpPasswordEncoder.getInstance());
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void signupIgnoresTheRequestedRole() {
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        UserEntity created = userService.createUser(user("EDUCATOR"));
+
+        assertEquals("STUDENT", created.getRole());
+    }
+
+    @Test
+    void usersCannotChangeTheirOwnRole() {
+        when(userRepository.findById("u1")).thenReturn(Optional.of(stored("STUDENT")));
+
+        UserEntity saved = userService.updateUser("u1", user("EDUCATOR"), null, false);
+
+        assertEquals("STUDENT", saved.getRole());
+        assertEquals("stored-hash", saved.getPassword());
+    }
+
+    @Test
+    void adminsCanChangeARole() {
+        when(userRepository.findById("u1")).thenReturn(Optional.of(stored("STUDENT")));
+
+        assertEquals("EDUCATOR", userService.updateUser("u1", user("EDUCATOR"), null, true).getRole());
+        // An admin form that leaves the role out keeps the stored one
+        assertEquals("STUDENT", userService.updateUser("u1", user(null), null, true).getRole());
+        assertThrows(IllegalArgumentException.class, () -> userService.updateUser("u1", user("ADMIN"), null, true));
+    }
+
+    private static UserEntity user(String role) {
+        UserEntity user = new UserEntity();
+        user.setEmail("new@example.com");
+        user.setPassword("password");
+        user.setRole(role);
+        return user;
+    }
+
+    private static UserEntity stored(String role) {
+        UserEntity user = user(role);
+        user.setUserId("u1");
+        user.setPassword("stored-hash");
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
@@ -3,7 +3,7 @@ package cit.edu.cardwise;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "cardwise.jdbc.connection-hold-check=fail")
 class CardWiseApplicationTests {
 
 	@Test
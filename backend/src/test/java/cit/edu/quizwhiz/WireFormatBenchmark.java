@@ -0,0 +1,94 @@
+package cit.edu.cardwise;
+
+import cit.edu.cardwise.dto.ColumnarList;
+import cit.edu.cardwise.entity.FlashcardEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares encode time and response size of a deck's flashcard list in each wire format,
+ * row by row and columnar. Not a test; run it with
+ * {@code mvn test-compile exec:java -Dexec.mainClass=cit.edu.cardwise.WireFormatBenchmark -Dexec.classpathScope=test}
+ * or from an IDE. Optional arguments: card count (default 500), iterations (default 2000).
+ */
+public class WireFormatBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int cards = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        List<FlashcardEntity> deck = sampleDeck(cards);
+
+        // Same mapper setup as WireFormatConfig
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build()).build();
+
+        System.out.printf("%d cards, %d iterations%n", cards, iterations);
+        System.out.printf("%-16s %12s %12s %14s%n", "format", "bytes", "gzip bytes", "encode us/op");
+        for (boolean columnar : new boolean[] {false, true}) {
+            Object body = columnar ? new ColumnarList<>(deck, FlashcardEntity.class) : deck;
+            String suffix = columnar ? " columnar" : "";
+            run("json" + suffix, json, body, iterations);
+            run("cbor" + suffix, cbor, body, iterations);
+            run("smile" + suffix, smile, body, iterations);
+        }
+    }
+
+    private static void run(String name, ObjectMapper mapper, Object body, int iterations) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        for (int i = 0; i < iterations; i++) { // Warm-up
+            out.reset();
+            mapper.writeValue(out, body);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            out.reset();
+            mapper.writeValue(out, body);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+
+        byte[] encoded = out.toByteArray();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%-16s %12d %12d %14.1f%n", name, encoded.length, compressed.size(), micros);
+    }
+
+    private static List<FlashcardEntity> sampleDeck(int cards) {
+        Random random = new Random(42);
+        String[] words = {"cell", "membrane", "protein", "energy", "nucleus", "enzyme", "reaction", "molecule",
+                "structure", "function", "process", "transport", "signal", "gene", "expression", "pathway"};
+        String deckId = UUID.randomUUID().toString();
+        List<FlashcardEntity> deck = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            FlashcardEntity card = new FlashcardEntity(UUID.randomUUID().toString(),
+                    "What is the role of the " + sentence(words, random, 6) + "?",
+                    sentence(words, random, 12), random.nextInt(4) == 0, deckId);
+            card.setUpdatedAt(LocalDateTime.now().minusMinutes(random.nextInt(100_000)));
+            deck.add(card);
+        }
+        return deck;
+    }
+
+    private static String sentence(String[] words, Random random, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sentence.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+        }
+        return sentence.toString();
+    }
+}